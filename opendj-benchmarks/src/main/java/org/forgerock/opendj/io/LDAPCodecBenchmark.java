@@ -0,0 +1,123 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.io;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.DecodeOptions;
+import org.forgerock.opendj.ldap.LinkedHashMapEntry;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.requests.Requests;
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Responses;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures ASN.1 encoding and decoding of LDAP search requests and search result entries. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LDAPCodecBenchmark {
+    /** Keeps a reference to the decoded message so that decoding cannot be optimized away. */
+    private static final class CapturingHandler extends AbstractLDAPMessageHandler {
+        private Object message;
+
+        @Override
+        public void searchRequest(final int messageID, final SearchRequest request)
+                throws DecodeException, IOException {
+            message = request;
+        }
+
+        @Override
+        public void searchResultEntry(final int messageID, final SearchResultEntry entry)
+                throws DecodeException, IOException {
+            message = entry;
+        }
+    }
+
+    private final ByteStringBuilder buffer = new ByteStringBuilder();
+    private final LDAPWriter<ASN1Writer> writer = LDAP.getWriter(ASN1.getWriter(buffer), 3);
+    private final DecodeOptions decodeOptions = new DecodeOptions();
+    private final CapturingHandler handler = new CapturingHandler();
+
+    private SearchRequest searchRequest;
+    private SearchResultEntry searchResultEntry;
+    private ByteString encodedSearchRequest;
+    private ByteString encodedSearchResultEntry;
+
+    @Setup
+    public void setUp() throws IOException {
+        searchRequest = Requests.newSearchRequest("ou=People,dc=example,dc=com", SearchScope.WHOLE_SUBTREE,
+            "(&(objectClass=person)(uid=user.1))", "cn", "mail", "uid");
+        searchResultEntry = Responses.newSearchResultEntry(new LinkedHashMapEntry(
+            "dn: uid=user.1,ou=People,dc=example,dc=com",
+            "objectClass: top",
+            "objectClass: person",
+            "objectClass: organizationalPerson",
+            "objectClass: inetOrgPerson",
+            "uid: user.1",
+            "cn: John Doe",
+            "sn: Doe",
+            "givenName: John",
+            "mail: jdoe@example.com",
+            "telephoneNumber: +1 555 1234",
+            "description: A typical user entry returned by a search"));
+        encodedSearchRequest = writeSearchRequest();
+        encodedSearchResultEntry = writeSearchResultEntry();
+    }
+
+    @Benchmark
+    public ByteString writeSearchRequest() throws IOException {
+        buffer.clear();
+        writer.writeSearchRequest(1, searchRequest);
+        return buffer.toByteString();
+    }
+
+    @Benchmark
+    public ByteString writeSearchResultEntry() throws IOException {
+        buffer.clear();
+        writer.writeSearchResultEntry(1, searchResultEntry);
+        return buffer.toByteString();
+    }
+
+    @Benchmark
+    public Object readSearchRequest() throws IOException {
+        LDAP.getReader(ASN1.getReader(encodedSearchRequest), decodeOptions).readMessage(handler);
+        return handler.message;
+    }
+
+    @Benchmark
+    public Object readSearchResultEntry() throws IOException {
+        LDAP.getReader(ASN1.getReader(encodedSearchResultEntry), decodeOptions).readMessage(handler);
+        return handler.message;
+    }
+}
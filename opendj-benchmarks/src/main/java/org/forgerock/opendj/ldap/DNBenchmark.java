@@ -0,0 +1,75 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.ldap;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures parsing, normalization and comparison of distinguished names. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DNBenchmark {
+    @Param({ "uid=user.1,ou=People,dc=example,dc=com",
+             "cn=John Doe+mail=jdoe@example.com,ou=Engineering,ou=People,o=Example Corp,c=US" })
+    private String dnString;
+
+    private DN dn;
+    private DN sameDn;
+    private DN baseDn;
+
+    @Setup
+    public void setUp() {
+        dn = DN.valueOf(dnString);
+        sameDn = DN.valueOf(dnString.toUpperCase());
+        baseDn = dn.parent(2);
+    }
+
+    @Benchmark
+    public DN valueOf() {
+        return DN.valueOf(dnString);
+    }
+
+    @Benchmark
+    public ByteString toNormalizedByteString() {
+        // Parse each time, the normalized form is cached by the DN
+        return DN.valueOf(dnString).toNormalizedByteString();
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return dn.compareTo(sameDn);
+    }
+
+    @Benchmark
+    public boolean isInScopeOf() {
+        return dn.isInScopeOf(baseDn, SearchScope.WHOLE_SUBTREE);
+    }
+}
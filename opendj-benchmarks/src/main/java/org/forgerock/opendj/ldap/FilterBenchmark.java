@@ -0,0 +1,80 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.ldap;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures parsing of search filters and their evaluation against an entry. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+    @Param({ "(uid=user.1)",
+             "(&(objectClass=person)(|(cn=John*)(mail=*@example.com))(!(employeeNumber<=100)))" })
+    private String filterString;
+
+    private Filter filter;
+    private Matcher matcher;
+    private Entry entry;
+
+    @Setup
+    public void setUp() {
+        filter = Filter.valueOf(filterString);
+        matcher = filter.matcher();
+        entry = new LinkedHashMapEntry(
+            "dn: uid=user.1,ou=People,dc=example,dc=com",
+            "objectClass: top",
+            "objectClass: person",
+            "objectClass: organizationalPerson",
+            "objectClass: inetOrgPerson",
+            "uid: user.1",
+            "cn: John Doe",
+            "sn: Doe",
+            "givenName: John",
+            "mail: jdoe@example.com",
+            "employeeNumber: 1234");
+    }
+
+    @Benchmark
+    public Filter valueOf() {
+        return Filter.valueOf(filterString);
+    }
+
+    @Benchmark
+    public ConditionResult matches() {
+        return matcher.matches(entry);
+    }
+
+    @Benchmark
+    public ConditionResult matcherAndMatches() {
+        return filter.matcher().matches(entry);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DereferenceAliasesPolicy;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.AccessControlHandler;
+import org.opends.server.core.AccessControlConfigManager;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.SearchOperationBasis;
+import org.opends.server.protocols.internal.InternalClientConnection;
+import org.opends.server.types.Control;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.types.SearchResultEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the access control evaluation performed by the {@link AciHandler} for
+ * each entry returned by a search. Requires the test server, see the package
+ * documentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AciHandlerBenchmark
+{
+  private static final String BASE = "o=test";
+  private static final String USER_DN = "uid=bob,ou=People," + BASE;
+  private static final String TARGET_DN = "uid=alice,ou=People," + BASE;
+
+  private AccessControlHandler<?> handler;
+  private SearchOperationBasis searchOperation;
+  private SearchResultEntry resultEntry;
+
+  @Setup
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    TestCaseUtils.initializeTestBackend(true);
+    TestCaseUtils.addEntries(
+        "dn: ou=People," + BASE,
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: People",
+        "aci: (targetattr=\"cn||sn||mail||telephoneNumber\")"
+            + "(version 3.0; acl \"People read\"; allow (read,search) userdn=\"ldap:///all\";)",
+        "aci: (targetattr=\"userPassword\")"
+            + "(version 3.0; acl \"No password\"; deny (all) userdn=\"ldap:///anyone\";)",
+        "aci: (targetattr=\"description\")(targetfilter=\"(objectClass=inetOrgPerson)\")"
+            + "(version 3.0; acl \"Self description\"; allow (read,write) userdn=\"ldap:///self\";)",
+        "",
+        "dn: " + USER_DN,
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: bob",
+        "cn: Bob",
+        "sn: User",
+        "userPassword: password",
+        "",
+        "dn: " + TARGET_DN,
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: alice",
+        "cn: Alice",
+        "sn: User",
+        "mail: alice@example.com",
+        "telephoneNumber: +1 555 1234",
+        "description: Visible to herself only",
+        "userPassword: password",
+        "");
+
+    handler = AccessControlConfigManager.getInstance().getAccessControlHandler();
+    final InternalClientConnection conn = new InternalClientConnection(DN.valueOf(USER_DN));
+    searchOperation = new SearchOperationBasis(conn,
+        InternalClientConnection.nextOperationID(), InternalClientConnection.nextMessageID(),
+        new ArrayList<Control>(), DN.valueOf("ou=People," + BASE), SearchScope.WHOLE_SUBTREE,
+        DereferenceAliasesPolicy.NEVER, 0, 0, false, SearchFilter.objectClassPresent(),
+        new LinkedHashSet<String>());
+    final Entry entry = DirectoryServer.getEntry(DN.valueOf(TARGET_DN));
+    resultEntry = new SearchResultEntry(entry);
+  }
+
+  @Benchmark
+  public boolean maySend()
+  {
+    return handler.maySend(searchOperation, resultEntry);
+  }
+
+  @Benchmark
+  public SearchResultEntry filterEntry()
+  {
+    final SearchResultEntry filteredEntry = new SearchResultEntry(resultEntry.duplicate(false));
+    handler.filterEntry(searchOperation, resultEntry, filteredEntry);
+    return filteredEntry;
+  }
+}
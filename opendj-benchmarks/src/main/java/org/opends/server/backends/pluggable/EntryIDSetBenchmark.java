@@ -0,0 +1,146 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the set operations performed on index entry ID sets while evaluating
+ * search filters, for both the sorted array and the bitmap representations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryIDSetBenchmark
+{
+  /** Number of IDs in each operand. */
+  @Param({ "1000", "100000" })
+  private int size;
+
+  /** Range the IDs are drawn from: the smaller, the denser the sets. */
+  @Param({ "1000000" })
+  private int range;
+
+  @Param({ "array", "bitmap" })
+  private String encoding;
+
+  private long[] ids1;
+  private long[] ids2;
+  private List<long[]> unionOperands;
+  private EntryIDSet set2;
+  private ByteString encodedSet1;
+  private EntryIDSet.EntryIDSetCodec codec;
+
+  @Setup
+  public void setUp()
+  {
+    final Random random = new Random(0);
+    ids1 = randomIDs(random);
+    ids2 = randomIDs(random);
+    unionOperands = new ArrayList<>();
+    for (int i = 0; i < 8; i++)
+    {
+      unionOperands.add(randomIDs(random));
+    }
+    set2 = newSet(ids2);
+    codec = "bitmap".equals(encoding) ? EntryIDSet.CODEC_V4 : EntryIDSet.CODEC_V2;
+    encodedSet1 = codec.encode(newSet(ids1));
+  }
+
+  private long[] randomIDs(Random random)
+  {
+    final long[] ids = new long[size];
+    for (int i = 0; i < size; i++)
+    {
+      ids[i] = random.nextInt(range);
+    }
+    Arrays.sort(ids);
+    // Defined sets hold distinct IDs
+    int count = 0;
+    for (int i = 0; i < size; i++)
+    {
+      if (count == 0 || ids[count - 1] != ids[i])
+      {
+        ids[count++] = ids[i];
+      }
+    }
+    return Arrays.copyOf(ids, count);
+  }
+
+  private EntryIDSet newSet(long[] ids)
+  {
+    return "bitmap".equals(encoding) ? EntryIDSet.newBitmapSet(ids) : EntryIDSet.newDefinedSet(ids);
+  }
+
+  @Benchmark
+  public EntryIDSet retainAll()
+  {
+    final EntryIDSet set = newSet(ids1);
+    set.retainAll(set2);
+    return set;
+  }
+
+  @Benchmark
+  public EntryIDSet addAll()
+  {
+    final EntryIDSet set = newSet(ids1);
+    set.addAll(set2);
+    return set;
+  }
+
+  @Benchmark
+  public EntryIDSet newSetFromUnion()
+  {
+    final List<EntryIDSet> sets = new ArrayList<>(unionOperands.size());
+    for (long[] ids : unionOperands)
+    {
+      sets.add(newSet(ids));
+    }
+    return EntryIDSet.newSetFromUnion(sets);
+  }
+
+  @Benchmark
+  public ByteString encode()
+  {
+    return codec.encode(newSet(ids1));
+  }
+
+  @Benchmark
+  public EntryIDSet decode()
+  {
+    return codec.decode(ByteString.empty(), encodedSet1);
+  }
+}
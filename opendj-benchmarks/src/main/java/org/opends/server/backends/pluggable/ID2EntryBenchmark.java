@@ -0,0 +1,125 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.ldap.schema.CoreSchema;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.CompressedSchema;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Attributes;
+import org.opends.server.types.Entry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the encoding of entries to, and their decoding from, the id2entry tree
+ * representation. Requires the test server, see the package documentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ID2EntryBenchmark
+{
+  @Param({ "false", "true" })
+  private boolean compactEncoding;
+
+  @Param({ "false", "true" })
+  private boolean compress;
+
+  private ID2Entry id2entry;
+  private DataConfig dataConfig;
+  private CompressedSchema compressedSchema;
+  private Entry entry;
+  private ByteString encodedEntry;
+  private ByteString encodedLargeEntry;
+  private AttributeType uidType;
+  private ByteString uid;
+
+  @Setup
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    compressedSchema = DirectoryServer.getDefaultCompressedSchema();
+    dataConfig = new DataConfig.Builder()
+        .compress(compress)
+        .encode(compactEncoding)
+        .schema(compressedSchema)
+        .build();
+    id2entry = new ID2Entry(new TreeName("dc=example,dc=com", "id2entry"), dataConfig);
+    entry = TestCaseUtils.makeEntry(
+        "dn: uid=user.1,ou=People,dc=example,dc=com",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: user.1",
+        "cn: John Doe",
+        "sn: Doe",
+        "givenName: John",
+        "mail: jdoe@example.com",
+        "telephoneNumber: +1 555 1234",
+        "employeeNumber: 1",
+        "street: 1 Main Street",
+        "l: Springfield",
+        "postalCode: 12345",
+        "description: A typical user entry as stored by the backend");
+    encodedEntry = id2entry.entryToDatabase(entry, dataConfig);
+
+    final Entry largeEntry = entry.duplicate(false);
+    final AttributeType jpegPhotoType = DirectoryServer.getInstance().getServerContext().getSchema()
+        .getAttributeType("jpegPhoto");
+    largeEntry.replaceAttribute(Attributes.create(jpegPhotoType, ByteString.wrap(new byte[32 * 1024])));
+    encodedLargeEntry = id2entry.entryToDatabase(largeEntry, dataConfig);
+    uidType = CoreSchema.getUIDAttributeType();
+    uid = ByteString.valueOfUtf8("user.1");
+  }
+
+  @Benchmark
+  public ByteString entryToDatabase() throws Exception
+  {
+    return id2entry.entryToDatabase(entry, dataConfig);
+  }
+
+  @Benchmark
+  public Entry entryFromDatabase() throws Exception
+  {
+    return id2entry.entryFromDatabase(encodedEntry, compressedSchema);
+  }
+
+  /** Decodes an entry holding a photo, then matches an attribute other than the photo as search filters do. */
+  @Benchmark
+  public boolean largeEntryFromDatabaseAndMatch() throws Exception
+  {
+    return id2entry.entryFromDatabase(encodedLargeEntry, compressedSchema).hasValue(uidType, uid);
+  }
+}
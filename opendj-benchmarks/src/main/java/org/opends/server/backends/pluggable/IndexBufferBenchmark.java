@@ -0,0 +1,113 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.DefaultIndexTest.DummyWriteableTransaction;
+import org.opends.server.backends.pluggable.State.IndexFlag;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.crypto.CryptoSuite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures buffering then flushing the index changes of a modify operation
+ * replacing the members of a large group. Run it with {@code -prof gc} to
+ * compare the allocation rates ({@code gc.alloc.rate.norm}).
+ * <p>
+ * The indexes are not trusted, so that flushing does not write anything and
+ * mostly measures the buffer itself.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBufferBenchmark
+{
+  /** Number of member values added, and of member values removed. */
+  @Param({ "10", "1000", "100000" })
+  private int nbValues;
+
+  private DefaultIndex memberIndex;
+  private DefaultIndex presenceIndex;
+  private WriteableTransaction txn;
+  private ByteString[] addedKeys;
+  private ByteString[] removedKeys;
+  private final ByteString presenceKey = ByteString.valueOfUtf8("+");
+  private final EntryID groupID = new EntryID(42);
+
+  @Setup
+  public void setUp()
+  {
+    txn = new DummyWriteableTransaction();
+    memberIndex = newIndex("member.equality");
+    presenceIndex = newIndex("member.presence");
+    memberIndex.open(txn, false);
+    presenceIndex.open(txn, false);
+
+    addedKeys = new ByteString[nbValues];
+    removedKeys = new ByteString[nbValues];
+    for (int i = 0; i < nbValues; i++)
+    {
+      addedKeys[i] = ByteString.valueOfUtf8("uid=user." + (nbValues + i) + ",ou=people,dc=example,dc=com");
+      removedKeys[i] = ByteString.valueOfUtf8("uid=user." + i + ",ou=people,dc=example,dc=com");
+    }
+  }
+
+  private static DefaultIndex newIndex(String name)
+  {
+    final State state = mock(State.class);
+    when(state.getIndexFlags(any(ReadableTransaction.class), any(TreeName.class)))
+        .thenReturn(EnumSet.noneOf(IndexFlag.class));
+    final CryptoSuite cryptoSuite = mock(CryptoSuite.class);
+    when(cryptoSuite.isEncrypted()).thenReturn(false);
+    return new DefaultIndex(new TreeName("dc=example,dc=com", name), state, 4000, mock(EntryContainer.class),
+        cryptoSuite);
+  }
+
+  @Benchmark
+  public IndexBuffer replaceGroupMembers() throws Exception
+  {
+    final IndexBuffer buffer = new IndexBuffer();
+    for (int i = 0; i < nbValues; i++)
+    {
+      buffer.remove(memberIndex, removedKeys[i], groupID);
+      buffer.put(memberIndex, addedKeys[i], groupID);
+    }
+    buffer.remove(presenceIndex, presenceKey, groupID);
+    buffer.put(presenceIndex, presenceKey, groupID);
+    buffer.flush(txn);
+    return buffer;
+  }
+}
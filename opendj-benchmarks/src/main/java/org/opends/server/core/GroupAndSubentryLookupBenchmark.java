@@ -0,0 +1,133 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.Group;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SubEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the group and subentry lookups performed by the
+ * operations evaluating group ACIs, password policies or collective attributes,
+ * when many worker threads perform them concurrently. Requires the test server,
+ * see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class GroupAndSubentryLookupBenchmark
+{
+  private static final String BASE = "o=test";
+  private static final String PEOPLE = "ou=People," + BASE;
+  private static final int NB_GROUPS = 100;
+
+  private GroupManager groupManager;
+  private SubentryManager subentryManager;
+  private DN groupDN;
+  private Entry userEntry;
+
+  @Setup
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    TestCaseUtils.initializeTestBackend(true);
+    TestCaseUtils.addEntries(
+        "dn: " + PEOPLE,
+        "objectClass: top",
+        "objectClass: organizationalUnit",
+        "ou: People",
+        "",
+        "dn: uid=bob," + PEOPLE,
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: bob",
+        "cn: Bob",
+        "sn: User",
+        "",
+        "dn: cn=Locality," + PEOPLE,
+        "objectClass: top",
+        "objectClass: subentry",
+        "objectClass: collectiveAttributeSubentry",
+        "objectClass: extensibleObject",
+        "subtreeSpecification: {}",
+        "cn: Locality",
+        "c-l: Grenoble",
+        "",
+        "dn: cn=Password Policy," + BASE,
+        "objectClass: top",
+        "objectClass: subentry",
+        "objectClass: pwdPolicy",
+        "subtreeSpecification: {}",
+        "cn: Password Policy",
+        "pwdAttribute: userPassword",
+        "pwdMaxAge: 86400",
+        "");
+    for (int i = 0; i < NB_GROUPS; i++)
+    {
+      TestCaseUtils.addEntry(
+          "dn: cn=Group " + i + "," + BASE,
+          "objectClass: top",
+          "objectClass: groupOfNames",
+          "cn: Group " + i,
+          "member: uid=bob," + PEOPLE);
+    }
+
+    groupManager = DirectoryServer.getGroupManager();
+    subentryManager = DirectoryServer.getSubentryManager();
+    groupDN = DN.valueOf("cn=Group " + NB_GROUPS / 2 + "," + BASE);
+    userEntry = DirectoryServer.getEntry(DN.valueOf("uid=bob," + PEOPLE));
+  }
+
+  @Benchmark
+  public Group<?> getGroupInstance()
+  {
+    return groupManager.getGroupInstance(groupDN);
+  }
+
+  @Benchmark
+  public List<SubEntry> getSubentries()
+  {
+    return subentryManager.getSubentries(userEntry);
+  }
+
+  @Benchmark
+  public List<SubEntry> getCollectiveSubentries()
+  {
+    return subentryManager.getCollectiveSubentries(userEntry);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.replication.common;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the CSN and server state operations performed for every replicated change. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerStateBenchmark
+{
+  /** Number of replicas in the topology. */
+  @Param({ "2", "16" })
+  private int replicas;
+
+  private CSNGenerator generator;
+  private CSN csn;
+  private CSN otherCSN;
+  private String csnString;
+  private ServerState state;
+  private ServerState olderState;
+
+  @Setup
+  public void setUp()
+  {
+    generator = new CSNGenerator(1, System.currentTimeMillis());
+    csn = generator.newCSN();
+    otherCSN = generator.newCSN();
+    csnString = csn.toString();
+    state = new ServerState();
+    olderState = new ServerState();
+    for (int serverId = 1; serverId <= replicas; serverId++)
+    {
+      final CSNGenerator replicaGenerator = new CSNGenerator(serverId, System.currentTimeMillis());
+      olderState.update(replicaGenerator.newCSN());
+      state.update(replicaGenerator.newCSN());
+    }
+  }
+
+  @Benchmark
+  public CSN newCSN()
+  {
+    return generator.newCSN();
+  }
+
+  @Benchmark
+  public CSN csnValueOf()
+  {
+    return CSN.valueOf(csnString);
+  }
+
+  @Benchmark
+  public String csnToString()
+  {
+    return csn.toString();
+  }
+
+  @Benchmark
+  public int csnCompareTo()
+  {
+    return csn.compareTo(otherCSN);
+  }
+
+  @Benchmark
+  public boolean update()
+  {
+    return state.update(generator.newCSN());
+  }
+
+  @Benchmark
+  public boolean cover()
+  {
+    return state.cover(olderState);
+  }
+
+  @Benchmark
+  public ServerState duplicate()
+  {
+    return state.duplicate();
+  }
+
+  @Benchmark
+  public String serverStateToString()
+  {
+    return state.toString();
+  }
+}
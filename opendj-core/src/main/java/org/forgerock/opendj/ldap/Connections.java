@@ -21,7 +21,9 @@ import static org.forgerock.util.time.Duration.duration;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -82,6 +84,21 @@ public final class Connections {
     public static final Option<ScheduledExecutorService> LOAD_BALANCER_SCHEDULER =
             Option.of(ScheduledExecutorService.class, null);
 
+    /**
+     * Specifies whether connection pools should manage their idle connections and pending connection requests with
+     * lock-free data structures rather than behind a lock. Lock-free connection pools scale better when many threads
+     * obtain and release connections concurrently. They reuse the most recently released connections first, instead of
+     * the least recently released ones. The default configuration is to use a lock.
+     */
+    public static final Option<Boolean> CONNECTION_POOL_LOCK_FREE = Option.withDefault(false);
+
+    /**
+     * Specifies the scheduler which will be used for periodically checking for idle pooled connections. A system-wide
+     * scheduler will be used by default.
+     */
+    public static final Option<ScheduledExecutorService> CONNECTION_POOL_SCHEDULER =
+            Option.of(ScheduledExecutorService.class, null);
+
     /**
      * Creates a new connection pool which creates new connections as needed
      * using the provided connection factory, but will reuse previously
@@ -218,6 +235,67 @@ public final class Connections {
                 scheduler);
     }
 
+    /**
+     * Creates a new connection pool which creates new connections as needed
+     * using the provided connection factory, but will reuse previously
+     * allocated connections when they are available.
+     * <p>
+     * Attempts to use more than {@code maximumPoolSize} connections at once
+     * will block until a connection is released back to the pool. In other
+     * words, this pool will prevent applications from using more than
+     * {@code maximumPoolSize} connections at the same time.
+     * <p>
+     * Connections which have not been used for the provided {@code idleTimeout}
+     * period are closed and removed from the pool, until there are only
+     * {@code corePoolSize} connections remaining.
+     * <p>
+     * Connections obtained from the connection pool are guaranteed to be valid
+     * immediately before being returned to the calling application. More
+     * specifically, connections which have remained idle in the connection pool
+     * for a long time and which have been remotely closed due to a time out
+     * will never be returned. However, once a pooled connection has been
+     * obtained it is the responsibility of the calling application to handle
+     * subsequent connection failures, these being signaled via a
+     * {@link ConnectionException}.
+     *
+     * @param factory
+     *            The connection factory to use for creating new connections.
+     * @param corePoolSize
+     *            The minimum number of connections to keep in the pool, even if
+     *            they are idle.
+     * @param maximumPoolSize
+     *            The maximum number of connections to allow in the pool.
+     * @param idleTimeout
+     *            The time out period, after which unused non-core connections
+     *            will be closed.
+     * @param unit
+     *            The time unit for the {@code keepAliveTime} argument.
+     * @param options
+     *            The configuration options for the connection pool.
+     * @return The new connection pool.
+     * @throws IllegalArgumentException
+     *             If {@code corePoolSize}, {@code maximumPoolSize} are less
+     *             than or equal to zero, or if {@code idleTimeout} is negative,
+     *             or if {@code corePoolSize} is greater than
+     *             {@code maximumPoolSize}, or if {@code idleTimeout} is
+     *             non-zero and {@code unit} is {@code null}.
+     * @throws NullPointerException
+     *             If {@code factory} or {@code options} was {@code null}.
+     * @see #CONNECTION_POOL_LOCK_FREE
+     * @see #CONNECTION_POOL_SCHEDULER
+     */
+    public static ConnectionPool newCachedConnectionPool(final ConnectionFactory factory,
+            final int corePoolSize, final int maximumPoolSize, final long idleTimeout,
+            final TimeUnit unit, final Options options) {
+        final ScheduledExecutorService scheduler = options.get(CONNECTION_POOL_SCHEDULER);
+        if (options.get(CONNECTION_POOL_LOCK_FREE)) {
+            return new LockFreeConnectionPool(factory, corePoolSize, maximumPoolSize, idleTimeout, unit,
+                    scheduler);
+        }
+        return new CachedConnectionPool(factory, corePoolSize, maximumPoolSize, idleTimeout, unit,
+                scheduler);
+    }
+
     /**
      * Creates a new connection pool which will maintain {@code poolSize}
      * connections created using the provided connection factory.
@@ -251,6 +329,42 @@ public final class Connections {
         return new CachedConnectionPool(factory, poolSize, poolSize, 0L, null, null);
     }
 
+    /**
+     * Creates a new connection pool which will maintain {@code poolSize}
+     * connections created using the provided connection factory.
+     * <p>
+     * Attempts to use more than {@code poolSize} connections at once will block
+     * until a connection is released back to the pool. In other words, this
+     * pool will prevent applications from using more than {@code poolSize}
+     * connections at the same time.
+     * <p>
+     * Connections obtained from the connection pool are guaranteed to be valid
+     * immediately before being returned to the calling application. More
+     * specifically, connections which have remained idle in the connection pool
+     * for a long time and which have been remotely closed due to a time out
+     * will never be returned. However, once a pooled connection has been
+     * obtained it is the responsibility of the calling application to handle
+     * subsequent connection failures, these being signaled via a
+     * {@link ConnectionException}.
+     *
+     * @param factory
+     *            The connection factory to use for creating new connections.
+     * @param poolSize
+     *            The maximum size of the connection pool.
+     * @param options
+     *            The configuration options for the connection pool.
+     * @return The new connection pool.
+     * @throws IllegalArgumentException
+     *             If {@code poolSize} is negative.
+     * @throws NullPointerException
+     *             If {@code factory} or {@code options} was {@code null}.
+     * @see #CONNECTION_POOL_LOCK_FREE
+     */
+    public static ConnectionPool newFixedConnectionPool(final ConnectionFactory factory,
+            final int poolSize, final Options options) {
+        return newCachedConnectionPool(factory, poolSize, poolSize, 0L, null, options);
+    }
+
     /**
      * Creates a new internal client connection which will route requests to the
      * provided {@code RequestHandler}.
@@ -744,6 +858,82 @@ public final class Connections {
                 newLeastRequestsLoadBalancerEndOfRequestFunction(dispatcher));
     }
 
+    /**
+     * Creates a new "least loaded" load-balancer which will load-balance individual requests across the provided set
+     * of connection factories, each typically representing a single replica, using an algorithm that routes requests
+     * to the replicas which respond the fastest given their number of active requests.
+     * <p>
+     * The load-balancer tracks the response latency of each replica as a moving average which immediately follows
+     * latency increases, and only slowly forgets them. The load of a replica is its latency multiplied by its number
+     * of active requests plus one. Each request is routed to the least loaded of two replicas picked at random among
+     * the operational replicas, which avoids directing bursts of requests to the same replica. Replicas whose latency
+     * is several times higher than the latency of the fastest replica, for example because they are performing a
+     * backup or an import, stop receiving requests until their latency decreases. Like the "least requests"
+     * load-balancer, this load-balancer provides availability and partition tolerance, but sacrifices consistency.
+     * <p/>
+     * It is possible to increase consistency by providing a {@link AffinityControl} with a request. The control value
+     * will then be used to compute a hash that will determine the connection to use. In that case, the "least loaded"
+     * behavior is completely overridden, i.e. the most loaded connection may be chosen depending on the hash value.
+     * <p/>
+     * <b>NOTE:</b> this connection factory returns fake connections, since real connections are obtained for each
+     * request. Therefore, the returned fake connections have certain limitations: abandon requests will be ignored
+     * since they cannot be routed; connection event listeners can be registered, but will only be notified when the
+     * fake connection is closed or when all of the connection factories are unavailable.
+     * <p/>
+     * <b>NOTE:</b>Server selection is only based on information which is local to the client application. If other
+     * applications are accessing the same servers then their additional load is only taken into account through the
+     * latency of the servers.
+     * <p/>
+     * The implementation periodically attempts to connect to failed connection factories in order to determine if they
+     * have become available again.
+     *
+     * @param factories
+     *            The connection factories.
+     * @param options
+     *            This configuration options for the load-balancer.
+     * @return The new least loaded load balancer.
+     * @see #newLeastRequestsLoadBalancer(Collection, Options)
+     * @see #newRoundRobinLoadBalancer(Collection, Options)
+     * @see #newFailoverLoadBalancer(Collection, Options)
+     * @see #newAffinityRequestLoadBalancer(Collection, Options)
+     * @see #LOAD_BALANCER_EVENT_LISTENER
+     * @see #LOAD_BALANCER_MONITORING_INTERVAL
+     * @see #LOAD_BALANCER_SCHEDULER
+     */
+    public static ConnectionFactory newLeastLoadedLoadBalancer(
+            final Collection<? extends ConnectionFactory> factories, final Options options) {
+        final List<ConnectionFactory> factoryList = new ArrayList<ConnectionFactory>(factories);
+        final LeastLoadedDispatcher dispatcher = new LeastLoadedDispatcher(factoryList.size());
+        final LoadBalancerEventListener listener = options.get(LOAD_BALANCER_EVENT_LISTENER);
+        // Keep track of the offline factories so that requests are not routed to them
+        final Options loadBalancerOptions = Options.copyOf(options).set(LOAD_BALANCER_EVENT_LISTENER,
+                new LoadBalancerEventListener() {
+                    @Override
+                    public void handleConnectionFactoryOffline(final ConnectionFactory factory,
+                            final LdapException error) {
+                        setOperational(factory, false);
+                        listener.handleConnectionFactoryOffline(factory, error);
+                    }
+
+                    @Override
+                    public void handleConnectionFactoryOnline(final ConnectionFactory factory) {
+                        setOperational(factory, true);
+                        listener.handleConnectionFactoryOnline(factory);
+                    }
+
+                    private void setOperational(final ConnectionFactory factory, final boolean isOperational) {
+                        for (int i = 0; i < factoryList.size(); i++) {
+                            if (factoryList.get(i) == factory) {
+                                dispatcher.setOperational(i, isOperational);
+                            }
+                        }
+                    }
+                });
+        return new RequestLoadBalancer("LeastLoadedRequestLoadBalancer", factoryList, loadBalancerOptions,
+                newLeastRequestsLoadBalancerNextFunction(dispatcher),
+                newLeastRequestsLoadBalancerEndOfRequestFunction(dispatcher));
+    }
+
     private static final DecodeOptions CONTROL_DECODE_OPTIONS = new DecodeOptions();
 
     static Function<Request, PartitionedRequest, NeverThrowsException> newLeastRequestsLoadBalancerNextFunction(
@@ -775,22 +965,22 @@ public final class Connections {
         };
     }
 
-    static Function<Integer, Void, NeverThrowsException> newLeastRequestsLoadBalancerEndOfRequestFunction(
+    static Function<PartitionedRequest, Void, NeverThrowsException> newLeastRequestsLoadBalancerEndOfRequestFunction(
             final LeastRequestsDispatcher dispatcher) {
-        return new Function<Integer, Void, NeverThrowsException>() {
+        return new Function<PartitionedRequest, Void, NeverThrowsException>() {
             @Override
-            public Void apply(final Integer index) {
-                dispatcher.terminatedRequest(index);
+            public Void apply(final PartitionedRequest request) {
+                dispatcher.terminatedRequest(request);
                 return null;
             }
         };
     }
 
     /** No-op "end of request" function for the saturation-based request load balancer. */
-    static final Function<Integer, Void, NeverThrowsException> NOOP_END_OF_REQUEST_FUNCTION =
-            new Function<Integer, Void, NeverThrowsException>() {
+    static final Function<PartitionedRequest, Void, NeverThrowsException> NOOP_END_OF_REQUEST_FUNCTION =
+            new Function<PartitionedRequest, Void, NeverThrowsException>() {
                 @Override
-                public Void apply(Integer index) {
+                public Void apply(PartitionedRequest request) {
                     return null;
                 }
             };
@@ -829,16 +1019,27 @@ public final class Connections {
         }
 
         /**
-         * Signals to this dispatcher that a request has been finished for the provided server index.
+         * Signals to this dispatcher that a request has been finished.
+         *
+         * @param request
+         *            The request, holding the index of server that processed it.
+         */
+        void terminatedRequest(PartitionedRequest request) {
+            serversCounters.decrementAndGet(request.getServerIndex());
+        }
+
+        /**
+         * Returns the number of active requests of the provided server index.
          *
          * @param index
-         *            The index of server that processed the request.
+         *            The index of the server.
+         * @return the number of active requests
          */
-        void terminatedRequest(Integer index) {
-            serversCounters.decrementAndGet(index);
+        long getActiveRequests(int index) {
+            return serversCounters.get(index);
         }
 
-        private int getLessSaturatedIndex() {
+        int getLessSaturatedIndex() {
             long min = Long.MAX_VALUE;
             int minIndex = -1;
             // Modifications during this loop are ok, effects on result should not be dramatic
@@ -853,6 +1054,180 @@ public final class Connections {
         }
     }
 
+    /**
+     * Dispatch requests to the server index which is the least loaded, based on the number of active requests and
+     * the response latency of each server.
+     * <p>
+     * The latency of each server is a "peak" exponentially weighted moving average of the response times of its
+     * requests: it jumps to any response time above its current value, otherwise it moves towards the response times
+     * with a time constant of {@link #DECAY_TIME_NANOS}. It also decays while no request completes, so that a server
+     * which stopped receiving requests is eventually tried again. The requests which a server could not process, such
+     * as failed connection attempts, count as taking at least {@link #FAILURE_PENALTY_NANOS}, so that a server failing
+     * fast does not look like the fastest one. Requests are dispatched to the least loaded of two operational servers
+     * picked at random, where the load of a server is its latency multiplied by its number of active requests plus
+     * one. Servers whose latency is more than {@link #SHED_LATENCY_RATIO} times the latency of the fastest server are
+     * not picked.
+     */
+    static final class LeastLoadedDispatcher extends LeastRequestsDispatcher {
+        /** The time constant of the moving average of the latency of the servers. */
+        static final long DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+        /** The ratio to the latency of the fastest server above which a server does not receive requests. */
+        static final double SHED_LATENCY_RATIO = 4;
+        /** The minimum response time recorded for a request which the server could not process. */
+        static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        /** The latency statistics of a server, whose concurrent updates may be lost without much effect. */
+        private static final class ServerStatistics {
+            private volatile boolean isOperational = true;
+            /** The latency in nanoseconds, 0 until a request completes. */
+            private volatile double latencyNanos;
+            private volatile long lastUpdateNanos;
+
+            private double getLatencyNanos(final long nowNanos) {
+                return latencyNanos * Math.exp(-Math.max(nowNanos - lastUpdateNanos, 0) / (double) DECAY_TIME_NANOS);
+            }
+
+            private void update(final long responseTimeNanos, final long nowNanos) {
+                final double latency = latencyNanos;
+                if (responseTimeNanos > latency) {
+                    latencyNanos = responseTimeNanos;
+                } else {
+                    final double weight =
+                            Math.exp(-Math.max(nowNanos - lastUpdateNanos, 0) / (double) DECAY_TIME_NANOS);
+                    latencyNanos = latency * weight + responseTimeNanos * (1 - weight);
+                }
+                lastUpdateNanos = nowNanos;
+            }
+        }
+
+        private final ServerStatistics[] servers;
+
+        LeastLoadedDispatcher(int numberOfServers) {
+            super(numberOfServers);
+            servers = new ServerStatistics[numberOfServers];
+            for (int i = 0; i < numberOfServers; i++) {
+                servers[i] = new ServerStatistics();
+            }
+        }
+
+        /**
+         * Marks the provided server index as operational or not.
+         *
+         * @param index
+         *            The index of the server.
+         * @param isOperational
+         *            Whether the server is operational.
+         */
+        void setOperational(int index, boolean isOperational) {
+            servers[index].isOperational = isOperational;
+        }
+
+        @Override
+        void terminatedRequest(PartitionedRequest request) {
+            super.terminatedRequest(request);
+            final long nowNanos = System.nanoTime();
+            final long responseTimeNanos = nowNanos - request.getStartTimeNanos();
+            if (request.isServerFailed()) {
+                recordFailure(request.getServerIndex(), responseTimeNanos, nowNanos);
+            } else {
+                recordResponseTime(request.getServerIndex(), responseTimeNanos, nowNanos);
+            }
+        }
+
+        /**
+         * Records the response time of a request processed by the provided server index.
+         *
+         * @param index
+         *            The index of the server that processed the request.
+         * @param responseTimeNanos
+         *            The response time of the request, in nanoseconds.
+         * @param nowNanos
+         *            The current time, in nanoseconds.
+         */
+        void recordResponseTime(int index, long responseTimeNanos, long nowNanos) {
+            servers[index].update(responseTimeNanos, nowNanos);
+        }
+
+        /**
+         * Records a request which the provided server index could not process, because it could not be reached or
+         * was unavailable. Its response time is raised to at least {@link #FAILURE_PENALTY_NANOS}.
+         *
+         * @param index
+         *            The index of the server that failed to process the request.
+         * @param responseTimeNanos
+         *            The response time of the request, in nanoseconds.
+         * @param nowNanos
+         *            The current time, in nanoseconds.
+         */
+        void recordFailure(int index, long responseTimeNanos, long nowNanos) {
+            recordResponseTime(index, Math.max(responseTimeNanos, FAILURE_PENALTY_NANOS), nowNanos);
+        }
+
+        @Override
+        int getLessSaturatedIndex() {
+            return getLeastLoadedIndex(System.nanoTime());
+        }
+
+        /**
+         * Returns the least loaded of two operational servers picked at random.
+         *
+         * @param nowNanos
+         *            The current time, in nanoseconds.
+         * @return the server index
+         */
+        int getLeastLoadedIndex(long nowNanos) {
+            final int size = size();
+            final double[] latencies = new double[size];
+            double minLatency = Double.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (servers[i].isOperational) {
+                    latencies[i] = servers[i].getLatencyNanos(nowNanos);
+                    if (latencies[i] > 0) {
+                        minLatency = Math.min(minLatency, latencies[i]);
+                    }
+                } else {
+                    latencies[i] = -1;
+                }
+            }
+
+            // Servers without latency yet are never shed, so that they receive requests
+            final double maxLatency = minLatency * SHED_LATENCY_RATIO;
+            final int[] candidates = new int[size];
+            int nbCandidates = 0;
+            for (int i = 0; i < size; i++) {
+                if (latencies[i] >= 0 && latencies[i] <= maxLatency) {
+                    candidates[nbCandidates++] = i;
+                }
+            }
+            switch (nbCandidates) {
+            case 0:
+                // All the servers are offline, let the load-balancer report it
+                return super.getLessSaturatedIndex();
+            case 1:
+                return candidates[0];
+            default:
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int first = random.nextInt(nbCandidates);
+                int second = random.nextInt(nbCandidates - 1);
+                if (second >= first) {
+                    second++;
+                }
+                return leastLoaded(candidates[first], candidates[second], latencies);
+            }
+        }
+
+        private int leastLoaded(int index1, int index2, double[] latencies) {
+            final long activeRequests1 = getActiveRequests(index1);
+            final long activeRequests2 = getActiveRequests(index2);
+            final double load1 = latencies[index1] * (activeRequests1 + 1);
+            final double load2 = latencies[index2] * (activeRequests2 + 1);
+            if (load1 != load2) {
+                return load1 < load2 ? index1 : index2;
+            }
+            return activeRequests1 <= activeRequests2 ? index1 : index2;
+        }
+    }
+
     /**
      * Creates a new connection factory which forwards connection requests to
      * the provided factory, but whose {@code toString} method will always
@@ -109,6 +109,14 @@ public final class LDAPListener extends CommonLDAPOptions implements Closeable {
      */
     public static final Option<Integer> MAX_CONCURRENT_REQUESTS = Option.withDefault(1024);
 
+    /**
+     * Specifies the maximum number of responses to a request, such as search result entries, which may be written to
+     * the connection at once. The responses produced while the previous ones are being written are grouped into a
+     * single write, which saves buffers and system calls when sending large search results. Responses are never
+     * delayed in order to form groups. A value of 1 writes each response on its own.
+     */
+    public static final Option<Integer> RESPONSE_MAX_BATCH_SIZE = Option.withDefault(64);
+
     /**
      * We implement the factory using the pimpl idiom in order have
      * cleaner Javadoc which does not expose implementation methods.
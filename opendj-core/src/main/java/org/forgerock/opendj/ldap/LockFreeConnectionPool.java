@@ -0,0 +1,369 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.ldap;
+
+import static org.forgerock.opendj.ldap.LdapException.*;
+import static org.forgerock.util.promise.Promises.*;
+
+import static com.forgerock.opendj.ldap.CoreMessages.*;
+import static com.forgerock.opendj.util.StaticUtils.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+
+/**
+ * A connection pool implementation which maintains a cache of pooled
+ * connections with a configurable core pool size, maximum size, and expiration
+ * policy, without ever holding a lock.
+ * <p>
+ * Idle connections are kept in a lock-free stack: the most recently released
+ * connections are reused first, while the least recently released ones sink to
+ * the bottom of the stack, where they expire. Connection requests which cannot
+ * be satisfied immediately wait in a lock-free queue, and the pool statistics
+ * are kept in striped counters.
+ */
+final class LockFreeConnectionPool extends AbstractConnectionPool {
+
+    /**
+     * A connection released to the stack of idle connections. It is taken at
+     * most once, either by a connection request or by the purge of idle
+     * connections. Taking it drops the reference to the connection, so that
+     * the connections taken by the purge are not kept reachable until the
+     * purge unlinks them from the stack.
+     */
+    private static final class IdleConnection {
+        /** Only read by the thread which took this idle connection. */
+        private Connection connection;
+        private final long timestampMillis;
+        private final AtomicBoolean isTaken = new AtomicBoolean();
+        /** Only changed by the purge of idle connections once pushed. */
+        private volatile IdleConnection next;
+
+        IdleConnection(final Connection connection, final long timestampMillis) {
+            this.connection = connection;
+            this.timestampMillis = timestampMillis;
+        }
+
+        boolean hasTimedOut(final long timeLimitMillis) {
+            return timestampMillis < timeLimitMillis;
+        }
+
+        boolean isTaken() {
+            return isTaken.get();
+        }
+
+        /** Returns the connection if this call took it, or {@code null} if it was already taken. */
+        Connection take() {
+            if (!isTaken.compareAndSet(false, true)) {
+                return null;
+            }
+            final Connection taken = connection;
+            connection = null;
+            return taken;
+        }
+    }
+
+    /** A pending connection request, which is completed at most once. */
+    private static final class WaitingRequest {
+        private final PromiseImpl<Connection, LdapException> promise = PromiseImpl.create();
+        private final StackTraceElement[] stack;
+        private final AtomicBoolean isClaimed = new AtomicBoolean();
+
+        WaitingRequest(final StackTraceElement[] stack) {
+            this.stack = stack;
+        }
+    }
+
+    private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+    /** The top of the stack of idle connections. */
+    private final AtomicReference<IdleConnection> idleConnections = new AtomicReference<>();
+    private final Queue<WaitingRequest> waitingRequests = new ConcurrentLinkedQueue<>();
+    private final LongAdder idleConnectionCount = new LongAdder();
+    private final LongAdder waitingRequestCount = new LongAdder();
+
+    LockFreeConnectionPool(final ConnectionFactory factory, final int corePoolSize,
+            final int maximumPoolSize, final long idleTimeout, final TimeUnit unit,
+            final ScheduledExecutorService scheduler) {
+        super(factory, corePoolSize, maximumPoolSize, idleTimeout, unit, scheduler);
+    }
+
+    @Override
+    public void close() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+
+        logger.debug(LocalizableMessage.raw(
+                "Connection pool is closing: availableConnections=%d, maxPoolSize=%d",
+                currentPoolSize(), maxPoolSize));
+
+        cancelIdleTimeoutTask();
+        closeIdleConnections();
+
+        // Close the underlying factory.
+        factory.close();
+    }
+
+    @Override
+    public Promise<Connection, LdapException> getConnectionAsync() {
+        // Loop while iterating through stale connections (see OPENDJ-590).
+        for (;;) {
+            if (isClosed.get()) {
+                throw newPoolClosedException();
+            }
+
+            Connection connection = pollIdleConnection();
+            if (connection == null) {
+                final WaitingRequest request = new WaitingRequest(getStackTraceIfDebugEnabled());
+                waitingRequestCount.increment();
+                waitingRequests.add(request);
+
+                // A connection may have been released before the request was queued.
+                connection = pollIdleConnection();
+                if (connection == null || !claim(request)) {
+                    if (connection != null) {
+                        // The request was completed concurrently.
+                        publishConnection(connection);
+                    }
+                    // Grow the pool if needed.
+                    if (!request.promise.isDone() && availableConnections.tryAcquire()) {
+                        addConnectionAsync();
+                    }
+                    return request.promise;
+                }
+                waitingRequests.remove(request);
+            }
+
+            if (connection.isValid()) {
+                final Connection pooledConnection = newPooledConnection(connection, getStackTraceIfDebugEnabled());
+                return newResultPromise(pooledConnection);
+            } else {
+                // Close the stale connection and try again.
+                connection.close();
+                availableConnections.release();
+
+                logger.debug(LocalizableMessage.raw("Connection no longer valid: availableConnections=%d, poolSize=%d",
+                        currentPoolSize(), maxPoolSize));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final int size = currentPoolSize();
+        final int pending = pendingConnectionAttempts.get();
+        final int in = idleConnectionCount.intValue();
+        final int blocked = waitingRequestCount.intValue();
+        final int out = size - in - pending;
+        return String.format("LockFreeConnectionPool(size=%d[in:%d + out:%d + "
+                + "pending:%d], maxSize=%d, blocked=%d, factory=%s)", size, in, out, pending,
+                maxPoolSize, blocked, String.valueOf(factory));
+    }
+
+    @Override
+    void publishConnection(final Connection connection) {
+        Connection idleConnection = connection;
+        for (;;) {
+            final WaitingRequest request = pollWaitingRequest();
+            if (request != null) {
+                if (isClosed.get()) {
+                    closeConnectionOnPoolClosing(idleConnection);
+                    final LdapException e =
+                            newLdapException(ResultCode.CLIENT_SIDE_USER_CANCELLED,
+                                    ERR_CONNECTION_POOL_CLOSING.get(toString()).toString());
+                    request.promise.handleException(e);
+
+                    logger.debug(LocalizableMessage.raw(
+                            "Connection attempt failed: availableConnections=%d, maxPoolSize=%d",
+                            currentPoolSize(), maxPoolSize, e));
+                } else {
+                    request.promise.handleResult(newPooledConnection(idleConnection, request.stack));
+                }
+                return;
+            } else if (isClosed.get()) {
+                closeConnectionOnPoolClosing(idleConnection);
+                return;
+            }
+
+            pushIdleConnection(idleConnection);
+            if (isClosed.get()) {
+                // The pool may have been closed before the connection was pushed.
+                closeIdleConnections();
+                return;
+            } else if (waitingRequests.isEmpty()) {
+                return;
+            }
+
+            // A request may have been queued before the connection was pushed.
+            idleConnection = pollIdleConnection();
+            if (idleConnection == null) {
+                // Another request took it.
+                return;
+            }
+        }
+    }
+
+    @Override
+    Collection<PromiseImpl<Connection, LdapException>> pollWaitingPromises() {
+        final List<PromiseImpl<Connection, LdapException>> waitingPromises = new LinkedList<>();
+        for (WaitingRequest request = pollWaitingRequest(); request != null; request = pollWaitingRequest()) {
+            waitingPromises.add(request.promise);
+        }
+        return waitingPromises;
+    }
+
+    @Override
+    void purgeIdleConnections() {
+        if (isClosed.get()) {
+            return;
+        }
+
+        /*
+         * Walk down the stack, from the most recently released connection to
+         * the least recently released one, and unlink the taken connections on
+         * the way. This is safe despite concurrent pushes and pops, because
+         * only the purge changes the links between the connections once pushed.
+         */
+        final List<IdleConnection> expiredConnections = new ArrayList<>();
+        final long timeoutMillis = timeService.now() - idleTimeoutMillis;
+        IdleConnection previous = null;
+        for (IdleConnection idle = idleConnections.get(); idle != null; idle = idle.next) {
+            if (!idle.isTaken()) {
+                if (idle.hasTimedOut(timeoutMillis)) {
+                    expiredConnections.add(idle);
+                }
+                previous = idle;
+            } else if (previous != null) {
+                previous.next = idle.next;
+            }
+        }
+
+        // Close the least recently released connections first.
+        final List<Connection> closedConnections = new LinkedList<>();
+        int nonCoreConnectionCount = currentPoolSize() - corePoolSize;
+        for (int i = expiredConnections.size() - 1; i >= 0 && nonCoreConnectionCount > 0; i--) {
+            final Connection connection = expiredConnections.get(i).take();
+            if (connection != null) {
+                idleConnectionCount.decrement();
+                closedConnections.add(connection);
+                availableConnections.release();
+                nonCoreConnectionCount--;
+            }
+        }
+
+        if (!closedConnections.isEmpty()) {
+            logger.debug(LocalizableMessage.raw(
+                    "Closing %d idle pooled connections: availableConnections=%d, maxPoolSize=%d",
+                    closedConnections.size(), currentPoolSize(), maxPoolSize));
+            for (final Connection connection : closedConnections) {
+                connection.close();
+            }
+        }
+    }
+
+    private boolean claim(final WaitingRequest request) {
+        if (request.isClaimed.compareAndSet(false, true)) {
+            waitingRequestCount.decrement();
+            return true;
+        }
+        return false;
+    }
+
+    private void closeConnectionOnPoolClosing(final Connection connection) {
+        // The connection will be closed, so decrease the pool size.
+        availableConnections.release();
+        connection.close();
+
+        logger.debug(LocalizableMessage.raw(
+                "Closing connection because connection pool is closing: availableConnections=%d, maxPoolSize=%d",
+                currentPoolSize(), maxPoolSize));
+    }
+
+    private void closeIdleConnections() {
+        for (Connection connection = pollIdleConnection(); connection != null; connection = pollIdleConnection()) {
+            availableConnections.release();
+            connection.close();
+        }
+    }
+
+    /** Pops the connection released last, skipping the ones taken by the purge. */
+    private Connection pollIdleConnection() {
+        for (;;) {
+            final IdleConnection top = idleConnections.get();
+            if (top == null) {
+                return null;
+            }
+            if (idleConnections.compareAndSet(top, top.next)) {
+                final Connection connection = top.take();
+                if (connection != null) {
+                    idleConnectionCount.decrement();
+                    return connection;
+                }
+            }
+        }
+    }
+
+    /** Package private for unit testing. */
+    int idleStackDepth() {
+        int depth = 0;
+        for (IdleConnection idle = idleConnections.get(); idle != null; idle = idle.next) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private WaitingRequest pollWaitingRequest() {
+        for (WaitingRequest request = waitingRequests.poll(); request != null; request = waitingRequests.poll()) {
+            if (claim(request)) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    private void pushIdleConnection(final Connection connection) {
+        final IdleConnection idle = new IdleConnection(connection, timeService.now());
+        idleConnectionCount.increment();
+        for (;;) {
+            final IdleConnection top = idleConnections.get();
+            if (top != null && top.isTaken()) {
+                // Unlink the connections taken by the purge of idle connections.
+                idleConnections.compareAndSet(top, top.next);
+                continue;
+            }
+            idle.next = top;
+            if (idleConnections.compareAndSet(top, idle)) {
+                return;
+            }
+        }
+    }
+}
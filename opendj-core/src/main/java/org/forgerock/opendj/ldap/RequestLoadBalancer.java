@@ -65,13 +65,13 @@ final class RequestLoadBalancer extends LoadBalancer {
      */
     private final Function<Request, PartitionedRequest, NeverThrowsException> nextFactoryFunction;
     /** A function which is called after a request is terminated. */
-    private final Function<Integer, Void, NeverThrowsException> endOfRequestFunction;
+    private final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequestFunction;
 
     RequestLoadBalancer(final String loadBalancerName,
                         final Collection<? extends ConnectionFactory> factories,
                         final Options options,
                         final Function<Request, PartitionedRequest, NeverThrowsException> nextFactoryFunction,
-                        final Function<Integer, Void, NeverThrowsException> endOfRequestFunction) {
+                        final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequestFunction) {
         super(loadBalancerName, factories, options);
         this.nextFactoryFunction = nextFactoryFunction;
         this.endOfRequestFunction = endOfRequestFunction;
@@ -246,8 +246,8 @@ final class RequestLoadBalancer extends LoadBalancer {
             if (state.isClosed()) {
                 throw new IllegalStateException();
             }
+            final PartitionedRequest partitionedRequest = nextFactoryFunction.apply(request);
             try {
-                final PartitionedRequest partitionedRequest = nextFactoryFunction.apply(request);
                 final ConnectionFactory factory = getMonitoredConnectionFactory(partitionedRequest.getServerIndex());
                 return new ConnectionContext(
                         LdapPromises.asPromise(factory.getConnectionAsync()
@@ -260,7 +260,8 @@ final class RequestLoadBalancer extends LoadBalancer {
             } catch (final LdapException e) {
                 state.notifyConnectionError(false, e);
                 LdapPromise<Connection> failedLdapPromise = newFailedLdapPromise(e);
-                return new ConnectionContext(failedLdapPromise, new PartitionedRequest(request, -1));
+                // The end of request function must still be applied to the chosen server
+                return new ConnectionContext(failedLdapPromise, partitionedRequest);
             }
         }
 
@@ -274,21 +275,45 @@ final class RequestLoadBalancer extends LoadBalancer {
                         }
                     })
                     .thenAsync(requestSender)
+                    .thenOnException(new ExceptionHandler<LdapException>() {
+                        @Override
+                        public void handleException(final LdapException e) {
+                            if (isServerFailure(e)) {
+                                connectionContext.getPartitionedRequest().setServerFailed();
+                            }
+                        }
+                    })
                     .thenFinally(new Runnable() {
                         @Override
                         public void run() {
                             closeSilently(connectionContext.getConnection());
-                            endOfRequestFunction.apply(connectionContext.getServerIndex());
+                            endOfRequestFunction.apply(connectionContext.getPartitionedRequest());
                         }
                     });
         }
     }
 
+    /**
+     * Returns {@code true} if the provided error means that the server could not process the request, because it
+     * could not be reached or was unavailable, as opposed to an error result of the request itself.
+     */
+    private static boolean isServerFailure(final LdapException e) {
+        if (e instanceof ConnectionException) {
+            return true;
+        }
+        final ResultCode resultCode = e.getResult().getResultCode();
+        return resultCode.equals(ResultCode.BUSY) || resultCode.equals(ResultCode.UNAVAILABLE);
+    }
+
     /** Utility class for a request and a server index. */
     static class PartitionedRequest {
         private final Request request;
         /** The index of server chosen for the connection. */
         private final int serverIndex;
+        /** The time at which the server was chosen, in nanoseconds. */
+        private final long startTimeNanos = System.nanoTime();
+        /** Whether the chosen server could not process the request. */
+        private volatile boolean serverFailed;
 
         PartitionedRequest(Request request, int serverIndex) {
             this.serverIndex = serverIndex;
@@ -302,6 +327,18 @@ final class RequestLoadBalancer extends LoadBalancer {
         int getServerIndex() {
             return serverIndex;
         }
+
+        long getStartTimeNanos() {
+            return startTimeNanos;
+        }
+
+        boolean isServerFailed() {
+            return serverFailed;
+        }
+
+        void setServerFailed() {
+            serverFailed = true;
+        }
     }
 
     /** Utility class to hold together parameters for a request and the connection used to perform it. */
@@ -327,8 +364,8 @@ final class RequestLoadBalancer extends LoadBalancer {
             return connectionPromise;
         }
 
-        int getServerIndex() {
-            return partitionedRequest.getServerIndex();
+        PartitionedRequest getPartitionedRequest() {
+            return partitionedRequest;
         }
 
         Request getRequest() {
@@ -20,17 +20,25 @@ package org.forgerock.opendj.ldap;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.requests.Requests;
 import org.forgerock.opendj.ldap.responses.ExtendedResult;
 import org.forgerock.opendj.ldap.responses.Responses;
+import org.forgerock.util.Options;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.promise.PromiseImpl;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.fest.assertions.Assertions.*;
@@ -46,6 +54,11 @@ import static org.mockito.Mockito.*;
 @SuppressWarnings("javadoc")
 public class ConnectionPoolTestCase extends SdkTestCase {
 
+    @DataProvider
+    public Object[][] lockFree() {
+        return new Object[][] { { false }, { true } };
+    }
+
     /**
      * A connection event listener registered against a pooled connection should
      * be notified when the pooled connection is closed, NOT when the underlying
@@ -54,12 +67,12 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testConnectionEventListenerClose() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testConnectionEventListenerClose(final boolean lockFree) throws Exception {
         final Connection pooledConnection = mock(Connection.class);
         when(pooledConnection.isValid()).thenReturn(true);
         final ConnectionFactory factory = mockConnectionFactory(pooledConnection);
-        final ConnectionPool pool = newFixedConnectionPool(factory, 1);
+        final ConnectionPool pool = newFixedConnectionPool(factory, 1, poolOptions(lockFree));
         final Connection connection = pool.getConnection();
         final ConnectionEventListener listener = mock(ConnectionEventListener.class);
         connection.addConnectionEventListener(listener);
@@ -81,12 +94,12 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testConnectionEventListenerError() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testConnectionEventListenerError(final boolean lockFree) throws Exception {
         final List<ConnectionEventListener> listeners = new LinkedList<>();
         final Connection mockConnection = mockConnection(listeners);
         final ConnectionFactory factory = mockConnectionFactory(mockConnection);
-        final ConnectionPool pool = newFixedConnectionPool(factory, 1);
+        final ConnectionPool pool = newFixedConnectionPool(factory, 1, poolOptions(lockFree));
         final Connection connection = pool.getConnection();
         final ConnectionEventListener listener = mock(ConnectionEventListener.class);
         connection.addConnectionEventListener(listener);
@@ -108,12 +121,12 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testConnectionEventListenerUnsolicitedNotification() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testConnectionEventListenerUnsolicitedNotification(final boolean lockFree) throws Exception {
         final List<ConnectionEventListener> listeners = new LinkedList<>();
         final Connection mockConnection = mockConnection(listeners);
         final ConnectionFactory factory = mockConnectionFactory(mockConnection);
-        final ConnectionPool pool = newFixedConnectionPool(factory, 1);
+        final ConnectionPool pool = newFixedConnectionPool(factory, 1, poolOptions(lockFree));
         final Connection connection = pool.getConnection();
         final ConnectionEventListener listener = mock(ConnectionEventListener.class);
         connection.addConnectionEventListener(listener);
@@ -140,8 +153,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testConnectionLifeCycle() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testConnectionLifeCycle(final boolean lockFree) throws Exception {
         // Setup.
         final BindRequest bind1 =
                 Requests.newSimpleBindRequest("cn=test1", "password".toCharArray());
@@ -156,7 +169,7 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         when(connection2.isValid()).thenReturn(true);
 
         final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2, poolOptions(lockFree));
 
         verifyZeroInteractions(factory);
         verifyZeroInteractions(connection1);
@@ -211,8 +224,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testGetConnectionAtCapacity() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testGetConnectionAtCapacity(final boolean lockFree) throws Exception {
         // Setup.
         final Connection connection1 = mock(Connection.class);
         when(connection1.isValid()).thenReturn(true);
@@ -224,7 +237,7 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         when(connection2.isValid()).thenReturn(true);
 
         final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2, poolOptions(lockFree));
 
         // Fully utilize the pool.
         final Connection pc1 = pool.getConnection();
@@ -261,8 +274,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testSkipStaleConnectionsOnClose() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testSkipStaleConnectionsOnClose(final boolean lockFree) throws Exception {
         // Setup.
         final Connection connection1 = mock(Connection.class);
         when(connection1.isValid()).thenReturn(true);
@@ -274,7 +287,7 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         when(connection2.isValid()).thenReturn(true);
 
         final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2, poolOptions(lockFree));
 
         /*
          * Simulate remote disconnect of connection1 while application is using
@@ -312,8 +325,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testSkipStaleConnectionsOnGet() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testSkipStaleConnectionsOnGet(final boolean lockFree) throws Exception {
         // Setup.
         final Connection connection1 = mock(Connection.class);
         when(connection1.isValid()).thenReturn(true);
@@ -325,7 +338,7 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         when(connection2.isValid()).thenReturn(true);
 
         final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2, poolOptions(lockFree));
 
         // Get and release a single connection.
         pool.getConnection().close();
@@ -357,8 +370,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testSkipStaleConnectionsOnGetWhenAtCapacity() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testSkipStaleConnectionsOnGetWhenAtCapacity(final boolean lockFree) throws Exception {
         // Setup.
         final Connection connection1 = mock(Connection.class);
         when(connection1.isValid()).thenReturn(true);
@@ -374,7 +387,7 @@ public class ConnectionPoolTestCase extends SdkTestCase {
 
         final ConnectionFactory factory =
                 mockConnectionFactory(connection1, connection2, connection3);
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 2, poolOptions(lockFree));
 
         // Fully allocate the pool.
         final Connection pc1 = pool.getConnection();
@@ -409,8 +422,8 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * @throws Exception
      *             If an unexpected error occurred.
      */
-    @Test
-    public void testConnectionKeepAliveExpiration() throws Exception {
+    @Test(dataProvider = "lockFree")
+    public void testConnectionKeepAliveExpiration(final boolean lockFree) throws Exception {
         final Connection pooledConnection1 = mock(Connection.class, "pooledConnection1");
         final Connection pooledConnection2 = mock(Connection.class, "pooledConnection2");
         final Connection pooledConnection3 = mock(Connection.class, "pooledConnection3");
@@ -429,8 +442,9 @@ public class ConnectionPoolTestCase extends SdkTestCase {
                 mockConnectionFactory(pooledConnection1, pooledConnection2, pooledConnection3,
                         pooledConnection4, pooledConnection5, pooledConnection6);
         final MockScheduler scheduler = new MockScheduler();
-        final CachedConnectionPool pool =
-                new CachedConnectionPool(factory, 2, 4, 100, TimeUnit.MILLISECONDS, scheduler);
+        final AbstractConnectionPool pool = lockFree
+                ? new LockFreeConnectionPool(factory, 2, 4, 100, TimeUnit.MILLISECONDS, scheduler)
+                : new CachedConnectionPool(factory, 2, 4, 100, TimeUnit.MILLISECONDS, scheduler);
         assertThat(scheduler.isScheduled()).isTrue();
 
         // First populate the pool with idle connections at time 0.
@@ -502,11 +516,11 @@ public class ConnectionPoolTestCase extends SdkTestCase {
      * connection request fails.
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    @Test(description = "OPENDJ-1348", timeOut = 10000)
-    public void testNewConnectionFailureFlushesAllPendingPromises() throws Exception {
+    @Test(description = "OPENDJ-1348", dataProvider = "lockFree", timeOut = 10000)
+    public void testNewConnectionFailureFlushesAllPendingPromises(final boolean lockFree) throws Exception {
         final ConnectionFactory factory = mock(ConnectionFactory.class);
         final int poolSize = 2;
-        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, poolSize);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, poolSize, poolOptions(lockFree));
         doAnswer(new Answer<Promise<Connection, LdapException>>() {
             @Override
             public Promise<Connection, LdapException> answer(final InvocationOnMock invocation)
@@ -536,4 +550,196 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         }
     }
 
+    /**
+     * Verifies that a lock-free pool reuses the connection released last
+     * first.
+     *
+     * @throws Exception
+     *             If an unexpected error occurred.
+     */
+    @Test
+    public void testLockFreePoolReusesLastReleasedConnection() throws Exception {
+        final BindRequest bind1 =
+                Requests.newSimpleBindRequest("cn=test1", "password".toCharArray());
+        final Connection connection1 = mock(Connection.class);
+        when(connection1.bind(bind1)).thenReturn(Responses.newBindResult(ResultCode.SUCCESS));
+        when(connection1.isValid()).thenReturn(true);
+        final BindRequest bind2 =
+                Requests.newSimpleBindRequest("cn=test2", "password".toCharArray());
+        final Connection connection2 = mock(Connection.class);
+        when(connection2.bind(bind2)).thenReturn(Responses.newBindResult(ResultCode.SUCCESS));
+        when(connection2.isValid()).thenReturn(true);
+
+        final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
+        final ConnectionPool pool = newFixedConnectionPool(factory, 2, poolOptions(true));
+        final Connection pc1 = pool.getConnection();
+        final Connection pc2 = pool.getConnection();
+        pc2.close();
+        pc1.close();
+
+        // The least recently released connection is used when the last released one is busy.
+        final Connection pc3 = pool.getConnection();
+        final Connection pc4 = pool.getConnection();
+        assertThat(pc3.bind(bind1).getResultCode()).isEqualTo(ResultCode.SUCCESS);
+        assertThat(pc4.bind(bind2).getResultCode()).isEqualTo(ResultCode.SUCCESS);
+        pc3.close();
+        pc4.close();
+
+        final Connection pc5 = pool.getConnection();
+        assertThat(pc5.bind(bind2).getResultCode()).isEqualTo(ResultCode.SUCCESS);
+        pc5.close();
+        verify(factory, times(2)).getConnection();
+        pool.close();
+        verify(connection1).close();
+        verify(connection2).close();
+    }
+
+    /**
+     * Verifies that requesting a connection from a closed pool fails with an
+     * exception naming the pool implementation.
+     *
+     * @throws Exception
+     *             If an unexpected error occurred.
+     */
+    @Test(dataProvider = "lockFree")
+    public void testGetConnectionFromClosedPool(final boolean lockFree) throws Exception {
+        final Connection connection = mock(Connection.class);
+        when(connection.isValid()).thenReturn(true);
+        final ConnectionFactory factory = mockConnectionFactory(connection);
+        final ConnectionPool pool = newFixedConnectionPool(factory, 2, poolOptions(lockFree));
+        pool.getConnection().close();
+        pool.close();
+        verify(connection).close();
+
+        try {
+            pool.getConnectionAsync();
+            Assert.fail("Expected an IllegalStateException");
+        } catch (final IllegalStateException e) {
+            assertThat(e.getMessage()).isEqualTo(
+                    (lockFree ? "LockFreeConnectionPool" : "CachedConnectionPool") + " is already closed");
+        }
+    }
+
+    /**
+     * Verifies that a lock-free pool never exceeds its maximum size and never
+     * loses connections when many threads obtain and release connections
+     * concurrently.
+     *
+     * @throws Exception
+     *             If an unexpected error occurred.
+     */
+    @Test(timeOut = 30000)
+    public void testLockFreePoolUnderContention() throws Exception {
+        final int poolSize = 4;
+        final Connection[] connections = new Connection[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            connections[i] = mock(Connection.class);
+            when(connections[i].isValid()).thenReturn(true);
+        }
+        final ConnectionFactory factory = mockConnectionFactory(connections[0], connections[1], connections[2],
+                connections[3]);
+        final ConnectionPool pool = newFixedConnectionPool(factory, poolSize, poolOptions(true));
+        final AtomicInteger borrowed = new AtomicInteger();
+        final AtomicInteger maxBorrowed = new AtomicInteger();
+        final int nbThreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            final List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 1000; j++) {
+                            final Connection connection = pool.getConnection();
+                            final int nowBorrowed = borrowed.incrementAndGet();
+                            if (nowBorrowed > maxBorrowed.get()) {
+                                maxBorrowed.set(nowBorrowed);
+                            }
+                            borrowed.decrementAndGet();
+                            connection.close();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(maxBorrowed.get()).isLessThanOrEqualTo(poolSize);
+        verify(factory, atMost(poolSize)).getConnection();
+        assertThat(pool.toString()).contains("out:0").contains("blocked=0");
+        pool.close();
+    }
+
+    /**
+     * Verifies that the stack of idle connections of a lock-free pool does not
+     * grow when two threads alternately release and obtain connections.
+     *
+     * @throws Exception
+     *             If an unexpected error occurred.
+     */
+    @Test(timeOut = 30000)
+    public void testLockFreePoolStackStaysBoundedWithAlternatingThreads() throws Exception {
+        final int poolSize = 2;
+        final Connection connection1 = mock(Connection.class);
+        when(connection1.isValid()).thenReturn(true);
+        final Connection connection2 = mock(Connection.class);
+        when(connection2.isValid()).thenReturn(true);
+        final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
+        final LockFreeConnectionPool pool =
+                (LockFreeConnectionPool) newFixedConnectionPool(factory, poolSize, poolOptions(true));
+        final ExecutorService thread1 = Executors.newSingleThreadExecutor();
+        final ExecutorService thread2 = Executors.newSingleThreadExecutor();
+        try {
+            final AtomicReference<Connection> held1 = new AtomicReference<>(pool.getConnection());
+            final AtomicReference<Connection> held2 = new AtomicReference<>(pool.getConnection());
+            runOn(thread2, releaseConnection(held2));
+            for (int i = 0; i < 1000; i++) {
+                runOn(thread1, releaseConnection(held1));
+                runOn(thread2, obtainConnection(pool, held2));
+                runOn(thread2, releaseConnection(held2));
+                runOn(thread1, obtainConnection(pool, held1));
+                assertThat(pool.idleStackDepth()).isLessThanOrEqualTo(poolSize);
+            }
+        } finally {
+            thread1.shutdown();
+            thread2.shutdown();
+        }
+
+        verify(factory, times(poolSize)).getConnection();
+        pool.close();
+    }
+
+    private static void runOn(final ExecutorService thread, final Callable<Void> task) throws Exception {
+        thread.submit(task).get();
+    }
+
+    private static Callable<Void> releaseConnection(final AtomicReference<Connection> held) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                held.getAndSet(null).close();
+                return null;
+            }
+        };
+    }
+
+    private static Callable<Void> obtainConnection(final ConnectionPool pool,
+            final AtomicReference<Connection> held) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                held.set(pool.getConnection());
+                return null;
+            }
+        };
+    }
+
+    private static Options poolOptions(final boolean lockFree) {
+        return Options.defaultOptions().set(CONNECTION_POOL_LOCK_FREE, lockFree);
+    }
 }
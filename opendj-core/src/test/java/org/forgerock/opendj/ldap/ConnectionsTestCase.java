@@ -16,6 +16,7 @@
 package org.forgerock.opendj.ldap;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.forgerock.opendj.ldap.Connections.*;
 import static org.mockito.Mockito.mock;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import org.forgerock.opendj.ldap.Connections.LeastLoadedDispatcher;
 import org.forgerock.opendj.ldap.Connections.LeastRequestsDispatcher;
 import org.forgerock.opendj.ldap.RequestLoadBalancer.PartitionedRequest;
 import org.forgerock.opendj.ldap.requests.AddRequest;
@@ -148,7 +150,7 @@ public class ConnectionsTestCase extends SdkTestCase {
         LeastRequestsDispatcher dispatcher = new Connections.LeastRequestsDispatcher(3);
         Function<Request, PartitionedRequest, NeverThrowsException> next =
                 newLeastRequestsLoadBalancerNextFunction(dispatcher);
-        Function<Integer, Void, NeverThrowsException> end =
+        Function<PartitionedRequest, Void, NeverThrowsException> end =
                 newLeastRequestsLoadBalancerEndOfRequestFunction(dispatcher);
 
         final SearchRequest[] reqs = new SearchRequest[11];
@@ -158,15 +160,15 @@ public class ConnectionsTestCase extends SdkTestCase {
         assertThat(next.apply(reqs[0]).getServerIndex()).isEqualTo(0);  // number of reqs = [1, 0, 0]
         assertThat(next.apply(reqs[1]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 0]
         assertThat(next.apply(reqs[2]).getServerIndex()).isEqualTo(2);  // number of reqs = [1, 1, 1]
-        end.apply(1);                                                   // number of reqs = [1, 0, 1]
+        end.apply(new PartitionedRequest(reqs[1], 1));                  // number of reqs = [1, 0, 1]
         assertThat(next.apply(reqs[3]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 1]
-        end.apply(1);                                                   // number of reqs = [1, 0, 1]
+        end.apply(new PartitionedRequest(reqs[1], 1));                  // number of reqs = [1, 0, 1]
         assertThat(next.apply(reqs[5]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 1]
         assertThat(next.apply(reqs[6]).getServerIndex()).isEqualTo(0);  // number of reqs = [2, 1, 1]
         assertThat(next.apply(reqs[7]).getServerIndex()).isEqualTo(1);  // number of reqs = [2, 2, 1]
         assertThat(next.apply(reqs[8]).getServerIndex()).isEqualTo(2);  // number of reqs = [2, 2, 2]
         assertThat(next.apply(reqs[9]).getServerIndex()).isEqualTo(0);  // number of reqs = [3, 2, 2]
-        end.apply(2);                                                   // number of reqs = [3, 2, 1]
+        end.apply(new PartitionedRequest(reqs[2], 2));                  // number of reqs = [3, 2, 1]
         assertThat(next.apply(reqs[10]).getServerIndex()).isEqualTo(2); // number of reqs = [3, 2, 2]
     }
 
@@ -211,6 +213,64 @@ public class ConnectionsTestCase extends SdkTestCase {
         assertThat(next.apply(reqs[9]).getServerIndex()).isEqualTo(2); // number of reqs = [4, 3, 3]
     }
 
+    @Test
+    public void leastLoadedDispatcherMustChooseTheLessLoadedServer() {
+        final LeastLoadedDispatcher dispatcher = new LeastLoadedDispatcher(2);
+        final long now = System.nanoTime();
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(2), now);
+        dispatcher.recordResponseTime(1, MILLISECONDS.toNanos(3), now);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(0); // load = [2, 3]
+
+        dispatcher.selectServer(0);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(1); // load = [4, 3]
+        dispatcher.selectServer(1);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(0); // load = [4, 6]
+    }
+
+    @Test
+    public void leastLoadedDispatcherMustNotChooseSlowOrOfflineServers() {
+        final LeastLoadedDispatcher dispatcher = new LeastLoadedDispatcher(3);
+        final long now = System.nanoTime();
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(1), now);
+        dispatcher.recordResponseTime(1, MILLISECONDS.toNanos(2), now);
+        dispatcher.recordResponseTime(2, MILLISECONDS.toNanos(50), now);
+        for (int i = 0; i < 100; i++) {
+            dispatcher.selectServer(0);
+            assertThat(dispatcher.getLeastLoadedIndex(now)).isNotEqualTo(2);
+        }
+
+        dispatcher.setOperational(1, false);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(0);
+        dispatcher.setOperational(0, false);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(2);
+    }
+
+    @Test
+    public void leastLoadedDispatcherMustEventuallyRetrySlowServers() {
+        final LeastLoadedDispatcher dispatcher = new LeastLoadedDispatcher(2);
+        final long now = System.nanoTime();
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(1), now);
+        dispatcher.recordResponseTime(1, MILLISECONDS.toNanos(50), now);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(0);
+
+        // Only the fast server keeps receiving requests
+        final long later = now + 5 * LeastLoadedDispatcher.DECAY_TIME_NANOS;
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(1), later);
+        assertThat(dispatcher.getLeastLoadedIndex(later)).isEqualTo(1);
+    }
+
+    @Test
+    public void leastLoadedDispatcherMustFollowLatencyIncreases() {
+        final LeastLoadedDispatcher dispatcher = new LeastLoadedDispatcher(2);
+        final long now = System.nanoTime();
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(1), now);
+        dispatcher.recordResponseTime(1, MILLISECONDS.toNanos(2), now);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(0);
+
+        dispatcher.recordResponseTime(0, MILLISECONDS.toNanos(10), now);
+        assertThat(dispatcher.getLeastLoadedIndex(now)).isEqualTo(1);
+    }
+
     private void assertRequestsAreRoutedConsistently(
             final Function<Request, PartitionedRequest, NeverThrowsException> f, final Request r,
             final int firstExpectedIndex, final int secondExpectedIndex) {
@@ -18,7 +18,9 @@ package org.forgerock.opendj.ldap;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.forgerock.opendj.ldap.Connections.LOAD_BALANCER_EVENT_LISTENER;
 import static org.forgerock.opendj.ldap.LdapException.newLdapException;
+import static org.forgerock.opendj.ldap.ResultCode.BUSY;
 import static org.forgerock.opendj.ldap.ResultCode.CLIENT_SIDE_CONNECT_ERROR;
 import static org.forgerock.opendj.ldap.responses.Responses.newBindResult;
 import static org.forgerock.opendj.ldap.responses.Responses.newCompareResult;
@@ -35,6 +37,9 @@ import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.forgerock.opendj.ldap.RequestLoadBalancer.PartitionedRequest;
@@ -49,10 +54,14 @@ import org.forgerock.opendj.ldap.requests.ModifyDNRequest;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.Request;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.spi.LdapPromises;
 import org.forgerock.util.Function;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promises;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -191,6 +200,77 @@ public class RequestLoadBalancerTestCase extends SdkTestCase {
         verifyZeroInteractions(factory1, factory2, factory3);
     }
 
+    @Test
+    public void leastLoadedLoadBalancerShouldStopRoutingRequestsToOfflineFactories() throws Exception {
+        configureFactoriesOneAndTwoOffline();
+        final Set<ConnectionFactory> offlineFactories = Collections.synchronizedSet(new HashSet<ConnectionFactory>());
+        final LoadBalancerEventListener listener = new LoadBalancerEventListener() {
+            @Override
+            public void handleConnectionFactoryOffline(final ConnectionFactory factory, final LdapException error) {
+                offlineFactories.add(factory);
+            }
+
+            @Override
+            public void handleConnectionFactoryOnline(final ConnectionFactory factory) {
+                offlineFactories.remove(factory);
+            }
+        };
+        final ConnectionFactory leastLoaded = Connections.newLeastLoadedLoadBalancer(
+                asList(factory1, factory2, factory3), defaultOptions().set(LOAD_BALANCER_EVENT_LISTENER, listener));
+        try (Connection connection = leastLoaded.getConnection()) {
+            for (int i = 0; i < 1000 && offlineFactories.size() < 2; i++) {
+                try {
+                    connection.add(addRequest1);
+                } catch (LdapException ignored) {
+                    // Ignore.
+                }
+            }
+            assertThat(offlineFactories).containsOnly(factory1, factory2);
+
+            for (int i = 0; i < 10; i++) {
+                connection.add(addRequest1);
+            }
+            verify(connection3, atLeast(10)).addAsync(same(addRequest1), isNull(IntermediateResponseHandler.class));
+        } finally {
+            leastLoaded.close();
+        }
+    }
+
+    @Test
+    public void leastLoadedLoadBalancerShouldNotFavorFastFailingFactories() throws Exception {
+        configureAllFactoriesOnline();
+        when(connection1.addAsync(any(AddRequest.class), any(IntermediateResponseHandler.class)))
+                .thenReturn(LdapPromises.<Result, LdapException>newFailedLdapPromise(newLdapException(BUSY)));
+        final Answer<LdapPromise<Result>> slowSuccess = new Answer<LdapPromise<Result>>() {
+            @Override
+            public LdapPromise<Result> answer(final InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(1);
+                return newSuccessfulLdapPromise(newResult(ResultCode.SUCCESS));
+            }
+        };
+        when(connection2.addAsync(any(AddRequest.class), any(IntermediateResponseHandler.class)))
+                .thenAnswer(slowSuccess);
+        when(connection3.addAsync(any(AddRequest.class), any(IntermediateResponseHandler.class)))
+                .thenAnswer(slowSuccess);
+        final ConnectionFactory leastLoaded =
+                Connections.newLeastLoadedLoadBalancer(asList(factory1, factory2, factory3), defaultOptions());
+        try (Connection connection = leastLoaded.getConnection()) {
+            int failures = 0;
+            for (int i = 0; i < 100; i++) {
+                try {
+                    connection.add(addRequest1);
+                } catch (LdapException e) {
+                    assertThat(e.getResult().getResultCode()).isEqualTo(BUSY);
+                    failures++;
+                }
+            }
+            // The failing server is shed once it has failed a request
+            assertThat(failures).isLessThanOrEqualTo(3);
+        } finally {
+            leastLoaded.close();
+        }
+    }
+
     // We can't use a DataProviders here because the mocks will be re-initialized for each test method call.
 
     // ################## Add Requests ####################
@@ -63,9 +63,7 @@ final class ASN1BufferReader extends AbstractASN1Reader {
                 logger.debug(LocalizableMessage.raw(
                     "Ignoring %d unused trailing bytes in ASN.1 SEQUENCE: %s", remaining(),toString()));
             }
-            for (int i = 0; i < remaining(); i++) {
-                buffer.get();
-            }
+            buffer.position(buffer.position() + remaining());
             return parent;
         }
 
@@ -146,6 +144,8 @@ final class ASN1BufferReader extends AbstractASN1Reader {
     private int lengthBytesNeeded;
     private final int maxElementSize;
     private final Buffer buffer;
+    /** The cache of the strings decoded by the readers of a connection, may be {@code null}. */
+    private final DecodedStringCache stringCache;
     private SequenceLimiter readLimiter;
 
     /**
@@ -160,9 +160,69 @@ final class ASN1BufferReader extends AbstractASN1Reader {
      *            @{code {@link #close()} this reader will also dispose the buffer.
      */
     ASN1BufferReader(final int maxElementSize, final Buffer buffer) {
+        this(maxElementSize, buffer, null);
+    }
+
+    /**
+     * Creates a new ASN1 reader whose source is the provided buffer, having a user defined maximum BER element size,
+     * and which looks up the strings it decodes in the provided cache.
+     *
+     * @param maxElementSize
+     *            The maximum BER element size, or <code>0</code> to indicate
+     *            that there is no limit.
+     * @param buffer
+     *            The buffer where the content will be read from. Note that
+     *            @{code {@link #close()} this reader will also dispose the buffer.
+     * @param stringCache
+     *            The cache of the strings decoded by the readers of a connection.
+     */
+    ASN1BufferReader(final int maxElementSize, final Buffer buffer, final DecodedStringCache stringCache) {
         this.readLimiter = new RootSequenceLimiter();
         this.buffer = buffer;
         this.maxElementSize = maxElementSize;
+        this.stringCache = stringCache;
+    }
+
+    /**
+     * Returns the length of the ASN.1 element at the current position of the provided buffer, including its type and
+     * length bytes, without creating a reader nor moving the buffer position.
+     *
+     * @param buffer
+     *            The buffer containing the element.
+     * @param maxElementSize
+     *            The maximum BER element size, or <code>0</code> to indicate
+     *            that there is no limit.
+     * @return The length of the element, or {@code -1} if the buffer does not contain its type and length bytes yet.
+     * @throws DecodeException
+     *             If the length of the element is invalid or exceeds the maximum BER element size.
+     */
+    static int peekElementLength(final Buffer buffer, final int maxElementSize) throws DecodeException {
+        final int start = buffer.position();
+        final int limit = buffer.limit();
+        // Skip the type byte
+        int position = start + 1;
+        if (position >= limit) {
+            return -1;
+        }
+        final byte firstLengthByte = buffer.get(position++);
+        int length = firstLengthByte & 0x7F;
+        if (length != firstLengthByte) {
+            final int lengthBytes = length;
+            if (lengthBytes > 4) {
+                throw DecodeException.fatalError(ERR_ASN1_INVALID_NUM_LENGTH_BYTES.get(lengthBytes));
+            }
+            if (position + lengthBytes > limit) {
+                return -1;
+            }
+            length = 0;
+            for (int i = 0; i < lengthBytes; i++) {
+                length = (length << 8) | (buffer.get(position++) & 0xFF);
+            }
+        }
+        if (length < 0 || (maxElementSize > 0 && length > maxElementSize)) {
+            throw DecodeException.fatalError(ERR_LDAP_CLIENT_DECODE_MAX_REQUEST_SIZE_EXCEEDED.get(length, maxElementSize));
+        }
+        return position - start + length;
     }
 
     /**
@@ -356,6 +416,10 @@ final class ASN1BufferReader extends AbstractASN1Reader {
         }
 
         readLimiter.checkLimit(peekLength);
+        return readOctetStringValue();
+    }
+
+    private ByteString readOctetStringValue() {
         // Copy the value and construct the element to return.
         final byte[] value = new byte[peekLength];
         buffer.get(value);
@@ -366,6 +430,38 @@ final class ASN1BufferReader extends AbstractASN1Reader {
         return ByteString.wrap(value);
     }
 
+    /**
+     * Reads the next element as an octet string, returning the provided byte string instead of a new one if it has
+     * the same content.
+     *
+     * @param previous
+     *            The previously read byte string, may be {@code null}.
+     * @return The decoded octet string, which is {@code previous} if it is equal.
+     * @throws IOException
+     *             If an error occurs while reading the element.
+     */
+    ByteString readOctetString(final ByteString previous) throws IOException {
+        // Read the header if haven't done so already
+        peekLength();
+
+        if (previous == null || previous.length() != peekLength) {
+            return readOctetString();
+        }
+        readLimiter.checkLimit(peekLength);
+        final int position = buffer.position();
+        for (int i = 0; i < peekLength; i++) {
+            if (previous.byteAt(i) != buffer.get(position + i)) {
+                return readOctetStringValue();
+            }
+        }
+        buffer.position(position + peekLength);
+
+        logger.trace("READ ASN.1 OCTETSTRING(type=0x%x, length=%d)", peekType, peekLength);
+
+        state = ASN1.ELEMENT_READ_STATE_NEED_TYPE;
+        return previous;
+    }
+
     @Override
     public ByteStringBuilder readOctetString(final ByteStringBuilder builder) throws IOException {
         // Read the header if haven't done so already
@@ -378,9 +474,13 @@ final class ASN1BufferReader extends AbstractASN1Reader {
 
         readLimiter.checkLimit(peekLength);
         // Copy the value and construct the element to return.
-        // TODO: Is there a more efficient way to do this?
-        for (int i = 0; i < peekLength; i++) {
-            builder.appendByte(buffer.get());
+        if (buffer.hasArray()) {
+            builder.appendBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), peekLength);
+            buffer.position(buffer.position() + peekLength);
+        } else {
+            for (int i = 0; i < peekLength; i++) {
+                builder.appendByte(buffer.get());
+            }
         }
 
         logger.trace("READ ASN.1 OCTETSTRING(type=0x%x, length=%d)", peekType, peekLength);
@@ -403,16 +503,17 @@ final class ASN1BufferReader extends AbstractASN1Reader {
 
         state = ASN1.ELEMENT_READ_STATE_NEED_TYPE;
 
-        String str;
+        final int position = buffer.position();
+        String str = stringCache != null ? stringCache.get(buffer, position, peekLength) : null;
         try {
-            str = buffer.toStringContent(StandardCharsets.UTF_8, buffer.position(), buffer.position() + peekLength);
-        } catch (final Exception e) {
-            // TODO: I18N
-            logger.warn(LocalizableMessage.raw("Unable to decode ASN.1 OCTETSTRING bytes as UTF-8 string: %s", e));
-
-            str = buffer.toStringContent(Charset.defaultCharset(), buffer.position(), buffer.position() + peekLength);
+            if (str == null) {
+                str = decodeString(position, peekLength);
+                if (stringCache != null) {
+                    stringCache.put(buffer, position, peekLength, str);
+                }
+            }
         } finally {
-            buffer.position(buffer.position() + peekLength);
+            buffer.position(position + peekLength);
         }
 
         logger.trace("READ ASN.1 OCTETSTRING(type=0x%x, length=%d, value=%s)", peekType, peekLength, str);
@@ -420,6 +521,17 @@ final class ASN1BufferReader extends AbstractASN1Reader {
         return str;
     }
 
+    private String decodeString(final int position, final int length) {
+        try {
+            return buffer.toStringContent(StandardCharsets.UTF_8, position, position + length);
+        } catch (final Exception e) {
+            // TODO: I18N
+            logger.warn(LocalizableMessage.raw("Unable to decode ASN.1 OCTETSTRING bytes as UTF-8 string: %s", e));
+
+            return buffer.toStringContent(Charset.defaultCharset(), position, position + length);
+        }
+    }
+
     @Override
     public void readStartSequence() throws IOException {
         // Read the header if haven't done so already
@@ -451,9 +563,7 @@ final class ASN1BufferReader extends AbstractASN1Reader {
         peekLength();
 
         readLimiter.checkLimit(peekLength);
-        for (int i = 0; i < peekLength; i++) {
-            buffer.get();
-        }
+        buffer.position(buffer.position() + peekLength);
         state = ASN1.ELEMENT_READ_STATE_NEED_TYPE;
         return this;
     }
@@ -0,0 +1,103 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.grizzly;
+
+import org.glassfish.grizzly.Buffer;
+
+/**
+ * A cache of the strings decoded from the LDAP messages received on a connection, such as attribute names, object
+ * identifiers and DNs, which are usually the same from one request to the next.
+ * <p>
+ * The cache is a small direct mapped table holding the most recently decoded short strings, so that decoding an
+ * already seen string does not allocate anything. It is shared by the readers of all the messages received on the
+ * connection, which may be decoded concurrently: entries are immutable, and losing a concurrent update is harmless.
+ */
+final class DecodedStringCache {
+    /** The maximum length in bytes of the cached strings. */
+    static final int MAX_LENGTH = 32;
+    /** The number of entries, which must be a power of two. */
+    private static final int SIZE = 32;
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final String string;
+
+        private Entry(final byte[] bytes, final String string) {
+            this.bytes = bytes;
+            this.string = string;
+        }
+    }
+
+    private final Entry[] entries = new Entry[SIZE];
+
+    /**
+     * Returns the cached string decoded from the provided bytes.
+     *
+     * @param buffer
+     *            The buffer containing the bytes.
+     * @param position
+     *            The position of the bytes in the buffer.
+     * @param length
+     *            The number of bytes.
+     * @return The cached string, or {@code null} if it is not cached.
+     */
+    String get(final Buffer buffer, final int position, final int length) {
+        if (length > MAX_LENGTH) {
+            return null;
+        }
+        final Entry entry = entries[hash(buffer, position, length) & (SIZE - 1)];
+        if (entry == null || entry.bytes.length != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (entry.bytes[i] != buffer.get(position + i)) {
+                return null;
+            }
+        }
+        return entry.string;
+    }
+
+    /**
+     * Caches the string decoded from the provided bytes.
+     *
+     * @param buffer
+     *            The buffer containing the bytes.
+     * @param position
+     *            The position of the bytes in the buffer.
+     * @param length
+     *            The number of bytes.
+     * @param string
+     *            The string decoded from the bytes.
+     */
+    void put(final Buffer buffer, final int position, final int length, final String string) {
+        if (length > MAX_LENGTH) {
+            return;
+        }
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        entries[hash(buffer, position, length) & (SIZE - 1)] = new Entry(bytes, string);
+    }
+
+    private static int hash(final Buffer buffer, final int position, final int length) {
+        int hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(position + i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
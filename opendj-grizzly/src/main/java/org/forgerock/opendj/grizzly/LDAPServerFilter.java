@@ -376,7 +376,8 @@ public final class LDAPServerFilter extends BaseFilter {
             return newCompletable(new Completable.Emitter() {
                 @Override
                 public void subscribe(Completable.Subscriber e) {
-                    messages.subscribe(new LdapResponseMessageWriter(connection, e));
+                    messages.subscribe(new LdapResponseMessageWriter(
+                            connection, e, connectionOptions.get(LDAPListener.RESPONSE_MAX_BATCH_SIZE)));
                 }
             });
         }
@@ -15,15 +15,15 @@
  */
 package org.forgerock.opendj.grizzly;
 
-import static com.forgerock.opendj.ldap.CoreMessages.ERR_LDAP_CLIENT_DECODE_MAX_REQUEST_SIZE_EXCEEDED;
 import static org.forgerock.opendj.io.LDAP.*;
 import static org.forgerock.opendj.ldap.spi.LdapMessages.newRequestEnvelope;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import org.forgerock.opendj.io.LDAPWriter;
 import org.forgerock.opendj.ldap.ByteString;
-import org.forgerock.opendj.ldap.DecodeException;
 import org.forgerock.opendj.ldap.DecodeOptions;
 import org.forgerock.opendj.ldap.responses.BindResult;
 import org.forgerock.opendj.ldap.responses.CompareResult;
@@ -46,6 +46,10 @@ import org.glassfish.grizzly.filterchain.NextAction;
 abstract class LdapCodec extends LDAPBaseFilter {
     private boolean isLdapV2Pending;
     private boolean isLdapV2;
+    /** The strings decoded from the messages received on the connection. */
+    private final DecodedStringCache stringCache = new DecodedStringCache();
+    /** The DN of the last message received on the connection, reused by the next messages targeting the same DN. */
+    private ByteString lastRawDn;
 
     LdapCodec(final int maxElementSize, final DecodeOptions decodeOptions) {
         super(decodeOptions, maxElementSize);
@@ -55,28 +59,18 @@ abstract class LdapCodec extends LDAPBaseFilter {
     public NextAction handleRead(final FilterChainContext ctx) throws IOException {
         try {
             final Buffer buffer = ctx.getMessage();
-            final ASN1BufferReader reader = new ASN1BufferReader(maxASN1ElementSize, buffer);
-                // Due to a bug in grizzly's ByteBufferWrapper.split(), we can't use byteBuffer.mark()
-                final int mark = buffer.position();
-                if (!reader.elementAvailable()) {
-                    buffer.position(mark);
-                    // We need to create a duplicate because buffer will be closed by the reader (try-with-resources)
-//                  final Buffer bufferDuplicated = buffer.duplicate();
-                    return ctx.getStopAction(buffer);
-                }
-                final int length = reader.peekLength();
-                if (length > maxASN1ElementSize) {
-                    buffer.position(mark);
-                    throw DecodeException.fatalError(
-                            ERR_LDAP_CLIENT_DECODE_MAX_REQUEST_SIZE_EXCEEDED.get(length, maxASN1ElementSize));
-                }
-                final Buffer remainder = (buffer.remaining() > length)
-                        ? buffer.split(buffer.position() + length)
-                        : null;
-                buffer.position(mark);
-                ctx.setMessage(decodePacket(new ASN1BufferReader(maxASN1ElementSize, buffer.asReadOnlyBuffer())));
-                reader.close();
-                return ctx.getInvokeAction(remainder);
+            // Peeking the length of the message does not need a reader
+            final int length = ASN1BufferReader.peekElementLength(buffer, maxASN1ElementSize);
+            if (length < 0 || length > buffer.remaining()) {
+                return ctx.getStopAction(buffer);
+            }
+            final Buffer remainder = (buffer.remaining() > length)
+                    ? buffer.split(buffer.position() + length)
+                    : null;
+            ctx.setMessage(decodePacket(
+                    new ASN1BufferReader(maxASN1ElementSize, buffer.asReadOnlyBuffer(), stringCache)));
+            buffer.tryDispose();
+            return ctx.getInvokeAction(remainder);
         } catch (Exception e) {
             onLdapCodecError(ctx, e);
             ctx.getConnection().closeSilently();
@@ -102,7 +96,7 @@ abstract class LdapCodec extends LDAPBaseFilter {
             case OP_TYPE_BIND_REQUEST:
                 reader.readStartSequence(messageType);
                 ldapVersion = (int) reader.readInteger();
-                rawDn = reader.readOctetString();
+                rawDn = reader.readOctetString(lastRawDn);
                 isLdapV2Pending = ldapVersion == 2;
                 break;
             case OP_TYPE_DELETE_REQUEST:
@@ -115,31 +109,46 @@ abstract class LdapCodec extends LDAPBaseFilter {
             case OP_TYPE_MODIFY_REQUEST:
             case OP_TYPE_SEARCH_REQUEST:
                 reader.readStartSequence(messageType);
-                rawDn = reader.readOctetString();
+                rawDn = reader.readOctetString(lastRawDn);
                 ldapVersion = -1;
                 break;
             default:
                 rawDn = null;
                 ldapVersion = -1;
             }
+            if (rawDn != null) {
+                lastRawDn = rawDn;
+            }
             return newRequestEnvelope(messageType, messageId, ldapVersion, rawDn, reader);
         } finally {
             reader.reset();
         }
     }
 
+    /**
+     * Encodes either a single {@link LdapResponseMessage} or a list of them, which are then encoded into the same
+     * buffer so that they are written at once.
+     */
     @Override
     public NextAction handleWrite(final FilterChainContext ctx) throws IOException {
-        final LdapResponseMessage response = ctx.<LdapResponseMessage>getMessage();
-        if (response.getMessageType() == OP_TYPE_BIND_RESPONSE && ((BindResult) response.getContent()).isSuccess()) {
-            isLdapV2 = isLdapV2Pending;
+        final Object message = ctx.getMessage();
+        final List<LdapResponseMessage> responses = message instanceof List
+                ? ctx.<List<LdapResponseMessage>> getMessage()
+                : Collections.singletonList(ctx.<LdapResponseMessage> getMessage());
+        for (final LdapResponseMessage response : responses) {
+            if (response.getMessageType() == OP_TYPE_BIND_RESPONSE
+                    && ((BindResult) response.getContent()).isSuccess()) {
+                isLdapV2 = isLdapV2Pending;
+            }
         }
         final int protocolVersion = isLdapV2 ? 2 : 3;
 
         final LDAPWriter<ASN1BufferWriter> writer = GrizzlyUtils.getWriter(ctx.getMemoryManager(), protocolVersion);
         try {
-            final Buffer buffer = toBuffer(writer, ctx.<LdapResponseMessage> getMessage());
-            ctx.setMessage(buffer);
+            for (final LdapResponseMessage response : responses) {
+                encode(writer, response);
+            }
+            ctx.setMessage(writer.getASN1Writer().getBuffer());
             return ctx.getInvokeAction();
         } catch (Exception e) {
             onLdapCodecError(ctx, e);
@@ -152,7 +161,7 @@ abstract class LdapCodec extends LDAPBaseFilter {
         }
     }
 
-    private Buffer toBuffer(final LDAPWriter<ASN1BufferWriter> writer, final LdapResponseMessage message)
+    private void encode(final LDAPWriter<ASN1BufferWriter> writer, final LdapResponseMessage message)
             throws IOException {
         final int msgId = message.getMessageId();
         final Response msgContent = message.getContent();
@@ -193,6 +202,5 @@ abstract class LdapCodec extends LDAPBaseFilter {
         default:
             throw new IOException("Unsupported message type '" + message.getMessageType() + "'");
         }
-        return writer.getASN1Writer().getBuffer();
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.forgerock.opendj.grizzly;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 
 import org.forgerock.opendj.ldap.spi.LdapMessages.LdapResponseMessage;
@@ -25,15 +27,37 @@ import org.reactivestreams.Subscription;
 
 import com.forgerock.reactive.Completable;
 
+/**
+ * Writes the responses to a request to the connection.
+ * <p>
+ * A response produced while no write is in progress is written immediately. The responses produced while a write is
+ * in progress, typically the entries of a large search, are written together once it completes, up to
+ * {@code maxBatchSize} responses, so that the codec encodes them into a single buffer and they share the same
+ * network write. Responses are therefore never delayed by more than one write.
+ */
 final class LdapResponseMessageWriter implements Subscriber<LdapResponseMessage>, CompletionHandler {
 
     private final Connection<?> connection;
     private final Completable.Subscriber downstream;
+    private final int maxBatchSize;
     private Subscription upstream;
 
-    LdapResponseMessageWriter(final Connection<?> connection, final Completable.Subscriber downstream) {
+    /** The responses waiting for the write in progress to complete, guarded by this. */
+    private final List<LdapResponseMessage> pendingMessages = new ArrayList<>();
+    /** The number of responses of the write in progress, 0 if none, guarded by this. */
+    private int writingMessagesCount;
+    /** Whether the upstream has completed, guarded by this. */
+    private boolean isUpstreamComplete;
+    /** The upstream error to signal once the pending responses are written, guarded by this. */
+    private Throwable upstreamError;
+    /** Whether the downstream was notified, guarded by this. */
+    private boolean isTerminated;
+
+    LdapResponseMessageWriter(final Connection<?> connection, final Completable.Subscriber downstream,
+            final int maxBatchSize) {
         this.connection = connection;
         this.downstream = downstream;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -43,19 +67,50 @@ final class LdapResponseMessageWriter implements Subscriber<LdapResponseMessage>
             return;
         }
         upstream = s;
-        // We're requesting two response to allow overlap between async I/O and response computation.
-        // (allows to generate a response while we're waiting for the previous message to be written)
-        upstream.request(2);
+        // We're requesting one more response than we can write at once to allow overlap between async I/O and
+        // response computation. (allows to generate responses while we're waiting for the previous ones to be written)
+        upstream.request(maxBatchSize + 1);
     }
 
     @Override
     public void onNext(final LdapResponseMessage message) {
+        synchronized (this) {
+            if (writingMessagesCount > 0) {
+                pendingMessages.add(message);
+                return;
+            }
+            writingMessagesCount = 1;
+        }
         connection.write(message, this);
     }
 
     @Override
     public void completed(final Object result) {
-        upstream.request(1);
+        final Object messages;
+        final int writtenMessagesCount;
+        final boolean isLastWrite;
+        synchronized (this) {
+            writtenMessagesCount = writingMessagesCount;
+            if (pendingMessages.isEmpty()) {
+                writingMessagesCount = 0;
+                messages = null;
+            } else {
+                writingMessagesCount = pendingMessages.size();
+                messages = writingMessagesCount == 1
+                        ? pendingMessages.get(0) : new ArrayList<LdapResponseMessage>(pendingMessages);
+                pendingMessages.clear();
+            }
+            isLastWrite = isUpstreamComplete || upstreamError != null;
+        }
+        if (messages != null) {
+            connection.write(messages, this);
+            if (isLastWrite) {
+                terminate(upstreamError);
+            }
+        }
+        if (!isLastWrite) {
+            upstream.request(writtenMessagesCount);
+        }
     }
 
     @Override
@@ -65,7 +120,10 @@ final class LdapResponseMessageWriter implements Subscriber<LdapResponseMessage>
 
     @Override
     public void failed(final Throwable error) {
-        onError(error);
+        synchronized (this) {
+            pendingMessages.clear();
+        }
+        terminate(error);
     }
 
     @Override
@@ -75,13 +133,39 @@ final class LdapResponseMessageWriter implements Subscriber<LdapResponseMessage>
 
     @Override
     public void onError(final Throwable error) {
-        upstream.cancel();
-        downstream.onError(error);
+        synchronized (this) {
+            if (!pendingMessages.isEmpty()) {
+                // The pending responses must be written before the error is handled
+                upstreamError = error;
+                return;
+            }
+        }
+        terminate(error);
     }
 
     @Override
     public void onComplete() {
+        synchronized (this) {
+            if (!pendingMessages.isEmpty()) {
+                isUpstreamComplete = true;
+                return;
+            }
+        }
+        terminate(null);
+    }
+
+    private void terminate(final Throwable error) {
+        synchronized (this) {
+            if (isTerminated) {
+                return;
+            }
+            isTerminated = true;
+        }
         upstream.cancel();
-        downstream.onComplete();
+        if (error != null) {
+            downstream.onError(error);
+        } else {
+            downstream.onComplete();
+        }
     }
 }
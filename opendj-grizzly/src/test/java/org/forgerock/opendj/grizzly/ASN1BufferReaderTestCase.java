@@ -17,12 +17,18 @@
 
 package org.forgerock.opendj.grizzly;
 
+import static org.testng.Assert.*;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.forgerock.opendj.io.ASN1Reader;
 import org.forgerock.opendj.io.ASN1ReaderTestCase;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.testng.annotations.Test;
 
 /**
  * This class provides test cases for ASN1BufferReader.
@@ -32,4 +38,66 @@ public class ASN1BufferReaderTestCase extends ASN1ReaderTestCase {
     protected ASN1Reader getReader(final byte[] b, final int maxElementSize) throws IOException {
         return new ASN1BufferReader(maxElementSize, new ByteBufferWrapper(ByteBuffer.wrap(b)));
     }
+
+    @Test
+    public void testPeekElementLength() throws Exception {
+        final Buffer buffer = newBuffer(0x04, 0x05, 0x48, 0x65, 0x6C, 0x6C, 0x6F);
+        assertEquals(ASN1BufferReader.peekElementLength(buffer, 0), 7);
+        assertEquals(buffer.position(), 0);
+        assertEquals(ASN1BufferReader.peekElementLength(newBuffer(0x30, 0x82, 0x01, 0x00), 0), 260);
+    }
+
+    @Test
+    public void testPeekElementLengthWithIncompleteHeader() throws Exception {
+        assertEquals(ASN1BufferReader.peekElementLength(newBuffer(0x30), 0), -1);
+        assertEquals(ASN1BufferReader.peekElementLength(newBuffer(0x30, 0x82, 0x01), 0), -1);
+    }
+
+    @Test(expectedExceptions = DecodeException.class)
+    public void testPeekElementLengthExceedingMaxElementSize() throws Exception {
+        ASN1BufferReader.peekElementLength(newBuffer(0x30, 0x82, 0x01, 0x00), 100);
+    }
+
+    @Test(expectedExceptions = DecodeException.class)
+    public void testPeekElementLengthWithTooManyLengthBytes() throws Exception {
+        ASN1BufferReader.peekElementLength(newBuffer(0x30, 0x85, 0x01, 0x00, 0x00, 0x00, 0x00), 0);
+    }
+
+    @Test
+    public void testReadOctetStringAsStringReusesCachedStrings() throws Exception {
+        final DecodedStringCache cache = new DecodedStringCache();
+        final byte[] hello = { 0x04, 0x05, 0x48, 0x65, 0x6C, 0x6C, 0x6F };
+        final String first = new ASN1BufferReader(0, newBuffer(hello), cache).readOctetStringAsString();
+        final String second = new ASN1BufferReader(0, newBuffer(hello), cache).readOctetStringAsString();
+        assertEquals(first, "Hello");
+        assertSame(second, first);
+
+        final ASN1BufferReader reader =
+                new ASN1BufferReader(0, newBuffer(0x04, 0x05, 0x48, 0x65, 0x6C, 0x6C, 0x79, 0x01, 0x01, 0x00), cache);
+        assertEquals(reader.readOctetStringAsString(), "Helly");
+        assertFalse(reader.readBoolean());
+    }
+
+    @Test
+    public void testReadOctetStringReusesEqualByteString() throws Exception {
+        final ByteString previous = ByteString.valueOfUtf8("Hello");
+        final ASN1BufferReader reader = new ASN1BufferReader(0,
+                newBuffer(0x04, 0x05, 0x48, 0x65, 0x6C, 0x6C, 0x6F, 0x04, 0x05, 0x48, 0x65, 0x6C, 0x6C, 0x79));
+        assertSame(reader.readOctetString(previous), previous);
+        final ByteString different = reader.readOctetString(previous);
+        assertEquals(different, ByteString.valueOfUtf8("Helly"));
+        assertFalse(reader.hasNextElement());
+    }
+
+    private static Buffer newBuffer(final int... bytes) {
+        final byte[] b = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            b[i] = (byte) bytes[i];
+        }
+        return newBuffer(b);
+    }
+
+    private static Buffer newBuffer(final byte[] bytes) {
+        return new ByteBufferWrapper(ByteBuffer.wrap(bytes));
+    }
 }
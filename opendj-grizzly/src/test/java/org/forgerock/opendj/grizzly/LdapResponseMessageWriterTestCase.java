@@ -0,0 +1,137 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.forgerock.opendj.grizzly;
+
+import static java.util.Arrays.asList;
+import static org.forgerock.opendj.io.LDAP.OP_TYPE_SEARCH_RESULT_DONE;
+import static org.forgerock.opendj.io.LDAP.OP_TYPE_SEARCH_RESULT_ENTRY;
+import static org.forgerock.opendj.ldap.spi.LdapMessages.newResponseMessage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.IOException;
+
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SdkTestCase;
+import org.forgerock.opendj.ldap.responses.Responses;
+import org.forgerock.opendj.ldap.spi.LdapMessages.LdapResponseMessage;
+import org.glassfish.grizzly.Connection;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.forgerock.reactive.Completable;
+
+@SuppressWarnings("javadoc")
+public class LdapResponseMessageWriterTestCase extends SdkTestCase {
+    private Connection<?> connection;
+    private Completable.Subscriber downstream;
+    private Subscription upstream;
+    private LdapResponseMessageWriter writer;
+
+    @BeforeMethod
+    public void setUp() {
+        connection = mock(Connection.class);
+        downstream = mock(Completable.Subscriber.class);
+        upstream = mock(Subscription.class);
+        writer = new LdapResponseMessageWriter(connection, downstream, 3);
+        writer.onSubscribe(upstream);
+    }
+
+    @Test
+    public void responsesProducedDuringAWriteAreWrittenTogether() {
+        final LdapResponseMessage entry1 = newEntry("cn=1");
+        final LdapResponseMessage entry2 = newEntry("cn=2");
+        final LdapResponseMessage entry3 = newEntry("cn=3");
+        final LdapResponseMessage entry4 = newEntry("cn=4");
+        verify(upstream).request(4);
+
+        writer.onNext(entry1);
+        writer.onNext(entry2);
+        writer.onNext(entry3);
+        verify(connection).write(entry1, writer);
+
+        writer.completed(null);
+        verify(connection).write(asList(entry2, entry3), writer);
+        verify(upstream).request(1);
+
+        writer.completed(null);
+        verify(upstream).request(2);
+
+        writer.onNext(entry4);
+        verify(connection).write(entry4, writer);
+        writer.onComplete();
+        verify(downstream).onComplete();
+        verifyNoMoreInteractions(connection);
+    }
+
+    @Test
+    public void pendingResponsesAreWrittenBeforeCompletion() {
+        final LdapResponseMessage entry = newEntry("cn=1");
+        final LdapResponseMessage done =
+                newResponseMessage(OP_TYPE_SEARCH_RESULT_DONE, 1, Responses.newResult(ResultCode.SUCCESS));
+
+        writer.onNext(entry);
+        writer.onNext(done);
+        writer.onComplete();
+        verify(downstream, never()).onComplete();
+
+        writer.completed(null);
+        verify(connection).write(done, writer);
+        verify(downstream).onComplete();
+        verify(upstream).cancel();
+    }
+
+    @Test
+    public void pendingResponsesAreWrittenBeforeErrors() {
+        final LdapResponseMessage entry1 = newEntry("cn=1");
+        final LdapResponseMessage entry2 = newEntry("cn=2");
+        final Exception error = new Exception();
+
+        writer.onNext(entry1);
+        writer.onNext(entry2);
+        writer.onError(error);
+        verify(downstream, never()).onError(error);
+
+        writer.completed(null);
+        verify(connection).write(entry2, writer);
+        verify(downstream).onError(error);
+    }
+
+    @Test
+    public void pendingResponsesAreDiscardedWhenAWriteFails() {
+        final LdapResponseMessage entry1 = newEntry("cn=1");
+        final LdapResponseMessage entry2 = newEntry("cn=2");
+        final IOException error = new IOException();
+
+        writer.onNext(entry1);
+        writer.onNext(entry2);
+        writer.failed(error);
+        verify(downstream).onError(error);
+        verify(upstream).cancel();
+
+        writer.onComplete();
+        verify(connection).write(entry1, writer);
+        verify(connection, never()).write(entry2, writer);
+        verify(downstream, never()).onComplete();
+    }
+
+    private LdapResponseMessage newEntry(final String dn) {
+        return newResponseMessage(OP_TYPE_SEARCH_RESULT_ENTRY, 1, Responses.newSearchResultEntry(dn));
+    }
+}
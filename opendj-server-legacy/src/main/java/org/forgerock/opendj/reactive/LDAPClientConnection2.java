@@ -51,10 +51,13 @@ import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.LocalizableMessageBuilder;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.adapter.server3x.Converters;
+import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.Entry;
 import org.forgerock.opendj.ldap.LDAPClientContext;
 import org.forgerock.opendj.ldap.LDAPClientContextEventListener;
+import org.forgerock.opendj.ldap.LinkedHashMapEntry;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.requests.UnbindRequest;
 import org.forgerock.opendj.ldap.responses.CompareResult;
@@ -103,6 +106,7 @@ import org.opends.server.types.DisconnectReason;
 import org.opends.server.types.IntermediateResponse;
 import org.opends.server.types.Operation;
 import org.opends.server.types.OperationType;
+import org.opends.server.types.PassThroughEntry;
 import org.opends.server.types.SearchResultEntry;
 import org.opends.server.types.SearchResultReference;
 import org.opends.server.util.TimeThread;
@@ -537,6 +541,34 @@ public final class LDAPClientConnection2 extends ClientConnection implements TLS
         getAttachedEmitter(searchOperation).onNext(toResponse(searchEntry));
     }
 
+    /**
+     * Indicates whether this client connection is able to send pass-through entries, which LDAPv2 clients do not
+     * support since attributes having the same type must be merged for them.
+     *
+     * @return {@code true} if the client uses LDAPv3
+     */
+    @Override
+    public boolean supportsPassThroughEntries() {
+        return ldapVersion == 3;
+    }
+
+    /**
+     * Sends the user attributes of the provided pass-through entry to the client.
+     *
+     * @param searchOperation
+     *            The search operation with which the entry is associated
+     * @param searchEntry
+     *            The pass-through entry to be sent to the client
+     */
+    @Override
+    public void sendPassThroughEntry(final SearchOperation searchOperation, final PassThroughEntry searchEntry) {
+        final Entry entry = new LinkedHashMapEntry(searchEntry.getName());
+        for (final Attribute attribute : searchEntry.getUserAttributes()) {
+            entry.addAttribute(attribute);
+        }
+        getAttachedEmitter(searchOperation).onNext(Responses.newSearchResultEntry(entry));
+    }
+
     private FlowableEmitter<Response> getAttachedEmitter(final Operation operation) {
         return (FlowableEmitter<Response>) operation.getAttachment(REACTIVE_OUT);
     }
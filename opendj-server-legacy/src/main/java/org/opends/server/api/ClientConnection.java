@@ -50,6 +50,7 @@ import org.opends.server.types.DisconnectReason;
 import org.opends.server.types.Entry;
 import org.opends.server.types.IntermediateResponse;
 import org.opends.server.types.Operation;
+import org.opends.server.types.PassThroughEntry;
 import org.opends.server.types.Privilege;
 import org.opends.server.types.SearchResultEntry;
 import org.opends.server.types.SearchResultReference;
@@ -471,6 +472,47 @@ public abstract class ClientConnection
 
 
 
+  /**
+   * Indicates whether this client connection is able to send
+   * {@link PassThroughEntry pass-through entries} to the client,
+   * which is not the case by default.
+   *
+   * @return  {@code true} if this client connection supports
+   *          {@link #sendPassThroughEntry}, or {@code false} if not.
+   */
+  public boolean supportsPassThroughEntries()
+  {
+    return false;
+  }
+
+
+
+  /**
+   * Sends the user attributes of the provided pass-through entry to
+   * the client as a search result entry without controls. It is only
+   * called when {@link #supportsPassThroughEntries()} returns
+   * {@code true}. By default, the entry is decoded and sent with
+   * {@link #sendSearchEntry}.
+   *
+   * @param  searchOperation  The search operation with which the
+   *                          entry is associated.
+   * @param  searchEntry      The pass-through entry to be sent to
+   *                          the client.
+   *
+   * @throws  DirectoryException  If a problem occurs while attempting
+   *                              to send the entry to the client and
+   *                              the search should be terminated.
+   */
+  public void sendPassThroughEntry(SearchOperation searchOperation,
+                                   PassThroughEntry searchEntry)
+         throws DirectoryException
+  {
+    sendSearchEntry(searchOperation,
+                    new SearchResultEntry(searchEntry.toEntry()));
+  }
+
+
+
   /**
    * Sends the provided search result reference to the client.
    *
@@ -1384,7 +1426,6 @@ public abstract class ClientConnection
   public Set<Group<?>> getGroups(Operation operation)
          throws DirectoryException
   {
-    // FIXME -- This probably isn't the most efficient implementation.
     DN authzDN;
     if (operation == null)
     {
@@ -1413,15 +1454,7 @@ public abstract class ClientConnection
       return Collections.<Group<?>>emptySet();
     }
 
-    HashSet<Group<?>> groupSet = new HashSet<>();
-    for (Group<?> g : DirectoryServer.getGroupManager().getGroupInstances())
-    {
-      if (g.isMember(userEntry))
-      {
-        groupSet.add(g);
-      }
-    }
-    return groupSet;
+    return DirectoryServer.getGroupManager().getGroupInstances(userEntry);
   }
 
 
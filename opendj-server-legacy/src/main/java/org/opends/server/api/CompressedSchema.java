@@ -197,18 +197,7 @@ public class CompressedSchema
   public final Attribute decodeAttribute(final ByteSequenceReader reader)
       throws DirectoryException
   {
-    // First decode the encoded attribute description id.
-    final int adId = decodeId(reader);
-
-    // Before returning the attribute, make sure that the attribute type is not stale.
-    final Mappings mappings = reloadMappingsIfSchemaChanged();
-    final AttributeDescription ad = mappings.adDecodeMap.get(adId);
-    if (ad == null)
-    {
-      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
-          ERR_COMPRESSEDSCHEMA_UNRECOGNIZED_AD_TOKEN.get(adId));
-    }
-
+    final AttributeDescription ad = decodeAttributeDescription(reader);
     AttributeType attrType = ad.getAttributeType();
 
     // Determine the number of values for the attribute.
@@ -232,6 +221,33 @@ public class CompressedSchema
     }
   }
 
+  /**
+   * Decodes the attribute description of an attribute at the current position, leaving the reader positioned on
+   * the number of values of the attribute.
+   *
+   * @param reader
+   *          The byte string reader containing the encoded entry.
+   * @return The decoded attribute description.
+   * @throws DirectoryException
+   *           If the attribute description could not be decoded properly for some reason.
+   */
+  public final AttributeDescription decodeAttributeDescription(final ByteSequenceReader reader)
+      throws DirectoryException
+  {
+    // First decode the encoded attribute description id.
+    final int adId = decodeId(reader);
+
+    // Before returning the attribute description, make sure that the attribute type is not stale.
+    final Mappings mappings = reloadMappingsIfSchemaChanged();
+    final AttributeDescription ad = mappings.adDecodeMap.get(adId);
+    if (ad == null)
+    {
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_COMPRESSEDSCHEMA_UNRECOGNIZED_AD_TOKEN.get(adId));
+    }
+    return ad;
+  }
+
   private ByteString readValue(final ByteSequenceReader reader)
   {
     return reader.readByteSequence(reader.readBERLength()).toByteString();
@@ -16,12 +16,14 @@
  */
 package org.opends.server.api;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.server.config.server.GroupImplementationCfg;
@@ -405,6 +407,26 @@ public abstract class Group<T extends GroupImplementationCfg>
                                         SearchFilter filter)
          throws DirectoryException;
 
+  /**
+   * Retrieves the normalized DNs of the entries explicitly listed as
+   * members of this group, not including the members of nested groups,
+   * so that the group manager can index the membership of this group.
+   * Groups returning a non-null value must notify the group manager
+   * of each subsequent change to their member list.  The default
+   * implementation returns {@code null}, meaning the membership of
+   * this group cannot be indexed.
+   *
+   * @return  The normalized DNs of the entries explicitly listed as
+   *          members of this group, or {@code null} if this group
+   *          does not explicitly list its members.
+   *
+   * @see  DN#toNormalizedByteString()
+   */
+  public Collection<ByteString> getNormalizedMemberDNs()
+  {
+    return null;
+  }
+
   /**
    * Indicates whether it is possible to alter the member list for
    * this group (e.g., in order to add members to the group or remove
@@ -165,6 +165,19 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
   /** AuthenticationInfo class to use. */
   private final AuthenticationInfo authInfo;
 
+  /**
+   * True if the authentication information is the one of the operation, so
+   * that evaluation results may be shared with the other evaluations of the
+   * operation.
+   */
+  private final boolean usesOperationAuthInfo;
+
+  /** The cache of the evaluation results of the operation, if it may be used. */
+  private AciEvaluationCache evaluationCache;
+
+  /** The name of the operation attachment holding the evaluation cache. */
+  private static final String EVALUATION_CACHE = "aciEvaluationCache";
+
   /**
      * This constructor is used by all currently supported LDAP operations
      * except the generic access control check that can be used by
@@ -182,6 +195,7 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
       this.operation=operation;
       this.clientConnection=operation.getClientConnection();
       this.authInfo = clientConnection.getAuthenticationInfo();
+      this.usesOperationAuthInfo = true;
 
       //If the proxied authorization control was processed, then the operation
       //will contain an attachment containing the original authorization entry.
@@ -257,6 +271,7 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
         this.operation=operation;
         this.clientConnection=operation.getClientConnection();
         this.authInfo = authInfo;
+        this.usesOperationAuthInfo = false;
         this.authorizationEntry = authInfo.getAuthorizationEntry();
         this.rightsMask = rights;
         proxiedAuthorization = false;
@@ -653,16 +668,53 @@ abstract class AciContainer implements AciTargetMatchContext, AciEvalContext {
             if(useAuthzid) {
                 return group.isMember(this.authzid);
             }
-            Entry e = getClientEntry();
-            if (e != null) {
-                return group.isMember(e);
+            Boolean isMember =
+                evaluationCache != null ? evaluationCache.isMemberOf(group) : null;
+            if (isMember == null) {
+                Entry e = getClientEntry();
+                isMember = e != null ? group.isMember(e) : group.isMember(getClientDN());
+                if (evaluationCache != null) {
+                    evaluationCache.putMemberOf(group, isMember);
+                }
             }
-            return group.isMember(getClientDN());
+            return isMember;
         } catch (DirectoryException ex) {
             return false;
         }
     }
 
+    /**
+     * Attaches to this container the evaluation cache of its operation,
+     * creating a new one if there is none yet or if the current one is no
+     * longer valid. No cache is used for the geteffectiverights evaluations
+     * and for the evaluations made with an authentication information other
+     * than the one of the operation.
+     *
+     * @param aciListGeneration The current generation of the ACI list.
+     * @param groupRefreshToken The current refresh token of the group manager.
+     * @return The evaluation cache, or null if none may be used.
+     */
+    AciEvaluationCache useEvaluationCache(long aciListGeneration, long groupRefreshToken) {
+        if (!usesOperationAuthInfo || useAuthzid
+            || hasGetEffectiveRightsControl || isGetEffectiveRightsEval) {
+            evaluationCache = null;
+            return null;
+        }
+        DN clientDN = getClientDN();
+        AciEvaluationCache cache = operation.getAttachment(EVALUATION_CACHE);
+        if (cache == null || !cache.isValid(clientDN, aciListGeneration, groupRefreshToken)) {
+            cache = new AciEvaluationCache(clientDN, aciListGeneration, groupRefreshToken);
+            operation.setAttachment(EVALUATION_CACHE, cache);
+        }
+        evaluationCache = cache;
+        return cache;
+    }
+
+    @Override
+    public AciEvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
   /**
    * {@inheritDoc}
    * <p>
@@ -133,6 +133,16 @@ public interface AciEvalContext
      */
     boolean isMemberOf(Group<?> group);
 
+    /**
+     * Returns the cache holding the evaluation results of the operation
+     * which only depend on the client, such as the outcome of the userdn and
+     * groupdn bind rules.
+     *
+     * @return The evaluation cache, or {@code null} if the evaluation
+     *         results must not be cached.
+     */
+    AciEvaluationCache getEvaluationCache();
+
   /**
    * Returns true if the hashtable of ACIs that matched the targattrfilters
    * keyword evaluation is empty.  Used in a geteffectiverights control
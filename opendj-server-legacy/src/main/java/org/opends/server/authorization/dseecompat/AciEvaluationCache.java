@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.api.Group;
+
+/**
+ * The AciEvaluationCache class memoizes, for the duration of a single
+ * operation, the parts of the access control evaluation which do not depend
+ * on the resource entry being evaluated: the candidate ACIs of the last
+ * evaluated resource DN, the outcome of the bind rules which only depend on
+ * the client (userdn, groupdn, ip, dns, ssf and authmethod) and the group
+ * memberships of the client.
+ * <p>
+ * A search returning many entries, each of them checked attribute by
+ * attribute, therefore evaluates each of these bind rules only once. The cache
+ * is only valid for the client DN, ACI list generation and group manager
+ * refresh token it was created with, so that any change to the ACIs or to the
+ * registered groups made through the ACI listener manager or the group
+ * manager is seen by the remainder of the operation.
+ * <p>
+ * The cache is attached to the operation, and is therefore only accessed by
+ * the thread processing that operation.
+ */
+final class AciEvaluationCache {
+    /** The client DN for which the results were computed. */
+    private final DN clientDN;
+    /** The generation of the ACI list the results were computed from. */
+    private final long aciListGeneration;
+    /** The group manager refresh token the results were computed from. */
+    private final long groupRefreshToken;
+
+    /** The outcome of the client only bind rules, keyed by bind rule instance. */
+    private final Map<BindRule, EnumEvalResult> bindRuleResults = new IdentityHashMap<>();
+    /** The group memberships of the client, keyed by group instance. */
+    private final Map<Group<?>, Boolean> groupMemberships = new IdentityHashMap<>();
+
+    /** The resource DN of the last candidate ACIs lookup. */
+    private DN candidatesDN;
+    /** The candidate ACIs of the last candidate ACIs lookup. */
+    private List<Aci> candidates;
+
+    /**
+     * Creates a new empty evaluation cache.
+     * @param clientDN The client DN the results are computed for.
+     * @param aciListGeneration The current generation of the ACI list.
+     * @param groupRefreshToken The current refresh token of the group manager.
+     */
+    AciEvaluationCache(DN clientDN, long aciListGeneration, long groupRefreshToken) {
+        this.clientDN = clientDN;
+        this.aciListGeneration = aciListGeneration;
+        this.groupRefreshToken = groupRefreshToken;
+    }
+
+    /**
+     * Checks if the results held by this cache may be used for the provided
+     * client DN, ACI list generation and group manager refresh token.
+     * @param clientDN The client DN of the evaluation.
+     * @param aciListGeneration The current generation of the ACI list.
+     * @param groupRefreshToken The current refresh token of the group manager.
+     * @return True if this cache is still valid.
+     */
+    boolean isValid(DN clientDN, long aciListGeneration, long groupRefreshToken) {
+        return this.aciListGeneration == aciListGeneration
+            && this.groupRefreshToken == groupRefreshToken
+            && this.clientDN.equals(clientDN);
+    }
+
+    /**
+     * Returns the candidate ACIs of the provided resource DN, reusing the
+     * result of the previous lookup when it was made for the same DN.
+     * @param aciList The ACI list to look the candidate ACIs up from.
+     * @param resourceDN The resource DN.
+     * @return The candidate ACIs of the resource DN.
+     */
+    List<Aci> getCandidateAcis(AciList aciList, DN resourceDN) {
+        if (candidates == null || !resourceDN.equals(candidatesDN)) {
+            candidates = aciList.getCandidateAcis(resourceDN);
+            candidatesDN = resourceDN;
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the memoized outcome of a bind rule.
+     * @param bindRule The bind rule.
+     * @return The outcome of the bind rule, or null if it was not evaluated yet.
+     */
+    EnumEvalResult getBindRuleResult(BindRule bindRule) {
+        return bindRuleResults.get(bindRule);
+    }
+
+    /**
+     * Memoizes the outcome of a bind rule. Failed evaluations are not
+     * memoized so that they are attempted again.
+     * @param bindRule The bind rule.
+     * @param result The outcome of the bind rule.
+     */
+    void putBindRuleResult(BindRule bindRule, EnumEvalResult result) {
+        if (result == EnumEvalResult.TRUE || result == EnumEvalResult.FALSE) {
+            bindRuleResults.put(bindRule, result);
+        }
+    }
+
+    /**
+     * Returns the memoized membership of the client in a group.
+     * @param group The group.
+     * @return The membership of the client, or null if it was not checked yet.
+     */
+    Boolean isMemberOf(Group<?> group) {
+        return groupMemberships.get(group);
+    }
+
+    /**
+     * Memoizes the membership of the client in a group.
+     * @param group The group.
+     * @param isMember True if the client is a member of the group.
+     */
+    void putMemberOf(Group<?> group, boolean isMember) {
+        groupMemberships.put(group, isMember);
+    }
+}
@@ -512,8 +512,14 @@ public final class AciHandler extends
       }
     }
 
-    // First get all allowed candidate ACIs.
-    List<Aci> candidates = aciList.getCandidateAcis(dn);
+    // First get all allowed candidate ACIs. The evaluation cache shares the
+    // candidates and the client only bind rule outcomes between the
+    // evaluations of the same operation.
+    AciEvaluationCache cache = container.useEvaluationCache(
+        aciList.getGeneration(), getGroupManager().refreshToken());
+    List<Aci> candidates = cache != null
+        ? cache.getCandidateAcis(aciList, dn)
+        : aciList.getCandidateAcis(dn);
     /*
      * Create an applicable list of ACIs by target matching each
      * candidate ACI against the container's target match view.
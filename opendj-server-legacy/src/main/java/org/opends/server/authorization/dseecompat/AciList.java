@@ -58,6 +58,12 @@ public class AciList {
   private final ReentrantReadWriteLock lock =
           new ReentrantReadWriteLock();
 
+  /**
+   * The generation of the ACI list, incremented each time the list is
+   * changed. Used to invalidate cached evaluation results.
+   */
+  private volatile long generation;
+
   /** The configuration DN used to compare against the global ACI entry DN. */
   private final DN configDN;
 
@@ -69,6 +75,16 @@ public class AciList {
      this.configDN=configDN;
   }
 
+  /**
+   * Returns the generation of the ACI list, which changes each time ACIs
+   * are added, removed or renamed.
+   *
+   * @return The generation of the ACI list.
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
   /**
    * Using the base DN, return a list of ACIs that are candidates for
    * evaluation by walking up from the base DN towards the root of the
@@ -156,6 +172,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -177,6 +194,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -217,6 +235,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -306,6 +325,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -360,6 +380,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -387,6 +408,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
@@ -431,6 +453,7 @@ public class AciList {
     }
     finally
     {
+      generation++;
       lock.writeLock().unlock();
     }
   }
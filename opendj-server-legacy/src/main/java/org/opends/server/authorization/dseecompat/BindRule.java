@@ -43,6 +43,12 @@ public class BindRule {
     /** The keyword of a simple bind rule. */
     private final EnumBindRuleKeyword keyword;
 
+    /**
+     * True if the outcome of the bind rule only depends on the client, and
+     * can therefore be cached for the evaluations of a same operation.
+     */
+    private final boolean dependsOnClientOnly;
+
     /** Regular expression group position of a bind rule keyword. */
     private static final int keywordPos = 1;
     /** Regular expression group position of a bind rule operation. */
@@ -90,6 +96,7 @@ public class BindRule {
         this.booleanType = null;
         this.left = null;
         this.right = null;
+        this.dependsOnClientOnly = dependsOnClientOnly(keyword, rule);
     }
 
     /*
@@ -130,6 +137,31 @@ public class BindRule {
         this.booleanType = booleanType;
         this.left = left;
         this.right = right;
+        this.dependsOnClientOnly = left.dependsOnClientOnly && right.dependsOnClientOnly;
+    }
+
+    /**
+     * Determines if the outcome of a simple bind rule only depends on the
+     * client. The userattr, dayofweek and timeofday bind rules, as well as the
+     * userdn bind rules using the self or parent keywords, also depend on the
+     * resource entry or on the time of the evaluation.
+     * @param keyword The keyword of the bind rule.
+     * @param rule The rule corresponding to this keyword.
+     * @return True if the outcome of the bind rule only depends on the client.
+     */
+    private static boolean dependsOnClientOnly(EnumBindRuleKeyword keyword, KeywordBindRule rule) {
+        switch (keyword) {
+        case USERDN:
+            return ((UserDN) rule).dependsOnClientOnly();
+        case GROUPDN:
+        case IP:
+        case DNS:
+        case AUTHMETHOD:
+        case SSF:
+            return true;
+        default:
+            return false;
+        }
     }
 
     /*
@@ -460,6 +492,19 @@ public class BindRule {
      * @return An result enumeration containing the result of the evaluation.
      */
     public EnumEvalResult evaluate(AciEvalContext evalCtx) {
+        AciEvaluationCache cache = dependsOnClientOnly ? evalCtx.getEvaluationCache() : null;
+        if (cache == null) {
+            return evaluate0(evalCtx);
+        }
+        EnumEvalResult ret = cache.getBindRuleResult(this);
+        if (ret == null) {
+            ret = evaluate0(evalCtx);
+            cache.putBindRuleResult(this, ret);
+        }
+        return ret;
+    }
+
+    private EnumEvalResult evaluate0(AciEvalContext evalCtx) {
         EnumEvalResult ret;
         //Simple bind rules have a null booleanType enumeration.
         if(this.booleanType == null) {
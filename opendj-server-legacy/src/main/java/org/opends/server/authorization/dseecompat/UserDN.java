@@ -90,11 +90,28 @@ public class UserDN implements KeywordBindRule {
             } catch (LocalizedIllegalArgumentException | DirectoryException e) {
                 throw new AciException(WARN_ACI_SYNTAX_INVALID_USERDN_URL.get(e.getMessageObject()));
             }
-            urlList.add(new UserDNTypeURL(userDNType, url));
+            PatternDN pattern =
+                userDNType == EnumUserDNType.DNPATTERN ? decodePattern(url) : null;
+            urlList.add(new UserDNTypeURL(userDNType, url, pattern));
         }
         return new UserDN(type, urlList);
       }
 
+    /**
+     * Decodes once for all the DN pattern of a DNPATTERN userdn URL, so that
+     * it is not decoded again on each evaluation.
+     * @param url The LDAP URL containing the pattern.
+     * @return The DN pattern, or null if the pattern is invalid, in which
+     * case it never matches.
+     */
+    private static PatternDN decodePattern(LDAPURL url) {
+        try {
+            return PatternDN.decode(url.getRawBaseDN());
+        } catch (DirectoryException ex) {
+            return null;
+        }
+    }
+
     /**
      * This method determines the type of the DN (suffix in URL terms)
      * part of a URL, by examining the full URL itself for known strings
@@ -215,7 +232,7 @@ public class UserDN implements KeywordBindRule {
                 DN parentDN = resDN.parent();
                 return parentDN != null && parentDN.equals(clientDN);
             case DNPATTERN:
-                return evalDNPattern(evalCtx, url);
+                return evalDNPattern(evalCtx, dnTypeURL.getPattern());
             case DN:
                 return evalDN(clientDN, url);
             default:
@@ -256,18 +273,27 @@ public class UserDN implements KeywordBindRule {
     /**
      * This method evaluates a DN pattern userdn expression.
      * @param evalCtx  The evaluation context to use.
-     * @param url The LDAP URL containing the pattern.
+     * @param pattern The pattern decoded from the LDAP URL, or null if the
+     * LDAP URL does not contain a valid pattern.
      * @return An enumeration evaluation result.
      */
-    private boolean evalDNPattern(AciEvalContext evalCtx, LDAPURL url) {
-        PatternDN pattern;
-        try {
-          pattern = PatternDN.decode(url.getRawBaseDN());
-        } catch (DirectoryException ex) {
-          return false;
-        }
+    private boolean evalDNPattern(AciEvalContext evalCtx, PatternDN pattern) {
+        return pattern != null && pattern.matchesDN(evalCtx.getClientDN());
+    }
 
-        return pattern.matchesDN(evalCtx.getClientDN());
+    /**
+     * Checks if the outcome of this userdn bind rule only depends on the
+     * client, which is the case unless it uses the self or parent keywords.
+     * @return True if the outcome only depends on the client.
+     */
+    boolean dependsOnClientOnly() {
+        for (UserDNTypeURL dnTypeURL : urlList) {
+            EnumUserDNType dnType = dnTypeURL.getUserDNType();
+            if (dnType == EnumUserDNType.SELF || dnType == EnumUserDNType.PARENT) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -28,6 +28,8 @@ public class UserDNTypeURL {
     private final EnumUserDNType dnType;
     /** The URL value. Maybe a dummy value for types such as ANYONE or SELF. */
     private final LDAPURL url;
+    /** The DN pattern decoded from the URL, only for the DNPATTERN type. */
+    private final PatternDN pattern;
 
     /**
      * Create a class representing the "userdn" URL decoded by the
@@ -35,10 +37,13 @@ public class UserDNTypeURL {
      * @param dnType The type of the URL determined by examining the DN
      * or suffix.
      * @param url The URL itself from the ACI "userdn" string expression.
+     * @param pattern The DN pattern decoded from the URL, or null if the type
+     * is not DNPATTERN or the pattern is invalid.
      */
-    UserDNTypeURL(EnumUserDNType dnType, LDAPURL url) {
+    UserDNTypeURL(EnumUserDNType dnType, LDAPURL url, PatternDN pattern) {
         this.url=url;
         this.dnType=dnType;
+        this.pattern=pattern;
     }
 
     /**
@@ -55,4 +60,13 @@ public class UserDNTypeURL {
     public LDAPURL getURL() {
         return this.url;
     }
+
+    /**
+     * Returns the DN pattern decoded from the URL.
+     * @return The DN pattern, or null if the type is not DNPATTERN or the
+     * pattern is invalid.
+     */
+    PatternDN getPattern() {
+        return this.pattern;
+    }
 }
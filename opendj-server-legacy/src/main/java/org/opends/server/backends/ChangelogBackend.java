@@ -34,6 +34,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -64,6 +65,7 @@ import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.PersistentSearch;
+import org.opends.server.core.PersistentSearch.CancellationCallback;
 import org.opends.server.core.SearchOperation;
 import org.opends.server.core.ServerContext;
 import org.opends.server.replication.common.CSN;
@@ -382,11 +384,13 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
 
     try
     {
+      // The entry is only created once, then shared by all the persistent searches which send it
+      Entry cookieEntry = null;
       for (PersistentSearch pSearch : cookieBasedPersistentSearches)
       {
         final SearchOperation searchOp = pSearch.getSearchOperation();
         final CookieEntrySender entrySender = searchOp.getAttachment(ENTRY_SENDER_ATTACHMENT);
-        entrySender.persistentSearchSendEntry(baseDN, updateMsg);
+        cookieEntry = entrySender.persistentSearchSendEntry(baseDN, updateMsg, cookieEntry);
       }
     }
     catch (DirectoryException e)
@@ -428,13 +432,21 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
 
     try
     {
-      // changeNumber entry can be shared with multiple persistent searches
-      final Entry changeNumberEntry = createEntryFromMsg(baseDN, changeNumber, cookieString, updateMsg);
+      // changeNumber entry can be shared with multiple persistent searches,
+      // it is only created once a persistent search sends it
+      Entry changeNumberEntry = null;
       for (PersistentSearch pSearch : changeNumberBasedPersistentSearches)
       {
         final SearchOperation searchOp = pSearch.getSearchOperation();
         final ChangeNumberEntrySender entrySender = searchOp.getAttachment(ENTRY_SENDER_ATTACHMENT);
-        entrySender.persistentSearchSendEntry(changeNumber, changeNumberEntry);
+        if (entrySender.persistentSearchCanSendEntry(changeNumber))
+        {
+          if (changeNumberEntry == null)
+          {
+            changeNumberEntry = createEntryFromMsg(baseDN, changeNumber, cookieString, updateMsg);
+          }
+          sendEntryIfMatches(searchOp, changeNumberEntry, null);
+        }
       }
     }
     catch (DirectoryException e)
@@ -862,14 +874,19 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
   {
     initializePersistentSearch(pSearch);
 
-    if (isCookieBased(pSearch.getSearchOperation()))
+    final Queue<PersistentSearch> persistentSearches = isCookieBased(pSearch.getSearchOperation())
+        ? cookieBasedPersistentSearches
+        : changeNumberBasedPersistentSearches;
+    persistentSearches.add(pSearch);
+    pSearch.registerCancellationCallback(new CancellationCallback()
     {
-      cookieBasedPersistentSearches.add(pSearch);
-    }
-    else
-    {
-      changeNumberBasedPersistentSearches.add(pSearch);
-    }
+      @Override
+      public void persistentSearchCancelled(PersistentSearch psearch)
+      {
+        // stop notifying the persistent search, and release it
+        persistentSearches.remove(psearch);
+      }
+    });
     super.registerPersistentSearch(pSearch);
   }
 
@@ -1370,6 +1387,19 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
     return new Entry(DN.valueOf(dnString), CHANGELOG_ENTRY_OBJECT_CLASSES, userAttrs, opAttrs);
   }
 
+  /**
+   * Returns a copy of the provided cookie based changelog entry holding the provided cookie, so that the other
+   * attributes of the entry are only created once for all the persistent searches.
+   */
+  private static Entry withCookie(final Entry cookieEntry, final String cookie)
+  {
+    final Map<AttributeType, List<Attribute>> userAttrs = new LinkedHashMap<>(cookieEntry.getUserAttributes());
+    final Map<AttributeType, List<Attribute>> opAttrs = new LinkedHashMap<>(cookieEntry.getOperationalAttributes());
+    // the attribute keeps its position in the entry
+    addAttributeByType("changeLogCookie", cookie, userAttrs, opAttrs);
+    return new Entry(cookieEntry.getName(), CHANGELOG_ENTRY_OBJECT_CLASSES, userAttrs, opAttrs);
+  }
+
   /**
    * Sends the entry if it matches the base, scope and filter of the current search operation.
    * It will also send the base changelog entry if it needs to be sent and was not sent before.
@@ -1634,12 +1664,9 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
       return sendEntryIfMatches(searchOp, entry, null);
     }
 
-    private void persistentSearchSendEntry(long changeNumber, Entry entry) throws DirectoryException
+    private boolean persistentSearchCanSendEntry(long changeNumber)
     {
-      if (sendEntryData.persistentSearchCanSendEntry(changeNumber))
-      {
-        sendEntryIfMatches(searchOp, entry, null);
-      }
+      return sendEntryData.persistentSearchCanSendEntry(changeNumber);
     }
   }
 
@@ -1700,20 +1727,27 @@ public class ChangelogBackend extends LocalBackend<LocalBackendCfg>
       return sendEntryIfMatches(searchOp, entry, cookieString);
     }
 
-    private void persistentSearchSendEntry(DN baseDN, UpdateMsg updateMsg)
+    /**
+     * Sends the entry of the provided update message to the client, if the persistent search can send it.
+     *
+     * @param cookieEntry
+     *          the entry of the update message without cookie, or {@code null} if it was not created yet
+     * @return the entry of the update message without cookie, or {@code null} if it was not created yet
+     */
+    private Entry persistentSearchSendEntry(DN baseDN, UpdateMsg updateMsg, Entry cookieEntry)
         throws DirectoryException
     {
       final CSN csn = updateMsg.getCSN();
       final SendEntryData<CSN> sendEntryData = getSendEntryData(baseDN, csn);
-      if (sendEntryData.persistentSearchCanSendEntry(csn))
+      if (!sendEntryData.persistentSearchCanSendEntry(csn))
       {
-        // multi threaded case: wait for the "initial search" phase to set the cookie
-        final String cookieString = updateCookie(baseDN, updateMsg.getCSN());
-        final Entry cookieEntry = createEntryFromMsg(baseDN, 0, cookieString, updateMsg);
-        // FIXME JNR use this instead of previous line:
-        // entry.replaceAttribute(Attributes.create("changelogcookie", cookieString));
-        sendEntryIfMatches(searchOp, cookieEntry, cookieString);
+        return cookieEntry;
       }
+      // multi threaded case: wait for the "initial search" phase to set the cookie
+      final String cookieString = updateCookie(baseDN, updateMsg.getCSN());
+      final Entry entry = cookieEntry != null ? cookieEntry : createEntryFromMsg(baseDN, 0, null, updateMsg);
+      sendEntryIfMatches(searchOp, withCookie(entry, cookieString), cookieString);
+      return entry;
     }
 
     private String updateCookie(DN baseDN, final CSN csn)
@@ -21,12 +21,23 @@ import static org.opends.server.util.StaticUtils.stackTraceToSingleLineString;
 
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -58,6 +69,10 @@ import org.opends.server.util.BackupManager;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
@@ -72,10 +87,14 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 
 	//private final ServerContext serverContext;
 	private CASBackendCfg config;
+	
+	/** Bounds the number of asynchronous requests sent to the cluster and not completed yet. */
+	private volatile Semaphore inFlightRequests;
 	  
 	public Storage(CASBackendCfg cfg, ServerContext serverContext) {
 		//this.serverContext = serverContext;
 		this.config = cfg;
+		this.inFlightRequests = new Semaphore(cfg.getMaxInFlightRequests());
 	    cfg.addCASChangeListener(this);
 	}
 
@@ -90,6 +109,10 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		final ConfigChangeResult ccr = new ConfigChangeResult();
 	    try
 	    {
+	    	if (cfg.getMaxInFlightRequests()!=config.getMaxInFlightRequests()) {
+	    		// requests already sent release their permit to the semaphore they acquired it from
+	    		this.inFlightRequests = new Semaphore(cfg.getMaxInFlightRequests());
+	    	}
 	    	this.config = cfg;
 	    }
 	    catch (Exception e)
@@ -124,6 +147,50 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		return session.execute(statement);
 	}
 	
+	/**
+	 * Sends a request without waiting for its response. Blocks while max-in-flight-requests requests are pending,
+	 * so must never be called from a driver callback.
+	 */
+	CompletionStage<AsyncResultSet> executeAsync(Statement<?> statement) {
+		final Semaphore permits=inFlightRequests;
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StorageRuntimeException(e);
+		}
+		final CompletionStage<AsyncResultSet> res;
+		try {
+			res=session.executeAsync(logger.isTraceEnabled()?statement.setTracing(true):statement);
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		return res.whenComplete(new BiConsumer<AsyncResultSet, Throwable>() {
+			@Override
+			public void accept(AsyncResultSet rs, Throwable e) {
+				permits.release();
+				if (rs!=null && logger.isTraceEnabled()) {
+					logger.trace(LocalizableMessage.raw("cassandra: %s",rs.getExecutionInfo().getTracingId()));
+				}
+			}
+		});
+	}
+	
+	static <T> T await(CompletionStage<T> stage) {
+		try {
+			return stage.toCompletableFuture().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StorageRuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new StorageRuntimeException(e.getCause());
+		}
+	}
+	
 	AccessMode accessMode=null;
 	@Override
 	public void open(AccessMode accessMode) throws Exception {
@@ -187,7 +254,19 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 
 	@Override
 	public void write(WriteOperation writeOperation) throws Exception {
-		writeOperation.run(new TransactionImpl(accessMode));
+		final TransactionImpl tx=new TransactionImpl(accessMode);
+		try {
+			writeOperation.run(tx);
+		} catch (Exception e) {
+			// changes made before the failure are applied in synchronous mode too
+			try {
+				tx.commit();
+			} catch (RuntimeException e2) {
+				e.addSuppressed(e2);
+			}
+			throw e;
+		}
+		tx.commit();
 	}
 
 	final static String profile="ddl";
@@ -199,12 +278,114 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 			System.setProperty("datastax-java-driver.profiles."+profile+".basic.request.timeout", "30 seconds");
 		}
 	}
+	/** Marks a key deleted by a pending asynchronous write. */
+	private static final Object DELETED=new Object();
+	
 	private final class TransactionImpl implements ReadableTransaction,WriteableTransaction {
 		
 		final AccessMode accessMode;
+		final boolean async;
+		final int writeBatchSize;
+		
+		/** Pending asynchronous writes by tree, so that reads of this transaction see its own writes. */
+		final ConcurrentMap<TreeName,ConcurrentMap<ByteString,Object>> pendingWrites=new ConcurrentHashMap<>();
+		/** Writes not sent yet by tree, the last write of a key replacing the previous ones. */
+		final Map<TreeName,LinkedHashMap<ByteString,Object>> unsentWrites=new HashMap<>();
+		final List<CompletableFuture<AsyncResultSet>> sentWrites=new ArrayList<>();
+		volatile Throwable writeFailure;
+		
 		public TransactionImpl(AccessMode accessMode) {
 			super();
 			this.accessMode=accessMode;
+			this.async=config.isAsynchronous() && !AccessMode.READ_ONLY.equals(accessMode);
+			this.writeBatchSize=config.getWriteBatchSize();
+		}
+		
+		void write(TreeName treeName, ByteString key, Object value) {
+			if (writeFailure!=null) {
+				throw new StorageRuntimeException(writeFailure);
+			}
+			ConcurrentMap<ByteString,Object> pending=pendingWrites.get(treeName);
+			if (pending==null) {
+				pending=new ConcurrentHashMap<>();
+				pendingWrites.put(treeName, pending);
+			}
+			pending.put(key, value);
+			LinkedHashMap<ByteString,Object> unsent=unsentWrites.get(treeName);
+			if (unsent==null) {
+				unsent=new LinkedHashMap<>();
+				unsentWrites.put(treeName, unsent);
+			}
+			unsent.put(key, value);
+			if (unsent.size()>=writeBatchSize) {
+				send(treeName, unsent);
+			}
+		}
+		
+		/**
+		 * Sends the writes of a tree as a single partition unlogged batch. Batches of the same tree may be applied out
+		 * of order, the client side timestamps of the driver keep the last write of a key.
+		 */
+		void send(TreeName treeName, LinkedHashMap<ByteString,Object> unsent) {
+			final Map<ByteString,Object> writes=new HashMap<>(unsent);
+			final List<BatchableStatement<?>> statements=new ArrayList<>(unsent.size());
+			for (Map.Entry<ByteString,Object> write : unsent.entrySet()) {
+				statements.add(write.getValue()==DELETED
+						? deleteStatement(treeName, write.getKey())
+						: putStatement(treeName, write.getKey(), (ByteString)write.getValue()));
+			}
+			unsent.clear();
+			final CompletableFuture<AsyncResultSet> res=executeAsync(statements.size()==1
+					? statements.get(0)
+					: BatchStatement.newInstance(DefaultBatchType.UNLOGGED, statements)).toCompletableFuture();
+			res.whenComplete(new BiConsumer<AsyncResultSet, Throwable>() {
+				@Override
+				public void accept(AsyncResultSet rs, Throwable e) {
+					if (e!=null) {
+						if (writeFailure==null) {
+							writeFailure=e;
+						}
+						return;
+					}
+					final ConcurrentMap<ByteString,Object> pending=pendingWrites.get(treeName);
+					if (pending!=null) {
+						for (Map.Entry<ByteString,Object> write : writes.entrySet()) {
+							pending.remove(write.getKey(), write.getValue());
+						}
+					}
+				}
+			});
+			if (sentWrites.size()>=writeBatchSize) {
+				for (Iterator<CompletableFuture<AsyncResultSet>> it=sentWrites.iterator();it.hasNext();) {
+					if (it.next().isDone()) {
+						it.remove();
+					}
+				}
+			}
+			sentWrites.add(res);
+		}
+		
+		/** Sends the writes not sent yet and waits until all the writes of this transaction are applied. */
+		void commit() {
+			if (!async) {
+				return;
+			}
+			for (Map.Entry<TreeName,LinkedHashMap<ByteString,Object>> unsent : unsentWrites.entrySet()) {
+				if (!unsent.getValue().isEmpty()) {
+					send(unsent.getKey(), unsent.getValue());
+				}
+			}
+			for (CompletableFuture<AsyncResultSet> write : sentWrites) {
+				try {
+					write.join();
+				} catch (RuntimeException e) {
+					// recorded in writeFailure
+				}
+			}
+			sentWrites.clear();
+			if (writeFailure!=null) {
+				throw new StorageRuntimeException(writeFailure);
+			}
 		}
 
 		@Override
@@ -221,6 +402,13 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		
 		@Override
 		public ByteString read(TreeName treeName, ByteSequence key) {
+			if (async) {
+				final Map<ByteString,Object> pending=pendingWrites.get(treeName);
+				final Object value=pending!=null?pending.get(key.toByteString()):null;
+				if (value!=null) {
+					return value==DELETED?null:(ByteString)value;
+				}
+			}
 			final Row row=execute(
 					prepared.getUnchecked("SELECT value FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId and key=:key").bind()
 						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
@@ -231,11 +419,13 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 
 		@Override
 		public Cursor<ByteString, ByteString> openCursor(TreeName treeName) {
+			commit();
 			return new CursorImpl(this,treeName);
 		}
 
 		@Override
 		public long getRecordCount(TreeName treeName) {
+			commit();
 			return execute(
 					prepared.getUnchecked("SELECT count(*) FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId").bind()
 						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
@@ -245,6 +435,8 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		@Override
 		public void deleteTree(TreeName treeName) {
 			checkReadOnly();
+			commit();
+			pendingWrites.remove(treeName);
 			openTree(treeName,true);
 			execute(
 					prepared.getUnchecked("DELETE FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId").bind()
@@ -255,12 +447,18 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		@Override
 		public void put(TreeName treeName, ByteSequence key, ByteSequence value) {
 			checkReadOnly();
-			execute(
-				prepared.getUnchecked("INSERT INTO "+getTableName()+" (baseDN,indexId,key,value) VALUES (:baseDN,:indexId,:key,:value)").bind()
+			if (async) {
+				write(treeName, key.toByteString(), value.toByteString());
+				return;
+			}
+			execute(putStatement(treeName, key, value));
+		}
+		
+		BatchableStatement<?> putStatement(TreeName treeName, ByteSequence key, ByteSequence value) {
+			return prepared.getUnchecked("INSERT INTO "+getTableName()+" (baseDN,indexId,key,value) VALUES (:baseDN,:indexId,:key,:value)").bind()
 					.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
 					.setByteBuffer("key", ByteBuffer.wrap(key.toByteArray()))
-					.setByteBuffer("value",ByteBuffer.wrap(value.toByteArray()))
-				);
+					.setByteBuffer("value",ByteBuffer.wrap(value.toByteArray()));
 		}
 
 		@Override
@@ -284,14 +482,20 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		@Override
 		public boolean delete(TreeName treeName, ByteSequence key) {
 			checkReadOnly();
-			execute(
-					prepared.getUnchecked("DELETE FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId and key=:key").bind()
-						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
-						.setByteBuffer("key", ByteBuffer.wrap(key.toByteArray()))
-					);
+			if (async) {
+				write(treeName, key.toByteString(), DELETED);
+				return true;
+			}
+			execute(deleteStatement(treeName, key));
 			return true;
 		}
 		
+		BatchableStatement<?> deleteStatement(TreeName treeName, ByteSequence key) {
+			return prepared.getUnchecked("DELETE FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId and key=:key").bind()
+					.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
+					.setByteBuffer("key", ByteBuffer.wrap(key.toByteArray()));
+		}
+		
 		void checkReadOnly() {
 			if (AccessMode.READ_ONLY.equals(accessMode)) {
 				throw new ReadOnlyStorageException();
@@ -299,37 +503,66 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		}
 	}
 	
+	/**
+	 * Queries are only sent when the cursor is positioned, starting from the requested key, and the next page of
+	 * results is fetched while the current one is consumed.
+	 */
 	private final class CursorImpl implements Cursor<ByteString, ByteString> {
 		final TreeName treeName;
 		final TransactionImpl tx;
 
-		ResultSet rc;
 		Iterator<Row> iterator;
+		CompletionStage<AsyncResultSet> nextPage;
 		Row current=null;
 		
 		public CursorImpl(TransactionImpl tx,TreeName treeName) {
 			this.treeName=treeName;
 			this.tx=tx;
-			rc=full();
-			iterator=rc.iterator();
 		}
 
-		ResultSet full(){
-			return execute(
-						prepared.getUnchecked("SELECT key,value FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId ORDER BY key").bind()
-							.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId()) 
-						);
+		Statement<?> full(){
+			return prepared.getUnchecked("SELECT key,value FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId ORDER BY key").bind()
+						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId());
+		}
+		
+		Statement<?> from(ByteSequence key){
+			return prepared.getUnchecked("SELECT key,value FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId and key>=:key ORDER BY key").bind()
+						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId())
+						.setByteBuffer("key", ByteBuffer.wrap(key.toByteArray()));
+		}
+		
+		Statement<?> last(){
+			return prepared.getUnchecked("SELECT key,value FROM "+getTableName()+" WHERE baseDN=:baseDN and indexId=:indexId ORDER BY key DESC LIMIT 1").bind()
+						.setString("baseDN", treeName.getBaseDN()).setString("indexId", treeName.getIndexId());
+		}
+		
+		void query(Statement<?> statement) {
+			page(await(executeAsync(statement)));
+		}
+		
+		void page(AsyncResultSet rs) {
+			iterator=rs.currentPage().iterator();
+			nextPage=rs.hasMorePages()?rs.fetchNextPage():null;
+		}
+		
+		boolean advance() {
+			while (!iterator.hasNext()) {
+				if (nextPage==null) {
+					current=null;
+					return false;
+				}
+				page(await(nextPage));
+			}
+			current=iterator.next();
+			return true;
 		}
 		
 		@Override
 		public boolean next() {
-			try {
-				current=iterator.next();
-				return true;
-			}catch (NoSuchElementException e) {
-				current=null;
+			if (iterator==null) {
+				query(full());
 			}
-			return false;
+			return advance();
 		}
 
 		@Override
@@ -364,39 +597,24 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		@Override
 		public void close() {
 			iterator=null;
+			nextPage=null;
 			current=null;
-			rc=null;
 		}
 
 
 		@Override
 		public boolean positionToKeyOrNext(ByteSequence key) {
-			if (!isDefined() || key.compareTo(getKey())<0) { //restart iterator
-				iterator=rc.iterator();
-			}
-			while (iterator.hasNext()) {
-				current=iterator.next();
-				if (key.compareTo(getKey())<=0) {
-					return true;
-				}
-			}
-			current=null;
-			return false;
+			query(from(key));
+			return advance();
 		}
 		
 		@Override
 		public boolean positionToKey(ByteSequence key) {
-			if (!isDefined() || key.compareTo(getKey())<0) {  //restart iterator
-				iterator=rc.iterator();
-			}
 			if (isDefined() && key.compareTo(getKey())==0) {
 				return true;
 			}
-			while (iterator.hasNext()) {
-				current=iterator.next();
-				if (key.compareTo(getKey())==0) {
-					return true;
-				}
+			if (positionToKeyOrNext(key) && key.compareTo(getKey())==0) {
+				return true;
 			}
 			current=null;
 			return false;
@@ -405,27 +623,20 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		
 		@Override
 		public boolean positionToLastKey() {
-			while (iterator.hasNext()) {
-				current=iterator.next();
-			}
-			if (current!=null) {
-				return true;
-			}
-			return false;
+			query(last());
+			return advance();
 		}
 
 		@Override
 		public boolean positionToIndex(int index) {
-			iterator=rc.iterator();  //restart iterator
+			query(full());
 			int ct=0;
-			while(iterator.hasNext()){
-				current=iterator.next();
+			while(advance()){
 				if (ct==index) {
 					return true;
 				}
 				ct++;
 		    }
-			current=null;
 			return false;
 		}
 	}
@@ -456,8 +667,12 @@ public class Storage implements org.opends.server.backends.pluggable.spi.Storage
 		
 		@Override
 		public void close() {
-			if (!isOpen) {
-				Storage.this.close();
+			try {
+				tx.commit();
+			} finally {
+				if (!isOpen) {
+					Storage.this.close();
+				}
 			}
 		}
 		
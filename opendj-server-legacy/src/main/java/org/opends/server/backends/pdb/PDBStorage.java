@@ -1066,6 +1066,29 @@ public final class PDBStorage implements Storage, Backupable, ConfigurationChang
     }
   }
 
+  @Override
+  public void writeBatch(final List<? extends WriteOperation> operations) throws Exception
+  {
+    write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        for (final WriteOperation operation : operations)
+        {
+          operation.run(txn);
+        }
+      }
+    });
+  }
+
+  @Override
+  public boolean supportsBatchWrites()
+  {
+    // GROUP commits already share their syncs, only the ones synced on their own are worth grouping
+    return db != null && accessMode.isWriteable() && commitPolicy == HARD;
+  }
+
   private Exception unwrap(StorageRuntimeException e) throws Exception
   {
     if (e.getCause() != null)
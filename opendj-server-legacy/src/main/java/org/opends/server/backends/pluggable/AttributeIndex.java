@@ -24,6 +24,7 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -291,6 +292,10 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
   private IndexingOptions indexingOptions;
   private final State state;
   private final CryptoSuite cryptoSuite;
+  /** Statistics about the candidates returned by the evaluation of each type of filter. */
+  private final Map<IndexFilterType, IndexStatistics> filterStatistics = new EnumMap<>(IndexFilterType.class);
+  /** Statistics about the candidates returned by the evaluation of bounded ranges like (&amp;(cn&gt;=A)(cn&lt;=B)). */
+  private final IndexStatistics boundedRangeStatistics = new IndexStatistics();
 
   AttributeIndex(BackendIndexCfg config, State state, EntryContainer entryContainer, CryptoSuite cryptoSuite)
       throws ConfigException
@@ -301,6 +306,10 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
     this.cryptoSuite = cryptoSuite;
     this.indexingOptions = new IndexingOptionsImpl(config.getSubstringLength());
     this.indexIdToIndexes = Collections.unmodifiableMap(buildIndexes(entryContainer, state, config, cryptoSuite));
+    for (IndexFilterType indexFilterType : IndexFilterType.values())
+    {
+      filterStatistics.put(indexFilterType, new IndexStatistics());
+    }
   }
 
   private Map<String, MatchingRuleIndex> buildIndexes(EntryContainer entryContainer, State state,
@@ -1067,6 +1076,71 @@ class AttributeIndex implements ConfigurationChangeListener<BackendIndexCfg>, Cl
     return indexIdToIndexes;
   }
 
+  /**
+   * Returns the statistics about the candidates returned by the evaluation of a type of filter.
+   *
+   * @param indexFilterType
+   *          the type of filter
+   * @return the statistics about the candidates returned by the evaluation of this type of filter
+   */
+  IndexStatistics getFilterStatistics(IndexFilterType indexFilterType)
+  {
+    return filterStatistics.get(indexFilterType);
+  }
+
+  /**
+   * Returns the statistics about the candidates returned by the evaluation of bounded ranges.
+   *
+   * @return the statistics about the candidates returned by the evaluation of bounded ranges
+   */
+  IndexStatistics getBoundedRangeStatistics()
+  {
+    return boundedRangeStatistics;
+  }
+
+  /**
+   * Estimates the number of candidates that the evaluation of a type of filter will return.
+   *
+   * @param indexFilterType
+   *          the type of filter
+   * @return the estimated number of candidates, or {@link IndexStatistics#UNKNOWN}
+   */
+  long estimateCandidates(IndexFilterType indexFilterType)
+  {
+    final long estimate = filterStatistics.get(indexFilterType).estimateSize(getUndefinedSetSize());
+    if (estimate == IndexStatistics.UNKNOWN && indexFilterType == IndexFilterType.PRESENCE)
+    {
+      // The presence index has a single key holding all the candidates.
+      final MatchingRuleIndex presenceIndex = indexIdToIndexes.get(PRESENCE_INDEXER.getIndexID());
+      if (presenceIndex != null)
+      {
+        return presenceIndex.getStatistics().estimateSize(getUndefinedSetSize());
+      }
+    }
+    return estimate;
+  }
+
+  /**
+   * Estimates the number of candidates that the evaluation of a bounded range will return.
+   *
+   * @return the estimated number of candidates, or {@link IndexStatistics#UNKNOWN}
+   */
+  long estimateBoundedRangeCandidates()
+  {
+    return boundedRangeStatistics.estimateSize(getUndefinedSetSize());
+  }
+
+  /**
+   * Returns the number of candidates assumed for an undefined set, where the index entry limit has been exceeded.
+   *
+   * @return the number of candidates assumed for an undefined set
+   */
+  long getUndefinedSetSize()
+  {
+    final int indexEntryLimit = config.getIndexEntryLimit();
+    return indexEntryLimit > 0 ? indexEntryLimit : IndexFilter.CURSOR_ENTRY_LIMIT;
+  }
+
   /**
    * Retrieve the entry IDs that might match an extensible filter.
    *
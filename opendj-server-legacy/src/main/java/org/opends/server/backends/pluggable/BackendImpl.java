@@ -759,6 +759,8 @@ public abstract class BackendImpl<C extends PluggableBackendCfg> extends LocalBa
       if (openRootContainer)
       {
         rootContainer = newRootContainer(AccessMode.READ_WRITE);
+        // Nothing else uses the backend, so the faster offline rebuild can be used.
+        rebuildConfig.setOnline(false);
       }
       getImportStrategy(rootContainer).rebuildIndex(rebuildConfig);
     }
@@ -28,6 +28,7 @@ import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
 import org.opends.server.api.MonitorData;
 import org.opends.server.api.MonitorProvider;
+import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
 import org.opends.server.types.SearchFilter;
 import org.opends.server.util.TimeThread;
 
@@ -110,6 +111,18 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
       monitorAttrs.add("need-reindex", needReindexValues);
     }
 
+    Collection<String> onlineRebuildValues = createOnlineRebuildValues();
+    if (!onlineRebuildValues.isEmpty())
+    {
+      monitorAttrs.add("online-rebuild", onlineRebuildValues);
+    }
+
+    Collection<String> indexStatisticsValues = createIndexStatisticsValues();
+    if (!indexStatisticsValues.isEmpty())
+    {
+      monitorAttrs.add("index-statistics", indexStatisticsValues);
+    }
+
     if (filterUseEnabled)
     {
       monitorAttrs.add("filter-use-startTime", startTimeStamp);
@@ -137,6 +150,69 @@ class BackendMonitor extends MonitorProvider<MonitorProviderCfg>
     return values;
   }
 
+  private Collection<String> createOnlineRebuildValues()
+  {
+    Collection<String> values = new ArrayList<>();
+    for (EntryContainer ec : rootContainer.getEntryContainers())
+    {
+      OnlineIndexRebuild rebuild = ec.getOnlineIndexRebuild();
+      if (rebuild != null)
+      {
+        StringBuilder value = new StringBuilder();
+        value.append(ec.getBaseDN());
+        value.append(" phase:").append(rebuild.getPhase());
+        value.append(" processed:").append(rebuild.getEntriesProcessed());
+        value.append(" total:").append(rebuild.getTotalEntries());
+        value.append(" rate:").append(rebuild.getEntriesPerSecond());
+        value.append(" pending-changes:").append(rebuild.getPendingChanges());
+        value.append(" indexes:");
+        for (Tree index : rebuild.getIndexes())
+        {
+          value.append(index.getName().getIndexId()).append(',');
+        }
+        value.setLength(value.length() - 1);
+        values.add(value.toString());
+      }
+    }
+    return values;
+  }
+
+  private Collection<String> createIndexStatisticsValues()
+  {
+    Collection<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    for (EntryContainer ec : rootContainer.getEntryContainers())
+    {
+      for (AttributeIndex attributeIndex : ec.getAttributeIndexes())
+      {
+        for (DefaultIndex index : attributeIndex.getNameToIndexes().values())
+        {
+          addIndexStatisticsValue(values, value, index.getName().toString(), index.getStatistics());
+        }
+        for (IndexFilterType indexFilterType : IndexFilterType.values())
+        {
+          addIndexStatisticsValue(values, value, attributeIndex.getName() + " filter:" + indexFilterType.name(),
+              attributeIndex.getFilterStatistics(indexFilterType));
+        }
+        addIndexStatisticsValue(values, value, attributeIndex.getName() + " filter:BOUNDED_RANGE",
+            attributeIndex.getBoundedRangeStatistics());
+      }
+    }
+    return values;
+  }
+
+  private static void addIndexStatisticsValue(Collection<String> values, StringBuilder value, String name,
+      IndexStatistics statistics)
+  {
+    if (!statistics.isEmpty())
+    {
+      value.append(name).append(' ');
+      statistics.toString(value);
+      values.add(value.toString());
+      value.setLength(0);
+    }
+  }
+
   private List<String> createFilterUseValues()
   {
     List<String> values = new ArrayList<>();
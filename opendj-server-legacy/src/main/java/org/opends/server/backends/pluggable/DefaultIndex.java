@@ -53,6 +53,8 @@ class DefaultIndex extends AbstractTree implements Index
   private int indexEntryLimit;
 
   private EntryIDSetCodec codec;
+  /** Whether the entry ID sets are encoded in compressed bitmaps, must be kept in sync with the index state. */
+  private boolean bitmapEncoded;
   private CryptoSuite cryptoSuite;
 
   /**
@@ -66,6 +68,14 @@ class DefaultIndex extends AbstractTree implements Index
    * </ul>
    */
   private volatile boolean trusted;
+  /**
+   * A flag to indicate if this index is being rebuilt while the backend is online. Such an index is not trusted and
+   * is not used by searches, but entryIDs are added to non-existing keys like for a trusted index so that changes
+   * made during the rebuild are not lost.
+   */
+  private volatile boolean rebuilding;
+  /** Statistics about the keys of this index, used to estimate the cost of search filters. */
+  private final IndexStatistics statistics = new IndexStatistics();
 
   /**
    * Create a new index object.
@@ -96,7 +106,14 @@ class DefaultIndex extends AbstractTree implements Index
   final void afterOpen(WriteableTransaction txn, boolean createOnDemand)
   {
     final EnumSet<IndexFlag> flags = state.getIndexFlags(txn, getName());
-    codec = flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+    if (createOnDemand && flags.contains(BITMAP) != entryContainer.isBitmapIndexEncoding()
+        && entryContainer.isEmpty(txn))
+    {
+      // The index is necessarily empty as well, so its encoding can safely be switched.
+      setBitmapEncoding(txn, flags, entryContainer.isBitmapIndexEncoding());
+    }
+    bitmapEncoded = flags.contains(BITMAP);
+    codec = getCodec(flags);
     if (cryptoSuite.isEncrypted())
     {
       codec = new EntryIDSet.EntryIDSetCodecV3(codec, cryptoSuite);
@@ -110,6 +127,29 @@ class DefaultIndex extends AbstractTree implements Index
     }
   }
 
+  private static EntryIDSetCodec getCodec(EnumSet<IndexFlag> flags)
+  {
+    if (flags.contains(BITMAP))
+    {
+      return CODEC_V4;
+    }
+    return flags.contains(COMPACTED) ? CODEC_V2 : CODEC_V1;
+  }
+
+  private void setBitmapEncoding(WriteableTransaction txn, EnumSet<IndexFlag> flags, boolean bitmap)
+  {
+    if (bitmap)
+    {
+      state.addFlagsToIndex(txn, getName(), BITMAP);
+      flags.add(BITMAP);
+    }
+    else
+    {
+      state.removeFlagsFromIndex(txn, getName(), BITMAP);
+      flags.remove(BITMAP);
+    }
+  }
+
   @Override
   public String valueToString(ByteString value)
   {
@@ -179,7 +219,7 @@ class DefaultIndex extends AbstractTree implements Index
      * Avoid taking a write lock on a record which has hit all IDs because it is likely to be a
      * point of contention.
      */
-    if (!get(txn, key).isDefined())
+    if (!rebuilding && !get(txn, key).isDefined())
     {
       return;
     }
@@ -198,16 +238,24 @@ class DefaultIndex extends AbstractTree implements Index
            * If index is not trusted then this will cause all subsequent reads for this key to
            * return undefined set.
            */
-          return entryIDSet.size() == 0 ? null : toValue(entryIDSet);
+          if (entryIDSet.size() == 0)
+          {
+            statistics.keyDeleted();
+            return null;
+          }
+          statistics.record(entryIDSet);
+          return toValue(entryIDSet);
         }
-        else if (trusted)
+        else if (trusted || rebuilding)
         {
-          if (deletedIDs != null)
+          if (deletedIDs != null && trusted)
           {
             logIndexCorruptError(txn, key);
           }
           if (isNotEmpty(addedIDs))
           {
+            statistics.keyCreated();
+            statistics.record(addedIDs);
             return toValue(addedIDs);
           }
         }
@@ -274,7 +322,9 @@ class DefaultIndex extends AbstractTree implements Index
       ByteString value = txn.read(getName(), key);
       if (value != null)
       {
-        return decodeValue(key, value);
+        final EntryIDSet entryIDSet = decodeValue(key, value);
+        statistics.record(entryIDSet);
+        return entryIDSet;
       }
       return trusted ? newDefinedSet() : newUndefinedSet();
     }
@@ -317,6 +367,11 @@ class DefaultIndex extends AbstractTree implements Index
     {
       state.removeFlagsFromIndex(txn, getName(), TRUSTED);
     }
+    if (bitmapEncoded)
+    {
+      // The state record may have been cleared (e.g. by an import) while this index kept writing bitmaps.
+      state.addFlagsToIndex(txn, getName(), BITMAP);
+    }
   }
 
   @Override
@@ -325,6 +380,26 @@ class DefaultIndex extends AbstractTree implements Index
     return trusted;
   }
 
+  /**
+   * Returns the statistics about the keys of this index.
+   *
+   * @return the statistics about the keys of this index
+   */
+  final IndexStatistics getStatistics()
+  {
+    return statistics;
+  }
+
+  final void setRebuilding(boolean rebuilding)
+  {
+    this.rebuilding = rebuilding;
+  }
+
+  final boolean isRebuilding()
+  {
+    return rebuilding;
+  }
+
   final boolean isEncrypted()
   {
     return cryptoSuite.isEncrypted();
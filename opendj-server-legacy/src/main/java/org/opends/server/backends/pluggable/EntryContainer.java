@@ -27,16 +27,26 @@ import static org.opends.server.protocols.ldap.LDAPResultCode.*;
 import static org.opends.server.types.AdditionalLogItem.*;
 import static org.opends.server.util.StaticUtils.*;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -56,6 +66,7 @@ import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.SortKey;
 import org.forgerock.opendj.ldap.schema.AttributeType;
+import org.forgerock.opendj.server.config.meta.PluggableBackendCfgDefn.IndexIdSetEncoding;
 import org.forgerock.opendj.server.config.server.BackendIndexCfg;
 import org.forgerock.opendj.server.config.server.BackendVLVIndexCfg;
 import org.forgerock.opendj.server.config.server.PluggableBackendCfg;
@@ -96,8 +107,11 @@ import org.opends.server.types.CanceledOperationException;
 import org.opends.server.types.Control;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
+import org.opends.server.types.FilterType;
+import org.opends.server.types.InitializationException;
 import org.opends.server.types.Modification;
 import org.opends.server.types.Operation;
+import org.opends.server.types.PassThroughEntry;
 import org.opends.server.types.Privilege;
 import org.opends.server.types.SearchFilter;
 import org.opends.server.types.VirtualAttributeRule;
@@ -124,6 +138,8 @@ public class EntryContainer
   private static final String REFERRAL_TREE_NAME = REFERRAL_INDEX_NAME;
   /** The name of the state tree. */
   private static final String STATE_TREE_NAME = STATE_INDEX_NAME;
+  /** The number of candidate entries fetched by each task of a parallel indexed search. */
+  private static final int SEARCH_FETCH_BATCH_SIZE = 256;
 
   /** The attribute index configuration manager. */
   private final AttributeIndexCfgManager attributeIndexCfgManager;
@@ -167,6 +183,9 @@ public class EntryContainer
 
   private final ServerContext serverContext;
 
+  /** The online rebuild of the indexes of this entry container, or {@code null} if none is running. */
+  private volatile OnlineIndexRebuild onlineIndexRebuild;
+
   /**
    * This class is responsible for managing the configuration for attribute
    * indexes used within this entry container.
@@ -464,6 +483,16 @@ public class EntryContainer
     return getHighestEntryID(txn).longValue() == 0;
   }
 
+  /**
+   * Indicates whether new indexes of this entry container should store their entry ID sets in compressed bitmaps.
+   *
+   * @return {@code true} if the bitmap encoding is configured for this backend
+   */
+  boolean isBitmapIndexEncoding()
+  {
+    return config.getIndexIdSetEncoding() == IndexIdSetEncoding.BITMAP;
+  }
+
   /**
    * Closes the entry container.
    *
@@ -581,6 +610,82 @@ public class EntryContainer
     return vlvIndexMap.values();
   }
 
+  /**
+   * Registers an online index rebuild which will be notified of every change made to the entries of this entry
+   * container until {@link #stopOnlineIndexRebuild()} is called. This method waits for the running update operations
+   * to complete, so that every change which has not been recorded is committed when it returns.
+   *
+   * @param rebuild
+   *          the online index rebuild to register
+   * @throws InitializationException
+   *           if another online index rebuild is already running
+   */
+  void startOnlineIndexRebuild(OnlineIndexRebuild rebuild) throws InitializationException
+  {
+    exclusiveLock.lock();
+    try
+    {
+      if (onlineIndexRebuild != null)
+      {
+        throw new InitializationException(ERR_REBUILD_ONLINE_IN_PROGRESS.get(baseDN));
+      }
+      onlineIndexRebuild = rebuild;
+    }
+    finally
+    {
+      exclusiveLock.unlock();
+    }
+  }
+
+  /** Unregisters the running online index rebuild, if any. */
+  void stopOnlineIndexRebuild()
+  {
+    onlineIndexRebuild = null;
+  }
+
+  /**
+   * Returns the running online index rebuild.
+   *
+   * @return the running online index rebuild, or {@code null} if none is running
+   */
+  OnlineIndexRebuild getOnlineIndexRebuild()
+  {
+    return onlineIndexRebuild;
+  }
+
+  private void recordChange(EntryID entryID, Entry oldEntry)
+  {
+    final OnlineIndexRebuild rebuild = onlineIndexRebuild;
+    if (rebuild != null)
+    {
+      rebuild.recordChange(entryID, oldEntry);
+    }
+  }
+
+  /**
+   * Executes the write operation of an update operation. While an online index rebuild is running, it does not start
+   * replaying the recorded changes until the write operation is committed, so that it reads the changed entries as
+   * committed.
+   */
+  private void writeUpdate(WriteOperation writeOperation) throws Exception
+  {
+    final OnlineIndexRebuild rebuild = onlineIndexRebuild;
+    if (rebuild == null)
+    {
+      rootContainer.getGroupCommitWriter().write(writeOperation);
+      return;
+    }
+    rebuild.beginUpdate();
+    try
+    {
+      rootContainer.getGroupCommitWriter().write(writeOperation);
+    }
+    finally
+    {
+      rebuild.endUpdate();
+    }
+  }
+
   /**
    * Determine the highest entryID in the entryContainer.
    * The entryContainer must already be open.
@@ -773,9 +878,10 @@ public class EntryContainer
 
             // Evaluate the filter against the attribute indexes.
             candidateEntryIDs = indexFilter.evaluate();
-            if (!isBelowFilterThreshold(candidateEntryIDs))
+            final int idSetLimit = getEntryIDSetLimit(searchOperation);
+            if (!isBelowFilterThreshold(candidateEntryIDs)
+                && !isCheaperToCheckScopeOfCandidates(txn, candidateEntryIDs, aBaseDN, searchScope, idSetLimit))
             {
-              final int idSetLimit = getEntryIDSetLimit(searchOperation);
               final EntryIDSet scopeSet = getIDSetFromScope(txn, aBaseDN, searchScope, idSetLimit);
               candidateEntryIDs.retainAll(scopeSet);
               if (debugBuffer != null)
@@ -896,6 +1002,32 @@ public class EntryContainer
           return lookThroughLimit > 0 ? Math.min(indexLimit, lookThroughLimit) : indexLimit;
         }
 
+        /**
+         * Building the scope set reads the IDs of all the entries in scope, up to the ID set limit, while checking
+         * the scope of each candidate once its entry is fetched is almost free. The scope set only saves fetching the
+         * out of scope candidates, so it is not worth building when there are far fewer candidates than entries in
+         * scope.
+         */
+        private boolean isCheaperToCheckScopeOfCandidates(ReadableTransaction txn, EntryIDSet candidateEntryIDs,
+            DN aBaseDN, SearchScope searchScope, int idSetLimit)
+        {
+          if (!candidateEntryIDs.isDefined())
+          {
+            return false;
+          }
+          final EntryID baseID = dn2id.get(txn, aBaseDN);
+          if (baseID == null)
+          {
+            // Let the scope evaluation report the missing base entry
+            return false;
+          }
+          // The number of children is a lower bound of the number of entries in a subtree
+          final long scopeSize = searchScope == SearchScope.WHOLE_SUBTREE && aBaseDN.equals(baseDN)
+              ? id2childrenCount.getTotalCount(txn)
+              : id2childrenCount.getCount(txn, baseID);
+          return Math.min(scopeSize, idSetLimit) > candidateEntryIDs.size() * ENTRY_TO_ENTRY_ID_COST_RATIO;
+        }
+
         private void searchBaseObject(ReadableTransaction txn, SearchOperation searchOperation,
             PagedResultsControl pageRequest) throws DirectoryException
         {
@@ -1080,6 +1212,7 @@ public class EntryContainer
     DN aBaseDN = searchOperation.getBaseDN();
     SearchScope searchScope = searchOperation.getScope();
     boolean manageDsaIT = isManageDsaITOperation(searchOperation);
+    boolean passThrough = canPassThrough(searchOperation);
 
     // The base entry must already have been processed if this is
     // a request for the next page in paged results.  So we skip
@@ -1165,9 +1298,29 @@ public class EntryContainer
             searchScope != SearchScope.SINGLE_LEVEL
                 // Check if this entry is an immediate child.
                 || findDNKeyParent(cursor.getKey()) == baseDNKey.length();
-        if (isInScope)
+        // Process the candidate entry, without decoding it if possible.
+        final PassThroughEntry passThroughEntry =
+            isInScope && passThrough ? id2entry.getPassThroughEntry(txn, entryID) : null;
+        if (passThroughEntry != null)
+        {
+          lookthroughCount++;
+
+          if (isPageFull(searchOperation, pageRequest))
+          {
+            // Set the cookie to remember where we were.
+            addPagedResultsControl(searchOperation, pageRequest, cursor.getKey());
+            return;
+          }
+
+          if (!searchOperation.returnEntry(passThroughEntry))
+          {
+            // We have been told to discontinue processing of the search.
+            // This could be due to size limit exceeded or operation cancelled
+            return;
+          }
+        }
+        else if (isInScope)
         {
-          // Process the candidate entry.
           final Entry entry = getEntry(txn, entryID);
           if (entry != null)
           {
@@ -1208,6 +1361,19 @@ public class EntryContainer
     addPagedResultsControl(searchOperation, pageRequest, null);
   }
 
+  /**
+   * Indicates whether the entries matching the provided search can be read as {@link PassThroughEntry pass-through
+   * entries}, bypassing the entry cache. The search filter must match every entry which can be passed through, which is
+   * the case of the "(objectClass=*)" filter used to read whole subtrees, and the search operation must allow it.
+   */
+  private static boolean canPassThrough(SearchOperation searchOperation)
+  {
+    final SearchFilter filter = searchOperation.getFilter();
+    return filter.getFilterType() == FilterType.PRESENT
+        && filter.getAttributeType().isObjectClass()
+        && searchOperation.isPassThroughAllowed();
+  }
+
   private boolean isPageFull(SearchOperation searchOperation, PagedResultsControl pageRequest)
   {
     return pageRequest != null && searchOperation.getEntriesSent() == pageRequest.getSize();
@@ -1319,25 +1485,73 @@ public class EntryContainer
     if (continueSearch)
     {
       final SearchFilter filter = searchOperation.getFilter();
-      for (int i = findStartIndex(beginEntryID, entryIDReorderedSet); i < entryIDReorderedSet.length; i++)
+      final int startIndex = findStartIndex(beginEntryID, entryIDReorderedSet);
+      final boolean passThrough = canPassThrough(searchOperation);
+      final ForkJoinPool searchFetchExecutor = rootContainer.getSearchFetchExecutor();
+      // Entries passed through are cheaper to read than to hand over to the search fetch threads
+      if (searchFetchExecutor != null
+          && !passThrough
+          && entryIDReorderedSet.length - startIndex >= config.getSearchFetchThreshold())
       {
-        EntryID entryID = new EntryID(entryIDReorderedSet[i]);
-        Entry entry;
-        try
+        if (returnFetchedCandidates(searchFetchExecutor, entryIDReorderedSet, startIndex, candidatesAreInScope,
+            searchOperation, pageRequest))
         {
-          entry = getEntry(txn, entryID);
+          return;
         }
-        catch (Exception e)
+      }
+      else
+      {
+        for (int i = startIndex; i < entryIDReorderedSet.length; i++)
         {
-          logger.traceException(e);
-          continue;
-        }
+          EntryID entryID = new EntryID(entryIDReorderedSet[i]);
+          if (passThrough)
+          {
+            final PassThroughEntry passThroughEntry;
+            try
+            {
+              passThroughEntry = id2entry.getPassThroughEntry(txn, entryID);
+            }
+            catch (Exception e)
+            {
+              logger.traceException(e);
+              continue;
+            }
 
-        // Process the candidate entry.
-        if (entry != null
-              && isInScope(candidatesAreInScope, searchScope, aBaseDN, entry)
-              && (manageDsaIT || entry.getReferralURLs() == null)
-              && filter.matchesEntry(entry))
+            if (passThroughEntry != null)
+            {
+              if (isInScope(candidatesAreInScope, searchScope, aBaseDN, passThroughEntry.getName()))
+              {
+                if (isPageFull(searchOperation, pageRequest))
+                {
+                  // Set the cookie to remember where we were.
+                  addPagedResultsControl(searchOperation, pageRequest, entryID.toByteString());
+                  return;
+                }
+
+                if (!searchOperation.returnEntry(passThroughEntry))
+                {
+                  // We have been told to discontinue processing of the search.
+                  // This could be due to size limit exceeded or operation cancelled
+                  break;
+                }
+              }
+              continue;
+            }
+          }
+
+          Entry entry;
+          try
+          {
+            entry = getEntry(txn, entryID);
+          }
+          catch (Exception e)
+          {
+            logger.traceException(e);
+            continue;
+          }
+
+          // Process the candidate entry.
+          if (entry != null && isReturnable(entry, candidatesAreInScope, searchScope, aBaseDN, manageDsaIT, filter))
           {
             if (isPageFull(searchOperation, pageRequest))
             {
@@ -1353,6 +1567,7 @@ public class EntryContainer
               break;
             }
           }
+        }
       }
       searchOperation.checkIfCanceled(false);
     }
@@ -1374,6 +1589,197 @@ public class EntryContainer
     addPagedResultsControl(searchOperation, pageRequest, null);
   }
 
+  private boolean isReturnable(Entry entry, boolean candidatesAreInScope, SearchScope searchScope, DN aBaseDN,
+      boolean manageDsaIT, SearchFilter filter) throws DirectoryException
+  {
+    return isInScope(candidatesAreInScope, searchScope, aBaseDN, entry.getName())
+        && (manageDsaIT || entry.getReferralURLs() == null)
+        && filter.matchesEntry(entry);
+  }
+
+  /**
+   * Returns the candidate entries of an indexed search, fetching, decoding and filtering them in batches on the
+   * provided executor while the current thread sends the matching entries in candidate order. At most two batches
+   * per thread of the executor are processed ahead of the entries being returned. The limit is based on the executor
+   * rather than on the configuration, which may have changed since the executor was retrieved.
+   *
+   * @return true if the page is full and the paged results cookie has been set, false otherwise
+   */
+  private boolean returnFetchedCandidates(ForkJoinPool executor, long[] entryIDReorderedSet, int startIndex,
+      boolean candidatesAreInScope, SearchOperation searchOperation, PagedResultsControl pageRequest)
+      throws DirectoryException
+  {
+    final int maxPendingBatches = Math.max(1, 2 * executor.getParallelism());
+    final AtomicBoolean abandoned = new AtomicBoolean();
+    final Deque<Future<Entry[]>> pendingBatches = new ArrayDeque<>(maxPendingBatches);
+    int nextBatchIndex = startIndex;
+    int index = startIndex;
+    try
+    {
+      while (true)
+      {
+        while (pendingBatches.size() < maxPendingBatches && nextBatchIndex < entryIDReorderedSet.length)
+        {
+          final int batchEnd = Math.min(nextBatchIndex + SEARCH_FETCH_BATCH_SIZE, entryIDReorderedSet.length);
+          pendingBatches.add(submit(executor, new CandidateBatch(entryIDReorderedSet, nextBatchIndex, batchEnd,
+              candidatesAreInScope, searchOperation, abandoned)));
+          nextBatchIndex = batchEnd;
+        }
+        final Future<Entry[]> batch = pendingBatches.poll();
+        if (batch == null)
+        {
+          return false;
+        }
+        for (Entry entry : getMatchingEntries(batch))
+        {
+          if (entry != null)
+          {
+            if (isPageFull(searchOperation, pageRequest))
+            {
+              // Set the cookie to remember where we were.
+              addPagedResultsControl(searchOperation, pageRequest, new EntryID(entryIDReorderedSet[index])
+                  .toByteString());
+              return true;
+            }
+
+            if (!searchOperation.returnEntry(entry, null))
+            {
+              // We have been told to discontinue processing of the search.
+              // This could be due to size limit exceeded or operation cancelled
+              return false;
+            }
+          }
+          index++;
+        }
+      }
+    }
+    finally
+    {
+      // Do not let fetches run once the search has completed and released the entry container lock
+      abandoned.set(true);
+      for (Future<Entry[]> batch : pendingBatches)
+      {
+        awaitQuietly(batch);
+      }
+    }
+  }
+
+  private static Future<Entry[]> submit(ExecutorService executor, CandidateBatch batch)
+  {
+    try
+    {
+      return executor.submit(batch);
+    }
+    catch (RejectedExecutionException e)
+    {
+      // The executor has been shut down by a configuration change: fetch the batch in the current thread
+      final FutureTask<Entry[]> task = new FutureTask<>(batch);
+      task.run();
+      return task;
+    }
+  }
+
+  private static Entry[] getMatchingEntries(Future<Entry[]> batch) throws DirectoryException
+  {
+    try
+    {
+      return batch.get();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          LocalizableMessage.raw(stackTraceToSingleLineString(e)), e);
+    }
+    catch (ExecutionException e)
+    {
+      if (e.getCause() instanceof DirectoryException)
+      {
+        throw (DirectoryException) e.getCause();
+      }
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          LocalizableMessage.raw(stackTraceToSingleLineString(e.getCause())), e.getCause());
+    }
+  }
+
+  private static void awaitQuietly(Future<?> batch)
+  {
+    try
+    {
+      batch.get();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e)
+    {
+      logger.traceException(e);
+    }
+  }
+
+  /**
+   * Fetches a contiguous range of candidate entries in its own read transaction. The returned array is aligned on the
+   * range of candidates and contains null for each candidate which must not be returned to the client.
+   */
+  private final class CandidateBatch implements Callable<Entry[]>
+  {
+    private final long[] entryIDs;
+    private final int from;
+    private final int to;
+    private final boolean candidatesAreInScope;
+    private final SearchScope searchScope;
+    private final DN baseDN;
+    private final boolean manageDsaIT;
+    private final SearchFilter filter;
+    private final AtomicBoolean abandoned;
+
+    private CandidateBatch(long[] entryIDs, int from, int to, boolean candidatesAreInScope,
+        SearchOperation searchOperation, AtomicBoolean abandoned)
+    {
+      this.entryIDs = entryIDs;
+      this.from = from;
+      this.to = to;
+      this.candidatesAreInScope = candidatesAreInScope;
+      this.searchScope = searchOperation.getScope();
+      this.baseDN = searchOperation.getBaseDN();
+      this.manageDsaIT = isManageDsaITOperation(searchOperation);
+      this.filter = searchOperation.getFilter();
+      this.abandoned = abandoned;
+    }
+
+    @Override
+    public Entry[] call() throws Exception
+    {
+      return storage.read(new ReadOperation<Entry[]>()
+      {
+        @Override
+        public Entry[] run(ReadableTransaction txn) throws Exception
+        {
+          final Entry[] entries = new Entry[to - from];
+          for (int i = from; i < to && !abandoned.get(); i++)
+          {
+            final Entry entry;
+            try
+            {
+              entry = getEntry(txn, new EntryID(entryIDs[i]));
+            }
+            catch (Exception e)
+            {
+              logger.traceException(e);
+              continue;
+            }
+            if (entry != null && isReturnable(entry, candidatesAreInScope, searchScope, baseDN, manageDsaIT, filter))
+            {
+              entries[i - from] = entry;
+            }
+          }
+          return entries;
+        }
+      });
+    }
+  }
+
   private int findStartIndex(Long beginEntryID, long[] entryIDReorderedSet)
   {
     if (beginEntryID == null)
@@ -1391,10 +1797,8 @@ public class EntryContainer
     return 0;
   }
 
-  private boolean isInScope(boolean candidatesAreInScope, SearchScope searchScope, DN aBaseDN, Entry entry)
+  private boolean isInScope(boolean candidatesAreInScope, SearchScope searchScope, DN aBaseDN, DN entryDN)
   {
-    DN entryDN = entry.getName();
-
     if (candidatesAreInScope)
     {
       return true;
@@ -1453,7 +1857,7 @@ public class EntryContainer
 
     try
     {
-      storage.write(new WriteOperation()
+      writeUpdate(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -1490,6 +1894,7 @@ public class EntryContainer
             id2entry.put(txn, entryID, encodedEntry);
             dn2uri.addEntry(txn, entry);
             id2childrenCount.updateTotalCount(txn, 1);
+            recordChange(entryID, null);
             indexBuffer.flush(txn);
             // One last check before committing
             addOperation.checkIfCanceled(true);
@@ -1579,7 +1984,7 @@ public class EntryContainer
     final IndexBuffer indexBuffer = new IndexBuffer();
     try
     {
-      storage.write(new WriteOperation()
+      writeUpdate(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -1862,7 +2267,7 @@ public class EntryContainer
     final ByteString encodedNewEntry = id2entry.encode(newEntry);
     try
     {
-      storage.write(new WriteOperation()
+      writeUpdate(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -1954,7 +2359,7 @@ public class EntryContainer
     final IndexBuffer indexBuffer = new IndexBuffer();
     try
     {
-      storage.write(new WriteOperation()
+      writeUpdate(new WriteOperation()
       {
         @Override
         public void run(WriteableTransaction txn) throws Exception
@@ -2108,6 +2513,7 @@ public class EntryContainer
           {
             // Slow path: the entry has been renumbered so we need to fully re-index.
             removeEntryFromIndexes(indexBuffer, oldEntry, oldEntryID);
+            recordChange(newEntryID, null);
             insertEntryIntoIndexes(indexBuffer, newEntry, newEntryID);
           }
           else if (!modifications.isEmpty())
@@ -2205,6 +2611,7 @@ public class EntryContainer
   private void removeEntryFromIndexes(IndexBuffer buffer, Entry entry, EntryID entryID)
       throws StorageRuntimeException, DirectoryException
   {
+    recordChange(entryID, entry);
     for (AttributeIndex index : attrIndexMap.values())
     {
       index.removeEntry(buffer, entryID, entry);
@@ -2232,6 +2639,7 @@ public class EntryContainer
       EntryID entryID, List<Modification> mods)
   throws StorageRuntimeException, DirectoryException
   {
+    recordChange(entryID, oldEntry);
     // Process in index configuration order.
     for (AttributeIndex index : attrIndexMap.values())
     {
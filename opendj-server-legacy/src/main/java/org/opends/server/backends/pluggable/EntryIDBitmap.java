@@ -0,0 +1,885 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.forgerock.util.Reject.*;
+
+import java.util.Arrays;
+
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+
+/**
+ * A compressed bitmap of entry IDs in the spirit of Roaring bitmaps.
+ * <p>
+ * Entry IDs are partitioned into chunks of 2^16 consecutive values sharing the same high bits. Each non-empty chunk is
+ * stored in a container which is either a sorted array of the low 16 bits (sparse chunks) or a plain 65536 bits
+ * bitmap (dense chunks). Set operations are performed container by container, so that intersecting or merging two
+ * large bitmaps never needs to materialize their IDs.
+ * <p>
+ * This class is not thread safe.
+ */
+final class EntryIDBitmap
+{
+  /** Above this cardinality, a chunk is stored as a bitmap rather than as an array. */
+  static final int MAX_ARRAY_CARDINALITY = 4096;
+  private static final int BITMAP_WORDS = 1 << 10;
+  private static final int CHUNK_BITS = 16;
+  private static final long LOW_MASK = 0xFFFFL;
+
+  private static final byte ARRAY_CONTAINER = 0;
+  private static final byte BITMAP_CONTAINER = 1;
+
+  /** High bits of the chunks, in ascending order. */
+  private long[] keys;
+  private Container[] containers;
+  /** Number of used slots in keys and containers. */
+  private int size;
+  private long cardinality;
+
+  EntryIDBitmap()
+  {
+    this(new long[4], new Container[4], 0, 0);
+  }
+
+  private EntryIDBitmap(long[] keys, Container[] containers, int size, long cardinality)
+  {
+    this.keys = keys;
+    this.containers = containers;
+    this.size = size;
+    this.cardinality = cardinality;
+  }
+
+  /**
+   * Creates a new bitmap containing the provided entry IDs.
+   *
+   * @param sortedIDs
+   *          entry IDs in ascending order
+   * @return a new bitmap
+   */
+  static EntryIDBitmap valueOf(long... sortedIDs)
+  {
+    checkNotNull(sortedIDs, "sortedIDs must not be null");
+    final EntryIDBitmap bitmap = new EntryIDBitmap();
+    int i = 0;
+    while (i < sortedIDs.length)
+    {
+      final long key = sortedIDs[i] >>> CHUNK_BITS;
+      int end = i + 1;
+      while (end < sortedIDs.length && (sortedIDs[end] >>> CHUNK_BITS) == key)
+      {
+        end++;
+      }
+      Container container;
+      if (end - i > MAX_ARRAY_CARDINALITY)
+      {
+        container = new BitmapContainer();
+        for (int j = i; j < end; j++)
+        {
+          container = container.add((char) (sortedIDs[j] & LOW_MASK));
+        }
+      }
+      else
+      {
+        final char[] values = new char[end - i];
+        int card = 0;
+        for (int j = i; j < end; j++)
+        {
+          final char low = (char) (sortedIDs[j] & LOW_MASK);
+          if (card == 0 || values[card - 1] != low)
+          {
+            values[card++] = low;
+          }
+        }
+        container = new ArrayContainer(values, card);
+      }
+      bitmap.append(key, container);
+      i = end;
+    }
+    return bitmap;
+  }
+
+  long cardinality()
+  {
+    return cardinality;
+  }
+
+  boolean isEmpty()
+  {
+    return cardinality == 0;
+  }
+
+  long first()
+  {
+    return size == 0 ? 0 : (keys[0] << CHUNK_BITS) | containers[0].first();
+  }
+
+  long last()
+  {
+    return size == 0 ? 0 : (keys[size - 1] << CHUNK_BITS) | containers[size - 1].last();
+  }
+
+  boolean contains(long id)
+  {
+    final int pos = indexOfKey(id >>> CHUNK_BITS);
+    return pos >= 0 && containers[pos].contains((char) (id & LOW_MASK));
+  }
+
+  boolean add(long id)
+  {
+    final long key = id >>> CHUNK_BITS;
+    final char low = (char) (id & LOW_MASK);
+    int pos = indexOfKey(key);
+    if (pos >= 0)
+    {
+      final Container container = containers[pos];
+      final int before = container.cardinality();
+      containers[pos] = container.add(low);
+      return updateCardinality(containers[pos].cardinality() - before);
+    }
+    pos = -(pos + 1);
+    insertAt(pos, key, new ArrayContainer(new char[] { low }, 1));
+    cardinality++;
+    return true;
+  }
+
+  boolean remove(long id)
+  {
+    final int pos = indexOfKey(id >>> CHUNK_BITS);
+    if (pos < 0)
+    {
+      return false;
+    }
+    final Container container = containers[pos];
+    final int before = container.cardinality();
+    final Container updated = container.remove((char) (id & LOW_MASK));
+    if (updated.cardinality() == 0)
+    {
+      removeAt(pos);
+    }
+    else
+    {
+      containers[pos] = updated;
+    }
+    return updateCardinality(updated.cardinality() - before);
+  }
+
+  /**
+   * Returns all the entry IDs contained in this bitmap.
+   *
+   * @return a new array containing the entry IDs in ascending order
+   */
+  long[] toArray()
+  {
+    final long[] ids = new long[(int) cardinality];
+    int offset = 0;
+    for (int i = 0; i < size; i++)
+    {
+      offset = containers[i].fill(ids, offset, keys[i] << CHUNK_BITS);
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the intersection of two bitmaps.
+   *
+   * @param a
+   *          the first bitmap
+   * @param b
+   *          the second bitmap
+   * @return a new bitmap containing the entry IDs present in both bitmaps
+   */
+  static EntryIDBitmap and(EntryIDBitmap a, EntryIDBitmap b)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap();
+    int i = 0, j = 0;
+    while (i < a.size && j < b.size)
+    {
+      if (a.keys[i] < b.keys[j])
+      {
+        i++;
+      }
+      else if (a.keys[i] > b.keys[j])
+      {
+        j++;
+      }
+      else
+      {
+        final Container c = a.containers[i].and(b.containers[j]);
+        if (c.cardinality() > 0)
+        {
+          result.append(a.keys[i], c);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the union of two bitmaps.
+   *
+   * @param a
+   *          the first bitmap
+   * @param b
+   *          the second bitmap
+   * @return a new bitmap containing the entry IDs present in any of the bitmaps
+   */
+  static EntryIDBitmap or(EntryIDBitmap a, EntryIDBitmap b)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(
+        new long[a.size + b.size], new Container[a.size + b.size], 0, 0);
+    int i = 0, j = 0;
+    while (i < a.size && j < b.size)
+    {
+      if (a.keys[i] < b.keys[j])
+      {
+        result.append(a.keys[i], a.containers[i++].copy());
+      }
+      else if (a.keys[i] > b.keys[j])
+      {
+        result.append(b.keys[j], b.containers[j++].copy());
+      }
+      else
+      {
+        result.append(a.keys[i], a.containers[i++].or(b.containers[j++]));
+      }
+    }
+    while (i < a.size)
+    {
+      result.append(a.keys[i], a.containers[i++].copy());
+    }
+    while (j < b.size)
+    {
+      result.append(b.keys[j], b.containers[j++].copy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the difference of two bitmaps.
+   *
+   * @param a
+   *          the bitmap from which entry IDs are removed
+   * @param b
+   *          the entry IDs to remove
+   * @return a new bitmap containing the entry IDs present in {@code a} but not in {@code b}
+   */
+  static EntryIDBitmap andNot(EntryIDBitmap a, EntryIDBitmap b)
+  {
+    final EntryIDBitmap result = new EntryIDBitmap(new long[a.size + 1], new Container[a.size + 1], 0, 0);
+    int j = 0;
+    for (int i = 0; i < a.size; i++)
+    {
+      while (j < b.size && b.keys[j] < a.keys[i])
+      {
+        j++;
+      }
+      final Container c = j < b.size && b.keys[j] == a.keys[i]
+          ? a.containers[i].andNot(b.containers[j])
+          : a.containers[i].copy();
+      if (c.cardinality() > 0)
+      {
+        result.append(a.keys[i], c);
+      }
+    }
+    return result;
+  }
+
+  EntryIDBitmap copy()
+  {
+    final Container[] copies = new Container[Math.max(size, 1)];
+    for (int i = 0; i < size; i++)
+    {
+      copies[i] = containers[i].copy();
+    }
+    return new EntryIDBitmap(Arrays.copyOf(keys, Math.max(size, 1)), copies, size, cardinality);
+  }
+
+  /**
+   * Serializes this bitmap: the number of chunks, then for each chunk the delta of its high bits with the
+   * previous chunk, its cardinality minus one and its content, either as 16 bits values or as a 65536 bits bitmap.
+   *
+   * @param builder
+   *          where to append the serialized bitmap
+   * @return the provided builder
+   */
+  ByteStringBuilder encode(ByteStringBuilder builder)
+  {
+    builder.appendCompactUnsigned(size);
+    long previousKey = 0;
+    for (int i = 0; i < size; i++)
+    {
+      builder.appendCompactUnsigned(keys[i] - previousKey);
+      previousKey = keys[i];
+      containers[i].encode(builder);
+    }
+    return builder;
+  }
+
+  int getEstimatedEncodedSize()
+  {
+    int estimate = ByteStringBuilder.MAX_COMPACT_SIZE;
+    for (int i = 0; i < size; i++)
+    {
+      estimate += 2 * ByteStringBuilder.MAX_COMPACT_SIZE + 1 + containers[i].getEncodedSize();
+    }
+    return estimate;
+  }
+
+  static EntryIDBitmap decode(ByteSequenceReader reader)
+  {
+    final int nbChunks = reader.readCompactUnsignedInt();
+    final EntryIDBitmap bitmap =
+        new EntryIDBitmap(new long[Math.max(nbChunks, 1)], new Container[Math.max(nbChunks, 1)], 0, 0);
+    long key = 0;
+    for (int i = 0; i < nbChunks; i++)
+    {
+      key += reader.readCompactUnsignedLong();
+      bitmap.append(key, decodeContainer(reader));
+    }
+    return bitmap;
+  }
+
+  private static Container decodeContainer(ByteSequenceReader reader)
+  {
+    final byte type = reader.readByte();
+    final int card = reader.readCompactUnsignedInt() + 1;
+    if (type == BITMAP_CONTAINER)
+    {
+      final long[] words = new long[BITMAP_WORDS];
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        words[i] = reader.readLong();
+      }
+      return new BitmapContainer(words, card);
+    }
+    final char[] values = new char[card];
+    for (int i = 0; i < card; i++)
+    {
+      values[i] = (char) reader.readShort();
+    }
+    return new ArrayContainer(values, card);
+  }
+
+  private boolean updateCardinality(int delta)
+  {
+    cardinality += delta;
+    return delta != 0;
+  }
+
+  private int indexOfKey(long key)
+  {
+    if (size > 0 && keys[size - 1] == key)
+    {
+      // Fast path for IDs allocated sequentially.
+      return size - 1;
+    }
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  /** Appends a chunk whose key is greater than any existing key. */
+  private void append(long key, Container container)
+  {
+    ensureCapacity(size + 1);
+    keys[size] = key;
+    containers[size] = container;
+    size++;
+    cardinality += container.cardinality();
+  }
+
+  private void insertAt(int pos, long key, Container container)
+  {
+    ensureCapacity(size + 1);
+    System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+    System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+    keys[pos] = key;
+    containers[pos] = container;
+    size++;
+  }
+
+  private void removeAt(int pos)
+  {
+    System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+    System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+    size--;
+    containers[size] = null;
+  }
+
+  private void ensureCapacity(int capacity)
+  {
+    if (capacity > keys.length)
+    {
+      final int newCapacity = Math.max(capacity, keys.length * 2);
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+  }
+
+  /** A set of 16 bits values. Mutating methods return the container to use from now on. */
+  private abstract static class Container
+  {
+    abstract int cardinality();
+
+    abstract char first();
+
+    abstract char last();
+
+    abstract boolean contains(char value);
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    abstract Container copy();
+
+    /** Writes the values of this container, prefixed with {@code high}, starting at {@code offset}. */
+    abstract int fill(long[] ids, int offset, long high);
+
+    abstract int getEncodedSize();
+
+    abstract void encode(ByteStringBuilder builder);
+  }
+
+  /** Sorted array of values, used for chunks holding at most {@link #MAX_ARRAY_CARDINALITY} values. */
+  private static final class ArrayContainer extends Container
+  {
+    private char[] values;
+    private int card;
+
+    ArrayContainer(char[] values, int card)
+    {
+      this.values = values;
+      this.card = card;
+    }
+
+    @Override
+    int cardinality()
+    {
+      return card;
+    }
+
+    @Override
+    char first()
+    {
+      return values[0];
+    }
+
+    @Override
+    char last()
+    {
+      return values[card - 1];
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+      return Arrays.binarySearch(values, 0, card, value) >= 0;
+    }
+
+    @Override
+    Container add(char value)
+    {
+      int pos = card > 0 && values[card - 1] < value ? -(card + 1) : Arrays.binarySearch(values, 0, card, value);
+      if (pos >= 0)
+      {
+        return this;
+      }
+      if (card >= MAX_ARRAY_CARDINALITY)
+      {
+        return toBitmapContainer().add(value);
+      }
+      pos = -(pos + 1);
+      if (card == values.length)
+      {
+        values = Arrays.copyOf(values, Math.min(Math.max(card * 2, 4), MAX_ARRAY_CARDINALITY));
+      }
+      System.arraycopy(values, pos, values, pos + 1, card - pos);
+      values[pos] = value;
+      card++;
+      return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+      final int pos = Arrays.binarySearch(values, 0, card, value);
+      if (pos >= 0)
+      {
+        System.arraycopy(values, pos + 1, values, pos, card - pos - 1);
+        card--;
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other)
+    {
+      final char[] result = new char[Math.min(card, other.cardinality())];
+      int count = 0;
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        int i = 0, j = 0;
+        while (i < card && j < that.card)
+        {
+          if (values[i] < that.values[j])
+          {
+            i++;
+          }
+          else if (values[i] > that.values[j])
+          {
+            j++;
+          }
+          else
+          {
+            result[count++] = values[i++];
+            j++;
+          }
+        }
+      }
+      else
+      {
+        for (int i = 0; i < card && count < result.length; i++)
+        {
+          if (other.contains(values[i]))
+          {
+            result[count++] = values[i];
+          }
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container or(Container other)
+    {
+      if (other instanceof BitmapContainer)
+      {
+        return other.or(this);
+      }
+      final ArrayContainer that = (ArrayContainer) other;
+      if (card + that.card > MAX_ARRAY_CARDINALITY)
+      {
+        return toBitmapContainer().or(that);
+      }
+      final char[] result = new char[card + that.card];
+      int i = 0, j = 0, count = 0;
+      while (i < card && j < that.card)
+      {
+        if (values[i] < that.values[j])
+        {
+          result[count++] = values[i++];
+        }
+        else if (values[i] > that.values[j])
+        {
+          result[count++] = that.values[j++];
+        }
+        else
+        {
+          result[count++] = values[i++];
+          j++;
+        }
+      }
+      while (i < card)
+      {
+        result[count++] = values[i++];
+      }
+      while (j < that.card)
+      {
+        result[count++] = that.values[j++];
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container andNot(Container other)
+    {
+      final char[] result = new char[card];
+      int count = 0;
+      for (int i = 0; i < card; i++)
+      {
+        if (!other.contains(values[i]))
+        {
+          result[count++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container copy()
+    {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(card, 1)), card);
+    }
+
+    @Override
+    int fill(long[] ids, int offset, long high)
+    {
+      for (int i = 0; i < card; i++)
+      {
+        ids[offset++] = high | values[i];
+      }
+      return offset;
+    }
+
+    @Override
+    int getEncodedSize()
+    {
+      return 2 * card;
+    }
+
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      builder.appendByte(ARRAY_CONTAINER);
+      builder.appendCompactUnsigned(card - 1);
+      for (int i = 0; i < card; i++)
+      {
+        builder.appendShort(values[i]);
+      }
+    }
+
+    private BitmapContainer toBitmapContainer()
+    {
+      final long[] words = new long[BITMAP_WORDS];
+      for (int i = 0; i < card; i++)
+      {
+        words[values[i] >>> 6] |= 1L << values[i];
+      }
+      return new BitmapContainer(words, card);
+    }
+  }
+
+  /** Plain bitmap, used for chunks holding more than {@link #MAX_ARRAY_CARDINALITY} values. */
+  private static final class BitmapContainer extends Container
+  {
+    private final long[] words;
+    private int card;
+
+    BitmapContainer()
+    {
+      this(new long[BITMAP_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int card)
+    {
+      this.words = words;
+      this.card = card;
+    }
+
+    @Override
+    int cardinality()
+    {
+      return card;
+    }
+
+    @Override
+    char first()
+    {
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        if (words[i] != 0)
+        {
+          return (char) ((i << 6) + Long.numberOfTrailingZeros(words[i]));
+        }
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    char last()
+    {
+      for (int i = BITMAP_WORDS - 1; i >= 0; i--)
+      {
+        if (words[i] != 0)
+        {
+          return (char) ((i << 6) + 63 - Long.numberOfLeadingZeros(words[i]));
+        }
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add(char value)
+    {
+      final long word = words[value >>> 6];
+      final long updated = word | (1L << value);
+      card += (int) ((word ^ updated) >>> value);
+      words[value >>> 6] = updated;
+      return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+      final long word = words[value >>> 6];
+      final long updated = word & ~(1L << value);
+      card -= (int) ((word ^ updated) >>> value);
+      words[value >>> 6] = updated;
+      return card <= MAX_ARRAY_CARDINALITY ? toArrayContainer() : this;
+    }
+
+    @Override
+    Container and(Container other)
+    {
+      if (other instanceof ArrayContainer)
+      {
+        return other.and(this);
+      }
+      final long[] thatWords = ((BitmapContainer) other).words;
+      final long[] result = new long[BITMAP_WORDS];
+      int count = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        result[i] = words[i] & thatWords[i];
+        count += Long.bitCount(result[i]);
+      }
+      return new BitmapContainer(result, count).toEfficientContainer();
+    }
+
+    @Override
+    Container or(Container other)
+    {
+      final long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        int count = card;
+        for (int i = 0; i < that.card; i++)
+        {
+          final char value = that.values[i];
+          final long word = result[value >>> 6];
+          final long updated = word | (1L << value);
+          count += (int) ((word ^ updated) >>> value);
+          result[value >>> 6] = updated;
+        }
+        return new BitmapContainer(result, count);
+      }
+      final long[] thatWords = ((BitmapContainer) other).words;
+      int count = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        result[i] |= thatWords[i];
+        count += Long.bitCount(result[i]);
+      }
+      return new BitmapContainer(result, count);
+    }
+
+    @Override
+    Container andNot(Container other)
+    {
+      final long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+      int count;
+      if (other instanceof ArrayContainer)
+      {
+        final ArrayContainer that = (ArrayContainer) other;
+        count = card;
+        for (int i = 0; i < that.card; i++)
+        {
+          final char value = that.values[i];
+          final long word = result[value >>> 6];
+          final long updated = word & ~(1L << value);
+          count -= (int) ((word ^ updated) >>> value);
+          result[value >>> 6] = updated;
+        }
+      }
+      else
+      {
+        final long[] thatWords = ((BitmapContainer) other).words;
+        count = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++)
+        {
+          result[i] &= ~thatWords[i];
+          count += Long.bitCount(result[i]);
+        }
+      }
+      return new BitmapContainer(result, count).toEfficientContainer();
+    }
+
+    @Override
+    Container copy()
+    {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), card);
+    }
+
+    @Override
+    int fill(long[] ids, int offset, long high)
+    {
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        long word = words[i];
+        while (word != 0)
+        {
+          ids[offset++] = high | ((i << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    int getEncodedSize()
+    {
+      return BITMAP_WORDS * 8;
+    }
+
+    @Override
+    void encode(ByteStringBuilder builder)
+    {
+      builder.appendByte(BITMAP_CONTAINER);
+      builder.appendCompactUnsigned(card - 1);
+      for (long word : words)
+      {
+        builder.appendLong(word);
+      }
+    }
+
+    private Container toEfficientContainer()
+    {
+      return card <= MAX_ARRAY_CARDINALITY ? toArrayContainer() : this;
+    }
+
+    private ArrayContainer toArrayContainer()
+    {
+      final char[] values = new char[card];
+      int count = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++)
+      {
+        long word = words[i];
+        while (word != 0)
+        {
+          values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, card);
+    }
+  }
+}
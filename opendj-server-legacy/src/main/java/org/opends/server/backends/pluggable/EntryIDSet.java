@@ -43,6 +43,7 @@ final class EntryIDSet implements Iterable<EntryID>
 {
   public static final EntryIDSetCodec CODEC_V1 = new EntryIDSetCodecV1();
   public static final EntryIDSetCodec CODEC_V2 = new EntryIDSetCodecV2();
+  public static final EntryIDSetCodec CODEC_V4 = new EntryIDSetCodecV4();
 
   private static final ByteSequence NO_KEY = ByteString.valueOfUtf8("<none>");
   private static final long[] EMPTY_LONG_ARRAY = new long[0];
@@ -272,6 +273,131 @@ final class EntryIDSet implements Iterable<EntryID>
     }
   }
 
+  /**
+   * Concrete implementation representing a set of EntryIDs stored in a compressed bitmap. Set operations between two
+   * such sets are performed directly on the compressed representation.
+   */
+  private static final class BitmapImpl implements EntryIDSetImplementor
+  {
+    /** \@NotNull */
+    private EntryIDBitmap bitmap;
+    /** Lazily computed array view of the bitmap, reset whenever the bitmap changes. */
+    private long[] entryIDs;
+
+    BitmapImpl(EntryIDBitmap bitmap)
+    {
+      Reject.ifNull(bitmap, "bitmap must not be null");
+      this.bitmap = bitmap;
+    }
+
+    @Override
+    public long size()
+    {
+      return bitmap.cardinality();
+    }
+
+    @Override
+    public void toString(StringBuilder buffer)
+    {
+      buffer.append("[COUNT:").append(size()).append("]");
+    }
+
+    @Override
+    public boolean isDefined()
+    {
+      return true;
+    }
+
+    @Override
+    public boolean add(EntryID entryID)
+    {
+      return changed(bitmap.add(entryID.longValue()));
+    }
+
+    @Override
+    public boolean remove(EntryID entryID)
+    {
+      return changed(bitmap.remove(entryID.longValue()));
+    }
+
+    @Override
+    public boolean contains(EntryID entryID)
+    {
+      return bitmap.contains(entryID.longValue());
+    }
+
+    @Override
+    public void addAll(EntryIDSet that)
+    {
+      final EntryIDBitmap thatBitmap = bitmapOf(that);
+      if (thatBitmap != null)
+      {
+        bitmap = EntryIDBitmap.or(bitmap, thatBitmap);
+        changed(true);
+        return;
+      }
+      boolean changed = false;
+      for (long id : that.getIDs())
+      {
+        changed |= bitmap.add(id);
+      }
+      changed(changed);
+    }
+
+    @Override
+    public void removeAll(EntryIDSet that)
+    {
+      final EntryIDBitmap thatBitmap = bitmapOf(that);
+      if (thatBitmap != null)
+      {
+        bitmap = EntryIDBitmap.andNot(bitmap, thatBitmap);
+        changed(true);
+        return;
+      }
+      boolean changed = false;
+      for (long id : that.getIDs())
+      {
+        changed |= bitmap.remove(id);
+      }
+      changed(changed);
+    }
+
+    @Override
+    public Iterator<EntryID> iterator()
+    {
+      return new IDSetIterator(getIDs());
+    }
+
+    @Override
+    public long[] getRange()
+    {
+      if (!bitmap.isEmpty())
+      {
+        return new long[] { bitmap.first(), bitmap.last() };
+      }
+      return NO_ENTRY_IDS_RANGE;
+    }
+
+    @Override
+    public long[] getIDs()
+    {
+      if (entryIDs == null)
+      {
+        entryIDs = bitmap.toArray();
+      }
+      return entryIDs;
+    }
+
+    private boolean changed(boolean changed)
+    {
+      if (changed)
+      {
+        entryIDs = null;
+      }
+      return changed;
+    }
+  }
+
   /**
    * Concrete implementation where the EntryIDs are not defined, for example when the index entry
    * limit has been exceeded.
@@ -539,7 +665,57 @@ final class EntryIDSet implements Iterable<EntryID>
   }
 
   /**
-   * Decorate a V1 or V2 codec with encryption. When writing EntryIDSets to disk,
+   * Compressed bitmap EntryIDSet codec implementation. IDs are grouped in chunks of 65536 consecutive values, each chunk
+   * being stored either as a list of 16 bits values or as a bitmap, whichever is smaller. Sets decoded by this codec
+   * keep the compressed representation in memory so that intersections and unions performed while evaluating search
+   * filters operate on whole chunks. Defined sets are prefixed with a version byte, so that they can neither be
+   * mistaken for an encrypted value nor for an undefined set, even when empty.
+   *
+   * @see EntryIDBitmap
+   */
+  private static final class EntryIDSetCodecV4 implements EntryIDSetCodec
+  {
+    private static final byte UNDEFINED_SET = (byte) 0xFF;
+    private static final byte CODEC_V4_VERSION = 0x04;
+
+    @Override
+    public ByteString encode(EntryIDSet idSet)
+    {
+      checkNotNull(idSet, "idSet must not be null");
+      if (!idSet.isDefined())
+      {
+        return ByteString.valueOfBytes(new byte[] { UNDEFINED_SET });
+      }
+      final EntryIDBitmap bitmap = toBitmap(idSet);
+      final ByteStringBuilder builder = new ByteStringBuilder(1 + bitmap.getEstimatedEncodedSize());
+      builder.appendByte(CODEC_V4_VERSION);
+      return ByteString.wrap(bitmap.encode(builder).getBackingArray(), 0, builder.length());
+    }
+
+    @Override
+    public EntryIDSet decode(ByteSequence key, ByteString value)
+    {
+      checkNotNull(key, "key must not be null");
+      checkNotNull(value, "value must not be null");
+      if (value.byteAt(0) == UNDEFINED_SET)
+      {
+        return newUndefinedSetWithKey(key);
+      }
+      final ByteSequenceReader reader = value.asReader();
+      final byte version = reader.readByte();
+      Reject.ifFalse(version == CODEC_V4_VERSION, "Unsupported entry ID set encoding version " + version);
+      return new EntryIDSet(new BitmapImpl(EntryIDBitmap.decode(reader)));
+    }
+
+    private static EntryIDBitmap toBitmap(EntryIDSet idSet)
+    {
+      final EntryIDBitmap bitmap = bitmapOf(idSet);
+      return bitmap != null ? bitmap : EntryIDBitmap.valueOf(idSet.getIDs());
+    }
+  }
+
+  /**
+   * Decorate a V1, V2 or V4 codec with encryption. When writing EntryIDSets to disk,
    * prepend two bytes, {0, 1} to mark them as encrypted.
    * The first is tag zero (unused in other encodings), followed by a byte
    * indicating version 1 of encryption.
@@ -628,6 +804,41 @@ final class EntryIDSet implements Iterable<EntryID>
     return new EntryIDSet(new DefinedImpl(entryIDs));
   }
 
+  /**
+   * Creates a new defined entry ID set backed by a compressed bitmap.
+   *
+   * @param entryIDs
+   *          Sorted Entry IDs contained in the set.
+   * @return A new defined {@link EntryIDSet} containing the provided entryIDs
+   * @throws NullPointerException
+   *           if entryIDs is null
+   */
+  static EntryIDSet newBitmapSet(long... entryIDs)
+  {
+    checkNotNull(entryIDs, "ids must not be null");
+    return new EntryIDSet(new BitmapImpl(EntryIDBitmap.valueOf(entryIDs)));
+  }
+
+  /** Returns the compressed bitmap backing the provided set, or {@code null} if it is not a bitmap based set. */
+  private static EntryIDBitmap bitmapOf(EntryIDSet set)
+  {
+    return set.concreteImpl instanceof BitmapImpl ? ((BitmapImpl) set.concreteImpl).bitmap : null;
+  }
+
+  private static long[] retainContained(long[] ids, EntryIDBitmap bitmap)
+  {
+    final long[] target = new long[ids.length];
+    int ci = 0;
+    for (long id : ids)
+    {
+      if (bitmap.contains(id))
+      {
+        target[ci++] = id;
+      }
+    }
+    return ci < target.length ? Arrays.copyOf(target, ci) : target;
+  }
+
   private static long[] intersection(long[] set1, long[] set2)
   {
     long[] target = new long[Math.min(set1.length, set2.length)];
@@ -689,6 +900,12 @@ final class EntryIDSet implements Iterable<EntryID>
       return newUndefinedSet();
     }
 
+    final EntryIDBitmap bitmapUnion = bitmapUnion(sets);
+    if (bitmapUnion != null)
+    {
+      return new EntryIDSet(new BitmapImpl(bitmapUnion));
+    }
+
     boolean needSort = false;
     long[] n = new long[count];
     int pos = 0;
@@ -723,6 +940,30 @@ final class EntryIDSet implements Iterable<EntryID>
     return newDefinedSet(Arrays.copyOf(n1, j));
   }
 
+  /**
+   * Computes the union of the provided defined sets chunk by chunk when all of them are bitmap based.
+   *
+   * @return the union, or {@code null} if at least one of the non empty sets is not bitmap based
+   */
+  private static EntryIDBitmap bitmapUnion(List<EntryIDSet> sets)
+  {
+    EntryIDBitmap union = null;
+    for (EntryIDSet set : sets)
+    {
+      if (set.size() == 0)
+      {
+        continue;
+      }
+      final EntryIDBitmap bitmap = bitmapOf(set);
+      if (bitmap == null)
+      {
+        return null;
+      }
+      union = union == null ? bitmap.copy() : EntryIDBitmap.or(union, bitmap);
+    }
+    return union;
+  }
+
   private EntryIDSetImplementor concreteImpl;
 
   private EntryIDSet(EntryIDSetImplementor concreteImpl)
@@ -889,7 +1130,10 @@ final class EntryIDSet implements Iterable<EntryID>
     checkNotNull(that, "that must not be null");
     if (!concreteImpl.isDefined())
     {
-      if ( that.isDefined() ) {
+      if ( that.concreteImpl instanceof BitmapImpl ) {
+        // Unlike the arrays of DefinedImpl, bitmaps are updated in place and must not be shared.
+        concreteImpl = new BitmapImpl(bitmapOf(that).copy());
+      } else if ( that.isDefined() ) {
         // NOTE: It's ok to share the same array instance here thanks to the copy-on-write
         // performed by the implementation.
         concreteImpl = new DefinedImpl(that.getIDs());
@@ -903,8 +1147,23 @@ final class EntryIDSet implements Iterable<EntryID>
       return;
     }
 
+    final EntryIDBitmap thisBitmap = bitmapOf(this);
+    final EntryIDBitmap thatBitmap = bitmapOf(that);
+    if (thisBitmap != null && thatBitmap != null)
+    {
+      concreteImpl = new BitmapImpl(EntryIDBitmap.and(thisBitmap, thatBitmap));
+      return;
+    }
+
     final boolean thatSetOverlap = compareForOverlap(getRange(), that.getRange()) == 0;
-    if (thatSetOverlap)
+    if (thatSetOverlap && (thisBitmap != null || thatBitmap != null))
+    {
+      // Probe the bitmap with the IDs of the other set, which does not need to decompress it.
+      concreteImpl = thisBitmap != null
+          ? new DefinedImpl(retainContained(that.getIDs(), thisBitmap))
+          : new DefinedImpl(retainContained(concreteImpl.getIDs(), thatBitmap));
+    }
+    else if (thatSetOverlap)
     {
       concreteImpl = new DefinedImpl(intersection(concreteImpl.getIDs(), that.getIDs()));
     }
@@ -0,0 +1,307 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.StorageRuntimeException;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+
+/**
+ * Merges the write operations submitted concurrently by the LDAP update operations into a single storage
+ * transaction, so that they share one durable commit.
+ * <p>
+ * The thread submitting a write operation while no other write is in progress becomes the leader: it executes its
+ * own write operation, then the ones queued by the other threads in the meantime, in submission order and in
+ * batches of at most {@link #MAX_BATCH_SIZE} write operations. The other threads wait for the leader to complete
+ * their write operation. A lone writer is therefore never delayed, and batches only form under concurrency.
+ * <p>
+ * Grouping is only performed when it is enabled and the storage {@link Storage#supportsBatchWrites() benefits from
+ * it}. When a write operation of a batch fails, the batch is rolled back by the storage, the failure is reported to
+ * this write operation only, and the other write operations of the batch are executed again in a new batch. When the
+ * batch fails without any of its write operations failing, for instance on commit, its write operations are executed
+ * again one by one, so that each of them succeeds or fails on its own. This relies on write operations being
+ * idempotent, as required by {@link WriteOperation#run}. Conflicting LDAP operations are never executed concurrently
+ * thanks to the entry locks, so executing the write operations of a batch in sequence is equivalent to executing them
+ * separately.
+ */
+final class GroupCommitWriter
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** Maximum number of write operations committed in a single storage transaction. */
+  static final int MAX_BATCH_SIZE = 64;
+
+  /** A write operation waiting to be executed by the leader. */
+  private final class PendingWrite implements WriteOperation
+  {
+    private final WriteOperation writeOperation;
+    /** Guarded by the writer lock. */
+    private boolean done;
+    private Exception error;
+
+    private PendingWrite(WriteOperation writeOperation)
+    {
+      this.writeOperation = writeOperation;
+    }
+
+    /** Executes the write operation as part of a batch, recording whether it is the one failing the batch. */
+    @Override
+    public void run(WriteableTransaction txn) throws Exception
+    {
+      // The storage may execute the batch again after a rollback
+      failedWrite = null;
+      try
+      {
+        writeOperation.run(txn);
+      }
+      catch (Exception e)
+      {
+        failedWrite = this;
+        failure = e;
+        throw e;
+      }
+    }
+  }
+
+  private final Storage storage;
+  private final Lock lock = new ReentrantLock();
+  /** Signaled when write operations are done, or when the leader steps down. */
+  private final Condition writeDone = lock.newCondition();
+  /** Guarded by lock. */
+  private final Deque<PendingWrite> queue = new ArrayDeque<>();
+  /** Whether a leader is executing write operations, guarded by lock. */
+  private boolean writing;
+  private volatile boolean enabled;
+  /** The write operation failing the last batch, or null if it failed on commit. Only used by the leader. */
+  private PendingWrite failedWrite;
+  /** The failure of {@link #failedWrite}. Only used by the leader. */
+  private Exception failure;
+
+  GroupCommitWriter(Storage storage, boolean enabled)
+  {
+    this.storage = storage;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Enables or disables the grouping of concurrent write operations. Write operations submitted while it is
+   * disabled are executed on their own.
+   *
+   * @param enabled
+   *          whether concurrent write operations should be grouped
+   */
+  void setEnabled(boolean enabled)
+  {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Executes the provided write operation, possibly in the same storage transaction as the write operations
+   * submitted concurrently by other threads. Returns once the write operation has been committed.
+   *
+   * @param writeOperation
+   *          the write operation to execute
+   * @throws Exception
+   *           if the write operation fails, or if a problem occurs with the underlying storage engine
+   */
+  void write(WriteOperation writeOperation) throws Exception
+  {
+    if (!enabled || !storage.supportsBatchWrites())
+    {
+      storage.write(writeOperation);
+      return;
+    }
+
+    final PendingWrite pendingWrite = new PendingWrite(writeOperation);
+    if (awaitLeadership(pendingWrite))
+    {
+      lead(pendingWrite);
+    }
+    if (pendingWrite.error != null)
+    {
+      throw pendingWrite.error;
+    }
+  }
+
+  /**
+   * Queues the provided write operation, then waits until either it was executed by another thread, or there is no
+   * leader anymore.
+   *
+   * @return {@code true} if the current thread became the leader, {@code false} if the write operation was executed
+   */
+  private boolean awaitLeadership(PendingWrite pendingWrite)
+  {
+    // The write operation is queued and must be waited for, even if interrupted
+    lock.lock();
+    try
+    {
+      queue.add(pendingWrite);
+      while (writing && !pendingWrite.done)
+      {
+        writeDone.awaitUninterruptibly();
+      }
+      if (pendingWrite.done)
+      {
+        return false;
+      }
+      writing = true;
+      return true;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  /** Executes batches of queued write operations until the provided one is done, then steps down. */
+  private void lead(PendingWrite pendingWrite)
+  {
+    try
+    {
+      while (!isDone(pendingWrite))
+      {
+        final List<PendingWrite> batch = nextBatch();
+        boolean executed = false;
+        try
+        {
+          execute(batch);
+          executed = true;
+        }
+        finally
+        {
+          complete(batch, executed);
+        }
+      }
+    }
+    finally
+    {
+      lock.lock();
+      try
+      {
+        writing = false;
+        writeDone.signalAll();
+      }
+      finally
+      {
+        lock.unlock();
+      }
+    }
+  }
+
+  private boolean isDone(PendingWrite pendingWrite)
+  {
+    lock.lock();
+    try
+    {
+      return pendingWrite.done;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private List<PendingWrite> nextBatch()
+  {
+    lock.lock();
+    try
+    {
+      final List<PendingWrite> batch = new ArrayList<>(Math.min(queue.size(), MAX_BATCH_SIZE));
+      while (!queue.isEmpty() && batch.size() < MAX_BATCH_SIZE)
+      {
+        batch.add(queue.poll());
+      }
+      return batch;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void execute(List<PendingWrite> batch)
+  {
+    List<PendingWrite> remaining = batch;
+    while (remaining.size() > 1)
+    {
+      failedWrite = null;
+      try
+      {
+        storage.writeBatch(remaining);
+        return;
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        if (failedWrite == null)
+        {
+          // The failure cannot be attributed to a write operation: let each of them report its own outcome
+          break;
+        }
+        // Nothing was applied: report the failure to the failing write operation only, and retry the others
+        failedWrite.error = failure;
+        remaining = new ArrayList<>(remaining);
+        remaining.remove(failedWrite);
+      }
+    }
+    for (PendingWrite pendingWrite : remaining)
+    {
+      try
+      {
+        storage.write(pendingWrite.writeOperation);
+      }
+      catch (Exception e)
+      {
+        pendingWrite.error = e;
+      }
+    }
+  }
+
+  /**
+   * Wakes up the threads waiting for the provided write operations. If the leader failed with an error while
+   * executing them, their outcome is unknown and they are reported as failed.
+   */
+  private void complete(List<PendingWrite> batch, boolean executed)
+  {
+    lock.lock();
+    try
+    {
+      for (PendingWrite pendingWrite : batch)
+      {
+        if (!executed && pendingWrite.error == null)
+        {
+          pendingWrite.error = new StorageRuntimeException("The write operation was interrupted by an error");
+        }
+        pendingWrite.done = true;
+      }
+      writeDone.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+}
@@ -52,6 +52,7 @@ import org.opends.server.types.CryptoManagerException;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
 import org.opends.server.types.LDAPException;
+import org.opends.server.types.PassThroughEntry;
 
 /**
  * Represents the tree containing the LDAP entries.
@@ -247,6 +248,36 @@ class ID2Entry extends AbstractTree
      */
     private Entry decodeV2(ByteString bytes, CompressedSchema compressedSchema)
         throws DirectoryException, DecodeException, IOException
+    {
+      return Entry.decode(readV2(bytes), compressedSchema);
+    }
+
+    /**
+     * Reads the name and user attributes of an entry without decoding it, if possible.
+     *
+     * @param bytes A byte array containing the encoded tree value.
+     * @param compressedSchema The compressed schema manager to use when decoding.
+     * @return The pass-through entry, or null if the entry must be decoded.
+     * @throws DecodeException If the data is not in the expected format or a decryption error occurs.
+     * @throws DirectoryException If a Directory Server error occurs.
+     * @throws IOException if an error occurs while decompressing the entry.
+     */
+    private PassThroughEntry decodePassThrough(ByteString bytes, CompressedSchema compressedSchema)
+        throws DirectoryException, DecodeException, IOException
+    {
+      if (bytes.byteAt(0) != FORMAT_VERSION_V2)
+      {
+        return null;
+      }
+      return PassThroughEntry.decode(readV2(bytes), compressedSchema);
+    }
+
+    /**
+     * Returns a reader on the entry encoding contained in a tree value in the new extensible format, decrypting and
+     * decompressing it as needed. The entry encoding is read from the tree value when it is stored as plain bytes, so
+     * that decoded attribute values do not need to be copied.
+     */
+    private ByteSequenceReader readV2(ByteString bytes) throws DecodeException, IOException
     {
       ByteSequenceReader reader = bytes.asReader();
       // skip version byte
@@ -257,7 +288,7 @@ class ID2Entry extends AbstractTree
       {
         if (format == PLAIN_ENTRY)
         {
-          return Entry.decode(reader, compressedSchema);
+          return reader;
         }
         InputStream is = reader.asInputStream();
         if ((format & ENCRYPT_ENTRY) == ENCRYPT_ENTRY)
@@ -282,7 +313,7 @@ class ID2Entry extends AbstractTree
           position += readBytes;
           leftToRead -= readBytes;
         } while (leftToRead > 0 && readBytes > 0);
-        return Entry.decode(ByteString.wrap(data).asReader(), compressedSchema);
+        return ByteString.wrap(data).asReader();
       }
       catch (CryptoManagerException cme)
       {
@@ -469,6 +500,41 @@ class ID2Entry extends AbstractTree
     }
   }
 
+  /**
+   * Fetches the name and user attributes of a record from the entry tree without decoding the entry, so that a
+   * search can pass them through to the client.
+   *
+   * @param txn a non null transaction
+   * @param entryID The desired entry ID which forms the key.
+   * @return The requested pass-through entry, or null if there is no such record or if the entry must be decoded
+   *         with {@link #get(ReadableTransaction, EntryID)}.
+   * @throws DirectoryException If a problem occurs while getting the entry.
+   * @throws StorageRuntimeException If an error occurs in the storage.
+   */
+  PassThroughEntry getPassThroughEntry(ReadableTransaction txn, EntryID entryID)
+      throws DirectoryException, StorageRuntimeException
+  {
+    final ByteString value = txn.read(getName(), entryID.toByteString());
+    if (value == null)
+    {
+      return null;
+    }
+    final EntryCodec codec = acquireEntryCodec();
+    try
+    {
+      return codec.decodePassThrough(value, dataConfig.getEntryEncodeConfig().getCompressedSchema());
+    }
+    catch (Exception e)
+    {
+      throw new DirectoryException(
+          DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), ERR_ENTRY_DATABASE_CORRUPT.get(entryID));
+    }
+    finally
+    {
+      codec.release();
+    }
+  }
+
   Cursor<EntryID, Entry> openCursor(ReadableTransaction txn)
   {
     return transformKeysAndValues(txn.openCursor(getName()), TO_ENTRY_ID, TO_ENTRY);
@@ -18,7 +18,7 @@ package org.opends.server.backends.pluggable;
 
 import static org.opends.server.backends.pluggable.EntryIDSet.*;
 
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -67,12 +67,12 @@ class IndexBuffer
   private static final class DefaultIndexBuffer implements IndexBufferImplementor
   {
     /**
-     * The buffered records stored as a map from the record key to the buffered value for that key for each index.
+     * The buffered changes for each index.
      * <p>
      * The map is sorted by {@link TreeName}s to establish a deterministic iteration order (see {@link AbstractTree}).
      * This prevents potential deadlock for db having pessimistic lock strategy (e.g.: JE).
      */
-    private final SortedMap<Index, SortedMap<ByteString, BufferedIndexValues>> bufferedIndexes = new TreeMap<>();
+    private final SortedMap<Index, BufferedIndexChanges> bufferedIndexes = new TreeMap<>();
 
     /**
      * The buffered records stored as a set of buffered VLV values for each index.
@@ -83,41 +83,164 @@ class IndexBuffer
     private final SortedMap<VLVIndex, BufferedVLVIndexValues> bufferedVLVIndexes = new TreeMap<>();
 
     /**
-     * A simple class representing a pair of added and deleted indexed IDs. Initially both addedIDs and deletedIDs are
-     * {@code null} indicating that that the whole record should be deleted.
+     * The changes buffered for an index, stored in flat arrays rather than in per-key objects.
+     * <p>
+     * Each change is a record made of a key, an entry ID and whether the ID is added or deleted. Records are only sorted
+     * by key then by entry ID when the changes are flushed, at which point the changes of each entry ID are replayed in
+     * the order they were buffered: an addition cancels a previous deletion of the same ID and vice versa.
      */
-    private static class BufferedIndexValues
+    private static final class BufferedIndexChanges
     {
-      private EntryIDSet addedEntryIDs;
-      private EntryIDSet deletedEntryIDs;
+      private static final int INITIAL_CAPACITY = 8;
+
+      private ByteString[] keys = new ByteString[INITIAL_CAPACITY];
+      private long[] entryIDs = new long[INITIAL_CAPACITY];
+      private boolean[] added = new boolean[INITIAL_CAPACITY];
+      private int size;
+      /** The records sorted by key then entry ID, or {@code null} if not sorted yet. */
+      private int[] sortedRecords;
+
+      void addEntryID(ByteString key, EntryID entryID)
+      {
+        append(key, entryID, true);
+      }
+
+      void deleteEntryID(ByteString key, EntryID entryID)
+      {
+        append(key, entryID, false);
+      }
+
+      private void append(ByteString key, EntryID entryID, boolean isAdded)
+      {
+        if (size == entryIDs.length)
+        {
+          final int capacity = size * 2;
+          keys = Arrays.copyOf(keys, capacity);
+          entryIDs = Arrays.copyOf(entryIDs, capacity);
+          added = Arrays.copyOf(added, capacity);
+        }
+        keys[size] = key;
+        entryIDs[size] = entryID.longValue();
+        added[size] = isAdded;
+        size++;
+        sortedRecords = null;
+      }
 
-      void addEntryID(EntryID entryID)
+      void flush(Index index, WriteableTransaction txn)
       {
-        if (!remove(deletedEntryIDs, entryID))
+        final int[] records = sortRecords();
+        long[] addedIDs = new long[INITIAL_CAPACITY];
+        long[] deletedIDs = new long[INITIAL_CAPACITY];
+        int i = 0;
+        while (i < size)
         {
-          if (this.addedEntryIDs == null)
+          final ByteString key = keys[records[i]];
+          int nbAdded = 0;
+          int nbDeleted = 0;
+          do
+          {
+            // Replay the changes of one entry ID: 1 when added, -1 when deleted, 0 when they cancel out.
+            final long entryID = entryIDs[records[i]];
+            int state = 0;
+            do
+            {
+              state = added[records[i]] ? (state < 0 ? 0 : 1) : (state > 0 ? 0 : -1);
+              i++;
+            }
+            while (i < size && entryIDs[records[i]] == entryID && key.equals(keys[records[i]]));
+
+            if (state > 0)
+            {
+              addedIDs = append(addedIDs, nbAdded++, entryID);
+            }
+            else if (state < 0)
+            {
+              deletedIDs = append(deletedIDs, nbDeleted++, entryID);
+            }
+          }
+          while (i < size && key.equals(keys[records[i]]));
+
+          if (nbAdded > 0 || nbDeleted > 0)
           {
-            this.addedEntryIDs = newDefinedSet();
+            index.update(txn, key,
+                nbDeleted > 0 ? newDefinedSet(Arrays.copyOf(deletedIDs, nbDeleted)) : null,
+                nbAdded > 0 ? newDefinedSet(Arrays.copyOf(addedIDs, nbAdded)) : null);
           }
-          this.addedEntryIDs.add(entryID);
         }
       }
 
-      void deleteEntryID(EntryID entryID)
+      private static long[] append(long[] ids, int index, long id)
+      {
+        final long[] result = index < ids.length ? ids : Arrays.copyOf(ids, ids.length * 2);
+        result[index] = id;
+        return result;
+      }
+
+      /** Returns the records sorted by key then entry ID, keeping the buffering order of identical changes. */
+      private int[] sortRecords()
       {
-        if (!remove(addedEntryIDs, entryID))
+        if (sortedRecords == null)
         {
-          if (this.deletedEntryIDs == null)
+          final int[] records = new int[size];
+          boolean isSorted = true;
+          for (int i = 0; i < size; i++)
+          {
+            records[i] = i;
+            isSorted &= i == 0 || compareRecords(i - 1, i) <= 0;
+          }
+          if (!isSorted)
           {
-            this.deletedEntryIDs = newDefinedSet();
+            mergeSort(records, new int[size], 0, size);
           }
-          this.deletedEntryIDs.add(entryID);
+          sortedRecords = records;
         }
+        return sortedRecords;
       }
 
-      private static boolean remove(EntryIDSet entryIDs, EntryID entryID)
+      /** Stable sort of {@code records[from, to)}, using {@code tmp} as scratch space. */
+      private void mergeSort(int[] records, int[] tmp, int from, int to)
       {
-        return entryIDs != null ? entryIDs.remove(entryID) : false;
+        if (to - from <= 16)
+        {
+          for (int i = from + 1; i < to; i++)
+          {
+            final int record = records[i];
+            int j = i;
+            for (; j > from && compareRecords(records[j - 1], record) > 0; j--)
+            {
+              records[j] = records[j - 1];
+            }
+            records[j] = record;
+          }
+          return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(records, tmp, from, middle);
+        mergeSort(records, tmp, middle, to);
+        if (compareRecords(records[middle - 1], records[middle]) <= 0)
+        {
+          return;
+        }
+        System.arraycopy(records, from, tmp, from, to - from);
+        for (int i = from, left = from, right = middle; i < to; i++)
+        {
+          if (right >= to || (left < middle && compareRecords(tmp[left], tmp[right]) <= 0))
+          {
+            records[i] = tmp[left++];
+          }
+          else
+          {
+            records[i] = tmp[right++];
+          }
+        }
+      }
+
+      private int compareRecords(int record1, int record2)
+      {
+        final ByteString key1 = keys[record1];
+        final ByteString key2 = keys[record2];
+        final int c = key1 == key2 ? 0 : key1.compareTo(key2);
+        return c != 0 ? c : Long.compare(entryIDs[record1], entryIDs[record2]);
       }
     }
 
@@ -168,37 +291,24 @@ class IndexBuffer
       return bufferedValues;
     }
 
-    private BufferedIndexValues createOrGetBufferedIndexValues(Index index, ByteString keyBytes)
+    private BufferedIndexChanges createOrGetBufferedIndexChanges(Index index)
     {
-      Map<ByteString, BufferedIndexValues> bufferedOperations = createOrGetBufferedOperations(index);
-
-      BufferedIndexValues values = bufferedOperations.get(keyBytes);
-      if (values == null)
-      {
-        values = new BufferedIndexValues();
-        bufferedOperations.put(keyBytes, values);
-      }
-      return values;
-    }
-
-    private Map<ByteString, BufferedIndexValues> createOrGetBufferedOperations(Index index)
-    {
-      SortedMap<ByteString, BufferedIndexValues> bufferedOperations = bufferedIndexes.get(index);
-      if (bufferedOperations == null)
+      BufferedIndexChanges bufferedChanges = bufferedIndexes.get(index);
+      if (bufferedChanges == null)
       {
-        bufferedOperations = new TreeMap<>();
-        bufferedIndexes.put(index, bufferedOperations);
+        bufferedChanges = new BufferedIndexChanges();
+        bufferedIndexes.put(index, bufferedChanges);
       }
-      return bufferedOperations;
+      return bufferedChanges;
     }
 
     @Override
     public void flush(WriteableTransaction txn) throws StorageRuntimeException, DirectoryException
     {
       // Indexes are stored in sorted map to prevent deadlock during flush with DB using pessimistic lock strategies.
-      for (Entry<Index, SortedMap<ByteString, BufferedIndexValues>> entry : bufferedIndexes.entrySet())
+      for (Entry<Index, BufferedIndexChanges> entry : bufferedIndexes.entrySet())
       {
-        flushIndex(entry.getKey(), txn, entry.getValue());
+        entry.getValue().flush(entry.getKey(), txn);
       }
 
       for (Entry<VLVIndex, BufferedVLVIndexValues> entry : bufferedVLVIndexes.entrySet())
@@ -225,7 +335,7 @@ class IndexBuffer
     @Override
     public void put(DefaultIndex index, ByteString key, EntryID entryID)
     {
-      createOrGetBufferedIndexValues(index, key).addEntryID(entryID);
+      createOrGetBufferedIndexChanges(index).addEntryID(key, entryID);
     }
 
     @Override
@@ -243,17 +353,7 @@ class IndexBuffer
     @Override
     public void remove(Index index, ByteString key, EntryID entryID)
     {
-      createOrGetBufferedIndexValues(index, key).deleteEntryID(entryID);
-    }
-
-    private static void flushIndex(Index index, WriteableTransaction txn,
-        Map<ByteString, BufferedIndexValues> bufferedValues)
-    {
-      for (Entry<ByteString, BufferedIndexValues> entry : bufferedValues.entrySet())
-      {
-        final BufferedIndexValues values = entry.getValue();
-        index.update(txn, entry.getKey(), values.deletedEntryIDs, values.addedEntryIDs);
-      }
+      createOrGetBufferedIndexChanges(index).deleteEntryID(key, entryID);
     }
 
     @Override
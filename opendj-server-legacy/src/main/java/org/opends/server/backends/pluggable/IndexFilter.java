@@ -20,7 +20,9 @@ import static org.opends.messages.BackendMessages.*;
 import static org.opends.server.backends.pluggable.EntryIDSet.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
@@ -45,6 +47,22 @@ class IndexFilter
   /** Limit on the number of entry IDs that may be retrieved by cursoring through an index. */
   static final int CURSOR_ENTRY_LIMIT = 100000;
 
+  /**
+   * Estimated cost of fetching and filtering a candidate entry, relative to the cost of reading one entry ID from an
+   * index. Index reads which are expected to return more entry IDs than this ratio times the number of candidates are
+   * not worth it.
+   */
+  static final int ENTRY_TO_ENTRY_ID_COST_RATIO = 64;
+
+  /**
+   * Estimates used to order the AND components which have no statistics yet, so that they are evaluated in the
+   * historical order: equality, presence and approx first, then the other non range filters, then the range filters.
+   */
+  private static final long FAST_DEFAULT_ESTIMATE = 0;
+  private static final long OTHER_DEFAULT_ESTIMATE = Long.MAX_VALUE - 2;
+  private static final long RANGE_PAIR_DEFAULT_ESTIMATE = Long.MAX_VALUE - 1;
+  private static final long RANGE_DEFAULT_ESTIMATE = Long.MAX_VALUE;
+
   /** The entry container holding the attribute indexes. */
   private final EntryContainer entryContainer;
   private final ReadableTransaction txn;
@@ -162,30 +180,60 @@ class IndexFilter
     }
   }
 
+  /**
+   * A component of an AND filter, planned according to the estimated number of candidates it will return. It is
+   * either a single filter or a range pair like (cn&gt;=A)(cn&lt;=B).
+   */
+  private final class PlannedComponent implements Comparable<PlannedComponent>
+  {
+    private final List<SearchFilter> filters;
+    /** The estimated number of candidates, or the default estimate of its kind of filter if there are no statistics. */
+    private final long estimate;
+    /** Whether the estimate comes from index statistics. */
+    private final boolean estimated;
+
+    private PlannedComponent(List<SearchFilter> filters, long estimate, long defaultEstimate)
+    {
+      this.filters = filters;
+      this.estimated = estimate != IndexStatistics.UNKNOWN;
+      this.estimate = estimated ? estimate : defaultEstimate;
+    }
+
+    private EntryIDSet evaluate()
+    {
+      return filters.size() == 1 ? evaluateFilter(filters.get(0)) : evaluateBoundedRange(filters);
+    }
+
+    @Override
+    public int compareTo(PlannedComponent o)
+    {
+      return Long.compare(estimate, o.estimate);
+    }
+  }
+
   /**
    * Evaluate a logical AND search filter against the indexes.
+   * <p>
+   * The components are evaluated in increasing order of their estimated number of candidates, based on the statistics
+   * gathered from the previous evaluations of the indexes. Components without statistics keep the historical order:
+   * the fast components (equality, presence, approx) first, then the other non-range components, then the range
+   * components. The evaluation stops as soon as the candidates are few enough, or when reading the next component
+   * would cost more than filtering the current candidates.
    *
    * @param andFilter The AND search filter to be evaluated.
    * @return A set of entry IDs representing candidate entries.
    */
   private EntryIDSet evaluateLogicalAndFilter(SearchFilter andFilter)
   {
-    // Put the slow range filters (greater-or-equal, less-or-equal)
-    // into a hash map, the faster components (equality, presence, approx)
-    // into one list and the remainder into another list.
-
-    ArrayList<SearchFilter> fastComps = new ArrayList<>();
-    ArrayList<SearchFilter> otherComps = new ArrayList<>();
-    HashMap<AttributeType, ArrayList<SearchFilter>> rangeComps = new HashMap<>();
-
+    final List<PlannedComponent> plan = new ArrayList<>();
+    final Map<AttributeType, List<SearchFilter>> rangeComps = new LinkedHashMap<>();
     for (SearchFilter filter : andFilter.getFilterComponents())
     {
       FilterType filterType = filter.getFilterType();
       if (filterType == FilterType.GREATER_OR_EQUAL ||
            filterType == FilterType.LESS_OR_EQUAL)
       {
-        ArrayList<SearchFilter> rangeList;
-        rangeList = rangeComps.get(filter.getAttributeType());
+        List<SearchFilter> rangeList = rangeComps.get(filter.getAttributeType());
         if (rangeList == null)
         {
           rangeList = new ArrayList<>();
@@ -193,81 +241,121 @@ class IndexFilter
         }
         rangeList.add(filter);
       }
-      else if (filterType == FilterType.EQUALITY ||
-           filterType == FilterType.PRESENT ||
-           filterType == FilterType.APPROXIMATE_MATCH)
-      {
-        fastComps.add(filter);
-      }
       else
       {
-        otherComps.add(filter);
+        plan.add(planComponent(filter));
       }
     }
 
-    EntryIDSet results = newUndefinedSet();
-    // First, process the fast components.
-    results = applyFiltersUntilThreshold(results, fastComps);
-    // Next, process the other (non-range) components.
-    results = applyFiltersUntilThreshold(results, otherComps);
-
-    if ( isBelowFilterThreshold(results) || rangeComps.isEmpty() ) {
-      return results;
-    }
-
-    // Next, process range component pairs like (cn>=A)(cn<=B).
-    ArrayList<SearchFilter> remainComps = new ArrayList<>();
-    for (Map.Entry<AttributeType, ArrayList<SearchFilter>> rangeEntry : rangeComps.entrySet())
+    for (Map.Entry<AttributeType, List<SearchFilter>> rangeEntry : rangeComps.entrySet())
     {
-      ArrayList<SearchFilter> rangeList = rangeEntry.getValue();
+      List<SearchFilter> rangeList = rangeEntry.getValue();
       if (rangeList.size() == 2)
       {
-        SearchFilter filter1 = rangeList.get(0);
-        SearchFilter filter2 = rangeList.get(1);
-
         AttributeIndex attributeIndex = entryContainer.getAttributeIndex(rangeEntry.getKey());
         if (attributeIndex == null)
         {
-          if(monitor.isFilterUseEnabled())
+          if (monitor.isFilterUseEnabled())
           {
             monitor.updateStats(SearchFilter.createANDFilter(rangeList),
                 INFO_INDEX_FILTER_INDEX_TYPE_DISABLED.get("ordering", rangeEntry.getKey().getNameOrOID()));
           }
           continue;
         }
-
-        final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
-        EntryIDSet set = attributeIndex.evaluateBoundedRange(indexQueryFactory, filter1, filter2, buffer, monitor);
-        if(monitor.isFilterUseEnabled() && set.isDefined())
-        {
-          monitor.updateStats(SearchFilter.createANDFilter(rangeList), set.size());
-        }
-        results.retainAll(set);
-        if (isBelowFilterThreshold(results))
+        plan.add(new PlannedComponent(rangeList, attributeIndex.estimateBoundedRangeCandidates(),
+            RANGE_PAIR_DEFAULT_ESTIMATE));
+      }
+      else
+      {
+        for (SearchFilter filter : rangeList)
         {
-          return results;
+          plan.add(planComponent(filter));
         }
       }
-      else
+    }
+    // Stable sort: components with equal estimates keep their relative order.
+    Collections.sort(plan);
+
+    EntryIDSet results = newUndefinedSet();
+    for (PlannedComponent component : plan)
+    {
+      if (isBelowFilterThreshold(results) || isCheaperToFilterCandidates(results, component))
       {
-        // Add to the remaining range components to be processed.
-        remainComps.addAll(rangeList);
+        break;
       }
+      results.retainAll(component.evaluate());
+    }
+    return results;
+  }
+
+  private PlannedComponent planComponent(SearchFilter filter)
+  {
+    final IndexFilterType indexFilterType;
+    final long defaultEstimate;
+    switch (filter.getFilterType())
+    {
+    case EQUALITY:
+      indexFilterType = IndexFilterType.EQUALITY;
+      defaultEstimate = FAST_DEFAULT_ESTIMATE;
+      break;
+    case PRESENT:
+      indexFilterType = IndexFilterType.PRESENCE;
+      defaultEstimate = FAST_DEFAULT_ESTIMATE;
+      break;
+    case APPROXIMATE_MATCH:
+      indexFilterType = IndexFilterType.APPROXIMATE;
+      defaultEstimate = FAST_DEFAULT_ESTIMATE;
+      break;
+    case SUBSTRING:
+      indexFilterType = IndexFilterType.SUBSTRING;
+      defaultEstimate = OTHER_DEFAULT_ESTIMATE;
+      break;
+    case GREATER_OR_EQUAL:
+      indexFilterType = IndexFilterType.GREATER_OR_EQUAL;
+      defaultEstimate = RANGE_DEFAULT_ESTIMATE;
+      break;
+    case LESS_OR_EQUAL:
+      indexFilterType = IndexFilterType.LESS_OR_EQUAL;
+      defaultEstimate = RANGE_DEFAULT_ESTIMATE;
+      break;
+    default:
+      return new PlannedComponent(Collections.singletonList(filter), IndexStatistics.UNKNOWN, OTHER_DEFAULT_ESTIMATE);
     }
+    final AttributeIndex attributeIndex = entryContainer.getAttributeIndex(filter.getAttributeType());
+    final long estimate = attributeIndex != null
+        ? attributeIndex.estimateCandidates(indexFilterType)
+        // Not indexed: it costs nothing to evaluate, but will not help either.
+        : IndexStatistics.UNKNOWN;
+    return new PlannedComponent(Collections.singletonList(filter), estimate, defaultEstimate);
+  }
 
-    // Finally, process the remaining slow range components.
-    return applyFiltersUntilThreshold(results, remainComps);
+  /**
+   * Indicates whether fetching and filtering the current candidates would cost less than reading the candidates of
+   * the next component to narrow them.
+   */
+  private boolean isCheaperToFilterCandidates(EntryIDSet candidates, PlannedComponent next)
+  {
+    if (!candidates.isDefined() || !next.estimated)
+    {
+      return false;
+    }
+    final int lookthroughLimit = searchOp.getClientConnection().getLookthroughLimit();
+    return (lookthroughLimit <= 0 || candidates.size() <= lookthroughLimit)
+        && next.estimate > candidates.size() * ENTRY_TO_ENTRY_ID_COST_RATIO;
   }
 
-  private EntryIDSet applyFiltersUntilThreshold(EntryIDSet results, ArrayList<SearchFilter> filters)
+  private EntryIDSet evaluateBoundedRange(List<SearchFilter> rangeList)
   {
-    for(SearchFilter filter : filters) {
-      if (isBelowFilterThreshold(results)) {
-        return results;
-      }
-      results.retainAll(evaluateFilter(filter));
+    AttributeIndex attributeIndex = entryContainer.getAttributeIndex(rangeList.get(0).getAttributeType());
+    final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
+    EntryIDSet set = attributeIndex.evaluateBoundedRange(
+        indexQueryFactory, rangeList.get(0), rangeList.get(1), buffer, monitor);
+    attributeIndex.getBoundedRangeStatistics().record(set);
+    if (monitor.isFilterUseEnabled() && set.isDefined())
+    {
+      monitor.updateStats(SearchFilter.createANDFilter(rangeList), set.size());
     }
-    return results;
+    return set;
   }
 
   static boolean isBelowFilterThreshold(EntryIDSet set)
@@ -313,7 +401,9 @@ class IndexFilter
     if (attributeIndex != null)
     {
       final IndexQueryFactoryImpl indexQueryFactory = new IndexQueryFactoryImpl(txn, attributeIndex);
-      return attributeIndex.evaluateFilter(indexQueryFactory, indexFilterType, filter, buffer, monitor);
+      final EntryIDSet set = attributeIndex.evaluateFilter(indexQueryFactory, indexFilterType, filter, buffer, monitor);
+      attributeIndex.getFilterStatistics(indexFilterType).record(set);
+      return set;
     }
 
     if (monitor.isFilterUseEnabled())
@@ -0,0 +1,119 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the size of the entry ID sets read from an index key or returned by the evaluation of a filter
+ * against an attribute index. They are maintained incrementally as the indexes are read and updated, are only kept in
+ * memory, and are used by {@link IndexFilter} to estimate the number of candidates of a filter component.
+ */
+final class IndexStatistics
+{
+  /** Returned by {@link #estimateSize(long)} when nothing has been observed yet. */
+  static final long UNKNOWN = -1;
+
+  private final LongAdder observations = new LongAdder();
+  private final LongAdder observedEntryIDs = new LongAdder();
+  private final LongAdder undefinedObservations = new LongAdder();
+  private final LongAdder keysCreated = new LongAdder();
+  private final LongAdder keysDeleted = new LongAdder();
+
+  /**
+   * Records the entry ID set read from a key, written to a key or returned by a filter evaluation.
+   *
+   * @param entryIDSet
+   *          the observed entry ID set
+   */
+  void record(EntryIDSet entryIDSet)
+  {
+    observations.increment();
+    if (entryIDSet.isDefined())
+    {
+      observedEntryIDs.add(entryIDSet.size());
+    }
+    else
+    {
+      undefinedObservations.increment();
+    }
+  }
+
+  /** Records that a key has been added to the index. */
+  void keyCreated()
+  {
+    keysCreated.increment();
+  }
+
+  /** Records that a key has been removed from the index. */
+  void keyDeleted()
+  {
+    keysDeleted.increment();
+  }
+
+  /**
+   * Returns the estimated number of entry IDs of an observed set.
+   *
+   * @param undefinedSize
+   *          the size to account for undefined sets, typically the index entry limit
+   * @return the mean size of the observed sets, or {@link #UNKNOWN} if nothing has been observed yet
+   */
+  long estimateSize(long undefinedSize)
+  {
+    final long nbObservations = observations.sum();
+    if (nbObservations == 0)
+    {
+      return UNKNOWN;
+    }
+    return (observedEntryIDs.sum() + undefinedObservations.sum() * undefinedSize) / nbObservations;
+  }
+
+  /**
+   * Indicates whether anything has been observed yet.
+   *
+   * @return {@code true} if nothing has been observed yet
+   */
+  boolean isEmpty()
+  {
+    return observations.sum() == 0 && keysCreated.sum() == 0 && keysDeleted.sum() == 0;
+  }
+
+  /**
+   * Appends a human readable representation of these statistics to the provided buffer.
+   *
+   * @param buffer
+   *          the buffer where to append the statistics
+   */
+  void toString(StringBuilder buffer)
+  {
+    final long nbObservations = observations.sum();
+    final long nbUndefined = undefinedObservations.sum();
+    final long nbDefined = nbObservations - nbUndefined;
+    buffer.append("observed:").append(nbObservations);
+    buffer.append(" undefined:").append(nbUndefined);
+    buffer.append(" mean-entry-ids:").append(nbDefined > 0 ? observedEntryIDs.sum() / nbDefined : 0);
+    buffer.append(" keys-created:").append(keysCreated.sum());
+    buffer.append(" keys-deleted:").append(keysDeleted.sum());
+  }
+
+  @Override
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+}
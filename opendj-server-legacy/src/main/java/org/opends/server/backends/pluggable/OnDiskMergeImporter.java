@@ -110,6 +110,7 @@ import org.forgerock.util.Utils;
 import org.forgerock.util.promise.PromiseImpl;
 import org.opends.server.api.CompressedSchema;
 import org.opends.server.backends.RebuildConfig;
+import org.opends.server.backends.RebuildConfig.RebuildMode;
 import org.opends.server.backends.pluggable.AttributeIndex.MatchingRuleIndex;
 import org.opends.server.backends.pluggable.CursorTransformer.SequentialCursorAdapter;
 import org.opends.server.backends.pluggable.DN2ID.TreeVisitor;
@@ -315,6 +316,10 @@ final class OnDiskMergeImporter
         clearDegradedState(entryContainer, indexesToRebuild);
         logger.info(NOTE_REBUILD_CLEARDEGRADEDSTATE_FINAL_STATUS, rebuildConfig.getRebuildList());
       }
+      else if (rebuildConfig.isOnline())
+      {
+        rebuildIndexOnline(entryContainer, rebuildConfig.getRebuildMode(), indexesToRebuild, totalEntries);
+      }
       else
       {
         rebuildIndex(entryContainer, rebuildConfig.getTmpDirectory(), indexesToRebuild, totalEntries);
@@ -341,6 +346,42 @@ final class OnDiskMergeImporter
       }
     }
 
+    private void rebuildIndexOnline(EntryContainer entryContainer, RebuildMode rebuildMode,
+        Set<String> indexesToRebuild, long totalEntries)
+        throws InitializationException, InterruptedException, ExecutionException
+    {
+      // Only attribute indexes can be maintained like trusted indexes while they are being rebuilt.
+      final Predicate<Tree, Void> isSelected = indexIdIn(indexesToRebuild);
+      final List<MatchingRuleIndex> indexes = new ArrayList<>();
+      final Set<String> skippedIndexes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+      skippedIndexes.addAll(indexesToRebuild);
+      for (final AttributeIndex attribute : entryContainer.getAttributeIndexes())
+      {
+        for (final MatchingRuleIndex index : attribute.getNameToIndexes().values())
+        {
+          if (isSelected.matches(index, null))
+          {
+            indexes.add(index);
+            skippedIndexes.remove(index.getName().getIndexId());
+          }
+        }
+      }
+      if (!skippedIndexes.isEmpty())
+      {
+        if (rebuildMode == RebuildMode.USER_DEFINED)
+        {
+          throw new InitializationException(ERR_REBUILD_ONLINE_UNSUPPORTED_INDEX.get(skippedIndexes.iterator().next()));
+        }
+        logger.info(NOTE_REBUILD_ONLINE_SKIPPED_INDEXES, Utils.joinAsString(", ", skippedIndexes));
+      }
+      if (indexes.isEmpty())
+      {
+        logger.info(NOTE_REBUILD_NOTHING_TO_REBUILD);
+        return;
+      }
+      new OnlineIndexRebuild(entryContainer, indexes, getDefaultNumberOfThread(), totalEntries).rebuild();
+    }
+
     private void rebuildIndex(EntryContainer entryContainer, String tmpDirectory, Set<String> indexesToRebuild,
         long totalEntries) throws InitializationException, ConfigException, InterruptedException, ExecutionException
     {
@@ -0,0 +1,533 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.forgerock.util.Utils.*;
+import static org.opends.messages.BackendMessages.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.backends.pluggable.AttributeIndex.MatchingRuleIndex;
+import org.opends.server.backends.pluggable.spi.Cursor;
+import org.opends.server.backends.pluggable.spi.ReadOperation;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
+
+/**
+ * Rebuilds attribute indexes while the backend keeps serving requests.
+ * <p>
+ * The rebuilt indexes are marked as untrusted, so that searches stop using them, and are then cleared. Until the
+ * rebuild completes, update operations nevertheless maintain them like trusted indexes. The rebuild then proceeds in
+ * two steps:
+ * <ol>
+ * <li>id2entry is split in ranges of entry IDs which are scanned in parallel. The keys of each batch of entries are
+ * written in their own transaction so that update operations are never blocked for long.</li>
+ * <li>The changes made to the entries until the end of the scan are recorded in a side log, which is then replayed: the
+ * keys of each changed entry as it was before the change are removed, then the keys of its current content are added.
+ * This repairs the keys written by the scan for an entry which was changed after it was read.</li>
+ * </ol>
+ * The indexes are marked as trusted once the side log has been replayed.
+ */
+final class OnlineIndexRebuild
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  private static final String REBUILDER_THREAD_NAME = "ONLINE-REBUILDER-%d";
+  private static final String REPORTER_THREAD_NAME = "ONLINE-REBUILD-REPORTER-%d";
+  /** Number of entries or index keys read and written in a single transaction. */
+  private static final int BATCH_SIZE = 500;
+  /** Number of id2entry ranges per thread, so that threads scanning sparse ranges can pick up remaining work. */
+  private static final int RANGES_PER_THREAD = 4;
+
+  /** The successive phases of an online rebuild. */
+  enum Phase
+  {
+    /** The indexes are being cleared. */
+    CLEAR,
+    /** id2entry is being scanned. */
+    SCAN,
+    /** The changes made during the scan are being replayed. */
+    REPLAY,
+    /** The indexes have been rebuilt. */
+    DONE
+  }
+
+  /** A change made to an entry while the indexes are being rebuilt. */
+  private static final class Change
+  {
+    private final EntryID entryID;
+    /** The entry before the change, {@code null} if the entry was added. */
+    private final Entry oldEntry;
+
+    private Change(EntryID entryID, Entry oldEntry)
+    {
+      this.entryID = entryID;
+      this.oldEntry = oldEntry;
+    }
+  }
+
+  private final EntryContainer entryContainer;
+  private final Storage storage;
+  private final List<MatchingRuleIndex> indexes;
+  private final int threadCount;
+  private final long totalEntries;
+  private final Queue<Change> sideLog = new ConcurrentLinkedQueue<>();
+  private final AtomicLong nbPendingChanges = new AtomicLong();
+  private final AtomicLong nbChangesReplayed = new AtomicLong();
+  private final AtomicLong nbEntriesProcessed = new AtomicLong();
+  /**
+   * The write transactions of the update operations are guarded by the read lock and the switch to the replay phase
+   * by the write lock, so that the side log is only replayed once the changes it records are committed, and no change
+   * can be recorded once it is being replayed.
+   */
+  private final ReadWriteLock phaseLock = new ReentrantReadWriteLock();
+  private volatile Phase phase = Phase.CLEAR;
+  private volatile long startTime;
+
+  OnlineIndexRebuild(EntryContainer entryContainer, List<MatchingRuleIndex> indexes, int threadCount,
+      long totalEntries)
+  {
+    this.entryContainer = entryContainer;
+    this.storage = entryContainer.getRootContainer().getStorage();
+    this.indexes = indexes;
+    this.threadCount = threadCount;
+    this.totalEntries = totalEntries;
+  }
+
+  /**
+   * Rebuilds the indexes.
+   *
+   * @throws InitializationException
+   *           if another online rebuild is already running for the same entry container
+   * @throws InterruptedException
+   *           if the rebuild has been interrupted
+   * @throws ExecutionException
+   *           if the rebuild failed. The indexes are then left untrusted.
+   */
+  void rebuild() throws InitializationException, InterruptedException, ExecutionException
+  {
+    startTime = System.currentTimeMillis();
+    entryContainer.startOnlineIndexRebuild(this);
+    final ScheduledExecutorService reporter =
+        Executors.newSingleThreadScheduledExecutor(newThreadFactory(null, REPORTER_THREAD_NAME, true));
+    reporter.scheduleAtFixedRate(new ProgressReporter(), 10, 10, TimeUnit.SECONDS);
+    try
+    {
+      for (MatchingRuleIndex index : indexes)
+      {
+        index.setRebuilding(true);
+      }
+      setTrusted(false);
+      for (MatchingRuleIndex index : indexes)
+      {
+        clear(index);
+      }
+      phase = Phase.SCAN;
+      scan();
+      startReplay();
+      replaySideLog();
+      setTrusted(true);
+      phase = Phase.DONE;
+    }
+    finally
+    {
+      for (MatchingRuleIndex index : indexes)
+      {
+        index.setRebuilding(false);
+      }
+      entryContainer.stopOnlineIndexRebuild();
+      reporter.shutdown();
+    }
+
+    logger.info(NOTE_REBUILD_ONLINE_CHANGES_REPLAYED, nbChangesReplayed.get());
+    final long totalTime = System.currentTimeMillis() - startTime;
+    final float rate = totalTime > 0 ? 1000f * nbEntriesProcessed.get() / totalTime : 0;
+    logger.info(NOTE_REBUILD_FINAL_STATUS, nbEntriesProcessed.get(), totalTime / 1000, rate);
+  }
+
+  /**
+   * Must be called by an update operation before its write transaction, the changes it records being replayed once it
+   * has called {@link #endUpdate()}.
+   */
+  void beginUpdate()
+  {
+    phaseLock.readLock().lock();
+  }
+
+  /** Must be called by an update operation once its write transaction is committed or rolled back. */
+  void endUpdate()
+  {
+    phaseLock.readLock().unlock();
+  }
+
+  /**
+   * Records a change made to an entry by an update operation between {@link #beginUpdate()} and
+   * {@link #endUpdate()}. Changes made after the end of the scan cannot be overwritten by the scan and are not
+   * recorded.
+   *
+   * @param entryID
+   *          the ID of the changed entry
+   * @param oldEntry
+   *          the entry before the change, {@code null} if the entry is being added
+   * @return {@code true} if the change has been recorded in the side log
+   */
+  boolean recordChange(EntryID entryID, Entry oldEntry)
+  {
+    // The update operation holds the read lock: the phase cannot change until it is committed
+    if (phase.compareTo(Phase.REPLAY) < 0)
+    {
+      sideLog.add(new Change(entryID, oldEntry));
+      nbPendingChanges.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Ends the scan: from now on changes are no longer recorded, since they cannot be overwritten by the scan. Waits for
+   * the running update operations, so that the changes they recorded are committed when it returns.
+   */
+  void startReplay()
+  {
+    phaseLock.writeLock().lock();
+    try
+    {
+      phase = Phase.REPLAY;
+    }
+    finally
+    {
+      phaseLock.writeLock().unlock();
+    }
+  }
+
+  private void setTrusted(final boolean trusted) throws ExecutionException
+  {
+    write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        for (MatchingRuleIndex index : indexes)
+        {
+          index.setTrusted(txn, trusted);
+        }
+      }
+    });
+  }
+
+  /** Deletes all the keys of an index, one batch per transaction. */
+  private void clear(final MatchingRuleIndex index) throws ExecutionException
+  {
+    final AtomicInteger nbDeleted = new AtomicInteger();
+    do
+    {
+      write(new WriteOperation()
+      {
+        @Override
+        public void run(WriteableTransaction txn) throws Exception
+        {
+          final List<ByteString> keys = new ArrayList<>(BATCH_SIZE);
+          try (Cursor<ByteString, ByteString> cursor = txn.openCursor(index.getName()))
+          {
+            while (keys.size() < BATCH_SIZE && cursor.next())
+            {
+              keys.add(cursor.getKey());
+            }
+          }
+          for (ByteString key : keys)
+          {
+            txn.delete(index.getName(), key);
+          }
+          nbDeleted.set(keys.size());
+        }
+      });
+    }
+    while (nbDeleted.get() == BATCH_SIZE);
+  }
+
+  /** Scans id2entry ranges in parallel and writes the keys of all the entries read. */
+  private void scan() throws InterruptedException, ExecutionException
+  {
+    final long highestID = read(new ReadOperation<Long>()
+    {
+      @Override
+      public Long run(ReadableTransaction txn) throws Exception
+      {
+        return entryContainer.getHighestEntryID(txn).longValue();
+      }
+    });
+    // Entries added after this point have a higher ID and are recorded in the side log.
+    final long rangeSize = Math.max(1, (highestID + 1) / (threadCount * RANGES_PER_THREAD) + 1);
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(threadCount, newThreadFactory(null, REBUILDER_THREAD_NAME, true));
+    try
+    {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (long first = 0; first <= highestID; first += rangeSize)
+      {
+        futures.add(executor.submit(new RangeScanner(first, Math.min(highestID, first + rangeSize - 1))));
+      }
+      for (Future<Void> future : futures)
+      {
+        future.get();
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Indexes the entries of a range of entry IDs. */
+  private final class RangeScanner implements Callable<Void>
+  {
+    private final long lastID;
+    private long nextID;
+
+    RangeScanner(long firstID, long lastID)
+    {
+      this.nextID = firstID;
+      this.lastID = lastID;
+    }
+
+    @Override
+    public Void call() throws Exception
+    {
+      final List<EntryID> entryIDs = new ArrayList<>(BATCH_SIZE);
+      final List<Entry> entries = new ArrayList<>(BATCH_SIZE);
+      do
+      {
+        if (Thread.currentThread().isInterrupted())
+        {
+          throw new InterruptedException();
+        }
+        storage.read(new ReadOperation<Void>()
+        {
+          @Override
+          public Void run(ReadableTransaction txn) throws Exception
+          {
+            entryIDs.clear();
+            entries.clear();
+            try (Cursor<EntryID, Entry> cursor = entryContainer.getID2Entry().openCursor(txn))
+            {
+              boolean found = cursor.positionToKeyOrNext(new EntryID(nextID).toByteString());
+              while (found && entries.size() < BATCH_SIZE && cursor.getKey().longValue() <= lastID)
+              {
+                entryIDs.add(cursor.getKey());
+                entries.add(cursor.getValue());
+                found = cursor.next();
+              }
+            }
+            return null;
+          }
+        });
+
+        final IndexBuffer buffer = new IndexBuffer();
+        for (int i = 0; i < entries.size(); i++)
+        {
+          for (MatchingRuleIndex index : indexes)
+          {
+            for (ByteString key : index.indexEntry(entries.get(i)))
+            {
+              buffer.put(index, key, entryIDs.get(i));
+            }
+          }
+        }
+        storage.write(new WriteOperation()
+        {
+          @Override
+          public void run(WriteableTransaction txn) throws Exception
+          {
+            buffer.flush(txn);
+          }
+        });
+        nbEntriesProcessed.addAndGet(entries.size());
+        if (!entryIDs.isEmpty())
+        {
+          nextID = entryIDs.get(entryIDs.size() - 1).longValue() + 1;
+        }
+      }
+      while (entries.size() == BATCH_SIZE);
+      return null;
+    }
+  }
+
+  /** Replays the recorded changes, merging the changes of each entry in a batch. */
+  private void replaySideLog() throws ExecutionException
+  {
+    while (!sideLog.isEmpty())
+    {
+      final Map<EntryID, List<Entry>> changes = new LinkedHashMap<>();
+      Change change;
+      for (int i = 0; i < BATCH_SIZE && (change = sideLog.poll()) != null; i++)
+      {
+        nbPendingChanges.decrementAndGet();
+        nbChangesReplayed.incrementAndGet();
+        List<Entry> oldEntries = changes.get(change.entryID);
+        if (oldEntries == null)
+        {
+          oldEntries = new ArrayList<>(1);
+          changes.put(change.entryID, oldEntries);
+        }
+        if (change.oldEntry != null)
+        {
+          oldEntries.add(change.oldEntry);
+        }
+      }
+      write(new WriteOperation()
+      {
+        @Override
+        public void run(WriteableTransaction txn) throws Exception
+        {
+          final IndexBuffer buffer = new IndexBuffer();
+          for (Map.Entry<EntryID, List<Entry>> change : changes.entrySet())
+          {
+            replay(buffer, change.getKey(), entryContainer.getID2Entry().get(txn, change.getKey()), change.getValue());
+          }
+          buffer.flush(txn);
+        }
+      });
+    }
+  }
+
+  private void replay(IndexBuffer buffer, EntryID entryID, Entry currentEntry, List<Entry> oldEntries)
+  {
+    for (MatchingRuleIndex index : indexes)
+    {
+      final Set<ByteString> currentKeys =
+          currentEntry != null ? index.indexEntry(currentEntry) : Collections.<ByteString> emptySet();
+      for (Entry oldEntry : oldEntries)
+      {
+        for (ByteString key : index.indexEntry(oldEntry))
+        {
+          if (!currentKeys.contains(key))
+          {
+            buffer.remove(index, key, entryID);
+          }
+        }
+      }
+      for (ByteString key : currentKeys)
+      {
+        buffer.put(index, key, entryID);
+      }
+    }
+  }
+
+  private void write(WriteOperation writeOperation) throws ExecutionException
+  {
+    try
+    {
+      storage.write(writeOperation);
+    }
+    catch (Exception e)
+    {
+      throw new ExecutionException(e);
+    }
+  }
+
+  private <T> T read(ReadOperation<T> readOperation) throws ExecutionException
+  {
+    try
+    {
+      return storage.read(readOperation);
+    }
+    catch (Exception e)
+    {
+      throw new ExecutionException(e);
+    }
+  }
+
+  List<MatchingRuleIndex> getIndexes()
+  {
+    return indexes;
+  }
+
+  Phase getPhase()
+  {
+    return phase;
+  }
+
+  long getEntriesProcessed()
+  {
+    return nbEntriesProcessed.get();
+  }
+
+  long getTotalEntries()
+  {
+    return totalEntries;
+  }
+
+  long getPendingChanges()
+  {
+    return nbPendingChanges.get();
+  }
+
+  float getEntriesPerSecond()
+  {
+    final long elapsedTime = System.currentTimeMillis() - startTime;
+    return elapsedTime > 0 ? 1000f * nbEntriesProcessed.get() / elapsedTime : 0;
+  }
+
+  /** This class reports the progress of the rebuild at fixed intervals. */
+  private final class ProgressReporter implements Runnable
+  {
+    /** The number of entries that had been processed at the time of the previous progress report. */
+    private long previousCount;
+    /** The time in milliseconds of the previous progress report. */
+    private long previousTime = System.currentTimeMillis();
+
+    @Override
+    public void run()
+    {
+      final long entriesProcessed = nbEntriesProcessed.get();
+      final long latestTime = System.currentTimeMillis();
+      final long deltaTime = latestTime - previousTime;
+      if (deltaTime == 0 || phase != Phase.SCAN)
+      {
+        return;
+      }
+      final float progressPercent = totalEntries > 0 ? Math.round((100f * entriesProcessed) / totalEntries) : 0;
+      final float rate = 1000f * (entriesProcessed - previousCount) / deltaTime;
+      logger.info(NOTE_REBUILD_PROGRESS_REPORT, progressPercent, entriesProcessed, totalEntries, rate);
+      previousCount = entriesProcessed;
+      previousTime = latestTime;
+    }
+  }
+}
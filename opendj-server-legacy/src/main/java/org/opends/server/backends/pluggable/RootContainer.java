@@ -26,6 +26,9 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.i18n.LocalizableMessage;
@@ -63,6 +66,8 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
 
   /** The tree storage. */
   private final Storage storage;
+  /** Groups the concurrent LDAP write operations into shared storage commits. */
+  private final GroupCommitWriter groupCommitWriter;
 
   /** The ID of the backend to which this entry root container belongs. */
   private final String backendId;
@@ -70,6 +75,8 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   private volatile PluggableBackendCfg config;
   /** The monitor for this backend. */
   private BackendMonitor monitor;
+  /** Fetches the candidate entries of large indexed searches, or null if disabled. */
+  private volatile ForkJoinPool searchFetchExecutor;
 
   /** The base DNs contained in this root container. */
   private final ConcurrentMap<DN, EntryContainer> entryContainers = new ConcurrentHashMap<>();
@@ -98,10 +105,12 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     this.backendId = backendID;
     this.serverContext = serverContext;
     this.storage = storage;
+    this.groupCommitWriter = new GroupCommitWriter(storage, config.isGroupCommitEnabled());
     this.config = config;
 
     getMonitorProvider().enableFilterUseStats(config.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(config.getIndexFilterAnalyzerMaxFilters());
+    setSearchFetchThreads(config.getSearchFetchThreads());
 
     config.addPluggableChangeListener(this);
   }
@@ -116,6 +125,17 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     return storage;
   }
 
+  /**
+   * Returns the writer to use for the write operations of LDAP update operations, so that concurrent ones can share
+   * a single storage commit.
+   *
+   * @return the group commit writer of the underlying storage engine
+   */
+  GroupCommitWriter getGroupCommitWriter()
+  {
+    return groupCommitWriter;
+  }
+
   /**
    * Opens the root container.
    *
@@ -269,6 +289,43 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
     return monitor;
   }
 
+  /**
+   * Returns the executor fetching the candidate entries of large indexed searches.
+   *
+   * @return the search fetch executor, or null if candidate entries must be fetched by the
+   *         thread processing the search
+   */
+  ForkJoinPool getSearchFetchExecutor()
+  {
+    return searchFetchExecutor;
+  }
+
+  private void setSearchFetchThreads(int threads)
+  {
+    final ForkJoinPool newExecutor = threads > 0 ? newSearchFetchExecutor(threads) : null;
+    final ForkJoinPool oldExecutor = searchFetchExecutor;
+    searchFetchExecutor = newExecutor;
+    if (oldExecutor != null)
+    {
+      // Searches still using the old executor will run their remaining candidates inline
+      oldExecutor.shutdown();
+    }
+  }
+
+  private ForkJoinPool newSearchFetchExecutor(int threads)
+  {
+    return new ForkJoinPool(threads, new ForkJoinWorkerThreadFactory()
+    {
+      @Override
+      public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+      {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Search fetch " + backendId + " " + thread.getPoolIndex());
+        return thread;
+      }
+    }, null, false);
+  }
+
   /**
    * Preload the tree cache. There is no preload if the configured preload
    * time limit is zero.
@@ -333,6 +390,7 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
       }
     }
     config.removePluggableChangeListener(this);
+    setSearchFetchThreads(0);
     if (storage != null)
     {
       storage.close();
@@ -449,6 +507,11 @@ public class RootContainer implements ConfigurationChangeListener<PluggableBacke
   @Override
   public ConfigChangeResult applyConfigurationChange(PluggableBackendCfg configuration)
   {
+    if (configuration.getSearchFetchThreads() != config.getSearchFetchThreads())
+    {
+      setSearchFetchThreads(configuration.getSearchFetchThreads());
+    }
+    groupCommitWriter.setEnabled(configuration.isGroupCommitEnabled());
     config = configuration;
     getMonitorProvider().enableFilterUseStats(config.isIndexFilterAnalyzerEnabled());
     getMonitorProvider().setMaxEntries(config.getIndexFilterAnalyzerMaxFilters());
@@ -15,6 +15,8 @@
  */
 package org.opends.server.backends.pluggable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -537,6 +539,35 @@ final class TracedStorage implements Storage
     storage.write(op);
   }
 
+  @Override
+  public void writeBatch(final List<? extends WriteOperation> writeOperations) throws Exception
+  {
+    List<? extends WriteOperation> ops = writeOperations;
+    if (logger.isTraceEnabled())
+    {
+      final List<WriteOperation> tracedOps = new ArrayList<>(writeOperations.size());
+      for (final WriteOperation writeOperation : writeOperations)
+      {
+        tracedOps.add(new WriteOperation()
+        {
+          @Override
+          public void run(final WriteableTransaction txn) throws Exception
+          {
+            writeOperation.run(new TracedWriteableTransaction(txn));
+          }
+        });
+      }
+      ops = tracedOps;
+    }
+    storage.writeBatch(ops);
+  }
+
+  @Override
+  public boolean supportsBatchWrites()
+  {
+    return storage.supportsBatchWrites();
+  }
+
   @Override
   public void createBackup(BackupConfig backupConfig) throws DirectoryException
   {
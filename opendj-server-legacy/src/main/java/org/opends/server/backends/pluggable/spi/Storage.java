@@ -16,6 +16,7 @@
 package org.opends.server.backends.pluggable.spi;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.Set;
 
 import org.forgerock.opendj.config.server.ConfigException;
@@ -80,6 +81,43 @@ public interface Storage extends Closeable
    */
   void write(WriteOperation writeOperation) throws Exception;
 
+  /**
+   * Executes the provided write operations, in order. The default implementation executes each of
+   * them on its own with {@link #write(WriteOperation)}.
+   * <p>
+   * Storage engines which {@link #supportsBatchWrites() support batch writes} execute them in a
+   * single transaction with a single commit: either all or none of the write operations are
+   * applied, and the failure of one of them rolls back the transaction and is thrown. Whether the
+   * batch is retried after a transaction rollback is up to the storage engine, as for
+   * {@link #write(WriteOperation)}.
+   *
+   * @param writeOperations
+   *          the write operations to execute
+   * @throws Exception
+   *           if a problem occurs with the underlying storage engine, or if one of the write
+   *           operations fails
+   * @see #supportsBatchWrites()
+   */
+  default void writeBatch(List<? extends WriteOperation> writeOperations) throws Exception
+  {
+    for (WriteOperation writeOperation : writeOperations)
+    {
+      write(writeOperation);
+    }
+  }
+
+  /**
+   * Returns {@code true} if this storage executes {@link #writeBatch(List)} in a single
+   * transaction, and benefits from grouping concurrent write operations, typically because each of
+   * its commits is synced to disk on its own. The default implementation returns {@code false}.
+   *
+   * @return {@code true} if this storage benefits from grouping concurrent write operations
+   */
+  default boolean supportsBatchWrites()
+  {
+    return false;
+  }
+
   /**
    * Remove all files for a backend of this storage.
    *
@@ -24,21 +24,26 @@ import static org.opends.server.util.ServerConstants.*;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.config.server.ConfigChangeResult;
 import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.util.Utils;
@@ -105,11 +110,23 @@ public class GroupManager extends InternalDirectoryServerPlugin
   /** A mapping between the DNs of the config entries and the associated group implementations. */
   private ConcurrentMap<DN, Group<?>> groupImplementations;
 
-  /** A mapping between the DNs of all group entries and the corresponding group instances. */
+  /**
+   * A mapping between the DNs of all group entries and the corresponding group instances. Only
+   * accessed by writers, while holding the lock.
+   */
   private DITCacheMap<Group<?>> groupInstances;
 
-  /** Lock to protect internal data structures. */
-  private final ReadWriteLock lock;
+  /**
+   * An immutable copy of {@link #groupInstances}, replaced by the writers after each change so
+   * that the lookups performed by every operation do not need to take any lock.
+   */
+  private volatile Map<DN, Group<?>> groupInstancesSnapshot = Collections.emptyMap();
+
+  /** The reverse membership index of the registered group instances. */
+  private final GroupMembershipIndex membershipIndex = new GroupMembershipIndex();
+
+  /** Lock serializing the changes to the internal data structures. */
+  private final Lock lock;
 
   /** Dummy configuration DN for Group Manager. */
   private static final String CONFIG_DN = "cn=Group Manager,cn=config";
@@ -139,7 +156,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
     groupImplementations = new ConcurrentHashMap<>();
     groupInstances = new DITCacheMap<>();
 
-    lock = new ReentrantReadWriteLock();
+    lock = new ReentrantLock();
 
     DirectoryServer.registerInternalPlugin(this);
     serverContext.getBackendConfigManager().registerLocalBackendInitializationListener(this);
@@ -260,7 +277,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
     Group<?> group = groupImplementations.remove(configuration.dn());
     if (group != null)
     {
-      lock.writeLock().lock();
+      lock.lock();
       try
       {
         Iterator<Group<?>> iterator = groupInstances.values().iterator();
@@ -270,12 +287,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
           if (g.getClass().getName().equals(group.getClass().getName()))
           {
             iterator.remove();
+            membershipIndex.removeGroup(g);
           }
         }
+        publishGroupInstances();
       }
       finally
       {
-        lock.writeLock().unlock();
+        lock.unlock();
       }
 
       group.finalizeGroupImplementation();
@@ -321,7 +340,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
         Group<?> group = groupImplementations.remove(configuration.dn());
         if (group != null)
         {
-          lock.writeLock().lock();
+          lock.lock();
           try
           {
             Iterator<Group<?>> iterator = groupInstances.values().iterator();
@@ -331,12 +350,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
               if (g.getClass().getName().equals(group.getClass().getName()))
               {
                 iterator.remove();
+                membershipIndex.removeGroup(g);
               }
             }
+            publishGroupInstances();
           }
           finally
           {
-            lock.writeLock().unlock();
+            lock.unlock();
           }
 
           group.finalizeGroupImplementation();
@@ -476,16 +497,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
    */
   public Iterable<Group<?>> getGroupInstances()
   {
-    lock.readLock().lock();
-    try
-    {
-      // Return a copy to protect from structural changes.
-      return new ArrayList<>(groupInstances.values());
-    }
-    finally
-    {
-      lock.readLock().unlock();
-    }
+    return groupInstancesSnapshot.values();
   }
 
   /**
@@ -499,15 +511,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
    */
   public Group<?> getGroupInstance(DN entryDN)
   {
-    lock.readLock().lock();
-    try
-    {
-      return groupInstances.get(entryDN);
-    }
-    finally
-    {
-      lock.readLock().unlock();
-    }
+    return groupInstancesSnapshot.get(entryDN);
   }
 
   /**
@@ -572,7 +576,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
           continue;
         }
 
-        lock.writeLock().lock();
+        lock.lock();
         try
         {
           for (SearchResultEntry entry : internalSearch.getSearchEntries())
@@ -580,8 +584,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
             try
             {
               Group<?> groupInstance = groupImplementation.newInstance(serverContext, entry);
-              groupInstances.put(entry.getName(), groupInstance);
-              refreshToken++;
+              registerGroupInstance(entry.getName(), groupInstance);
             }
             catch (DirectoryException e)
             {
@@ -589,10 +592,11 @@ public class GroupManager extends InternalDirectoryServerPlugin
               // Nothing specific to do, as it's already logged.
             }
           }
+          publishGroupInstances();
         }
         finally
         {
-          lock.writeLock().unlock();
+          lock.unlock();
         }
       }
     }
@@ -605,7 +609,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
   @Override
   public void performBackendPostFinalizationProcessing(LocalBackend<?> backend)
   {
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       Iterator<Map.Entry<DN, Group<?>>> iterator = groupInstances.entrySet().iterator();
@@ -616,12 +620,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
         if (backend.handlesEntry(groupEntryDN))
         {
           iterator.remove();
+          membershipIndex.removeGroup(mapEntry.getValue());
         }
       }
+      publishGroupInstances();
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -677,17 +683,22 @@ public class GroupManager extends InternalDirectoryServerPlugin
       return;
     }
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      if (groupInstances.removeSubtree(entry.getName(), null))
+      Set<Group<?>> groupSet = new HashSet<>();
+      if (groupInstances.removeSubtree(entry.getName(), groupSet))
       {
-        refreshToken++;
+        for (Group<?> group : groupSet)
+        {
+          membershipIndex.removeGroup(group);
+        }
+        publishGroupInstances();
       }
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -726,22 +737,14 @@ public class GroupManager extends InternalDirectoryServerPlugin
       return;
     }
 
-    lock.readLock().lock();
-    try
+    if (!groupInstancesSnapshot.containsKey(oldEntry.getName()))
     {
-      if (!groupInstances.containsKey(oldEntry.getName()))
-      {
-        // If the modified entry is not in any group instance, it's probably
-        // not a group, exit fast
-        return;
-      }
-    }
-    finally
-    {
-      lock.readLock().unlock();
+      // If the modified entry is not in any group instance, it's probably
+      // not a group, exit fast
+      return;
     }
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       Group<?> group = groupInstances.get(oldEntry.getName());
@@ -752,8 +755,10 @@ public class GroupManager extends InternalDirectoryServerPlugin
             || updatesObjectClass(modifications))
         {
           groupInstances.remove(oldEntry.getName());
-          // This updates the refreshToken
+          membershipIndex.removeGroup(group);
           createAndRegisterGroup(newEntry);
+          // The entry may no longer be a group
+          publishGroupInstances();
         }
         else
         {
@@ -767,7 +772,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -786,7 +791,7 @@ public class GroupManager extends InternalDirectoryServerPlugin
       return;
     }
 
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       Set<Group<?>> groupSet = new HashSet<>();
@@ -802,12 +807,12 @@ public class GroupManager extends InternalDirectoryServerPlugin
       }
       if (!groupSet.isEmpty())
       {
-        refreshToken++;
+        publishGroupInstances();
       }
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -922,6 +927,35 @@ public class GroupManager extends InternalDirectoryServerPlugin
     }
   }
 
+  /**
+   * Registers a group instance, replacing any group instance registered with
+   * the same DN. Must be called while holding the lock, and followed by a call
+   * to {@link #publishGroupInstances()}.
+   *
+   * @param  groupDN        The DN of the group entry.
+   * @param  groupInstance  The group instance to register.
+   */
+  private void registerGroupInstance(DN groupDN, Group<?> groupInstance)
+  {
+    Group<?> previousInstance = groupInstances.put(groupDN, groupInstance);
+    if (previousInstance != null)
+    {
+      membershipIndex.removeGroup(previousInstance);
+    }
+    membershipIndex.addGroup(groupInstance);
+  }
+
+  /**
+   * Publishes a new snapshot of the registered group instances to the readers,
+   * then updates the refresh token so that the groups reloading their nested
+   * groups find them in the new snapshot. Must be called while holding the lock.
+   */
+  private void publishGroupInstances()
+  {
+    groupInstancesSnapshot = Collections.unmodifiableMap(new HashMap<DN, Group<?>>(groupInstances));
+    refreshToken++;
+  }
+
   /**
    * Attempts to create a group instance from the provided entry, and if that is
    * successful then register it with the server, overwriting any existing
@@ -939,15 +973,15 @@ public class GroupManager extends InternalDirectoryServerPlugin
         {
           Group<?> groupInstance = groupImplementation.newInstance(serverContext, entry);
 
-          lock.writeLock().lock();
+          lock.lock();
           try
           {
-            groupInstances.put(entry.getName(), groupInstance);
-            refreshToken++;
+            registerGroupInstance(entry.getName(), groupInstance);
+            publishGroupInstances();
           }
           finally
           {
-            lock.writeLock().unlock();
+            lock.unlock();
           }
         }
       }
@@ -965,17 +999,109 @@ public class GroupManager extends InternalDirectoryServerPlugin
    */
   void deregisterAllGroups()
   {
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       groupInstances.clear();
+      membershipIndex.clear();
+      publishGroupInstances();
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
+  /**
+   * Retrieves the group instances of which the provided entry is a member,
+   * including through nested groups. Rather than checking the membership of
+   * the entry in every registered group, this method looks up the groups
+   * explicitly listing the entry, then the groups listing those groups, in
+   * the reverse membership index. Only the groups which do not explicitly
+   * list their members, such as dynamic groups, are checked one by one.
+   *
+   * @param  entry  The entry for which to retrieve the groups.
+   *
+   * @return  The group instances of which the provided entry is a member.
+   */
+  public Set<Group<?>> getGroupInstances(Entry entry)
+  {
+    Set<Group<?>> groups = new LinkedHashSet<>();
+    LinkedList<Group<?>> groupsToExpand = new LinkedList<>();
+    addGroupsOfMember(entry, membershipIndex.getGroups(entry.getName().toNormalizedByteString()),
+        groups, groupsToExpand);
+    for (Group<?> group : membershipIndex.getNonIndexedGroups())
+    {
+      addGroupOfMember(entry, group, groups, groupsToExpand);
+    }
+    while (!groupsToExpand.isEmpty())
+    {
+      DN groupDN = groupsToExpand.removeFirst().getGroupDN();
+      addGroupsOfMember(entry, membershipIndex.getGroups(groupDN.toNormalizedByteString()), groups, groupsToExpand);
+    }
+    return groups;
+  }
+
+  private void addGroupsOfMember(Entry entry, Group<?>[] candidateGroups, Set<Group<?>> groups,
+      List<Group<?>> groupsToExpand)
+  {
+    for (Group<?> group : candidateGroups)
+    {
+      addGroupOfMember(entry, group, groups, groupsToExpand);
+    }
+  }
+
+  /**
+   * Adds a group to the groups of the provided entry if the group is still
+   * registered and the entry is a member of it, since the reverse membership
+   * index may transiently reference stale groups or members.
+   */
+  private void addGroupOfMember(Entry entry, Group<?> group, Set<Group<?>> groups, List<Group<?>> groupsToExpand)
+  {
+    if (groups.contains(group) || getGroupInstance(group.getGroupDN()) != group)
+    {
+      return;
+    }
+    try
+    {
+      if (group.isMember(entry))
+      {
+        groups.add(group);
+        groupsToExpand.add(group);
+      }
+    }
+    catch (DirectoryException e)
+    {
+      logger.traceException(e);
+    }
+  }
+
+  /**
+   * Notifies the group manager that a registered group now explicitly lists
+   * the provided member. Must be called by the groups providing their
+   * members through {@link Group#getNormalizedMemberDNs()}.
+   *
+   * @param  group   The group whose member list changed.
+   * @param  normalizedMemberDN  The normalized DN of the added member.
+   */
+  public void memberAdded(Group<?> group, ByteString normalizedMemberDN)
+  {
+    membershipIndex.addMember(group, normalizedMemberDN);
+  }
+
+  /**
+   * Notifies the group manager that a registered group no longer explicitly
+   * lists the provided member. Must be called by the groups providing their
+   * members through {@link Group#getNormalizedMemberDNs()}.
+   *
+   * @param  group   The group whose member list changed.
+   * @param  normalizedMemberDN  The normalized DN of the removed member.
+   */
+  public void memberRemoved(Group<?> group, ByteString normalizedMemberDN)
+  {
+    membershipIndex.removeMember(group, normalizedMemberDN);
+  }
+
   /**
    * Compare the specified token against the current group manager
    * token value. Can be used to reload cached group instances if there has
@@ -0,0 +1,224 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.api.Group;
+
+/**
+ * Reverse membership index of the group instances registered with the group
+ * manager, mapping the normalized DN of each member explicitly listed by a group
+ * to the groups listing it.
+ * <p>
+ * Groups which do not list their members explicitly, such as dynamic groups,
+ * cannot be indexed and are only tracked so that their membership can be
+ * evaluated directly.
+ * <p>
+ * The index may transiently reference members which are no longer listed by a
+ * group, or groups which have been deregistered, so callers must confirm each
+ * group found in the index. It never misses a member listed by an indexed group.
+ */
+final class GroupMembershipIndex
+{
+  private static final Group<?>[] NO_GROUPS = new Group<?>[0];
+
+  /** The groups explicitly listing each member, keyed by normalized member DN. */
+  private final ConcurrentMap<ByteString, Group<?>[]> groupsByMember = new ConcurrentHashMap<>();
+  /** The groups whose members are indexed. */
+  private final Set<Group<?>> indexedGroups = Collections.newSetFromMap(new ConcurrentHashMap<Group<?>, Boolean>());
+  /** The groups whose members cannot be indexed. */
+  private final Set<Group<?>> nonIndexedGroups = Collections.newSetFromMap(new ConcurrentHashMap<Group<?>, Boolean>());
+
+  /**
+   * Indexes the members of a newly registered group.
+   * <p>
+   * The group is marked as indexed before its members are read, so that the
+   * member updates made concurrently by the group are not lost.
+   *
+   * @param group
+   *          the registered group
+   */
+  void addGroup(Group<?> group)
+  {
+    indexedGroups.add(group);
+    Collection<ByteString> members = group.getNormalizedMemberDNs();
+    if (members == null)
+    {
+      indexedGroups.remove(group);
+      nonIndexedGroups.add(group);
+      return;
+    }
+    synchronized (this)
+    {
+      for (ByteString member : members)
+      {
+        addMember0(group, member);
+      }
+    }
+  }
+
+  /**
+   * Removes all the members of a deregistered group from the index.
+   *
+   * @param group
+   *          the deregistered group
+   */
+  void removeGroup(Group<?> group)
+  {
+    if (nonIndexedGroups.remove(group) || !indexedGroups.remove(group))
+    {
+      return;
+    }
+    Collection<ByteString> members = group.getNormalizedMemberDNs();
+    if (members != null)
+    {
+      synchronized (this)
+      {
+        for (ByteString member : members)
+        {
+          removeMember0(group, member);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records that an indexed group now lists the provided member.
+   *
+   * @param group
+   *          the group
+   * @param member
+   *          the normalized DN of the member
+   */
+  void addMember(Group<?> group, ByteString member)
+  {
+    if (indexedGroups.contains(group))
+    {
+      synchronized (this)
+      {
+        addMember0(group, member);
+      }
+    }
+  }
+
+  /**
+   * Records that an indexed group no longer lists the provided member.
+   *
+   * @param group
+   *          the group
+   * @param member
+   *          the normalized DN of the member
+   */
+  void removeMember(Group<?> group, ByteString member)
+  {
+    if (indexedGroups.contains(group))
+    {
+      synchronized (this)
+      {
+        removeMember0(group, member);
+      }
+    }
+  }
+
+  /** Removes all the groups from the index. */
+  synchronized void clear()
+  {
+    indexedGroups.clear();
+    nonIndexedGroups.clear();
+    groupsByMember.clear();
+  }
+
+  /**
+   * Returns the indexed groups which explicitly list the provided member.
+   *
+   * @param member
+   *          the normalized DN of the member
+   * @return the groups listing the member, possibly empty
+   */
+  Group<?>[] getGroups(ByteString member)
+  {
+    Group<?>[] groups = groupsByMember.get(member);
+    return groups != null ? groups : NO_GROUPS;
+  }
+
+  /**
+   * Returns the groups whose membership cannot be looked up in the index.
+   *
+   * @return the groups whose membership cannot be looked up in the index
+   */
+  List<Group<?>> getNonIndexedGroups()
+  {
+    return new ArrayList<>(nonIndexedGroups);
+  }
+
+  /** Must be called while holding the monitor of this index. */
+  private void addMember0(Group<?> group, ByteString member)
+  {
+    Group<?>[] groups = groupsByMember.get(member);
+    if (groups == null)
+    {
+      groupsByMember.put(member, new Group<?>[] { group });
+      return;
+    }
+    for (Group<?> g : groups)
+    {
+      if (g == group)
+      {
+        return;
+      }
+    }
+    Group<?>[] newGroups = Arrays.copyOf(groups, groups.length + 1);
+    newGroups[groups.length] = group;
+    groupsByMember.put(member, newGroups);
+  }
+
+  /** Must be called while holding the monitor of this index. */
+  private void removeMember0(Group<?> group, ByteString member)
+  {
+    Group<?>[] groups = groupsByMember.get(member);
+    if (groups == null)
+    {
+      return;
+    }
+    for (int i = 0; i < groups.length; i++)
+    {
+      if (groups[i] == group)
+      {
+        if (groups.length == 1)
+        {
+          groupsByMember.remove(member);
+        }
+        else
+        {
+          Group<?>[] newGroups = new Group<?>[groups.length - 1];
+          System.arraycopy(groups, 0, newGroups, 0, i);
+          System.arraycopy(groups, i + 1, newGroups, i, groups.length - i - 1);
+          groupsByMember.put(member, newGroups);
+        }
+        return;
+      }
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.opends.server.types.Control;
 import org.forgerock.opendj.ldap.DN;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
+import org.opends.server.types.PassThroughEntry;
 import org.opends.server.types.Operation;
 import org.opends.server.types.RawFilter;
 import org.opends.server.types.SearchFilter;
@@ -262,6 +263,35 @@ public interface SearchOperation extends Operation
   boolean returnEntry(Entry entry, List<Control> controls,
                                       boolean evaluateAci);
 
+  /**
+   * Indicates whether the entries matching this search may be returned with
+   * {@link #returnEntry(PassThroughEntry)}, that is whether the search result
+   * entries only depend on the stored user attributes of the entries: all the
+   * user attributes are requested, no control or plugin alters the search
+   * result entries, no user attribute is virtual and access control is
+   * bypassed.
+   *
+   * @return  <CODE>true</CODE> if the matching entries may be passed through,
+   *          or <CODE>false</CODE> if they must be returned with
+   *          {@link #returnEntry(Entry, List)}.
+   */
+  boolean isPassThroughAllowed();
+
+  /**
+   * Used as a callback for backends to indicate that the provided entry matches
+   * the search criteria and that it should be sent as is to the client. It must
+   * only be called when {@link #isPassThroughAllowed()} returns
+   * <CODE>true</CODE>.
+   *
+   * @param  entry  The pass-through entry that matches the search criteria.
+   *
+   * @return  <CODE>true</CODE> if the caller should continue processing the
+   *          search request and sending additional entries and references, or
+   *          <CODE>false</CODE> if not for some reason (e.g., the size limit
+   *          has been reached or the search has been abandoned).
+   */
+  boolean returnEntry(PassThroughEntry entry);
+
   /**
    * Used as a callback for backends to indicate that the provided search
    * reference was encountered during processing and that additional processing
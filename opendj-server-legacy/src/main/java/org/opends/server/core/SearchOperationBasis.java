@@ -50,10 +50,13 @@ import org.opends.server.types.Control;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
 import org.opends.server.types.OperationType;
+import org.opends.server.types.PassThroughEntry;
+import org.opends.server.types.Privilege;
 import org.opends.server.types.RawFilter;
 import org.opends.server.types.SearchFilter;
 import org.opends.server.types.SearchResultEntry;
 import org.opends.server.types.SearchResultReference;
+import org.opends.server.types.VirtualAttributeRule;
 import org.opends.server.types.operation.PostResponseSearchOperation;
 import org.opends.server.types.operation.PreParseSearchOperation;
 import org.opends.server.types.operation.SearchEntrySearchOperation;
@@ -109,6 +112,10 @@ public class SearchOperationBasis
   private boolean filterIncludesSubentries;
   private boolean filterNeedsCheckingForSubentries = true;
 
+  /** Indicates whether the matching entries may be passed through to the client. */
+  private boolean passThroughAllowed;
+  private boolean passThroughNeedsChecking = true;
+
   /**
    * Indicates whether to include attribute types only or both types and values.
    */
@@ -460,22 +467,8 @@ public class SearchOperationBasis
   {
     boolean typesOnly = getTypesOnly();
 
-    // See if the size limit has been exceeded.  If so, then don't send the
-    // entry and indicate that the search should end.
-    if (getSizeLimit() > 0 && getEntriesSent() >= getSizeLimit())
+    if (!isWithinLimits())
     {
-      setResultCode(ResultCode.SIZE_LIMIT_EXCEEDED);
-      appendErrorMessage(ERR_SEARCH_SIZE_LIMIT_EXCEEDED.get(getSizeLimit()));
-      return false;
-    }
-
-    // See if the time limit has expired.  If so, then don't send the entry and
-    // indicate that the search should end.
-    if (getTimeLimit() > 0
-        && TimeThread.getTime() >= getTimeLimitExpiration())
-    {
-      setResultCode(ResultCode.TIME_LIMIT_EXCEEDED);
-      appendErrorMessage(ERR_SEARCH_TIME_LIMIT_EXCEEDED.get(getTimeLimit()));
       return false;
     }
 
@@ -691,6 +684,114 @@ public class SearchOperationBasis
     return pluginResult.continueProcessing();
   }
 
+  /**
+   * Checks that the size limit has not been exceeded and that the time limit
+   * has not expired. If not, the entry must not be sent and the search should
+   * end.
+   */
+  private boolean isWithinLimits()
+  {
+    // See if the size limit has been exceeded.
+    if (getSizeLimit() > 0 && getEntriesSent() >= getSizeLimit())
+    {
+      setResultCode(ResultCode.SIZE_LIMIT_EXCEEDED);
+      appendErrorMessage(ERR_SEARCH_SIZE_LIMIT_EXCEEDED.get(getSizeLimit()));
+      return false;
+    }
+
+    // See if the time limit has expired.
+    if (getTimeLimit() > 0
+        && TimeThread.getTime() >= getTimeLimitExpiration())
+    {
+      setResultCode(ResultCode.TIME_LIMIT_EXCEEDED);
+      appendErrorMessage(ERR_SEARCH_TIME_LIMIT_EXCEEDED.get(getTimeLimit()));
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public final boolean isPassThroughAllowed()
+  {
+    if (passThroughNeedsChecking)
+    {
+      passThroughAllowed = checkPassThroughAllowed();
+      passThroughNeedsChecking = false;
+    }
+    return passThroughAllowed;
+  }
+
+  /**
+   * Checks that the search result entries would be the stored entries pared
+   * down to their user attributes, by going through the steps of
+   * {@link #returnEntry(Entry, List, boolean)} which may alter them.
+   */
+  private boolean checkPassThroughAllowed()
+  {
+    final Set<String> attrs = getAttributes();
+    return getClientConnection().supportsPassThroughEntries()
+        && (attrs.isEmpty() || (attrs.size() == 1 && attrs.contains("*")))
+        && !getTypesOnly()
+        && !isVirtualAttributesOnly()
+        && !isReturnSubentriesOnly()
+        && !isIncludeUsableControl()
+        && getMatchedValuesControl() == null
+        && !hasRequestControl(OID_GET_EFFECTIVE_RIGHTS)
+        && !getPluginConfigManager().hasSearchResultEntryPlugins()
+        && !hasUserVirtualAttributes()
+        && getClientConnection().hasPrivilege(Privilege.BYPASS_ACL, this);
+  }
+
+  private boolean hasRequestControl(String oid)
+  {
+    for (Control control : getRequestControls())
+    {
+      if (control.getOID().equals(oid))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasUserVirtualAttributes()
+  {
+    for (VirtualAttributeRule rule : getVirtualAttributes())
+    {
+      if (!rule.getAttributeType().isOperational())
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public final boolean returnEntry(PassThroughEntry entry)
+  {
+    if (!isWithinLimits())
+    {
+      return false;
+    }
+
+    // No access log publisher logs search result entries, and pass-through
+    // is not allowed when search result entry plugins are registered.
+    try
+    {
+      getClientConnection().sendPassThroughEntry(this, entry);
+
+      entriesSent++;
+    }
+    catch (DirectoryException de)
+    {
+      logger.traceException(de);
+
+      setResponseData(de);
+      return false;
+    }
+    return true;
+  }
+
   private AccessControlHandler<?> getACIHandler()
   {
     return AccessControlConfigManager.getInstance().getAccessControlHandler();
@@ -57,6 +57,18 @@ public abstract class SearchOperationWrapper extends
     return getOperation().returnEntry(entry, controls, evaluateAci);
   }
 
+  @Override
+  public boolean isPassThroughAllowed()
+  {
+    return getOperation().isPassThroughAllowed();
+  }
+
+  @Override
+  public boolean returnEntry(PassThroughEntry entry)
+  {
+    return getOperation().returnEntry(entry);
+  }
+
   @Override
   public boolean returnReference(DN dn, SearchResultReference reference)
   {
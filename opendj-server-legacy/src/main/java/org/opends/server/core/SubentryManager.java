@@ -26,8 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.DN;
@@ -93,16 +93,61 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   /** Dummy configuration DN for Subentry Manager. */
   private static final String CONFIG_DN = "cn=Subentry Manager,cn=config";
 
-  /** A mapping between the DNs and applicable subentries. */
+  /**
+   * An immutable copy of the subentry mappings, replaced by the writers after
+   * each change so that the lookups performed by every operation do not need to
+   * take any lock.
+   */
+  private static final class SubentrySnapshot
+  {
+    private static final SubentrySnapshot EMPTY = new SubentrySnapshot(
+        new HashMap<DN, List<SubEntry>>(), new HashMap<DN, List<SubEntry>>(), new DITCacheMap<SubEntry>());
+
+    private final Map<DN, List<SubEntry>> dn2SubEntry;
+    private final Map<DN, List<SubEntry>> dn2CollectiveSubEntry;
+    private final DITCacheMap<SubEntry> dit2SubEntry;
+
+    private SubentrySnapshot(Map<DN, List<SubEntry>> dn2SubEntry,
+        Map<DN, List<SubEntry>> dn2CollectiveSubEntry, DITCacheMap<SubEntry> dit2SubEntry)
+    {
+      this.dn2SubEntry = copyOf(dn2SubEntry);
+      this.dn2CollectiveSubEntry = copyOf(dn2CollectiveSubEntry);
+      this.dit2SubEntry = new DITCacheMap<>();
+      this.dit2SubEntry.putAll(dit2SubEntry);
+    }
+
+    private static Map<DN, List<SubEntry>> copyOf(Map<DN, List<SubEntry>> subEntryMap)
+    {
+      Map<DN, List<SubEntry>> copy = new HashMap<>(subEntryMap.size() * 2);
+      for (Map.Entry<DN, List<SubEntry>> mapEntry : subEntryMap.entrySet())
+      {
+        copy.put(mapEntry.getKey(), Collections.unmodifiableList(new ArrayList<>(mapEntry.getValue())));
+      }
+      return copy;
+    }
+  }
+
+  /**
+   * A mapping between the DNs and applicable subentries. Only accessed by
+   * writers, while holding the lock.
+   */
   private final Map<DN, List<SubEntry>> dn2SubEntry = new HashMap<>();
-  /** A mapping between the DNs and applicable collective subentries. */
+  /**
+   * A mapping between the DNs and applicable collective subentries. Only
+   * accessed by writers, while holding the lock.
+   */
   private final Map<DN, List<SubEntry>> dn2CollectiveSubEntry = new HashMap<>();
-  /** A mapping between subentry DNs and subentry objects. */
+  /**
+   * A mapping between subentry DNs and subentry objects. Only accessed by
+   * writers, while holding the lock.
+   */
   private final DITCacheMap<SubEntry> dit2SubEntry = new DITCacheMap<>();
+  /** The snapshot of the subentry mappings read by the lookups. */
+  private volatile SubentrySnapshot snapshot = SubentrySnapshot.EMPTY;
   /** Internal search all operational attributes. */
   private final Set<String> requestAttrs = newLinkedHashSet("*", "+");
-  /** Lock to protect internal data structures. */
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Lock serializing the changes to the internal data structures. */
+  private final Lock lock = new ReentrantLock();
   /** The set of change notification listeners. */
   private final List<SubentryChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
@@ -181,25 +226,36 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   private void addSubentry(Entry entry) throws DirectoryException
   {
     SubEntry subEntry = new SubEntry(entry);
-    SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
-    DN subDN = subSpec.getBaseDN();
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      Map<DN, List<SubEntry>> subEntryMap = getSubEntryMap(subEntry);
-      List<SubEntry> subList = subEntryMap.get(subDN);
-      if (subList == null)
-      {
-        subList = new ArrayList<>();
-        subEntryMap.put(subDN, subList);
-      }
-      dit2SubEntry.put(entry.getName(), subEntry);
-      subList.add(subEntry);
+      registerSubentry(subEntry);
+      publishSubentries();
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds a given subentry to the mappings. Must be called while holding the
+   * lock, and followed by a call to {@link #publishSubentries()}.
+   *
+   * @param subEntry to add.
+   */
+  private void registerSubentry(SubEntry subEntry)
+  {
+    DN subDN = subEntry.getSubTreeSpecification().getBaseDN();
+    Map<DN, List<SubEntry>> subEntryMap = getSubEntryMap(subEntry);
+    List<SubEntry> subList = subEntryMap.get(subDN);
+    if (subList == null)
+    {
+      subList = new ArrayList<>();
+      subEntryMap.put(subDN, subList);
     }
+    dit2SubEntry.put(subEntry.getDN(), subEntry);
+    subList.add(subEntry);
   }
 
   private Map<DN, List<SubEntry>> getSubEntryMap(SubEntry subEntry)
@@ -215,17 +271,17 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   private void removeSubentry(Entry entry)
   {
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      if (!removeSubEntry(dn2SubEntry, entry))
+      if (removeSubEntry(dn2SubEntry, entry) || removeSubEntry(dn2CollectiveSubEntry, entry))
       {
-        removeSubEntry(dn2CollectiveSubEntry, entry);
+        publishSubentries();
       }
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -254,6 +310,15 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     return false;
   }
 
+  /**
+   * Publishes a new snapshot of the subentry mappings to the readers. Must be
+   * called while holding the lock, after any change to the mappings.
+   */
+  private void publishSubentries()
+  {
+    snapshot = new SubentrySnapshot(dn2SubEntry, dn2CollectiveSubEntry, dit2SubEntry);
+  }
+
   /**
    * {@inheritDoc}  In this case, the server will search the backend to find
    * all subentries that it may contain and register them with this manager.
@@ -317,14 +382,14 @@ public class SubentryManager extends InternalDirectoryServerPlugin
         continue;
       }
 
+      List<SubEntry> subEntries = new ArrayList<>();
       for (SearchResultEntry entry : internalSearch.getSearchEntries())
       {
         if (isSubEntry(entry))
         {
           try
           {
-            addSubentry(entry);
-            notifySubentryAdded(entry);
+            subEntries.add(new SubEntry(entry));
           }
           catch (Exception e)
           {
@@ -332,6 +397,28 @@ public class SubentryManager extends InternalDirectoryServerPlugin
           }
         }
       }
+      if (subEntries.isEmpty())
+      {
+        continue;
+      }
+
+      lock.lock();
+      try
+      {
+        for (SubEntry subEntry : subEntries)
+        {
+          registerSubentry(subEntry);
+        }
+        publishSubentries();
+      }
+      finally
+      {
+        lock.unlock();
+      }
+      for (SubEntry subEntry : subEntries)
+      {
+        notifySubentryAdded(subEntry.getEntry());
+      }
     }
   }
 
@@ -388,26 +475,17 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   public List<SubEntry> getSubentries()
   {
-    if (dn2SubEntry.isEmpty())
+    final Map<DN, List<SubEntry>> subEntryMap = snapshot.dn2SubEntry;
+    if (subEntryMap.isEmpty())
     {
       return Collections.emptyList();
     }
 
     List<SubEntry> subentries = new ArrayList<>();
-
-    lock.readLock().lock();
-    try
-    {
-      for (List<SubEntry> subList : dn2SubEntry.values())
-      {
-        subentries.addAll(subList);
-      }
-    }
-    finally
+    for (List<SubEntry> subList : subEntryMap.values())
     {
-      lock.readLock().unlock();
+      subentries.addAll(subList);
     }
-
     return subentries;
   }
 
@@ -420,7 +498,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   public List<SubEntry> getSubentries(DN dn)
   {
-    return getSubentries(dn2SubEntry, dn);
+    return getSubentries(snapshot.dn2SubEntry, dn);
   }
 
   private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, DN dn)
@@ -430,31 +508,23 @@ public class SubentryManager extends InternalDirectoryServerPlugin
       return Collections.emptyList();
     }
 
-    lock.readLock().lock();
-    try
+    List<SubEntry> subentries = new ArrayList<>();
+    for (DN subDN = dn; subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
     {
-      List<SubEntry> subentries = new ArrayList<>();
-      for (DN subDN = dn; subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
+      List<SubEntry> subList = subEntryMap.get(subDN);
+      if (subList != null)
       {
-        List<SubEntry> subList = subEntryMap.get(subDN);
-        if (subList != null)
+        for (SubEntry subEntry : subList)
         {
-          for (SubEntry subEntry : subList)
+          SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
+          if (subSpec.isDNWithinScope(dn))
           {
-            SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
-            if (subSpec.isDNWithinScope(dn))
-            {
-              subentries.add(subEntry);
-            }
+            subentries.add(subEntry);
           }
         }
       }
-      return subentries;
-    }
-    finally
-    {
-      lock.readLock().unlock();
     }
+    return subentries;
   }
 
   /**
@@ -467,7 +537,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   public List<SubEntry> getSubentries(Entry entry)
   {
-    return getSubentries(dn2SubEntry, entry);
+    return getSubentries(snapshot.dn2SubEntry, entry);
   }
 
   private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, Entry entry)
@@ -477,31 +547,23 @@ public class SubentryManager extends InternalDirectoryServerPlugin
       return Collections.emptyList();
     }
 
-    lock.readLock().lock();
-    try
+    List<SubEntry> subentries = new ArrayList<>();
+    for (DN subDN = entry.getName(); subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
     {
-      List<SubEntry> subentries = new ArrayList<>();
-      for (DN subDN = entry.getName(); subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
+      List<SubEntry> subList = subEntryMap.get(subDN);
+      if (subList != null)
       {
-        List<SubEntry> subList = subEntryMap.get(subDN);
-        if (subList != null)
+        for (SubEntry subEntry : subList)
         {
-          for (SubEntry subEntry : subList)
+          SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
+          if (subSpec.isWithinScope(entry))
           {
-            SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
-            if (subSpec.isWithinScope(entry))
-            {
-              subentries.add(subEntry);
-            }
+            subentries.add(subEntry);
           }
         }
       }
-      return subentries;
-    }
-    finally
-    {
-      lock.readLock().unlock();
     }
+    return subentries;
   }
 
   /**
@@ -514,7 +576,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   public List<SubEntry> getCollectiveSubentries(DN dn)
   {
-    return getSubentries(dn2CollectiveSubEntry, dn);
+    return getSubentries(snapshot.dn2CollectiveSubEntry, dn);
   }
 
   /**
@@ -527,7 +589,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
    */
   public List<SubEntry> getCollectiveSubentries(Entry entry)
   {
-    return getSubentries(dn2CollectiveSubEntry, entry);
+    return getSubentries(snapshot.dn2CollectiveSubEntry, entry);
   }
 
   /**
@@ -537,19 +599,29 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   @Override
   public void performBackendPostFinalizationProcessing(LocalBackend<?> backend)
   {
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      performBackendPostFinalizationProcessing(dn2SubEntry, backend);
-      performBackendPostFinalizationProcessing(dn2CollectiveSubEntry, backend);
+      List<SubEntry> removedSubEntries = new ArrayList<>();
+      performBackendPostFinalizationProcessing(dn2SubEntry, backend, removedSubEntries);
+      performBackendPostFinalizationProcessing(dn2CollectiveSubEntry, backend, removedSubEntries);
+      if (!removedSubEntries.isEmpty())
+      {
+        publishSubentries();
+        for (SubEntry subEntry : removedSubEntries)
+        {
+          notifySubentryDeleted(subEntry.getEntry());
+        }
+      }
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
-  private void performBackendPostFinalizationProcessing(Map<DN, List<SubEntry>> subEntryMap, LocalBackend<?> backend)
+  private void performBackendPostFinalizationProcessing(Map<DN, List<SubEntry>> subEntryMap, LocalBackend<?> backend,
+      List<SubEntry> removedSubEntries)
   {
     Iterator<List<SubEntry>> subEntryListsIt = subEntryMap.values().iterator();
     while (subEntryListsIt.hasNext())
@@ -563,13 +635,13 @@ public class SubentryManager extends InternalDirectoryServerPlugin
         {
           dit2SubEntry.remove(subEntry.getDN());
           subEntriesIt.remove();
-          notifySubentryDeleted(subEntry.getEntry());
+          if (subEntryList.isEmpty())
+          {
+            subEntryListsIt.remove();
+          }
+          removedSubEntries.add(subEntry);
         }
       }
-      if (subEntryList.isEmpty())
-      {
-        subEntryListsIt.remove();
-      }
     }
   }
 
@@ -587,7 +659,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   {
     if (isSubEntry(entry))
     {
-      lock.writeLock().lock();
+      lock.lock();
       try
       {
         try
@@ -602,7 +674,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
       }
       finally
       {
-        lock.writeLock().unlock();
+        lock.unlock();
       }
     }
   }
@@ -610,25 +682,17 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   private void doPostDelete(Entry entry)
   {
     // Fast-path for deleted entries which do not have subordinate sub-entries.
-    lock.readLock().lock();
-    try
-    {
-      final Collection<SubEntry> subtree = dit2SubEntry.getSubtree(entry.getName());
-      if (subtree.isEmpty())
-      {
-        return;
-      }
-    }
-    finally
+    if (snapshot.dit2SubEntry.getSubtree(entry.getName()).isEmpty())
     {
-      lock.readLock().unlock();
+      return;
     }
 
     // Slow-path.
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      for (SubEntry subEntry : dit2SubEntry.getSubtree(entry.getName()))
+      // Iterate over the snapshot, as the removals below replace it
+      for (SubEntry subEntry : snapshot.dit2SubEntry.getSubtree(entry.getName()))
       {
         removeSubentry(subEntry.getEntry());
         notifySubentryDeleted(subEntry.getEntry());
@@ -636,7 +700,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -650,7 +714,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     }
 
     boolean notify = false;
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
       if (oldEntryIsSubentry)
@@ -680,7 +744,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -691,10 +755,11 @@ public class SubentryManager extends InternalDirectoryServerPlugin
 
   private void doPostModifyDN(final Entry oldEntry, final Entry newEntry)
   {
-    lock.writeLock().lock();
+    lock.lock();
     try
     {
-      Collection<SubEntry> setToDelete = dit2SubEntry.getSubtree(oldEntry.getName());
+      // Iterate over the snapshot, as the changes below replace it
+      Collection<SubEntry> setToDelete = snapshot.dit2SubEntry.getSubtree(oldEntry.getName());
       for (SubEntry subentry : setToDelete)
       {
         final Entry currentSubentry = subentry.getEntry();
@@ -719,7 +784,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     }
     finally
     {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -760,41 +825,33 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     Entry entry = deleteOperation.getEntryToDelete();
     boolean hasSubentryWritePrivilege = false;
 
-    lock.readLock().lock();
-    try
+    for (SubEntry subEntry : snapshot.dit2SubEntry.getSubtree(entry.getName()))
     {
-      for (SubEntry subEntry : dit2SubEntry.getSubtree(entry.getName()))
+      if (!hasSubentryWritePrivilege)
       {
-        if (!hasSubentryWritePrivilege)
+        ClientConnection conn = deleteOperation.getClientConnection();
+        if (!conn.hasPrivilege(Privilege.SUBENTRY_WRITE,
+                               conn.getOperationInProgress(deleteOperation.getMessageID())))
         {
-          ClientConnection conn = deleteOperation.getClientConnection();
-          if (!conn.hasPrivilege(Privilege.SUBENTRY_WRITE,
-                                 conn.getOperationInProgress(deleteOperation.getMessageID())))
-          {
-            return PluginResult.PreOperation.stopProcessing(
-                    ResultCode.INSUFFICIENT_ACCESS_RIGHTS,
-                    ERR_SUBENTRY_WRITE_INSUFFICIENT_PRIVILEGES.get());
-          }
-          hasSubentryWritePrivilege = true;
+          return PluginResult.PreOperation.stopProcessing(
+                  ResultCode.INSUFFICIENT_ACCESS_RIGHTS,
+                  ERR_SUBENTRY_WRITE_INSUFFICIENT_PRIVILEGES.get());
         }
-        for (SubentryChangeListener changeListener : changeListeners)
+        hasSubentryWritePrivilege = true;
+      }
+      for (SubentryChangeListener changeListener : changeListeners)
+      {
+        try
         {
-          try
-          {
-            changeListener.checkSubentryDeleteAcceptable(subEntry.getEntry());
-          }
-          catch (DirectoryException de)
-          {
-            logger.traceException(de);
-            return PluginResult.PreOperation.stopProcessing(de.getResultCode(), de.getMessageObject());
-          }
+          changeListener.checkSubentryDeleteAcceptable(subEntry.getEntry());
+        }
+        catch (DirectoryException de)
+        {
+          logger.traceException(de);
+          return PluginResult.PreOperation.stopProcessing(de.getResultCode(), de.getMessageObject());
         }
       }
     }
-    finally
-    {
-      lock.readLock().unlock();
-    }
 
     return PluginResult.PreOperation.continueOperationProcessing();
   }
@@ -837,50 +894,42 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   {
     boolean hasSubentryWritePrivilege = false;
 
-    lock.readLock().lock();
-    try
+    final Entry oldEntry = modifyDNOperation.getOriginalEntry();
+    Collection<SubEntry> setToDelete = snapshot.dit2SubEntry.getSubtree(oldEntry.getName());
+    for (SubEntry subentry : setToDelete)
     {
-      final Entry oldEntry = modifyDNOperation.getOriginalEntry();
-      Collection<SubEntry> setToDelete = dit2SubEntry.getSubtree(oldEntry.getName());
-      for (SubEntry subentry : setToDelete)
+      if (!hasSubentryWritePrivilege)
       {
-        if (!hasSubentryWritePrivilege)
+        ClientConnection conn = modifyDNOperation.getClientConnection();
+        if (!conn.hasPrivilege(Privilege.SUBENTRY_WRITE,
+                               conn.getOperationInProgress(modifyDNOperation.getMessageID())))
         {
-          ClientConnection conn = modifyDNOperation.getClientConnection();
-          if (!conn.hasPrivilege(Privilege.SUBENTRY_WRITE,
-                                 conn.getOperationInProgress(modifyDNOperation.getMessageID())))
-          {
-            return PluginResult.PreOperation.stopProcessing(
-                    ResultCode.INSUFFICIENT_ACCESS_RIGHTS,
-                    ERR_SUBENTRY_WRITE_INSUFFICIENT_PRIVILEGES.get());
-          }
-          hasSubentryWritePrivilege = true;
+          return PluginResult.PreOperation.stopProcessing(
+                  ResultCode.INSUFFICIENT_ACCESS_RIGHTS,
+                  ERR_SUBENTRY_WRITE_INSUFFICIENT_PRIVILEGES.get());
         }
+        hasSubentryWritePrivilege = true;
+      }
 
-        final Entry newEntry = modifyDNOperation.getUpdatedEntry();
-        final Entry currentSubentry = subentry.getEntry();
-        final Entry renamedSubentry = currentSubentry.duplicate(false);
-        final DN renamedDN = currentSubentry.getName().rename(oldEntry.getName(), newEntry.getName());
-        renamedSubentry.setDN(renamedDN);
+      final Entry newEntry = modifyDNOperation.getUpdatedEntry();
+      final Entry currentSubentry = subentry.getEntry();
+      final Entry renamedSubentry = currentSubentry.duplicate(false);
+      final DN renamedDN = currentSubentry.getName().rename(oldEntry.getName(), newEntry.getName());
+      renamedSubentry.setDN(renamedDN);
 
-        for (SubentryChangeListener changeListener : changeListeners)
+      for (SubentryChangeListener changeListener : changeListeners)
+      {
+        try
         {
-          try
-          {
-            changeListener.checkSubentryModifyAcceptable(currentSubentry, renamedSubentry);
-          }
-          catch (DirectoryException de)
-          {
-            logger.traceException(de);
-            return PluginResult.PreOperation.stopProcessing(de.getResultCode(), de.getMessageObject());
-          }
+          changeListener.checkSubentryModifyAcceptable(currentSubentry, renamedSubentry);
+        }
+        catch (DirectoryException de)
+        {
+          logger.traceException(de);
+          return PluginResult.PreOperation.stopProcessing(de.getResultCode(), de.getMessageObject());
         }
       }
     }
-    finally
-    {
-      lock.readLock().unlock();
-    }
 
     return PluginResult.PreOperation.continueOperationProcessing();
   }
@@ -0,0 +1,235 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.opends.server.extensions.StaticGroup.CompactDn;
+
+/**
+ * A set of compact DNs using open addressing with linear probing.
+ * <p>
+ * Static groups may have hundreds of thousands of members. Unlike a
+ * {@code HashSet}, this set does not allocate an entry object per member: the
+ * members are stored directly in a single array, which costs a few bytes per
+ * member on top of the compact DNs themselves.
+ * <p>
+ * This class is not thread safe, and its iterator does not support removal.
+ */
+final class CompactDnSet extends AbstractSet<CompactDn>
+{
+  /** The smallest capacity of the table, which must be a power of two. */
+  private static final int MIN_CAPACITY = 8;
+
+  /** The table holding the members, {@code null} for empty slots. */
+  private CompactDn[] table;
+  /** The number of members in this set. */
+  private int size;
+
+  /** Creates a new empty set. */
+  CompactDnSet()
+  {
+    this(0);
+  }
+
+  /**
+   * Creates a new empty set able to hold the provided number of members without being resized.
+   *
+   * @param expectedSize
+   *          the expected number of members
+   */
+  CompactDnSet(int expectedSize)
+  {
+    table = new CompactDn[capacityFor(expectedSize)];
+  }
+
+  /**
+   * Creates a new set containing the provided members.
+   *
+   * @param members
+   *          the members to add to the new set
+   */
+  CompactDnSet(Collection<CompactDn> members)
+  {
+    this(members.size());
+    addAll(members);
+  }
+
+  /** Returns the capacity keeping the load factor at or below 3/4 for the provided size. */
+  private static int capacityFor(int expectedSize)
+  {
+    int capacity = MIN_CAPACITY;
+    while (capacity - (capacity >>> 2) < expectedSize)
+    {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /** Returns the preferred slot of the provided member in a table of the provided length. */
+  private static int slotOf(Object member, int length)
+  {
+    int h = member.hashCode();
+    return (h ^ (h >>> 16)) & (length - 1);
+  }
+
+  /** Returns the slot of the provided member, or the empty slot where it would be inserted. */
+  private int findSlot(Object member)
+  {
+    int mask = table.length - 1;
+    int slot = slotOf(member, table.length);
+    while (table[slot] != null && !table[slot].equals(member))
+    {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  @Override
+  public int size()
+  {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o)
+  {
+    return o instanceof CompactDn && table[findSlot(o)] != null;
+  }
+
+  @Override
+  public boolean add(CompactDn member)
+  {
+    int slot = findSlot(member);
+    if (table[slot] != null)
+    {
+      return false;
+    }
+    if (size + 1 > table.length - (table.length >>> 2))
+    {
+      resize(table.length << 1);
+      slot = findSlot(member);
+    }
+    table[slot] = member;
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o)
+  {
+    if (!(o instanceof CompactDn))
+    {
+      return false;
+    }
+    int slot = findSlot(o);
+    if (table[slot] == null)
+    {
+      return false;
+    }
+    // Shift back the following members of the cluster so that lookups do not stop at the freed slot
+    int mask = table.length - 1;
+    int free = slot;
+    int next = slot;
+    while (true)
+    {
+      next = (next + 1) & mask;
+      CompactDn member = table[next];
+      if (member == null)
+      {
+        break;
+      }
+      int preferred = slotOf(member, table.length);
+      boolean canMove = free <= next ? preferred <= free || preferred > next
+                                     : preferred <= free && preferred > next;
+      if (canMove)
+      {
+        table[free] = member;
+        free = next;
+      }
+    }
+    table[free] = null;
+    size--;
+    return true;
+  }
+
+  @Override
+  public void clear()
+  {
+    Arrays.fill(table, null);
+    size = 0;
+  }
+
+  private void resize(int capacity)
+  {
+    CompactDn[] oldTable = table;
+    table = new CompactDn[capacity];
+    for (CompactDn member : oldTable)
+    {
+      if (member != null)
+      {
+        table[findSlot(member)] = member;
+      }
+    }
+  }
+
+  @Override
+  public Iterator<CompactDn> iterator()
+  {
+    return new Iterator<CompactDn>()
+    {
+      private final CompactDn[] members = table;
+      private int nextSlot = advance(0);
+
+      private int advance(int slot)
+      {
+        while (slot < members.length && members[slot] == null)
+        {
+          slot++;
+        }
+        return slot;
+      }
+
+      @Override
+      public boolean hasNext()
+      {
+        return nextSlot < members.length;
+      }
+
+      @Override
+      public CompactDn next()
+      {
+        if (!hasNext())
+        {
+          throw new NoSuchElementException();
+        }
+        CompactDn member = members[nextSlot];
+        nextSlot = advance(nextSlot + 1);
+        return member;
+      }
+
+      @Override
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
@@ -0,0 +1,735 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.opendj.server.config.server.OffHeapEntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.Entry;
+import org.opends.server.types.EntryEncodeConfig;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache which keeps the cached
+ * entries outside of the JVM heap, so that large caches do not add to the
+ * amount of memory the garbage collector has to manage.
+ * <BR><BR>
+ * Entries are encoded with {@link Entry#encode(ByteStringBuilder, EntryEncodeConfig)},
+ * optionally using the compressed schema tokens, and appended to one of a
+ * fixed number of direct memory regions. Only the index from DNs and from
+ * backend/entry IDs to the location of the encoded entries lives on the heap.
+ * Entries are decoded each time they are read from the cache.
+ * <BR><BR>
+ * The regions are filled one after the other. When the last one is full, the
+ * oldest region is reused: all the entries it holds are purged from the cache,
+ * which gives a FIFO eviction policy with the granularity of a region. Removed
+ * or replaced entries only release their space when their region is reused.
+ * <BR><BR>
+ * Lookups never block: readers copy the encoded entry out of its region then
+ * check that the region was not reused in the meantime. Changes to the cache
+ * contents are serialized, but entries are encoded before the lock is taken.
+ */
+public class OffHeapEntryCache
+       extends EntryCache<OffHeapEntryCacheCfg>
+       implements ConfigurationChangeListener<OffHeapEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The minimum number of regions, which bounds the fraction of the cache purged at once. */
+  private static final int MIN_REGIONS = 16;
+
+  /** The maximum size of a region, a direct buffer cannot be larger than 2GB. */
+  private static final long MAX_REGION_SIZE = 1L << 30;
+
+  private static final int BUFFER_INIT_SIZE = 512;
+  private static final int BUFFER_MAX_SIZE = 64 * 1024;
+
+  /** Per-thread buffers used to encode entries before they are copied to a region. */
+  private static final ThreadLocal<ByteStringBuilder> encodeBuffers = new ThreadLocal<ByteStringBuilder>()
+  {
+    @Override
+    protected ByteStringBuilder initialValue()
+    {
+      return new ByteStringBuilder(BUFFER_INIT_SIZE);
+    }
+  };
+
+  /** The location of an encoded entry. */
+  private static final class Slot
+  {
+    private final DN dn;
+    private final String backendID;
+    private final long entryID;
+    private final Region region;
+    private final int generation;
+    private final int offset;
+    private final int length;
+
+    private Slot(DN dn, String backendID, long entryID, Region region, int offset, int length)
+    {
+      this.dn = dn;
+      this.backendID = backendID;
+      this.entryID = entryID;
+      this.region = region;
+      this.generation = region.generation;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /**
+   * A direct memory region where encoded entries are appended. Each time the
+   * region is reused, its generation is incremented under the write lock so
+   * that readers still copying an entry out of it can detect it.
+   */
+  private static final class Region
+  {
+    private final int capacity;
+    private final StampedLock lock = new StampedLock();
+    /** Allocated when the region is used for the first time. */
+    private volatile ByteBuffer buffer;
+    private volatile int generation;
+    /** Guarded by the write lock of the cache. */
+    private int position;
+    /** The slots of this region, guarded by the write lock of the cache. */
+    private final List<Slot> slots = new ArrayList<>();
+
+    private Region(int capacity)
+    {
+      this.capacity = capacity;
+    }
+
+    private void reset()
+    {
+      long stamp = lock.writeLock();
+      try
+      {
+        generation++;
+        position = 0;
+        slots.clear();
+      }
+      finally
+      {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /** The mapping between DNs and slots. */
+  private final ConcurrentMap<DN, Slot> dnMap = new ConcurrentHashMap<>();
+
+  /** The mapping between entry backends/IDs and slots. */
+  private final ConcurrentMap<String, ConcurrentMap<Long, Slot>> idMap = new ConcurrentHashMap<>();
+
+  /** Serializes all the changes to the cache contents. */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /** The regions of this cache, only changed when the cache is initialized. */
+  private Region[] regions;
+
+  /** The index of the region where entries are currently appended, guarded by the write lock. */
+  private int currentRegion;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** The maximum amount of direct memory used by the regions. */
+  private long maxMemorySize;
+
+  /** The configuration used to encode entries. */
+  private volatile EntryEncodeConfig encodeConfig;
+
+  /** Currently registered configuration object. */
+  private OffHeapEntryCacheCfg registeredConfiguration;
+
+  /** Creates a new instance of this off-heap entry cache. */
+  public OffHeapEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, OffHeapEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addOffHeapChangeListener(this);
+
+    // The regions are allocated lazily, so this does not reserve any memory.
+    maxMemorySize = configuration.getMaxMemorySize();
+    int nbRegions = (int) Math.max(MIN_REGIONS, (maxMemorySize + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE);
+    int regionSize = (int) (maxMemorySize / nbRegions);
+    regions = new Region[nbRegions];
+    for (int i = 0; i < nbRegions; i++)
+    {
+      regions[i] = new Region(regionSize);
+    }
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_OFFHEAPCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeOffHeapChangeListener(this);
+
+    writeLock.lock();
+    try
+    {
+      clearLocked();
+      // Let the garbage collector release the direct memory.
+      for (Region region : regions)
+      {
+        region.buffer = null;
+      }
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    return decode(dnMap.get(entryDN));
+  }
+
+  @Override
+  public Entry getEntry(String backendID, long entryID)
+  {
+    Map<Long, Slot> backendMap = idMap.get(backendID);
+    return decode(backendMap != null ? backendMap.get(entryID) : null);
+  }
+
+  /**
+   * Decodes the entry stored in the provided slot, recording a cache hit or
+   * miss.
+   *
+   * @return the decoded entry, or {@code null} if the slot is {@code null}
+   *         or its region was reused since the slot was read from the index
+   */
+  private Entry decode(Slot slot)
+  {
+    byte[] bytes = slot != null ? read(slot) : null;
+    if (bytes == null)
+    {
+      misses.increment();
+      return null;
+    }
+
+    try
+    {
+      Entry entry = Entry.decode(ByteString.wrap(bytes).asReader());
+      entry.setDN(slot.dn);
+      hits.increment();
+      return entry;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      misses.increment();
+      return null;
+    }
+  }
+
+  /** Copies the encoded entry out of its region, returns {@code null} if the region was reused. */
+  private byte[] read(Slot slot)
+  {
+    final Region region = slot.region;
+    final long stamp = region.lock.tryOptimisticRead();
+    final ByteBuffer buffer = region.buffer;
+    if (buffer == null || region.generation != slot.generation)
+    {
+      return null;
+    }
+    byte[] bytes = new byte[slot.length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(slot.offset);
+    view.get(bytes);
+    return region.lock.validate(stamp) ? bytes : null;
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    Slot slot = dnMap.get(entryDN);
+    return slot != null ? slot.entryID : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    Map<Long, Slot> backendMap = idMap.get(backendID);
+    if (backendMap != null)
+    {
+      Slot slot = backendMap.get(entryID);
+      if (slot != null)
+      {
+        return slot.dn;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    putEntry(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return putEntry(entry, backendID, entryID, true);
+  }
+
+  /**
+   * Encodes the provided entry then appends it to the current region.
+   *
+   * @return {@code false} if the entry was already present and
+   *         {@code ifAbsent} is set, or if the outcome cannot be determined
+   */
+  private boolean putEntry(Entry entry, String backendID, long entryID, boolean ifAbsent)
+  {
+    final DN entryDN = entry.getName();
+    if (ifAbsent && dnMap.containsKey(entryDN))
+    {
+      return false;
+    }
+
+    final ByteStringBuilder encoded = encodeBuffers.get();
+    try
+    {
+      encoded.clear();
+      entry.encode(encoded, encodeConfig);
+
+      writeLock.lock();
+      try
+      {
+        if (ifAbsent && dnMap.containsKey(entryDN))
+        {
+          return false;
+        }
+        removeLocked(entryDN);
+        if (encoded.length() > regions[currentRegion].capacity)
+        {
+          // Too large to be cached, but the previous version is gone anyway.
+          return true;
+        }
+        append(entryDN, backendID, entryID, encoded);
+        return true;
+      }
+      finally
+      {
+        writeLock.unlock();
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // We can't be sure there wasn't a conflict, so return false.
+      return false;
+    }
+    finally
+    {
+      encoded.clearAndTruncate(BUFFER_MAX_SIZE, BUFFER_INIT_SIZE);
+    }
+  }
+
+  /** Appends an encoded entry, reusing the oldest region if needed. The write lock must be held. */
+  private void append(DN entryDN, String backendID, long entryID, ByteStringBuilder encoded)
+  {
+    Region region = regions[currentRegion];
+    if (region.position + encoded.length() > region.capacity)
+    {
+      currentRegion = (currentRegion + 1) % regions.length;
+      region = regions[currentRegion];
+      evictLocked(region);
+    }
+    if (region.buffer == null)
+    {
+      region.buffer = ByteBuffer.allocateDirect(region.capacity);
+    }
+
+    ByteBuffer view = region.buffer.duplicate();
+    view.position(region.position);
+    encoded.copyTo(view);
+
+    Slot slot = new Slot(entryDN, backendID, entryID, region, region.position, encoded.length());
+    region.position += slot.length;
+    region.slots.add(slot);
+    dnMap.put(entryDN, slot);
+    getBackendMap(backendID).put(entryID, slot);
+  }
+
+  private ConcurrentMap<Long, Slot> getBackendMap(String backendID)
+  {
+    ConcurrentMap<Long, Slot> backendMap = idMap.get(backendID);
+    if (backendMap == null)
+    {
+      backendMap = new ConcurrentHashMap<>();
+      idMap.put(backendID, backendMap);
+    }
+    return backendMap;
+  }
+
+  /** Purges all the entries of the provided region and resets it. The write lock must be held. */
+  private void evictLocked(Region region)
+  {
+    for (Slot slot : region.slots)
+    {
+      if (removeLocked(slot))
+      {
+        evictions.increment();
+      }
+    }
+    region.reset();
+  }
+
+  /** Removes the slot of the provided DN from the index. The write lock must be held. */
+  private void removeLocked(DN entryDN)
+  {
+    Slot slot = dnMap.get(entryDN);
+    if (slot != null)
+    {
+      removeLocked(slot);
+    }
+  }
+
+  /**
+   * Removes the provided slot from the index if it is still referenced. The
+   * write lock must be held.
+   *
+   * @return {@code true} if the slot was referenced by the index
+   */
+  private boolean removeLocked(Slot slot)
+  {
+    boolean removed = dnMap.remove(slot.dn, slot);
+    Map<Long, Slot> backendMap = idMap.get(slot.backendID);
+    if (backendMap != null)
+    {
+      backendMap.remove(slot.entryID, slot);
+    }
+    return removed;
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    writeLock.lock();
+    try
+    {
+      removeLocked(entryDN);
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    writeLock.lock();
+    try
+    {
+      clearLocked();
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  /** Empties the index and all the regions. The write lock must be held. */
+  private void clearLocked()
+  {
+    dnMap.clear();
+    idMap.clear();
+    for (Region region : regions)
+    {
+      region.reset();
+    }
+    currentRegion = 0;
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    writeLock.lock();
+    try
+    {
+      // Remove all references to entries for this backend from the ID cache.
+      Map<Long, Slot> backendMap = idMap.remove(backendID);
+      if (backendMap != null)
+      {
+        for (Slot slot : backendMap.values())
+        {
+          dnMap.remove(slot.dn, slot);
+        }
+      }
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // Only the index lives on the heap.  If there are less than 1000 entries,
+    // then we'll dump all of them.  Otherwise, purge the oldest 10% of the
+    // regions, but never the one entries are currently appended to.
+    writeLock.lock();
+    try
+    {
+      if (dnMap.size() < 1000)
+      {
+        clearLocked();
+        return;
+      }
+      for (int i = 1; i <= regions.length / 10; i++)
+      {
+        evictLocked(regions[(currentRegion + i) % regions.length]);
+      }
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    OffHeapEntryCacheCfg config = (OffHeapEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      OffHeapEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(OffHeapEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    // The regions are only allocated when the cache is initialized.
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired()
+        || configuration.getMaxMemorySize() != maxMemorySize);
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      OffHeapEntryCacheCfg                configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    boolean compact = configuration.isCompactEncoding();
+
+    // Get include and exclude filters.
+    Set<SearchFilter> newIncludeFilters = EntryCacheCommon.getFilters (
+        configuration.getIncludeFilter(),
+        ERR_CACHE_INVALID_INCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+    Set<SearchFilter> newExcludeFilters = EntryCacheCommon.getFilters (
+        configuration.getExcludeFilter(),
+        ERR_CACHE_INVALID_EXCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      // The DN is already held by the index, no need to encode it.
+      encodeConfig = new EntryEncodeConfig(true, compact, compact);
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public long getCacheHits()
+  {
+    return hits.sum();
+  }
+
+  @Override
+  public long getCacheMisses()
+  {
+    return misses.sum();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      long usedMemory = 0;
+      for (Region region : regions)
+      {
+        usedMemory += region.position;
+      }
+      MonitorData monitorData = EntryCacheCommon.getGenericMonitorData(
+        hits.sum(),
+        misses.sum(),
+        usedMemory,
+        maxMemorySize,
+        Long.valueOf(dnMap.size()),
+        null
+        );
+      monitorData.add("entryCacheEvictions", evictions.sum());
+      return monitorData;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return Long.valueOf(dnMap.size());
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+
+    // The maps are concurrent, so they can be examined without locking,
+    // although the result may not be entirely consistent.
+    for (Slot slot : dnMap.values()) {
+      sb.append(slot.dn);
+      sb.append(":");
+      sb.append(slot.entryID);
+      sb.append(":");
+      sb.append(slot.backendID);
+      sb.append(ServerConstants.EOL);
+    }
+
+    // See if there is anything on idMap that is not reflected on
+    // dnMap in case maps went out of sync.
+    for (Map<Long, Slot> backendMap : idMap.values()) {
+      for (Slot slot : backendMap.values()) {
+        if (!dnMap.containsKey(slot.dn)) {
+          sb.append(slot.dn);
+          sb.append(":");
+          sb.append(slot.entryID);
+          sb.append(":");
+          sb.append(slot.backendID);
+          sb.append(ServerConstants.EOL);
+        }
+      }
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
@@ -0,0 +1,667 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ConfigMessages.*;
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.server.config.server.RingBufferWorkQueueCfg;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.monitors.RingBufferWorkQueueMonitor;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.Operation;
+
+/**
+ * A Directory Server work queue holding the pending operations in preallocated
+ * lock-free ring buffers. Binds, writes and the other operations are queued in
+ * separate lanes: worker threads always serve binds first and alternate between
+ * the write and the other lanes, so that a flood of searches cannot starve binds
+ * or writes.
+ */
+public class RingBufferWorkQueue extends WorkQueue<RingBufferWorkQueueCfg>
+    implements ConfigurationChangeListener<RingBufferWorkQueueCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The lane of bind operations. */
+  public static final int BIND_LANE = 0;
+  /** The lane of add, delete, modify and modify DN operations. */
+  public static final int WRITE_LANE = 1;
+  /** The lane of all the other operations. */
+  public static final int OTHER_LANE = 2;
+  private static final int NB_LANES = 3;
+
+  /** How long a submitter waits before checking again whether a full lane has available capacity. */
+  private static final long FULL_LANE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /**
+   * A bounded multi-producer multi-consumer queue backed by a preallocated
+   * array. Each slot carries a sequence number telling producers and consumers
+   * whether it is free or holds a published operation, so that enqueuing and
+   * dequeuing only require a compare-and-set on the tail or head counter.
+   */
+  static final class Lane
+  {
+    private final AtomicReferenceArray<Operation> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    Lane(int capacity)
+    {
+      int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+      slots = new AtomicReferenceArray<>(size);
+      sequences = new AtomicLongArray(size);
+      for (int i = 0; i < size; i++)
+      {
+        sequences.set(i, i);
+      }
+      mask = size - 1;
+    }
+
+    boolean offer(Operation operation)
+    {
+      long pos = tail.get();
+      while (true)
+      {
+        int index = (int) (pos & mask);
+        long diff = sequences.get(index) - pos;
+        if (diff == 0)
+        {
+          if (tail.compareAndSet(pos, pos + 1))
+          {
+            slots.lazySet(index, operation);
+            sequences.set(index, pos + 1);
+            return true;
+          }
+          pos = tail.get();
+        }
+        else if (diff < 0)
+        {
+          // The slot still holds the operation queued one lap before: the lane is full.
+          return false;
+        }
+        else
+        {
+          pos = tail.get();
+        }
+      }
+    }
+
+    Operation poll()
+    {
+      long pos = head.get();
+      while (true)
+      {
+        int index = (int) (pos & mask);
+        long diff = sequences.get(index) - (pos + 1);
+        if (diff == 0)
+        {
+          if (head.compareAndSet(pos, pos + 1))
+          {
+            Operation operation = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, pos + mask + 1);
+            return operation;
+          }
+          pos = head.get();
+        }
+        else if (diff < 0)
+        {
+          // The slot has not been published yet: the lane is empty.
+          return null;
+        }
+        else
+        {
+          pos = head.get();
+        }
+      }
+    }
+
+    int size()
+    {
+      long size = tail.get() - head.get();
+      return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    int capacity()
+    {
+      return mask + 1;
+    }
+  }
+
+  /** The set of worker threads that will be used to process this work queue. */
+  private final List<RingBufferWorkerThread> workerThreads = new ArrayList<>();
+
+  private final Lane[] lanes = new Lane[NB_LANES];
+
+  /**
+   * Counts the operations published in the lanes and not yet claimed by a
+   * worker thread. Idle worker threads wait on it.
+   */
+  private final Semaphore pendingOperations = new Semaphore(0);
+
+  private final LongAdder opsSubmitted = new LongAdder();
+  private final LongAdder queueFullRejects = new LongAdder();
+  private final LongAdder[] laneOpsSubmitted = new LongAdder[NB_LANES];
+
+  /**
+   * Indicates whether one or more of the worker threads needs to be killed at
+   * the next convenient opportunity.
+   */
+  private volatile boolean killThreads;
+
+  /** Indicates whether the Directory Server is shutting down. */
+  private volatile boolean shutdownRequested;
+
+  /** The thread number used for the last worker thread that was created. */
+  private int lastThreadNumber;
+
+  /**
+   * The number of worker threads that should be active (or will be shortly if a
+   * configuration change has not been completely applied).
+   */
+  private volatile int numWorkerThreads;
+
+  /**
+   * Creates a new instance of this work queue. All initialization should be
+   * performed in the <CODE>initializeWorkQueue</CODE> method.
+   */
+  public RingBufferWorkQueue()
+  {
+    // No implementation should be performed here.
+  }
+
+  @Override
+  public void initializeWorkQueue(RingBufferWorkQueueCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    shutdownRequested = false;
+    killThreads = false;
+    for (int i = 0; i < NB_LANES; i++)
+    {
+      lanes[i] = new Lane(configuration.getMaxWorkQueueCapacity());
+      laneOpsSubmitted[i] = new LongAdder();
+    }
+
+    // Register to be notified of any configuration changes.
+    configuration.addRingBufferChangeListener(this);
+
+    numWorkerThreads = computeNumWorkerThreads(configuration.getNumWorkerThreads());
+    synchronized (workerThreads)
+    {
+      for (lastThreadNumber = 0; lastThreadNumber < numWorkerThreads; lastThreadNumber++)
+      {
+        RingBufferWorkerThread t = new RingBufferWorkerThread(this, lastThreadNumber);
+        t.start();
+        workerThreads.add(t);
+      }
+    }
+
+    // Create and register a monitor provider for the work queue.
+    try
+    {
+      RingBufferWorkQueueMonitor monitor = new RingBufferWorkQueueMonitor(this);
+      monitor.initializeMonitorProvider(null);
+      DirectoryServer.registerMonitorProvider(monitor);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      logger.error(ERR_CONFIG_WORK_QUEUE_CANNOT_CREATE_MONITOR, RingBufferWorkQueueMonitor.class, e);
+    }
+  }
+
+  @Override
+  public void finalizeWorkQueue(LocalizableMessage reason)
+  {
+    shutdownRequested = true;
+
+    // From now on no more operations can be enqueued. Send responses to any
+    // operations in the pending queue to indicate that they won't be processed
+    // because the server is shutting down.
+    abortPendingOperations(new CancelRequest(true, reason));
+
+    // Notify all the worker threads of the shutdown.
+    synchronized (workerThreads)
+    {
+      for (RingBufferWorkerThread t : workerThreads)
+      {
+        try
+        {
+          t.shutDown();
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+          logger.warn(WARN_QUEUE_UNABLE_TO_NOTIFY_THREAD, t.getName(), e);
+        }
+      }
+    }
+  }
+
+  private void abortPendingOperations(CancelRequest cancelRequest)
+  {
+    for (Lane lane : lanes)
+    {
+      Operation o;
+      while ((o = lane.poll()) != null)
+      {
+        try
+        {
+          // The operation has no chance of responding to the cancel
+          // request so avoid waiting for a cancel response.
+          if (o.getCancelResult() == null)
+          {
+            o.abort(cancelRequest);
+          }
+        }
+        catch (Exception e)
+        {
+          logger.traceException(e);
+          logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, o, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Indicates whether this work queue has received a request to shut down.
+   *
+   * @return <CODE>true</CODE> if the work queue has recieved a request to shut
+   *         down, or <CODE>false</CODE> if not.
+   */
+  public boolean shutdownRequested()
+  {
+    return shutdownRequested;
+  }
+
+  /**
+   * Submits an operation to be processed by one of the worker threads
+   * associated with this work queue.
+   *
+   * @param operation
+   *          The operation to be processed.
+   * @throws DirectoryException
+   *           If the provided operation is not accepted for some reason (e.g.,
+   *           if the server is shutting down).
+   */
+  @Override
+  public void submitOperation(Operation operation) throws DirectoryException
+  {
+    submitOperation(operation, true);
+  }
+
+  @Override
+  public boolean trySubmitOperation(Operation operation) throws DirectoryException
+  {
+    try
+    {
+      submitOperation(operation, false);
+      return true;
+    }
+    catch (DirectoryException e)
+    {
+      if (ResultCode.BUSY == e.getResultCode())
+      {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  private void submitOperation(Operation operation, boolean blockEnqueuingWhenFull) throws DirectoryException
+  {
+    if (shutdownRequested)
+    {
+      throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+    }
+
+    int laneIndex = laneOf(operation);
+    Lane lane = lanes[laneIndex];
+    while (!lane.offer(operation))
+    {
+      if (!blockEnqueuingWhenFull)
+      {
+        queueFullRejects.increment();
+        throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_FULL.get(lane.capacity()));
+      }
+      // The lane is full: wait for the worker threads to catch up.
+      LockSupport.parkNanos(this, FULL_LANE_PARK_NANOS);
+      if (Thread.interrupted())
+      {
+        // We cannot handle the interruption here. Reject the request and
+        // re-interrupt this thread.
+        Thread.currentThread().interrupt();
+        queueFullRejects.increment();
+        throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_INTERRUPT.get());
+      }
+      if (shutdownRequested)
+      {
+        throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+      }
+    }
+    opsSubmitted.increment();
+    laneOpsSubmitted[laneIndex].increment();
+    pendingOperations.release();
+
+    if (shutdownRequested)
+    {
+      // The shutdown started while the operation was being enqueued, it might
+      // have missed it.
+      abortPendingOperations(new CancelRequest(true, WARN_OP_REJECTED_BY_SHUTDOWN.get()));
+    }
+  }
+
+  /**
+   * Returns the lane in which the provided operation is queued.
+   *
+   * @param operation
+   *          The operation.
+   * @return the lane in which the provided operation is queued.
+   */
+  static int laneOf(Operation operation)
+  {
+    switch (operation.getOperationType())
+    {
+    case BIND:
+      return BIND_LANE;
+    case ADD:
+    case DELETE:
+    case MODIFY:
+    case MODIFY_DN:
+      return WRITE_LANE;
+    default:
+      return OTHER_LANE;
+    }
+  }
+
+  /**
+   * Retrieves the next operation that should be processed by one of the worker
+   * threads, blocking if necessary until a new request arrives. This method
+   * should only be called by a worker thread associated with this work queue.
+   *
+   * @param workerThread
+   *          The worker thread that is requesting the operation.
+   * @return The next operation that should be processed, or <CODE>null</CODE>
+   *         if the server is shutting down or the worker thread must exit
+   *         because the number of worker threads has been reduced.
+   */
+  public Operation nextOperation(RingBufferWorkerThread workerThread)
+  {
+    while (true)
+    {
+      if (shutdownRequested)
+      {
+        return null;
+      }
+      if (killThreads && tryKillThisWorkerThread(workerThread))
+      {
+        return null;
+      }
+
+      try
+      {
+        if (!pendingOperations.tryAcquire(5, TimeUnit.SECONDS))
+        {
+          // There was no work to do in the specified length of time: check
+          // again whether this thread should exit.
+          continue;
+        }
+      }
+      catch (InterruptedException ie)
+      {
+        // If this occurs, then the worker thread must have been interrupted for
+        // some reason. This could be because the Directory Server is shutting
+        // down, in which case we should return null.
+        if (shutdownRequested)
+        {
+          return null;
+        }
+        logger.warn(WARN_WORKER_INTERRUPTED_WITHOUT_SHUTDOWN, Thread.currentThread().getName(), ie);
+        continue;
+      }
+
+      // The permit guarantees an operation is published in one of the lanes for
+      // this thread. It might briefly be claimed by another thread which got
+      // its own permit later, so spin until one is found.
+      while (true)
+      {
+        Operation operation = pollLanes(workerThread);
+        if (operation != null)
+        {
+          return operation;
+        }
+        if (shutdownRequested)
+        {
+          return null;
+        }
+        Thread.yield();
+      }
+    }
+  }
+
+  private Operation pollLanes(RingBufferWorkerThread workerThread)
+  {
+    Operation operation = lanes[BIND_LANE].poll();
+    if (operation != null)
+    {
+      return operation;
+    }
+    int first = workerThread.nextLaneAfterBinds() ? WRITE_LANE : OTHER_LANE;
+    operation = lanes[first].poll();
+    if (operation != null)
+    {
+      return operation;
+    }
+    return lanes[first == WRITE_LANE ? OTHER_LANE : WRITE_LANE].poll();
+  }
+
+  /**
+   * Kills this worker thread if needed.
+   *
+   * @param workerThread
+   *          The worker thread associated with this thread.
+   * @return {@code true} if this thread was killed.
+   */
+  private boolean tryKillThisWorkerThread(RingBufferWorkerThread workerThread)
+  {
+    synchronized (workerThreads)
+    {
+      int currentThreads = workerThreads.size();
+      if (currentThreads > numWorkerThreads)
+      {
+        if (workerThreads.remove(Thread.currentThread()))
+        {
+          currentThreads--;
+        }
+
+        if (currentThreads <= numWorkerThreads)
+        {
+          killThreads = false;
+        }
+
+        workerThread.setStoppedByReducedThreadNumber();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Retrieves the total number of operations that have been successfully
+   * submitted to this work queue for processing since server startup. This does
+   * not include operations that have been rejected for some reason like the
+   * queue already at its maximum capacity.
+   *
+   * @return The total number of operations that have been successfully
+   *         submitted to this work queue since startup.
+   */
+  public long getOpsSubmitted()
+  {
+    return opsSubmitted.sum();
+  }
+
+  /**
+   * Retrieves the total number of operations of a lane that have been
+   * successfully submitted to this work queue since server startup.
+   *
+   * @param lane
+   *          One of {@link #BIND_LANE}, {@link #WRITE_LANE} or {@link #OTHER_LANE}.
+   * @return The total number of operations of the lane submitted since startup.
+   */
+  public long getOpsSubmitted(int lane)
+  {
+    return laneOpsSubmitted[lane].sum();
+  }
+
+  /**
+   * Retrieves the total number of operations that have been rejected because
+   * the work queue was already at its maximum capacity.
+   *
+   * @return The total number of operations that have been rejected because the
+   *         work queue was already at its maximum capacity.
+   */
+  public long getOpsRejectedDueToQueueFull()
+  {
+    return queueFullRejects.sum();
+  }
+
+  /**
+   * Retrieves the number of pending operations in the queue that have not yet
+   * been picked up for processing.
+   *
+   * @return The number of pending operations in the queue that have not yet
+   *         been picked up for processing.
+   */
+  public int size()
+  {
+    int size = 0;
+    for (Lane lane : lanes)
+    {
+      size += lane.size();
+    }
+    return size;
+  }
+
+  /**
+   * Retrieves the number of pending operations in a lane that have not yet
+   * been picked up for processing.
+   *
+   * @param lane
+   *          One of {@link #BIND_LANE}, {@link #WRITE_LANE} or {@link #OTHER_LANE}.
+   * @return The number of pending operations in the lane.
+   */
+  public int size(int lane)
+  {
+    return lanes[lane].size();
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      RingBufferWorkQueueCfg configuration, List<LocalizableMessage> unacceptableReasons)
+  {
+    return true;
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(RingBufferWorkQueueCfg configuration)
+  {
+    final ConfigChangeResult ccr = new ConfigChangeResult();
+    int newNumThreads = computeNumWorkerThreads(configuration.getNumWorkerThreads());
+
+    // Apply a change to the number of worker threads if appropriate.
+    synchronized (workerThreads)
+    {
+      int threadsToAdd = newNumThreads - workerThreads.size();
+      if (threadsToAdd > 0)
+      {
+        for (int i = 0; i < threadsToAdd; i++)
+        {
+          RingBufferWorkerThread t = new RingBufferWorkerThread(this, lastThreadNumber++);
+          workerThreads.add(t);
+          t.start();
+        }
+        killThreads = false;
+      }
+      else if (threadsToAdd < 0)
+      {
+        killThreads = true;
+      }
+      numWorkerThreads = newNumThreads;
+    }
+
+    // The lanes are preallocated, a new capacity needs a restart.
+    if (configuration.getMaxWorkQueueCapacity() > lanes[BIND_LANE].capacity()
+        || configuration.getMaxWorkQueueCapacity() <= lanes[BIND_LANE].capacity() / 2)
+    {
+      ccr.setAdminActionRequired(true);
+    }
+    return ccr;
+  }
+
+  @Override
+  public boolean isIdle()
+  {
+    if (size() > 0)
+    {
+      return false;
+    }
+
+    synchronized (workerThreads)
+    {
+      for (RingBufferWorkerThread t : workerThreads)
+      {
+        if (t.isActive())
+        {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the number of worker threads used by this WorkQueue.
+   *
+   * @return the number of worker threads used by this WorkQueue
+   */
+  @Override
+  public int getNumWorkerThreads()
+  {
+    return numWorkerThreads;
+  }
+}
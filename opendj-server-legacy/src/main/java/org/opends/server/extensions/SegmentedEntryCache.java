@@ -0,0 +1,818 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ExtensionMessages.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.server.config.server.EntryCacheCfg;
+import org.forgerock.opendj.server.config.server.SegmentedEntryCacheCfg;
+import org.forgerock.util.Utils;
+import org.opends.server.api.EntryCache;
+import org.opends.server.api.MonitorData;
+import org.opends.server.core.ServerContext;
+import org.opends.server.types.CacheEntry;
+import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.SearchFilter;
+import org.opends.server.util.ServerConstants;
+
+/**
+ * This class defines a Directory Server entry cache designed for read-heavy
+ * loads on servers with many CPUs.
+ * <BR><BR>
+ * Lookups by DN and by backend and entry ID go straight to concurrent maps and
+ * never take a lock. Every cached entry belongs to one segment, chosen by the
+ * hash of its DN, and only that segment is locked when the entry is added,
+ * replaced or removed, so writers only contend with other writers hashing to
+ * the same segment.
+ * <BR><BR>
+ * Eviction follows the CLOCK algorithm, which approximates LRU: a read marks
+ * the entry as referenced, and the eviction hand of a segment gives referenced
+ * entries a second chance before purging the first unreferenced one. Sizing
+ * rules are the same as the {@link FIFOEntryCache}: a maximum percentage of
+ * JVM memory and an optional maximum number of entries.
+ * <BR><BR>
+ * In addition to the generic entry cache monitor attributes, the number of
+ * evictions and of contended segment lock acquisitions is reported.
+ */
+public class SegmentedEntryCache
+       extends EntryCache<SegmentedEntryCacheCfg>
+       implements ConfigurationChangeListener<SegmentedEntryCacheCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The reference to the Java runtime used to determine the amount of memory currently in use. */
+  private static final Runtime runtime = Runtime.getRuntime();
+
+  /** Number of segments per available CPU when the number of segments is not configured. */
+  private static final int DEFAULT_SEGMENTS_PER_CPU = 4;
+
+  /** A cached entry, linked into the eviction ring of the segment owning its DN. */
+  private static final class Node
+  {
+    private final CacheEntry cacheEntry;
+    /** Set by readers, cleared when the eviction hand passes over this node. */
+    private volatile boolean referenced;
+    /** Guarded by the lock of the owning segment. */
+    private Node prev;
+    /** Guarded by the lock of the owning segment. */
+    private Node next;
+
+    private Node(CacheEntry cacheEntry)
+    {
+      this.cacheEntry = cacheEntry;
+    }
+  }
+
+  /**
+   * A segment of the cache. The lock of a segment must be held while changing
+   * the mapping of any DN hashing to it, so that the maps and the eviction ring
+   * always agree: a node is linked in the ring if and only if the DN map
+   * references it.
+   */
+  private final class Segment
+  {
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Sentinel of the eviction ring, the eldest node follows it. */
+    private final Node ring = new Node(null);
+    private int size;
+
+    private Segment()
+    {
+      ring.prev = ring;
+      ring.next = ring;
+    }
+
+    private void lock()
+    {
+      if (!lock.tryLock())
+      {
+        lockContentions.increment();
+        lock.lock();
+      }
+    }
+
+    private boolean tryLock(long timeoutInMillis) throws InterruptedException
+    {
+      if (lock.tryLock())
+      {
+        return true;
+      }
+      lockContentions.increment();
+      return lock.tryLock(timeoutInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void unlock()
+    {
+      lock.unlock();
+    }
+
+    private void link(Node node)
+    {
+      node.prev = ring.prev;
+      node.next = ring;
+      ring.prev.next = node;
+      ring.prev = node;
+      size++;
+    }
+
+    private void unlink(Node node)
+    {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    /**
+     * Moves the eviction hand until it finds an unreferenced node, clearing the
+     * reference of the nodes it passes over.
+     *
+     * @param protectedNode
+     *          a node which must not be selected, may be {@code null}
+     * @return the node to evict, or {@code null} if there is none
+     */
+    private Node nextVictim(Node protectedNode)
+    {
+      // Readers may keep setting references: do not turn more than twice.
+      for (int i = 2 * size; i > 0; i--)
+      {
+        final Node node = ring.next;
+        if (node == ring)
+        {
+          return null;
+        }
+        if (node != protectedNode && !node.referenced)
+        {
+          return node;
+        }
+        node.referenced = false;
+        unlink(node);
+        link(node);
+      }
+      final Node eldest = ring.next != protectedNode ? ring.next : protectedNode.next;
+      return eldest != ring ? eldest : null;
+    }
+
+    private void clear()
+    {
+      ring.prev = ring;
+      ring.next = ring;
+      size = 0;
+    }
+  }
+
+  /** The mapping between DNs and cached entries. */
+  private ConcurrentMap<DN, Node> dnMap;
+
+  /** The mapping between entry backends/IDs and cached entries. */
+  private ConcurrentMap<String, ConcurrentMap<Long, Node>> idMap;
+
+  /** The segments of this cache, their number is a power of two. */
+  private Segment[] segments;
+
+  /** The number of entries currently in the cache. */
+  private final AtomicLong entryCount = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder lockContentions = new LongAdder();
+
+  /**
+   * The maximum amount of memory in bytes that the JVM will be allowed to use
+   * before we need to start purging entries.
+   */
+  private volatile long maxAllowedMemory;
+
+  /** The maximum number of entries that may be held in the cache. */
+  private volatile long maxEntries;
+
+  /** The maximum length of time to try to obtain a segment lock before giving up. */
+  private volatile long lockTimeout = 2000;
+
+  /** Currently registered configuration object. */
+  private SegmentedEntryCacheCfg registeredConfiguration;
+
+  /** Creates a new instance of this segmented entry cache. */
+  public SegmentedEntryCache()
+  {
+    super();
+    // All initialization should be performed in the initializeEntryCache.
+  }
+
+  @Override
+  public void initializeEntryCache(ServerContext serverContext, SegmentedEntryCacheCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    registeredConfiguration = configuration;
+    configuration.addSegmentedChangeListener(this);
+
+    // Initialize the cache structures.
+    dnMap = new ConcurrentHashMap<>();
+    idMap = new ConcurrentHashMap<>();
+    segments = new Segment[getNumberOfSegments(configuration)];
+    for (int i = 0; i < segments.length; i++)
+    {
+      segments[i] = new Segment();
+    }
+
+    // Read configuration and apply changes.
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_INIT, null, errorMessages
+          );
+    if (!processEntryCacheConfig(configuration, applyChanges, errorHandler)) {
+      String buffer = Utils.joinAsString(".  ", errorMessages);
+      throw new ConfigException(ERR_SEGMENTEDCACHE_CANNOT_INITIALIZE.get(buffer));
+    }
+  }
+
+  /**
+   * Returns the number of segments to use for the provided configuration,
+   * rounded up to the next power of two.
+   */
+  private static int getNumberOfSegments(SegmentedEntryCacheCfg configuration)
+  {
+    Integer configured = configuration.getNumberOfSegments();
+    int n = configured != null
+        ? configured
+        : DEFAULT_SEGMENTS_PER_CPU * Runtime.getRuntime().availableProcessors();
+    return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+  }
+
+  @Override
+  public void finalizeEntryCache()
+  {
+    registeredConfiguration.removeSegmentedChangeListener(this);
+
+    // Release all memory currently in use by this cache.
+    clear();
+  }
+
+  @Override
+  public boolean containsEntry(DN entryDN)
+  {
+    return entryDN != null && dnMap.containsKey(entryDN);
+  }
+
+  @Override
+  public Entry getEntry(DN entryDN)
+  {
+    return toEntry(dnMap.get(entryDN));
+  }
+
+  @Override
+  public Entry getEntry(String backendID, long entryID)
+  {
+    Map<Long, Node> backendMap = idMap.get(backendID);
+    return toEntry(backendMap != null ? backendMap.get(entryID) : null);
+  }
+
+  /** Records a cache hit or miss and returns the entry held by the provided node, if any. */
+  private Entry toEntry(Node node)
+  {
+    if (node == null)
+    {
+      misses.increment();
+      return null;
+    }
+    // Avoid writing to a shared cache line when the entry is already marked.
+    if (!node.referenced)
+    {
+      node.referenced = true;
+    }
+    hits.increment();
+    return node.cacheEntry.getEntry();
+  }
+
+  @Override
+  public long getEntryID(DN entryDN)
+  {
+    Node node = dnMap.get(entryDN);
+    return node != null ? node.cacheEntry.getEntryID() : -1;
+  }
+
+  @Override
+  public DN getEntryDN(String backendID, long entryID)
+  {
+    Map<Long, Node> backendMap = idMap.get(backendID);
+    if (backendMap != null)
+    {
+      Node node = backendMap.get(entryID);
+      if (node != null)
+      {
+        return node.cacheEntry.getDN();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void putEntry(Entry entry, String backendID, long entryID)
+  {
+    putEntry(entry, backendID, entryID, false);
+  }
+
+  @Override
+  public boolean putEntryIfAbsent(Entry entry, String backendID, long entryID)
+  {
+    return putEntry(entry, backendID, entryID, true);
+  }
+
+  /**
+   * Adds the provided entry to the cache, then evicts entries if the cache
+   * holds more than the maximum number of entries.
+   *
+   * @return {@code false} if the entry was already present and
+   *         {@code ifAbsent} is set, or if the outcome cannot be determined
+   */
+  private boolean putEntry(Entry entry, String backendID, long entryID, boolean ifAbsent)
+  {
+    final DN entryDN = entry.getName();
+    final int segmentIndex = segmentIndex(entryDN);
+    final Segment segment = segments[segmentIndex];
+
+    // Obtain a lock on the segment.  If this fails, then don't do anything.
+    try
+    {
+      if (!segment.tryLock(lockTimeout))
+      {
+        return false;
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      return false;
+    }
+
+    Node node = null;
+    try
+    {
+      Node existing = dnMap.get(entryDN);
+      if (ifAbsent && existing != null)
+      {
+        return false;
+      }
+
+      // See if the current memory usage is within acceptable constraints.  If
+      // not, then remove the existing entry, or another entry of this segment,
+      // and don't add the new entry.
+      long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+      if (usedMemory > maxAllowedMemory)
+      {
+        Node victim = existing != null ? existing : segment.nextVictim(null);
+        if (victim != null)
+        {
+          remove(segment, victim);
+          evictions.increment();
+        }
+        // We'll always return true in this case, even if we didn't actually
+        // add the entry due to memory constraints.
+        return true;
+      }
+
+      if (existing != null)
+      {
+        remove(segment, existing);
+      }
+      node = new Node(new CacheEntry(entry, backendID, entryID));
+      dnMap.put(entryDN, node);
+      getBackendMap(backendID).put(entryID, node);
+      segment.link(node);
+      entryCount.incrementAndGet();
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // We can't be sure there wasn't a conflict, so return false.
+      return false;
+    }
+    finally
+    {
+      segment.unlock();
+    }
+
+    evictOverflow(segmentIndex, node);
+    return true;
+  }
+
+  private ConcurrentMap<Long, Node> getBackendMap(String backendID)
+  {
+    ConcurrentMap<Long, Node> backendMap = idMap.get(backendID);
+    if (backendMap == null)
+    {
+      backendMap = new ConcurrentHashMap<>();
+      ConcurrentMap<Long, Node> previous = idMap.putIfAbsent(backendID, backendMap);
+      if (previous != null)
+      {
+        backendMap = previous;
+      }
+    }
+    return backendMap;
+  }
+
+  /**
+   * Evicts entries while the cache holds more than the maximum number of
+   * entries, starting with the segment where an entry was just added.
+   *
+   * @param firstSegmentIndex
+   *          the index of the segment to evict from first
+   * @param addedNode
+   *          the node which was just added and must not be evicted
+   */
+  private void evictOverflow(int firstSegmentIndex, Node addedNode)
+  {
+    final long max = maxEntries;
+    if (max <= 0)
+    {
+      return;
+    }
+    for (int i = 0; i < segments.length && entryCount.get() > max; i++)
+    {
+      final Segment segment = segments[(firstSegmentIndex + i) & (segments.length - 1)];
+      segment.lock();
+      try
+      {
+        while (entryCount.get() > max)
+        {
+          Node victim = segment.nextVictim(addedNode);
+          if (victim == null)
+          {
+            break;
+          }
+          remove(segment, victim);
+          evictions.increment();
+        }
+      }
+      finally
+      {
+        segment.unlock();
+      }
+    }
+  }
+
+  /**
+   * Removes a node referenced by the DN map from the cache. The lock of the
+   * provided segment, which must own the node, must be held.
+   */
+  private void remove(Segment segment, Node node)
+  {
+    final CacheEntry cacheEntry = node.cacheEntry;
+    dnMap.remove(cacheEntry.getDN(), node);
+    Map<Long, Node> backendMap = idMap.get(cacheEntry.getBackendID());
+    if (backendMap != null)
+    {
+      backendMap.remove(cacheEntry.getEntryID(), node);
+    }
+    segment.unlink(node);
+    entryCount.decrementAndGet();
+  }
+
+  private int segmentIndex(DN entryDN)
+  {
+    // Spread the hash bits since only the lowest ones select the segment.
+    int h = entryDN.hashCode();
+    h ^= h >>> 16;
+    return h & (segments.length - 1);
+  }
+
+  @Override
+  public void removeEntry(DN entryDN)
+  {
+    // We should not return until the entry is removed, so we will block until
+    // we can obtain the lock.
+    final Segment segment = segments[segmentIndex(entryDN)];
+    segment.lock();
+    try
+    {
+      Node node = dnMap.get(entryDN);
+      if (node != null)
+      {
+        remove(segment, node);
+      }
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+
+      // This shouldn't happen, but there's not much that we can do if it does.
+    }
+    finally
+    {
+      segment.unlock();
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    // Lock all the segments, always in the same order, so that the maps are
+    // not modified while being cleared.
+    for (Segment segment : segments)
+    {
+      segment.lock();
+    }
+    try
+    {
+      dnMap.clear();
+      idMap.clear();
+      for (Segment segment : segments)
+      {
+        segment.clear();
+      }
+      entryCount.set(0);
+    }
+    finally
+    {
+      for (Segment segment : segments)
+      {
+        segment.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void clearBackend(String backendID)
+  {
+    // Remove all references to entries for this backend from the ID cache.
+    Map<Long, Node> backendMap = idMap.remove(backendID);
+    if (backendMap == null)
+    {
+      // No entries were in the cache for this backend, so we can return
+      // without doing anything.
+      return;
+    }
+
+    // Each entry is removed under the lock of its own segment, so this never
+    // becomes a stop-the-world event as far as the cache is concerned.
+    for (Node node : backendMap.values())
+    {
+      final DN entryDN = node.cacheEntry.getDN();
+      final Segment segment = segments[segmentIndex(entryDN)];
+      segment.lock();
+      try
+      {
+        if (dnMap.get(entryDN) == node)
+        {
+          remove(segment, node);
+        }
+      }
+      finally
+      {
+        segment.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void handleLowMemory()
+  {
+    // See how many entries are in the cache.  If there are less than 1000,
+    // then we'll dump all of them.  Otherwise, we'll dump 10% of the entries
+    // of each segment.
+    if (entryCount.get() < 1000)
+    {
+      clear();
+      return;
+    }
+
+    for (Segment segment : segments)
+    {
+      segment.lock();
+      try
+      {
+        for (int numToDrop = segment.size / 10; numToDrop > 0; numToDrop--)
+        {
+          Node victim = segment.nextVictim(null);
+          if (victim == null)
+          {
+            break;
+          }
+          remove(segment, victim);
+          evictions.increment();
+        }
+      }
+      finally
+      {
+        segment.unlock();
+      }
+    }
+  }
+
+  @Override
+  public boolean isConfigurationAcceptable(EntryCacheCfg configuration,
+                                           List<LocalizableMessage> unacceptableReasons)
+  {
+    SegmentedEntryCacheCfg config = (SegmentedEntryCacheCfg) configuration;
+    return isConfigurationChangeAcceptable(config, unacceptableReasons);
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      SegmentedEntryCacheCfg configuration,
+      List<LocalizableMessage> unacceptableReasons
+      )
+  {
+    boolean applyChanges = false;
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_ACCEPTABLE,
+          unacceptableReasons,
+          null
+        );
+    processEntryCacheConfig (configuration, applyChanges, errorHandler);
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(SegmentedEntryCacheCfg configuration)
+  {
+    boolean applyChanges = true;
+    List<LocalizableMessage> errorMessages = new ArrayList<>();
+    EntryCacheCommon.ConfigErrorHandler errorHandler =
+      EntryCacheCommon.getConfigErrorHandler (
+          EntryCacheCommon.ConfigPhase.PHASE_APPLY, null, errorMessages
+          );
+
+    // Do not apply changes unless this cache is enabled.
+    if (configuration.isEnabled()) {
+      processEntryCacheConfig (configuration, applyChanges, errorHandler);
+    }
+
+    final ConfigChangeResult changeResult = new ConfigChangeResult();
+    changeResult.setResultCode(errorHandler.getResultCode());
+    // The segments are only allocated when the cache is initialized.
+    changeResult.setAdminActionRequired(errorHandler.getIsAdminActionRequired()
+        || getNumberOfSegments(configuration) != segments.length);
+    changeResult.getMessages().addAll(errorHandler.getErrorMessages());
+    return changeResult;
+  }
+
+  /**
+   * Parses the provided configuration and configure the entry cache.
+   *
+   * @param configuration  The new configuration containing the changes.
+   * @param applyChanges   If true then take into account the new configuration.
+   * @param errorHandler   An handler used to report errors.
+   *
+   * @return  <CODE>true</CODE> if configuration is acceptable,
+   *          or <CODE>false</CODE> otherwise.
+   */
+  private boolean processEntryCacheConfig(
+      SegmentedEntryCacheCfg              configuration,
+      boolean                             applyChanges,
+      EntryCacheCommon.ConfigErrorHandler errorHandler
+      )
+  {
+    // Read configuration.
+    DN newConfigEntryDN = configuration.dn();
+    long newLockTimeout = configuration.getLockTimeout();
+    long newMaxEntries  = configuration.getMaxEntries();
+
+    // Maximum memory the cache can use.
+    int newMaxMemoryPercent  = configuration.getMaxMemoryPercent();
+    long maxJvmHeapSize      = Runtime.getRuntime().maxMemory();
+    long newMaxAllowedMemory = (maxJvmHeapSize / 100) * newMaxMemoryPercent;
+
+    // Get include and exclude filters.
+    Set<SearchFilter> newIncludeFilters = EntryCacheCommon.getFilters (
+        configuration.getIncludeFilter(),
+        ERR_CACHE_INVALID_INCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+    Set<SearchFilter> newExcludeFilters = EntryCacheCommon.getFilters (
+        configuration.getExcludeFilter(),
+        ERR_CACHE_INVALID_EXCLUDE_FILTER,
+        errorHandler,
+        newConfigEntryDN
+        );
+
+    if (applyChanges && errorHandler.getIsAcceptable())
+    {
+      maxEntries       = newMaxEntries;
+      maxAllowedMemory = newMaxAllowedMemory;
+      lockTimeout = newLockTimeout;
+      setIncludeFilters(newIncludeFilters);
+      setExcludeFilters(newExcludeFilters);
+      registeredConfiguration = configuration;
+    }
+
+    return errorHandler.getIsAcceptable();
+  }
+
+  @Override
+  public long getCacheHits()
+  {
+    return hits.sum();
+  }
+
+  @Override
+  public long getCacheMisses()
+  {
+    return misses.sum();
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    try {
+      MonitorData monitorData = EntryCacheCommon.getGenericMonitorData(
+        hits.sum(),
+        misses.sum(),
+        null,
+        maxAllowedMemory,
+        entryCount.get(),
+        (maxEntries != Integer.MAX_VALUE && maxEntries != Long.MAX_VALUE) ? maxEntries : 0
+        );
+      monitorData.add("entryCacheEvictions", evictions.sum());
+      monitorData.add("entryCacheLockContentions", lockContentions.sum());
+      monitorData.add("entryCacheSegments", segments.length);
+      return monitorData;
+    } catch (Exception e) {
+      logger.traceException(e);
+      return new MonitorData(0);
+    }
+  }
+
+  @Override
+  public Long getCacheCount()
+  {
+    return entryCount.get();
+  }
+
+  @Override
+  public String toVerboseString()
+  {
+    StringBuilder sb = new StringBuilder();
+
+    // The maps are concurrent, so they can be examined without locking,
+    // although the result may not be entirely consistent.
+    for (Map.Entry<DN, Node> mapEntry : dnMap.entrySet()) {
+      final CacheEntry cacheEntry = mapEntry.getValue().cacheEntry;
+      sb.append(mapEntry.getKey());
+      sb.append(":");
+      sb.append(cacheEntry.getEntryID());
+      sb.append(":");
+      sb.append(cacheEntry.getBackendID());
+      sb.append(ServerConstants.EOL);
+    }
+
+    // See if there is anything on idMap that is not reflected on
+    // dnMap in case maps went out of sync.
+    for (Map.Entry<String, ConcurrentMap<Long, Node>> backendCache : idMap.entrySet()) {
+      final String backendID = backendCache.getKey();
+      for (Map.Entry<Long, Node> entry : backendCache.getValue().entrySet()) {
+        final CacheEntry cacheEntry = entry.getValue().cacheEntry;
+        if (!dnMap.containsKey(cacheEntry.getDN())) {
+          sb.append(cacheEntry.getDN());
+          sb.append(":");
+          sb.append(entry.getKey());
+          sb.append(":");
+          sb.append(backendID);
+          sb.append(ServerConstants.EOL);
+        }
+      }
+    }
+
+    String verboseString = sb.toString();
+    return verboseString.length() > 0 ? verboseString : null;
+  }
+}
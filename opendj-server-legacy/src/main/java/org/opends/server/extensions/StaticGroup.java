@@ -19,10 +19,11 @@ package org.opends.server.extensions;
 import static com.forgerock.opendj.util.StaticUtils.getBytes;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -95,7 +96,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
   private DN groupEntryDN;
 
   /** The set of the DNs of the members for this group. */
-  private HashSet<CompactDn> memberDNs;
+  private CompactDnSet memberDNs;
 
   /** The list of nested group DNs for this group. */
   private LinkedList<DN> nestedGroups = new LinkedList<>();
@@ -128,7 +129,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
    *                              group.
    */
   private StaticGroup(ServerContext serverContext, DN groupEntryDN, AttributeType memberAttributeType,
-      LinkedHashSet<CompactDn> memberDNs)
+      CompactDnSet memberDNs)
   {
     super();
     Reject.ifNull(groupEntryDN, memberAttributeType, memberDNs);
@@ -202,7 +203,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     {
       membersCount += a.size();
     }
-    LinkedHashSet<CompactDn> someMemberDNs = new LinkedHashSet<>(membersCount);
+    CompactDnSet someMemberDNs = new CompactDnSet(membersCount);
     for (Attribute a : memberAttrList)
     {
       for (ByteString v : a)
@@ -341,8 +342,12 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       newNestedGroups.add(nestedGroupDN);
       nestedGroups = newNestedGroups;
       //Add it to the member DN list.
-      HashSet<CompactDn> newMemberDNs = new HashSet<>(memberDNs);
-      newMemberDNs.add(new CompactDn(nestedGroupDN));
+      CompactDnSet newMemberDNs = new CompactDnSet(memberDNs);
+      CompactDn compactNestedGroupDN = new CompactDn(nestedGroupDN);
+      if (newMemberDNs.add(compactNestedGroupDN))
+      {
+        memberAdded(compactNestedGroupDN);
+      }
       memberDNs = newMemberDNs;
     }
     finally
@@ -379,8 +384,12 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       newNestedGroups.remove(nestedGroupDN);
       nestedGroups = newNestedGroups;
       //Remove it from the member DN list.
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>(memberDNs);
-      newMemberDNs.remove(new CompactDn(nestedGroupDN));
+      CompactDnSet newMemberDNs = new CompactDnSet(memberDNs);
+      CompactDn compactNestedGroupDN = new CompactDn(nestedGroupDN);
+      if (newMemberDNs.remove(compactNestedGroupDN))
+      {
+        memberRemoved(compactNestedGroupDN);
+      }
       memberDNs = newMemberDNs;
     }
     finally
@@ -467,7 +476,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
         }
         else if (thisGroup != this)
         {
-          LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>();
+          CompactDnSet newMemberDNs = new CompactDnSet();
           MemberList memberList = thisGroup.getMembers();
           while (memberList.hasMoreMembers())
           {
@@ -563,7 +572,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
               for (ByteString v : attribute)
               {
                 DN member = DN.valueOf(v);
-                memberDNs.add(new CompactDn(member));
+                addMemberDN(new CompactDn(member));
                 if (DirectoryServer.getGroupManager().getGroupInstance(member) != null)
                 {
                   nestedGroups.add(member);
@@ -573,7 +582,7 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             case DELETE:
               if (attribute.isEmpty())
               {
-                memberDNs.clear();
+                clearMemberDNs();
                 nestedGroups.clear();
               }
               else
@@ -581,18 +590,18 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
                 for (ByteString v : attribute)
                 {
                   DN member = DN.valueOf(v);
-                  memberDNs.remove(new CompactDn(member));
+                  removeMemberDN(new CompactDn(member));
                   nestedGroups.remove(member);
                 }
               }
               break;
             case REPLACE:
-              memberDNs.clear();
+              clearMemberDNs();
               nestedGroups.clear();
               for (ByteString v : attribute)
               {
                 DN member = DN.valueOf(v);
-                memberDNs.add(new CompactDn(member));
+                addMemberDN(new CompactDn(member));
                 if (DirectoryServer.getGroupManager().getGroupInstance(member) != null)
                 {
                   nestedGroups.add(member);
@@ -633,9 +642,10 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             ERR_STATICGROUP_ADD_MEMBER_UPDATE_FAILED.get(userDN, groupEntryDN, modifyOperation.getErrorMessage()));
       }
 
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<CompactDn>(memberDNs);
+      CompactDnSet newMemberDNs = new CompactDnSet(memberDNs);
       newMemberDNs.add(compactUserDN);
       memberDNs = newMemberDNs;
+      memberAdded(compactUserDN);
     }
     finally
     {
@@ -666,9 +676,10 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
             ERR_STATICGROUP_REMOVE_MEMBER_UPDATE_FAILED.get(userDN, groupEntryDN, modifyOperation.getErrorMessage()));
       }
 
-      LinkedHashSet<CompactDn> newMemberDNs = new LinkedHashSet<>(memberDNs);
+      CompactDnSet newMemberDNs = new CompactDnSet(memberDNs);
       newMemberDNs.remove(compactUserDN);
       memberDNs = newMemberDNs;
+      memberRemoved(compactUserDN);
       //If it is in the nested group list remove it.
       if (nestedGroups.contains(userDN))
       {
@@ -683,6 +694,64 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
     }
   }
 
+  @Override
+  public Collection<ByteString> getNormalizedMemberDNs()
+  {
+    lock.readLock().lock();
+    try
+    {
+      List<ByteString> normalizedMemberDNs = new ArrayList<>(memberDNs.size());
+      for (CompactDn memberDN : memberDNs)
+      {
+        normalizedMemberDNs.add(memberDN.toNormalizedByteString());
+      }
+      return normalizedMemberDNs;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Adds a member to the member list in place. Must be called while holding the write lock. */
+  private void addMemberDN(CompactDn memberDN)
+  {
+    if (memberDNs.add(memberDN))
+    {
+      memberAdded(memberDN);
+    }
+  }
+
+  /** Removes a member from the member list in place. Must be called while holding the write lock. */
+  private void removeMemberDN(CompactDn memberDN)
+  {
+    if (memberDNs.remove(memberDN))
+    {
+      memberRemoved(memberDN);
+    }
+  }
+
+  /** Removes all the members from the member list in place. Must be called while holding the write lock. */
+  private void clearMemberDNs()
+  {
+    for (CompactDn memberDN : memberDNs)
+    {
+      memberRemoved(memberDN);
+    }
+    memberDNs.clear();
+  }
+
+  /** Keeps the reverse membership index of the group manager up to date. */
+  private void memberAdded(CompactDn memberDN)
+  {
+    getGroupManager().memberAdded(this, memberDN.toNormalizedByteString());
+  }
+
+  private void memberRemoved(CompactDn memberDN)
+  {
+    getGroupManager().memberRemoved(this, memberDN.toNormalizedByteString());
+  }
+
   private ModifyOperation newModifyOperation(ModificationType modType, DN userDN)
   {
     Attribute attr = Attributes.create(memberAttributeType, userDN.toString());
@@ -745,6 +814,17 @@ public class StaticGroup extends Group<StaticGroupImplementationCfg>
       return length1 - length2;
     }
 
+    /**
+     * Returns the normalized byte string of the DN, sharing the bytes of this compact representation.
+     *
+     * @return the normalized byte string of the DN
+     * @see DN#toNormalizedByteString()
+     */
+    ByteString toNormalizedByteString()
+    {
+      return ByteString.wrap(normalizedValue);
+    }
+
     /**
      * Returns the DN corresponding to this compact representation.
      *
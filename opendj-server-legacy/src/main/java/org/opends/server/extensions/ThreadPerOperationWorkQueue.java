@@ -0,0 +1,582 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.opends.messages.ConfigMessages.*;
+import static org.opends.messages.CoreMessages.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.config.server.ConfigChangeResult;
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.config.server.ConfigurationChangeListener;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.server.config.server.ThreadPerOperationWorkQueueCfg;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.monitors.ThreadPerOperationWorkQueueMonitor;
+import org.opends.server.types.CancelRequest;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.InitializationException;
+import org.opends.server.types.Operation;
+
+/**
+ * A Directory Server work queue processing each operation on its own thread, up
+ * to a maximum number of concurrent operations. An operation blocked on backend
+ * I/O, on an entry lock or on a remote server only holds its own thread, so slow
+ * operations such as pass-through authentication binds cannot exhaust a fixed
+ * pool of worker threads.
+ * <p>
+ * The operations run on virtual threads when the Java runtime supports them,
+ * otherwise on a pool of platform threads. The operations received while the
+ * maximum number of concurrent operations is reached are queued, and picked up
+ * by the threads completing their operation.
+ */
+public class ThreadPerOperationWorkQueue extends WorkQueue<ThreadPerOperationWorkQueueCfg>
+    implements ConfigurationChangeListener<ThreadPerOperationWorkQueueCfg>
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The prefix of the name of the threads processing the operations. */
+  private static final String THREAD_NAME_PREFIX = "Operation Thread ";
+
+  /** How long a submitter waits before checking again whether a full queue has available capacity. */
+  private static final long FULL_QUEUE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /** How long an idle platform thread is kept for the next operations. */
+  private static final long PLATFORM_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  /** The operations waiting for one of the running operations to complete. */
+  private final Queue<Operation> pendingOperations = new ConcurrentLinkedQueue<>();
+  /** The number of pending operations, bounded by the queue capacity. */
+  private final AtomicInteger nbPendingOperations = new AtomicInteger();
+  /** The number of operations being processed, bounded by the maximum number of concurrent operations. */
+  private final AtomicInteger nbRunningOperations = new AtomicInteger();
+  /** The operations being processed, which are canceled when the server shuts down. */
+  private final Set<Operation> runningOperations = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder opsSubmitted = new LongAdder();
+  private final LongAdder queueFullRejects = new LongAdder();
+
+  /** Starts the threads processing the operations. */
+  private Executor executor;
+  /** Whether the operations run on virtual threads. */
+  private boolean virtualThreads;
+
+  private volatile int maxConcurrentOperations;
+  private volatile int maxCapacity;
+
+  /** Indicates whether the Directory Server is shutting down. */
+  private volatile boolean shutdownRequested;
+
+  /**
+   * Creates a new instance of this work queue. All initialization should be
+   * performed in the <CODE>initializeWorkQueue</CODE> method.
+   */
+  public ThreadPerOperationWorkQueue()
+  {
+    // No implementation should be performed here.
+  }
+
+  @Override
+  public void initializeWorkQueue(ThreadPerOperationWorkQueueCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    shutdownRequested = false;
+    maxConcurrentOperations = configuration.getMaxConcurrentOperations();
+    maxCapacity = configuration.getMaxWorkQueueCapacity();
+
+    final ThreadFactory virtualThreadFactory =
+        configuration.isUseVirtualThreads() ? newVirtualThreadFactory(THREAD_NAME_PREFIX) : null;
+    if (virtualThreadFactory != null)
+    {
+      virtualThreads = true;
+      executor = new Executor()
+      {
+        @Override
+        public void execute(Runnable command)
+        {
+          virtualThreadFactory.newThread(command).start();
+        }
+      };
+    }
+    else
+    {
+      if (configuration.isUseVirtualThreads())
+      {
+        logger.info(INFO_CONFIG_WORK_QUEUE_VIRTUAL_THREADS_UNAVAILABLE);
+      }
+      virtualThreads = false;
+      // The number of threads is bounded by the maximum number of concurrent operations
+      executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+          PLATFORM_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+          new DirectoryThread.Factory(THREAD_NAME_PREFIX));
+    }
+
+    // Register to be notified of any configuration changes.
+    configuration.addThreadPerOperationChangeListener(this);
+
+    // Create and register a monitor provider for the work queue.
+    try
+    {
+      ThreadPerOperationWorkQueueMonitor monitor = new ThreadPerOperationWorkQueueMonitor(this);
+      monitor.initializeMonitorProvider(null);
+      DirectoryServer.registerMonitorProvider(monitor);
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      logger.error(ERR_CONFIG_WORK_QUEUE_CANNOT_CREATE_MONITOR, ThreadPerOperationWorkQueueMonitor.class, e);
+    }
+  }
+
+  /**
+   * Returns a factory of virtual threads if the Java runtime supports them.
+   * Virtual threads are looked up by reflection, since the server must still
+   * run on Java runtimes which do not have them.
+   *
+   * @param threadNamePrefix
+   *          The prefix of the name of the created threads.
+   * @return A factory of virtual threads, or {@code null} if the Java runtime
+   *         does not support them.
+   */
+  static ThreadFactory newVirtualThreadFactory(String threadNamePrefix)
+  {
+    try
+    {
+      final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = ofVirtualClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+      return (ThreadFactory) ofVirtualClass.getMethod("factory").invoke(builder);
+    }
+    catch (ReflectiveOperationException | RuntimeException | LinkageError e)
+    {
+      // Virtual threads are not available, or are a preview feature which has not been enabled
+      logger.traceException(e);
+      return null;
+    }
+  }
+
+  @Override
+  public void finalizeWorkQueue(LocalizableMessage reason)
+  {
+    shutdownRequested = true;
+
+    // From now on no more operations can be enqueued. Send responses to any
+    // operations in the pending queue to indicate that they won't be processed
+    // because the server is shutting down.
+    abortPendingOperations(new CancelRequest(true, reason));
+
+    // Cancel the operations in progress.
+    CancelRequest cancelRequest = new CancelRequest(true, INFO_CANCELED_BY_SHUTDOWN.get());
+    for (Operation o : runningOperations)
+    {
+      try
+      {
+        o.abort(cancelRequest);
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, o, e);
+      }
+    }
+
+    if (executor instanceof ExecutorService)
+    {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private void abortPendingOperations(CancelRequest cancelRequest)
+  {
+    Operation o;
+    while ((o = pollPendingOperation()) != null)
+    {
+      try
+      {
+        // The operation has no chance of responding to the cancel
+        // request so avoid waiting for a cancel response.
+        if (o.getCancelResult() == null)
+        {
+          o.abort(cancelRequest);
+        }
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        logger.warn(WARN_QUEUE_UNABLE_TO_CANCEL, o, e);
+      }
+    }
+  }
+
+  /**
+   * Indicates whether this work queue has received a request to shut down.
+   *
+   * @return <CODE>true</CODE> if the work queue has recieved a request to shut
+   *         down, or <CODE>false</CODE> if not.
+   */
+  public boolean shutdownRequested()
+  {
+    return shutdownRequested;
+  }
+
+  @Override
+  public void submitOperation(Operation operation) throws DirectoryException
+  {
+    submitOperation(operation, true);
+  }
+
+  @Override
+  public boolean trySubmitOperation(Operation operation) throws DirectoryException
+  {
+    try
+    {
+      submitOperation(operation, false);
+      return true;
+    }
+    catch (DirectoryException e)
+    {
+      if (ResultCode.BUSY == e.getResultCode())
+      {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  private void submitOperation(Operation operation, boolean blockEnqueuingWhenFull) throws DirectoryException
+  {
+    if (shutdownRequested)
+    {
+      throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+    }
+
+    if (tryAcquireRunningSlot())
+    {
+      opsSubmitted.increment();
+      startThread(operation);
+      return;
+    }
+
+    // All the running slots are taken: queue the operation for the next
+    // thread completing its operation.
+    while (!offerPendingOperation(operation))
+    {
+      if (!blockEnqueuingWhenFull)
+      {
+        queueFullRejects.increment();
+        throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_FULL.get(maxCapacity));
+      }
+      // The queue is full: wait for the running operations to catch up.
+      LockSupport.parkNanos(this, FULL_QUEUE_PARK_NANOS);
+      if (Thread.interrupted())
+      {
+        // We cannot handle the interruption here. Reject the request and
+        // re-interrupt this thread.
+        Thread.currentThread().interrupt();
+        queueFullRejects.increment();
+        throw new DirectoryException(ResultCode.BUSY, WARN_OP_REJECTED_BY_QUEUE_INTERRUPT.get());
+      }
+      if (shutdownRequested)
+      {
+        throw new DirectoryException(ResultCode.UNAVAILABLE, WARN_OP_REJECTED_BY_SHUTDOWN.get());
+      }
+    }
+    opsSubmitted.increment();
+
+    // All the running operations might have completed before the operation was
+    // queued, without seeing it: start a thread for it in this case.
+    if (tryAcquireRunningSlot())
+    {
+      final Operation next = pollPendingOperation();
+      if (next != null)
+      {
+        startThread(next);
+      }
+      else
+      {
+        releaseRunningSlot();
+      }
+    }
+
+    if (shutdownRequested)
+    {
+      // The shutdown started while the operation was being enqueued, it might
+      // have missed it.
+      abortPendingOperations(new CancelRequest(true, WARN_OP_REJECTED_BY_SHUTDOWN.get()));
+    }
+  }
+
+  private boolean tryAcquireRunningSlot()
+  {
+    while (true)
+    {
+      int running = nbRunningOperations.get();
+      if (running >= maxConcurrentOperations)
+      {
+        return false;
+      }
+      if (nbRunningOperations.compareAndSet(running, running + 1))
+      {
+        return true;
+      }
+    }
+  }
+
+  private void releaseRunningSlot()
+  {
+    nbRunningOperations.decrementAndGet();
+  }
+
+  private boolean offerPendingOperation(Operation operation)
+  {
+    while (true)
+    {
+      int pending = nbPendingOperations.get();
+      if (pending >= maxCapacity)
+      {
+        return false;
+      }
+      if (nbPendingOperations.compareAndSet(pending, pending + 1))
+      {
+        pendingOperations.add(operation);
+        return true;
+      }
+    }
+  }
+
+  private Operation pollPendingOperation()
+  {
+    Operation operation = pendingOperations.poll();
+    if (operation != null)
+    {
+      nbPendingOperations.decrementAndGet();
+    }
+    return operation;
+  }
+
+  /** Starts a thread processing the provided operation, then the pending ones. */
+  private void startThread(final Operation operation)
+  {
+    try
+    {
+      executor.execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          processOperations(operation);
+        }
+      });
+    }
+    catch (RuntimeException | Error e)
+    {
+      releaseRunningSlot();
+      throw e;
+    }
+  }
+
+  /**
+   * Processes the provided operation, then the pending operations until there
+   * are none left. The running slot acquired for the provided operation is held
+   * until then.
+   */
+  private void processOperations(Operation operation)
+  {
+    while (true)
+    {
+      while (operation != null)
+      {
+        processOperation(operation);
+        operation = shutdownRequested ? null : pollPendingOperation();
+      }
+      releaseRunningSlot();
+
+      // An operation might have been queued after the last poll, while all the
+      // running slots were still taken.
+      if (shutdownRequested || pendingOperations.isEmpty() || !tryAcquireRunningSlot())
+      {
+        return;
+      }
+      operation = pollPendingOperation();
+      if (operation == null)
+      {
+        releaseRunningSlot();
+        return;
+      }
+    }
+  }
+
+  private void processOperation(Operation operation)
+  {
+    runningOperations.add(operation);
+    try
+    {
+      operation.run();
+      operation.operationCompleted();
+    }
+    catch (Throwable t)
+    {
+      logger.traceException(t);
+      final LocalizableMessage message = ERR_UNCAUGHT_WORKER_THREAD_EXCEPTION.get(
+          Thread.currentThread().getName(), operation, stackTraceToSingleLineString(t));
+      try
+      {
+        logger.error(message);
+
+        // Ensure that the client receives some kind of result so that it does
+        // not hang.
+        operation.setResultCode(DirectoryServer.getCoreConfigManager().getServerErrorResultCode());
+        operation.appendErrorMessage(message);
+        operation.getClientConnection().sendResponse(operation);
+      }
+      catch (Throwable t2)
+      {
+        logger.traceException(t2);
+      }
+
+      try
+      {
+        operation.disconnectClient(DisconnectReason.SERVER_ERROR, true, message);
+      }
+      catch (Throwable t2)
+      {
+        logger.traceException(t2);
+      }
+    }
+    finally
+    {
+      runningOperations.remove(operation);
+    }
+  }
+
+  /**
+   * Retrieves the total number of operations that have been successfully
+   * submitted to this work queue for processing since server startup. This does
+   * not include operations that have been rejected for some reason like the
+   * queue already at its maximum capacity.
+   *
+   * @return The total number of operations that have been successfully
+   *         submitted to this work queue since startup.
+   */
+  public long getOpsSubmitted()
+  {
+    return opsSubmitted.sum();
+  }
+
+  /**
+   * Retrieves the total number of operations that have been rejected because
+   * the work queue was already at its maximum capacity.
+   *
+   * @return The total number of operations that have been rejected because the
+   *         work queue was already at its maximum capacity.
+   */
+  public long getOpsRejectedDueToQueueFull()
+  {
+    return queueFullRejects.sum();
+  }
+
+  /**
+   * Retrieves the number of pending operations in the queue that have not yet
+   * been picked up for processing.
+   *
+   * @return The number of pending operations in the queue that have not yet
+   *         been picked up for processing.
+   */
+  public int size()
+  {
+    return nbPendingOperations.get();
+  }
+
+  /**
+   * Retrieves the number of operations being processed.
+   *
+   * @return The number of operations being processed.
+   */
+  public int getRunningOperations()
+  {
+    return nbRunningOperations.get();
+  }
+
+  /**
+   * Indicates whether the operations run on virtual threads.
+   *
+   * @return {@code true} if the operations run on virtual threads, {@code false}
+   *         if they run on platform threads.
+   */
+  public boolean isUsingVirtualThreads()
+  {
+    return virtualThreads;
+  }
+
+  @Override
+  public boolean isConfigurationChangeAcceptable(
+      ThreadPerOperationWorkQueueCfg configuration, List<LocalizableMessage> unacceptableReasons)
+  {
+    return true;
+  }
+
+  @Override
+  public ConfigChangeResult applyConfigurationChange(ThreadPerOperationWorkQueueCfg configuration)
+  {
+    final ConfigChangeResult ccr = new ConfigChangeResult();
+    maxConcurrentOperations = configuration.getMaxConcurrentOperations();
+    maxCapacity = configuration.getMaxWorkQueueCapacity();
+    if (configuration.isUseVirtualThreads() != virtualThreads
+        && (virtualThreads || newVirtualThreadFactory(THREAD_NAME_PREFIX) != null))
+    {
+      ccr.setAdminActionRequired(true);
+    }
+    return ccr;
+  }
+
+  @Override
+  public boolean isIdle()
+  {
+    return nbPendingOperations.get() == 0 && nbRunningOperations.get() == 0;
+  }
+
+  /**
+   * Returns the maximum number of operations processed concurrently, which is
+   * the number of threads of this work queue when all are busy.
+   *
+   * @return the maximum number of operations processed concurrently
+   */
+  @Override
+  public int getNumWorkerThreads()
+  {
+    return maxConcurrentOperations;
+  }
+}
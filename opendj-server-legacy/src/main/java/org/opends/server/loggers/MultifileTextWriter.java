@@ -28,6 +28,7 @@ import java.io.OutputStreamWriter;
 import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -87,6 +88,11 @@ class MultifileTextWriter
   private MeteredStream outputStream;
   /** The underlying buffered writer using the output stream. */
   private BufferedWriter writer;
+  /**
+   * Guards writing records and rotating the file. It is not a monitor, so that a thread writing to the file
+   * does not pin its carrier thread when it is a virtual thread.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
 
   /**
    * Creates a new instance of MultiFileTextWriter with the supplied policies.
@@ -538,7 +544,8 @@ class MultifileTextWriter
       }
     }
 
-    synchronized(this)
+    lock.lock();
+    try
     {
       if(sizeLimit > 0 && outputStream.written + size + 1 >= sizeLimit)
       {
@@ -560,6 +567,10 @@ class MultifileTextWriter
         flush();
       }
     }
+    finally
+    {
+      lock.unlock();
+    }
   }
 
   @Override
@@ -580,37 +591,45 @@ class MultifileTextWriter
    * tries to rename the file. On failure, all subsequent log write requests
    * will throw exceptions.
    */
-  private synchronized void rotate()
+  private void rotate()
   {
+    lock.lock();
     try
     {
-      writer.flush();
-      writer.close();
-    }
-    catch(Exception e)
-    {
-      logger.traceException(e);
-      errorHandler.handleCloseError(e);
-    }
+      try
+      {
+        writer.flush();
+        writer.close();
+      }
+      catch(Exception e)
+      {
+        logger.traceException(e);
+        errorHandler.handleCloseError(e);
+      }
 
-    File currentFile = namingPolicy.getInitialName();
-    File newFile = namingPolicy.getNextName();
-    currentFile.renameTo(newFile);
+      File currentFile = namingPolicy.getInitialName();
+      File newFile = namingPolicy.getNextName();
+      currentFile.renameTo(newFile);
 
-    try
-    {
-      constructWriter(currentFile, filePermissions, encoding, append,
-                      bufferSize);
+      try
+      {
+        constructWriter(currentFile, filePermissions, encoding, append,
+                        bufferSize);
+      }
+      catch (Exception e)
+      {
+        logger.traceException(e);
+        errorHandler.handleOpenError(currentFile, e);
+      }
+
+      logger.trace("Log file %s rotated and renamed to %s", currentFile, newFile);
+      totalFilesRotated++;
+      lastRotationTime = TimeThread.getCalendar();
     }
-    catch (Exception e)
+    finally
     {
-      logger.traceException(e);
-      errorHandler.handleOpenError(currentFile, e);
+      lock.unlock();
     }
-
-    logger.trace("Log file %s rotated and renamed to %s", currentFile, newFile);
-    totalFilesRotated++;
-    lastRotationTime = TimeThread.getCalendar();
   }
 
   @Override
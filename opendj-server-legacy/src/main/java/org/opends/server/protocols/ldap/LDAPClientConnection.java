@@ -404,8 +404,11 @@ public final class LDAPClientConnection extends ClientConnection implements
   /** The connection ID assigned to this connection. */
   private final long connectionID;
 
-  /** The lock used to provide threadsafe access to the set of operations in progress. */
-  private final Object opsInProgressLock;
+  /**
+   * The lock used to provide threadsafe access to the set of operations in progress. It is not a monitor, so that
+   * operation threads blocking while holding it do not pin their carrier thread when they are virtual threads.
+   */
+  private final Lock opsInProgressLock = new ReentrantLock();
 
   /** The socket channel with which this client connection is associated. */
   private final SocketChannel clientChannel;
@@ -445,7 +448,6 @@ public final class LDAPClientConnection extends ClientConnection implements
     this.connectionHandler = connectionHandler;
     this.clientChannel = clientChannel;
     timeoutClientChannel = new TimeoutWriteByteChannel();
-    opsInProgressLock = new Object();
     ldapVersion = 3;
     lastCompletionTime = new AtomicLong(TimeThread.getTime());
     nextOperationID = new AtomicLong(0);
@@ -980,7 +982,8 @@ public final class LDAPClientConnection extends ClientConnection implements
     // Set a flag indicating that the connection is being terminated so
     // that no new requests will be accepted. Also cancel all operations
     // in progress.
-    synchronized (opsInProgressLock)
+    opsInProgressLock.lock();
+    try
     {
       // If we are already in the middle of a disconnect, then don't
       // do anything.
@@ -991,6 +994,10 @@ public final class LDAPClientConnection extends ClientConnection implements
 
       disconnectRequested = true;
     }
+    finally
+    {
+      opsInProgressLock.unlock();
+    }
 
     if (keepStats)
     {
@@ -1142,7 +1149,8 @@ public final class LDAPClientConnection extends ClientConnection implements
     // checks.
     try
     {
-      synchronized (opsInProgressLock)
+      opsInProgressLock.lock();
+      try
       {
         // If we're already in the process of disconnecting the client,
         // then reject the operation.
@@ -1167,6 +1175,10 @@ public final class LDAPClientConnection extends ClientConnection implements
               message);
         }
       }
+      finally
+      {
+        opsInProgressLock.unlock();
+      }
 
       // Try to add the operation to the work queue,
       // or run it synchronously (typically for the administration
@@ -1272,7 +1284,8 @@ public final class LDAPClientConnection extends ClientConnection implements
   public void cancelAllOperations(CancelRequest cancelRequest)
   {
     // Make sure that no one can add any new operations.
-    synchronized (opsInProgressLock)
+    opsInProgressLock.lock();
+    try
     {
       try
       {
@@ -1312,6 +1325,10 @@ public final class LDAPClientConnection extends ClientConnection implements
         logger.traceException(e);
       }
     }
+    finally
+    {
+      opsInProgressLock.unlock();
+    }
   }
 
   /**
@@ -1330,7 +1347,8 @@ public final class LDAPClientConnection extends ClientConnection implements
       int messageID)
   {
     // Make sure that no one can add any new operations.
-    synchronized (opsInProgressLock)
+    opsInProgressLock.lock();
+    try
     {
       try
       {
@@ -1381,6 +1399,10 @@ public final class LDAPClientConnection extends ClientConnection implements
         logger.traceException(e);
       }
     }
+    finally
+    {
+      opsInProgressLock.unlock();
+    }
   }
 
   @Override
@@ -2410,6 +2410,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
                *  Note: When msg is a DeleteMsg, the DeleteOperation is properly
                *  created with subtreeDelete request control when needed.
                */
+              remotePendingChanges.updateInProgress(msg);
               nextOp = msg.createOperation(conn);
             }
           }
@@ -4306,6 +4307,7 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
     attributes.add("remote-pending-changes-size", remotePendingChanges.getQueueSize());
     attributes.add("dependent-changes-size", remotePendingChanges.getDependentChangesSize());
     attributes.add("changes-in-progress-size", remotePendingChanges.changesInProgressSize());
+    attributes.add("replay-threads", MultimasterReplication.getNumberOfReplayThreads());
   }
 
   /**
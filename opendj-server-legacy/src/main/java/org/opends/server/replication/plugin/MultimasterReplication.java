@@ -21,7 +21,6 @@ import static org.opends.server.replication.plugin.ReplicationRepairRequestContr
 import static org.opends.server.util.ServerConstants.*;
 import static org.opends.server.util.StaticUtils.*;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -29,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
@@ -101,9 +101,19 @@ public class MultimasterReplication
   /** The queue of received update messages, to be treated by the ReplayThread threads. */
   private static final BlockingQueue<UpdateToReplay> updateToReplayQueue = new LinkedBlockingQueue<>(10000);
   /** The list of ReplayThread threads. */
-  private static final List<ReplayThread> replayThreads = new ArrayList<>();
+  private static final List<ReplayThread> replayThreads = new CopyOnWriteArrayList<>();
   /** The configurable number of replay threads. */
   private static int replayThreadNumber = 10;
+  /** The configurable maximum number of replay threads, reached when the replay queue is backlogged. */
+  private static volatile int maxReplayThreadNumber = 10;
+  /** Number of queued updates per replay thread above which an additional replay thread is started. */
+  private static final int REPLAY_BACKLOG_PER_THREAD = 100;
+  /** How long an additional replay thread can stay idle before stopping. */
+  private static final long ADDITIONAL_REPLAY_THREAD_MAX_IDLE_TIME_MS = 30000;
+  /** Lock shared by the replay threads to ensure moving updates from one queue to another is atomic. */
+  private static ReentrantLock switchQueueLock;
+  /** Whether the replay threads are started, additional replay threads can only be added while they are. */
+  private static boolean replayThreadsStarted;
 
   /** Enum that symbolizes the state of the multimaster replication. */
   private enum State
@@ -270,6 +280,7 @@ public class MultimasterReplication
     cfg.addReplicationChangeListener(this);
 
     replayThreadNumber = getNumberOfReplayThreadsOrDefault(cfg);
+    maxReplayThreadNumber = getMaxNumberOfReplayThreads(cfg, replayThreadNumber);
     connectionTimeoutMS = (int) Math.min(cfg.getConnectionTimeout(), Integer.MAX_VALUE);
 
     //  Create the list of domains that are already defined.
@@ -296,23 +307,82 @@ public class MultimasterReplication
     return value == null ? Platform.computeNumberOfThreads(16, 2.0f) : value;
   }
 
+  private int getMaxNumberOfReplayThreads(ReplicationSynchronizationProviderCfg cfg, int numberOfReplayThreads)
+  {
+    Integer value = cfg.getMaxUpdateReplayThreads();
+    return value == null ? numberOfReplayThreads : Math.max(value, numberOfReplayThreads);
+  }
+
   /** Create the threads that will wait for incoming update messages. */
   private static synchronized void createReplayThreads()
   {
     replayThreads.clear();
 
-    ReentrantLock switchQueueLock = new ReentrantLock();
+    switchQueueLock = new ReentrantLock();
     for (int i = 0; i < replayThreadNumber; i++)
     {
       ReplayThread replayThread = new ReplayThread(updateToReplayQueue, switchQueueLock);
       replayThread.start();
       replayThreads.add(replayThread);
     }
+    replayThreadsStarted = true;
+  }
+
+  /**
+   * Starts an additional replay thread when the queue of updates to replay is backlogged, unless the maximum number
+   * of replay threads is already running. Additional replay threads stop by themselves once they have been idle for
+   * a while.
+   */
+  static void addReplayThreadIfBacklogged()
+  {
+    if (isReplayBacklogged())
+    {
+      addReplayThread();
+    }
+  }
+
+  private static boolean isReplayBacklogged()
+  {
+    final int nbReplayThreads = replayThreads.size();
+    return nbReplayThreads < maxReplayThreadNumber
+        && updateToReplayQueue.size() > nbReplayThreads * REPLAY_BACKLOG_PER_THREAD;
+  }
+
+  private static synchronized void addReplayThread()
+  {
+    if (replayThreadsStarted && isReplayBacklogged())
+    {
+      ReplayThread replayThread =
+          new ReplayThread(updateToReplayQueue, switchQueueLock, ADDITIONAL_REPLAY_THREAD_MAX_IDLE_TIME_MS);
+      replayThreads.add(replayThread);
+      replayThread.start();
+    }
+  }
+
+  /**
+   * Forgets an additional replay thread which stopped after being idle.
+   *
+   * @param replayThread the replay thread which stopped
+   */
+  static void replayThreadStopped(ReplayThread replayThread)
+  {
+    replayThreads.remove(replayThread);
+  }
+
+  /**
+   * Returns the number of replay threads currently running.
+   *
+   * @return the number of replay threads currently running
+   */
+  static int getNumberOfReplayThreads()
+  {
+    return replayThreads.size();
   }
 
   /** Stop the threads that are waiting for incoming update messages. */
   private static synchronized void stopReplayThreads()
   {
+    replayThreadsStarted = false;
     //  stop the replay threads
     for (ReplayThread replayThread : replayThreads)
     {
@@ -747,6 +817,7 @@ public class MultimasterReplication
     // Stop threads then restart new number of threads
     stopReplayThreads();
     replayThreadNumber = getNumberOfReplayThreadsOrDefault(configuration);
+    maxReplayThreadNumber = getMaxNumberOfReplayThreads(configuration, replayThreadNumber);
     if (!domains.isEmpty())
     {
       createReplayThreads();
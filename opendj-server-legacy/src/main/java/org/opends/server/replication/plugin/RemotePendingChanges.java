@@ -16,7 +16,11 @@
  */
 package org.opends.server.replication.plugin;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -72,10 +76,35 @@ final class RemotePendingChanges
    */
   private final ConcurrentSkipListSet<PendingChange> activeAndDependentChanges = new ConcurrentSkipListSet<>();
 
+  /*
+   * Indexes over activeAndDependentChanges, keyed by the DNs looked at by the dependency rules,
+   * so that checking the dependencies of a replayed operation does not iterate over all the changes in progress.
+   */
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN addsByDN = new ChangesByDN();
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN deletesByDN = new ChangesByDN();
+  /** Deletes indexed by their target DN and by each of its superior DNs. */
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN deletesBySuperiorDN = new ChangesByDN();
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN modifiesByDN = new ChangesByDN();
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN modifyDNsByDN = new ChangesByDN();
+  /** Modify DNs indexed by their target DN and by each of its superior DNs. */
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN modifyDNsBySuperiorDN = new ChangesByDN();
+  @GuardedBy("activeChangesIndexLock")
+  private final ChangesByDN modifyDNsByNewDN = new ChangesByDN();
+  /** The DNs each change was indexed with, conflict resolution can modify the DNs of a change in progress. */
+  @GuardedBy("activeChangesIndexLock")
+  private final Map<PendingChange, IndexedDNs> indexedDNs = new HashMap<>();
+
   private final ReentrantReadWriteLock pendingChangesLock = new ReentrantReadWriteLock(true);
   private final ReentrantReadWriteLock.ReadLock pendingChangesReadLock = pendingChangesLock.readLock();
   private final ReentrantReadWriteLock.WriteLock pendingChangesWriteLock = pendingChangesLock.writeLock();
   private final ReentrantLock dependentChangesLock = new ReentrantLock();
+  private final ReentrantReadWriteLock activeChangesIndexLock = new ReentrantReadWriteLock();
 
   /** The ServerState that will be updated when LDAPUpdateMsg are fully replayed. */
   private final ServerState state;
@@ -177,7 +206,10 @@ final class RemotePendingChanges
         throw new NoSuchElementException();
       }
       curChange.setCommitted(true);
-      activeAndDependentChanges.remove(curChange);
+      if (activeAndDependentChanges.remove(curChange))
+      {
+        unindexActiveChange(curChange);
+      }
 
       final Iterator<PendingChange> it = pendingChanges.values().iterator();
       while (it.hasNext())
@@ -205,13 +237,124 @@ final class RemotePendingChanges
     pendingChangesReadLock.lock();
     try
     {
-      activeAndDependentChanges.add(pendingChanges.get(msg.getCSN()));
+      final PendingChange change = pendingChanges.get(msg.getCSN());
+      if (activeAndDependentChanges.add(change))
+      {
+        indexActiveChange(change);
+      }
     }
     finally
     {
       pendingChangesReadLock.unlock();
     }
   }
+
+  /**
+   * Updates the dependency indexes after conflict resolution modified the DN or the new DN of a change in progress.
+   *
+   * @param msg the LDAPUpdateMsg modified by conflict resolution
+   */
+  public void updateInProgress(LDAPUpdateMsg msg)
+  {
+    final PendingChange change = getPendingChange(msg.getCSN());
+    if (change != null)
+    {
+      activeChangesIndexLock.writeLock().lock();
+      try
+      {
+        final IndexedDNs oldDNs = indexedDNs.remove(change);
+        if (oldDNs != null)
+        {
+          updateActiveChangeIndexes(change, oldDNs, false);
+          indexedDNs.put(change, updateActiveChangeIndexes(change, new IndexedDNs(msg), true));
+        }
+      }
+      finally
+      {
+        activeChangesIndexLock.writeLock().unlock();
+      }
+    }
+  }
+
+  private void indexActiveChange(PendingChange change)
+  {
+    activeChangesIndexLock.writeLock().lock();
+    try
+    {
+      indexedDNs.put(change, updateActiveChangeIndexes(change, new IndexedDNs(change.getLDAPUpdateMsg()), true));
+    }
+    finally
+    {
+      activeChangesIndexLock.writeLock().unlock();
+    }
+  }
+
+  private void unindexActiveChange(PendingChange change)
+  {
+    activeChangesIndexLock.writeLock().lock();
+    try
+    {
+      final IndexedDNs oldDNs = indexedDNs.remove(change);
+      if (oldDNs != null)
+      {
+        updateActiveChangeIndexes(change, oldDNs, false);
+      }
+    }
+    finally
+    {
+      activeChangesIndexLock.writeLock().unlock();
+    }
+  }
+
+  @GuardedBy("activeChangesIndexLock")
+  private IndexedDNs updateActiveChangeIndexes(PendingChange change, IndexedDNs dns, boolean add)
+  {
+    final LDAPUpdateMsg msg = change.getLDAPUpdateMsg();
+    if (dns.dn == null)
+    {
+      return dns;
+    }
+    if (msg instanceof AddMsg)
+    {
+      addsByDN.update(dns.dn, change, add);
+    }
+    else if (msg instanceof DeleteMsg)
+    {
+      deletesByDN.update(dns.dn, change, add);
+      for (DN superiorDN : superiorOrEqualDNs(dns.dn))
+      {
+        deletesBySuperiorDN.update(superiorDN, change, add);
+      }
+    }
+    else if (msg instanceof ModifyMsg)
+    {
+      modifiesByDN.update(dns.dn, change, add);
+    }
+    else if (msg instanceof ModifyDNMsg)
+    {
+      modifyDNsByDN.update(dns.dn, change, add);
+      for (DN superiorDN : superiorOrEqualDNs(dns.dn))
+      {
+        modifyDNsBySuperiorDN.update(superiorDN, change, add);
+      }
+      if (dns.newDN != null)
+      {
+        modifyDNsByNewDN.update(dns.newDN, change, add);
+      }
+    }
+    return dns;
+  }
+
+  /** Returns the provided DN followed by all its superior DNs, excluding the root DN. */
+  private static List<DN> superiorOrEqualDNs(DN dn)
+  {
+    final List<DN> dns = new ArrayList<>(dn.size());
+    for (DN superiorDN = dn; superiorDN != null && !superiorDN.isRootDN(); superiorDN = superiorDN.parent())
+    {
+      dns.add(superiorDN);
+    }
+    return dns;
+  }
   /**
    * Get the first update in the list that have some dependencies cleared.
    *
@@ -259,6 +402,15 @@ final class RemotePendingChanges
     }
   }
 
+  private boolean addDependencyIf(boolean hasDependencies, PendingChange dependentChange)
+  {
+    if (hasDependencies)
+    {
+      addDependency(dependentChange);
+    }
+    return hasDependencies;
+  }
+
   private PendingChange getPendingChange(CSN csn)
   {
     pendingChangesReadLock.lock();
@@ -297,55 +449,27 @@ final class RemotePendingChanges
       return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = op.getEntryDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    activeChangesIndexLock.readLock().lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
-      {
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          // it is a deleteOperation on the same DN
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof AddMsg)
+      // a DeleteOperation or a ModifyDnOperation with the same target DN as the ADD DN
+      boolean hasDependencies = deletesByDN.containsOlderThan(targetDN, csn)
+          || modifyDNsByDN.containsOlderThan(targetDN, csn);
+      for (DN superiorDN : superiorOrEqualDNs(targetDN))
       {
-        if (pendingMsg.getDN().isSuperiorOrEqualTo(targetDN))
-        {
-          // it is an addOperation on a parent of the current AddOperation
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof ModifyDNMsg)
-      {
-        // it is a ModifyDnOperation with the same target DN as the ADD DN
-        // or a ModifyDnOperation with new DN equals to the ADD DN parent?
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-        else
-        {
-          final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-          if (pendingModDn.newDNIsParent(targetDN))
-          {
-            hasDependencies = true;
-            addDependency(change);
-          }
-        }
+        // an AddOperation on a parent of the current AddOperation
+        // or a ModifyDnOperation with new DN equals to the ADD DN parent
+        hasDependencies = hasDependencies
+            || addsByDN.containsOlderThan(superiorDN, csn)
+            || modifyDNsByNewDN.containsOlderThan(superiorDN, csn);
       }
+      return addDependencyIf(hasDependencies, change);
+    }
+    finally
+    {
+      activeChangesIndexLock.readLock().unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -371,44 +495,20 @@ final class RemotePendingChanges
         return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = change.getLDAPUpdateMsg().getDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    activeChangesIndexLock.readLock().lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof AddMsg)
-      {
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          // it is an addOperation on a same DN
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof ModifyDNMsg)
-      {
-        if (((ModifyDNMsg) pendingMsg).newDNIsEqual(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof ModifyMsg)
-      {
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          // it is another modify on the same DN, they depend
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
+      // an AddOperation or another ModifyOperation on the same DN, or a ModifyDNOperation having newDN the same as
+      // targetDN
+      return addDependencyIf(addsByDN.containsOlderThan(targetDN, csn)
+          || modifiesByDN.containsOlderThan(targetDN, csn)
+          || modifyDNsByNewDN.containsOlderThan(targetDN, csn), change);
+    }
+    finally
+    {
+      activeChangesIndexLock.readLock().unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -438,54 +538,33 @@ final class RemotePendingChanges
       return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = change.getLDAPUpdateMsg().getDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    final DN newDN = msg.getNewDN();
+    final DN newSuperiorDN = msg.getNewSuperiorDN();
+    activeChangesIndexLock.readLock().lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
-      {
-        // Check if the target of the Delete is the same
-        // as the new DN of this ModifyDN
-        if (msg.newDNIsEqual(pendingMsg.getDN()))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof AddMsg)
+      // an AddOperation done on the same DN as the target DN of the MODDN operation
+      boolean hasDependencies = addsByDN.containsOlderThan(targetDN, csn);
+      if (newSuperiorDN != null)
       {
-        // Check if the Add Operation was done on the new parent of
-        // the MODDN  operation
-        if (msg.newParentIsEqual(pendingMsg.getDN()))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-        // Check if the AddOperation was done on the same DN as the
-        // target DN of the MODDN operation
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
+        // an AddOperation done on the new parent of the MODDN operation
+        hasDependencies = hasDependencies || addsByDN.containsOlderThan(newSuperiorDN, csn);
       }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      if (newDN != null)
       {
-        if (msg.newDNIsEqual(pendingMsg.getDN()))
-        {
-          // the ModifyDNOperation was done from the new DN of the MODDN operation
-          hasDependencies = true;
-          addDependency(change);
-        }
+        // a DeleteOperation done on the new DN of the MODDN operation
+        // or a ModifyDNOperation done from the new DN of the MODDN operation
+        hasDependencies = hasDependencies
+            || deletesByDN.containsOlderThan(newDN, csn)
+            || modifyDNsByDN.containsOlderThan(newDN, csn);
       }
+      return addDependencyIf(hasDependencies, change);
+    }
+    finally
+    {
+      activeChangesIndexLock.readLock().unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -513,55 +592,26 @@ final class RemotePendingChanges
       return false;
     }
 
-    boolean hasDependencies = false;
     final DN targetDN = op.getEntryDN();
-    for (PendingChange pendingChange : activeAndDependentChanges)
+    activeChangesIndexLock.readLock().lock();
+    try
     {
-      if (pendingChange.getCSN().isNewerThanOrEqualTo(csn))
-      {
-        // From now on, the dependency should be for newer changes to be dependent on this one, so we can stop for now.
-        break;
-      }
-      final LDAPUpdateMsg pendingMsg = pendingChange.getLDAPUpdateMsg();
-      if (pendingMsg instanceof DeleteMsg)
-      {
-          /*
-           * Check if the operation to be run is a deleteOperation on a
-           * children of the current DeleteOperation.
-           */
-        if (pendingMsg.getDN().isSubordinateOrEqualTo(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof AddMsg)
-      {
-          /*
-           * Check if the operation to be run is an addOperation on a
-           * parent of the current DeleteOperation.
-           */
-        if (pendingMsg.getDN().equals(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
-      }
-      else if (pendingMsg instanceof ModifyDNMsg)
+      // a DeleteOperation or a ModifyDNOperation on a children of the current DeleteOperation,
+      // or an AddOperation on the same DN
+      boolean hasDependencies = deletesBySuperiorDN.containsOlderThan(targetDN, csn)
+          || modifyDNsBySuperiorDN.containsOlderThan(targetDN, csn)
+          || addsByDN.containsOlderThan(targetDN, csn);
+      for (DN superiorDN : superiorOrEqualDNs(targetDN))
       {
-        final ModifyDNMsg pendingModDn = (ModifyDNMsg) pendingMsg;
-          /*
-           * Check if the operation to be run is an ModifyDNOperation
-           * on a children of the current DeleteOperation
-           */
-        if (pendingMsg.getDN().isSubordinateOrEqualTo(targetDN) || pendingModDn.newDNIsParent(targetDN))
-        {
-          hasDependencies = true;
-          addDependency(change);
-        }
+        // a ModifyDNOperation whose new DN is a parent of the current DeleteOperation
+        hasDependencies = hasDependencies || modifyDNsByNewDN.containsOlderThan(superiorDN, csn);
       }
+      return addDependencyIf(hasDependencies, change);
+    }
+    finally
+    {
+      activeChangesIndexLock.readLock().unlock();
     }
-    return hasDependencies;
   }
 
   /**
@@ -595,4 +645,47 @@ final class RemotePendingChanges
       return true;  // unknown type of operation ?!
     }
   }
+
+  /** The DNs of a change used as keys of the dependency indexes. */
+  private static final class IndexedDNs
+  {
+    private final DN dn;
+    private final DN newDN;
+
+    private IndexedDNs(LDAPUpdateMsg msg)
+    {
+      this.dn = msg != null ? msg.getDN() : null;
+      this.newDN = msg instanceof ModifyDNMsg ? ((ModifyDNMsg) msg).getNewDN() : null;
+    }
+  }
+
+  /** Changes in progress indexed by DN, each DN mapping to its changes sorted by CSN. */
+  private static final class ChangesByDN
+  {
+    private final Map<DN, SortedSet<PendingChange>> changes = new HashMap<>();
+
+    void update(DN dn, PendingChange change, boolean add)
+    {
+      SortedSet<PendingChange> changesForDN = changes.get(dn);
+      if (add)
+      {
+        if (changesForDN == null)
+        {
+          changesForDN = new TreeSet<>();
+          changes.put(dn, changesForDN);
+        }
+        changesForDN.add(change);
+      }
+      else if (changesForDN != null && changesForDN.remove(change) && changesForDN.isEmpty())
+      {
+        changes.remove(dn);
+      }
+    }
+
+    boolean containsOlderThan(DN dn, CSN csn)
+    {
+      final SortedSet<PendingChange> changesForDN = changes.get(dn);
+      return changesForDN != null && changesForDN.first().getCSN().isOlderThan(csn);
+    }
+  }
 }
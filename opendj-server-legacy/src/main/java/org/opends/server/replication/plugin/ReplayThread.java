@@ -27,6 +27,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.opends.server.api.DirectoryThread;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.util.TimeThread;
 
 /**
  * Thread that is used to get message from the replication servers (stored
@@ -42,6 +43,8 @@ public class ReplayThread extends DirectoryThread
   private final BlockingQueue<UpdateToReplay> updateToReplayQueue;
   private final ReentrantLock switchQueueLock;
   private AtomicBoolean shutdown = new AtomicBoolean(false);
+  /** How long this thread can stay idle before stopping, or 0 if it runs until shut down. */
+  private final long maxIdleTimeMillis;
   private static int count;
 
   /**
@@ -51,10 +54,24 @@ public class ReplayThread extends DirectoryThread
    * @param switchQueueLock lock to ensure moving updates from one queue to another is atomic
    */
   public ReplayThread(BlockingQueue<UpdateToReplay> updateToReplayQueue, ReentrantLock switchQueueLock)
+  {
+    this(updateToReplayQueue, switchQueueLock, 0);
+  }
+
+  /**
+   * Constructor for a ReplayThread stopping by itself after being idle for some time.
+   *
+   * @param updateToReplayQueue The queue of update messages we have to replay
+   * @param switchQueueLock lock to ensure moving updates from one queue to another is atomic
+   * @param maxIdleTimeMillis how long the thread can stay idle before stopping, or 0 if it runs until shut down
+   */
+  public ReplayThread(BlockingQueue<UpdateToReplay> updateToReplayQueue, ReentrantLock switchQueueLock,
+      long maxIdleTimeMillis)
   {
     super("Replica replay thread " + count++);
     this.updateToReplayQueue = updateToReplayQueue;
     this.switchQueueLock = switchQueueLock;
+    this.maxIdleTimeMillis = maxIdleTimeMillis;
   }
 
   /**
@@ -76,8 +93,14 @@ public class ReplayThread extends DirectoryThread
       logger.trace("Replication Replay thread starting.");
     }
 
+    long lastActivityTime = TimeThread.getTime();
     while (!shutdown.get())
     {
+      if (maxIdleTimeMillis > 0 && TimeThread.getTime() - lastActivityTime > maxIdleTimeMillis)
+      {
+        MultimasterReplication.replayThreadStopped(this);
+        break;
+      }
       try
       {
         if (switchQueueLock.tryLock(1L, TimeUnit.SECONDS))
@@ -104,6 +127,8 @@ public class ReplayThread extends DirectoryThread
           {
             switchQueueLock.unlock();
           }
+          lastActivityTime = TimeThread.getTime();
+          MultimasterReplication.addReplayThreadIfBacklogged();
           domain.replay(updateMsg, shutdown);
         }
       }
@@ -368,6 +368,40 @@ public class ModifyDNMsg extends ModifyCommonMsg
     return parentDn.child(RDN.valueOf(newRDN));
   }
 
+  /**
+   * Returns the DN of the target entry after this modify DN is applied.
+   *
+   * @return the new DN of the target entry, or null if it is not a valid DN
+   */
+  public DN getNewDN()
+  {
+    try
+    {
+      return computeNewDN();
+    }
+    catch (LocalizedIllegalArgumentException e)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the DN of the new superior of this modify DN, or the root DN when the entry is not moved.
+   *
+   * @return the DN of the new superior, or null if it is not a valid DN
+   */
+  public DN getNewSuperiorDN()
+  {
+    try
+    {
+      return newSuperior != null ? DN.valueOf(newSuperior) : DN.rootDN();
+    }
+    catch (LocalizedIllegalArgumentException e)
+    {
+      return null;
+    }
+  }
+
   /**
    * Check if this MSG will change the DN of the target entry to be
    * the same as the dn given as a parameter.
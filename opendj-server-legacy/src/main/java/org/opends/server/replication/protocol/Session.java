@@ -28,6 +28,7 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
@@ -100,6 +101,25 @@ public final class Session extends DirectoryThread implements Closeable
   private AtomicBoolean isRunning = new AtomicBoolean(false);
   private final CountDownLatch latch = new CountDownLatch(1);
 
+  /**
+   * Maximum number of messages sent by a pool thread before letting the other
+   * sessions of the pool be drained.
+   */
+  private static final int MAX_MESSAGES_PER_POOLED_SEND = 64;
+  /** The pool sending the queued messages, {@code null} when this session owns its thread. */
+  private volatile SessionWriterPool writerPool;
+  /** Whether this session is scheduled or being drained on the writer pool. */
+  private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+  /** Drains the send queue from a thread of the writer pool. */
+  private final Runnable pooledSender = new Runnable()
+  {
+    @Override
+    public void run()
+    {
+      sendQueuedMessages();
+    }
+  };
+
   /**
    * Creates a new Session.
    *
@@ -157,12 +177,21 @@ public final class Session extends DirectoryThread implements Closeable
       closeInitiated = true;
     }
 
-    try {
-      interrupt();
-      join();
+    if (writerPool != null)
+    {
+      // messages published from now on are sent directly,
+      // and the thread of this session was never started
+      isRunning.set(false);
     }
-    catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+    else
+    {
+      try {
+        interrupt();
+        join();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
     }
 
     // Perform close outside of critical section.
@@ -322,6 +351,10 @@ public final class Session extends DirectoryThread implements Closeable
           // Avoid blocking forever so that we can check for session closure.
           if (sendQueue.offer(buffer, 100, TimeUnit.MILLISECONDS))
           {
+            if (writerPool != null)
+            {
+              scheduleOnWriterPool();
+            }
             return;
           }
         }
@@ -565,6 +598,87 @@ public final class Session extends DirectoryThread implements Closeable
     }
   }
 
+  /**
+   * Starts sending the published messages from the threads of the provided pool,
+   * instead of from a thread owned by this session.
+   *
+   * @param pool
+   *          the pool sending the messages published on this session
+   */
+  public void start(final SessionWriterPool pool)
+  {
+    writerPool = pool;
+    isRunning.set(true);
+    latch.countDown();
+    if (logger.isTraceEnabled())
+    {
+      logger.trace(getName() + " started on the session writer pool.");
+    }
+  }
+
+  private void scheduleOnWriterPool() throws IOException
+  {
+    if (!sendQueue.isEmpty() && isScheduled.compareAndSet(false, true))
+    {
+      try
+      {
+        writerPool.execute(pooledSender);
+      }
+      catch (RejectedExecutionException e)
+      {
+        // the pool is shutting down
+        isScheduled.set(false);
+        setSessionError(e);
+        throw new IOException(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Sends a bounded number of queued messages, then reschedules this session if
+   * messages remain, so that each pool thread is fairly shared between sessions.
+   */
+  private void sendQueuedMessages()
+  {
+    try
+    {
+      for (int i = 0; i < MAX_MESSAGES_PER_POOLED_SEND && !closeInitiated; i++)
+      {
+        final byte[] buffer = sendQueue.poll();
+        if (buffer == null)
+        {
+          break;
+        }
+        send(buffer);
+      }
+    }
+    catch (IOException e)
+    {
+      // the error has been recorded by send()
+      close();
+      return;
+    }
+    finally
+    {
+      // do not leave this session scheduled forever if send() failed unexpectedly
+      isScheduled.set(false);
+    }
+
+    if (!closeInitiated)
+    {
+      try
+      {
+        // messages may have been queued after the last poll(),
+        // while this session was still seen as scheduled
+        scheduleOnWriterPool();
+      }
+      catch (IOException e)
+      {
+        close();
+      }
+    }
+  }
+
   /**
    * This method can be called to wait until the session thread is
    * properly started.
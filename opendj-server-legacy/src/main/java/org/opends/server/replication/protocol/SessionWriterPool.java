@@ -0,0 +1,99 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.replication.protocol;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.opends.server.api.DirectoryThread;
+
+/**
+ * A pool of threads sending the messages published on many sessions.
+ * <p>
+ * By default, each session started by a replication server owns a thread
+ * sending the messages queued for the remote server. With many connected
+ * servers, sessions started with {@link Session#start(SessionWriterPool)}
+ * instead share the threads of this pool: a session is scheduled on the pool
+ * when messages are queued for it, and is drained by a single pool thread at a
+ * time so that messages are still sent in order. The send queue of each
+ * session remains bounded.
+ */
+public final class SessionWriterPool
+{
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Creates a new pool of session writer threads.
+   *
+   * @param threadNamePrefix
+   *          the name prefix of the pool threads
+   * @param nbThreads
+   *          the number of threads of the pool
+   */
+  public SessionWriterPool(final String threadNamePrefix, final int nbThreads)
+  {
+    executor = new ThreadPoolExecutor(nbThreads, nbThreads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(), new DirectoryThread.Factory(threadNamePrefix));
+  }
+
+  /**
+   * Changes the number of threads of this pool.
+   *
+   * @param nbThreads
+   *          the new number of threads
+   */
+  public void setNumberOfThreads(final int nbThreads)
+  {
+    if (nbThreads > executor.getMaximumPoolSize())
+    {
+      executor.setMaximumPoolSize(nbThreads);
+      executor.setCorePoolSize(nbThreads);
+    }
+    else
+    {
+      executor.setCorePoolSize(nbThreads);
+      executor.setMaximumPoolSize(nbThreads);
+    }
+  }
+
+  /**
+   * Returns the number of threads of this pool.
+   *
+   * @return the number of threads of this pool
+   */
+  public int getNumberOfThreads()
+  {
+    return executor.getMaximumPoolSize();
+  }
+
+  /**
+   * Schedules the sending of the messages queued on a session.
+   *
+   * @param sender
+   *          the task draining the send queue of the session
+   */
+  void execute(final Runnable sender)
+  {
+    executor.execute(sender);
+  }
+
+  /** Stops the threads of this pool, messages still queued on the sessions are not sent. */
+  public void shutdown()
+  {
+    executor.shutdownNow();
+  }
+}
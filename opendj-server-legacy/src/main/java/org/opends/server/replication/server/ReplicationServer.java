@@ -66,6 +66,7 @@ import org.opends.server.replication.protocol.ReplSessionSecurity;
 import org.opends.server.replication.protocol.ReplicationMsg;
 import org.opends.server.replication.protocol.ServerStartMsg;
 import org.opends.server.replication.protocol.Session;
+import org.opends.server.replication.protocol.SessionWriterPool;
 import org.opends.server.replication.server.changelog.api.ChangeNumberIndexDB;
 import org.opends.server.replication.server.changelog.api.ChangeNumberIndexRecord;
 import org.opends.server.replication.server.changelog.api.ChangelogDB;
@@ -92,6 +93,8 @@ public class ReplicationServer
 
   private ServerSocket listenSocket;
   private Thread listenThread;
+  /** Pool of threads shared by the sessions to send messages, {@code null} if not configured. */
+  private volatile SessionWriterPool sessionWriterPool;
   private Thread connectThread;
 
   /** The current configuration of this replication server. */
@@ -183,6 +186,7 @@ public class ReplicationServer
     this.changelogDB = new FileChangelogDB(this, config.getReplicationDBDirectory(), cryptoSuite);
 
     replSessionSecurity = new ReplSessionSecurity();
+    updateSessionWriterPool();
     initialize();
     cfg.addChangeListener(this);
 
@@ -812,6 +816,11 @@ public class ReplicationServer
 
     shutdownExternalChangelog();
 
+    if (sessionWriterPool != null)
+    {
+      sessionWriterPool.shutdown();
+    }
+
     try
     {
       this.changelogDB.shutdownDB();
@@ -903,6 +912,7 @@ public class ReplicationServer
 
     cryptoSuite.newParameters(config.getCipherTransformation(), config.getCipherKeyLength(),
         config.isConfidentialityEnabled());
+    updateSessionWriterPool();
 
     // changing the listen port requires to stop the listen thread
     // and restart it.
@@ -1361,6 +1371,69 @@ public class ReplicationServer
     return config.isComputeChangeNumber();
   }
 
+  private void updateSessionWriterPool()
+  {
+    final int nbThreads = config.getSessionWriterThreads();
+    if (nbThreads > 0)
+    {
+      if (sessionWriterPool == null)
+      {
+        sessionWriterPool = new SessionWriterPool(
+            "Replication server RS(" + getServerId() + ") session writer", nbThreads);
+      }
+      else
+      {
+        sessionWriterPool.setNumberOfThreads(nbThreads);
+      }
+    }
+    // else keep the pool for the sessions already using it
+  }
+
+  /**
+   * Returns the pool of threads sending the messages published on the sessions
+   * of this replication server.
+   *
+   * @return the session writer pool, or {@code null} if each session must own
+   *         the thread sending its messages
+   */
+  SessionWriterPool getSessionWriterPool()
+  {
+    return config.getSessionWriterThreads() > 0 ? sessionWriterPool : null;
+  }
+
+  /**
+   * Returns whether changes added to the changelog are synchronized to the file
+   * system, in groups, before being acknowledged.
+   *
+   * @return true if changelog group commit is enabled for this RS.
+   */
+  public boolean isChangelogGroupCommitEnabled()
+  {
+    return config.isChangelogGroupCommitEnabled();
+  }
+
+  /**
+   * Returns the maximum time a group of changes waits for more changes before
+   * being synchronized to the file system.
+   *
+   * @return the changelog group commit interval in milliseconds
+   */
+  public long getChangelogGroupCommitInterval()
+  {
+    return config.getChangelogGroupCommitInterval();
+  }
+
+  /**
+   * Returns the number of changes after which a group of changes is
+   * synchronized to the file system without waiting for more changes.
+   *
+   * @return the changelog group commit maximum batch size
+   */
+  public int getChangelogGroupCommitMaxBatchSize()
+  {
+    return config.getChangelogGroupCommitMaxBatchSize();
+  }
+
   /**
    * Returns whether the external change-log contains data from at least a domain.
    * @return whether the external change-log contains data from at least a domain
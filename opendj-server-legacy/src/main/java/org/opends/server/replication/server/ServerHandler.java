@@ -46,6 +46,7 @@ import org.opends.server.replication.protocol.ReplicationMsg;
 import org.opends.server.replication.protocol.ResetGenerationIdMsg;
 import org.opends.server.replication.protocol.RoutableMsg;
 import org.opends.server.replication.protocol.Session;
+import org.opends.server.replication.protocol.SessionWriterPool;
 import org.opends.server.replication.protocol.StartMsg;
 import org.opends.server.replication.protocol.StartSessionMsg;
 import org.opends.server.replication.protocol.TopologyMsg;
@@ -295,7 +296,15 @@ public abstract class ServerHandler extends MessageHandler
       session.setName("Replication server RS(" + getReplicationServerId()
           + ") session thread to " + this + " at "
           + session.getReadableRemoteAddress());
-      session.start();
+      final SessionWriterPool sessionWriterPool = replicationServer.getSessionWriterPool();
+      if (sessionWriterPool != null)
+      {
+        session.start(sessionWriterPool);
+      }
+      else
+      {
+        session.start();
+      }
       try
       {
         session.waitForStartup();
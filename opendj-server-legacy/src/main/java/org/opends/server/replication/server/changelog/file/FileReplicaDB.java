@@ -140,6 +140,9 @@ class FileReplicaDB
 
   /**
    * Adds a new message.
+   * <p>
+   * When changelog group commit is enabled, returns once the message has been
+   * synchronized to the file system.
    *
    * @param updateMsg
    *          The update message to add.
@@ -156,6 +159,11 @@ class FileReplicaDB
     }
 
     log.append(Record.from(updateMsg.getCSN(), updateMsg));
+    if (replicationServer.isChangelogGroupCommitEnabled())
+    {
+      replicationEnv.getReplicaDBGroupCommit().awaitDurable(log,
+          replicationServer.getChangelogGroupCommitInterval(), replicationServer.getChangelogGroupCommitMaxBatchSize());
+    }
 
     final CSNLimits limits = csnLimits;
     final boolean updateNew = limits.newestCSN == null || limits.newestCSN.isOlderThan(updateMsg.getCSN());
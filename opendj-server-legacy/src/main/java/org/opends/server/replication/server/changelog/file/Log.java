@@ -508,6 +508,11 @@ final class Log<K extends Comparable<K>, V> implements Closeable
     exclusiveLock.lock();
     try
     {
+      if (isClosed)
+      {
+        // log files are synchronized when closed
+        return;
+      }
       getHeadLogFile().syncToFileSystem();
     }
     finally
@@ -0,0 +1,184 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+
+/**
+ * Makes the records appended to logs durable by synchronizing them to the file
+ * system in groups.
+ * <p>
+ * Threads that have appended a record call {@link #awaitDurable(Log, long, int)}.
+ * The first of them becomes the leader of the current batch: it waits for the
+ * batch to fill, up to the group commit interval or the maximum batch size, then
+ * synchronizes once each log having records in the batch. Meanwhile, the other
+ * threads either join the batch being filled or the next one, and return once
+ * their batch has been synchronized. Hence a single synchronization of a log
+ * covers all the records appended to it by concurrent threads.
+ * <p>
+ * This class is thread safe.
+ */
+class LogGroupCommit
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** A group of records waiting to be synchronized to the file system. */
+  private static final class Batch
+  {
+    /** The logs where the records of this batch have been appended. */
+    private final Set<Log<?, ?>> logs = new LinkedHashSet<>();
+    private int size;
+    private boolean synced;
+    /** The logs whose synchronization failed. */
+    private final Map<Log<?, ?>, ChangelogException> failures = new HashMap<>();
+  }
+
+  /** The batch currently accepting records, guarded by {@code this}. */
+  private Batch currentBatch = new Batch();
+  /** Whether a leader is filling or synchronizing a batch, guarded by {@code this}. */
+  private boolean leaderActive;
+
+  /**
+   * Waits until the records previously appended to the provided log by the current
+   * thread have been synchronized to the file system.
+   *
+   * @param log
+   *          the log where the records have been appended
+   * @param intervalInMillis
+   *          the maximum time to wait for a batch to fill before synchronizing it
+   * @param maxBatchSize
+   *          the number of records after which a batch is synchronized without waiting
+   * @throws ChangelogException
+   *           If the synchronization of the batch fails.
+   */
+  void awaitDurable(final Log<?, ?> log, final long intervalInMillis, final int maxBatchSize)
+      throws ChangelogException
+  {
+    boolean interrupted = false;
+    final Batch batch;
+    synchronized (this)
+    {
+      batch = currentBatch;
+      batch.logs.add(log);
+      batch.size++;
+      if (batch.size >= maxBatchSize)
+      {
+        // wake up the leader waiting for the batch to fill
+        notifyAll();
+      }
+    }
+
+    try
+    {
+      while (true)
+      {
+        final Batch batchToSync;
+        synchronized (this)
+        {
+          while (!batch.synced && leaderActive)
+          {
+            interrupted |= waitUninterruptibly(0);
+          }
+          if (batch.synced)
+          {
+            break;
+          }
+          // this thread becomes the leader for its own batch, which is the current one
+          leaderActive = true;
+          final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalInMillis);
+          long remaining;
+          while (batch.size < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0)
+          {
+            interrupted |= waitUninterruptibly(remaining);
+          }
+          batchToSync = currentBatch;
+          currentBatch = new Batch();
+        }
+
+        sync(batchToSync);
+
+        synchronized (this)
+        {
+          batchToSync.synced = true;
+          leaderActive = false;
+          notifyAll();
+        }
+      }
+    }
+    finally
+    {
+      if (interrupted)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    final ChangelogException failure = batch.failures.get(log);
+    if (failure != null)
+    {
+      throw failure;
+    }
+  }
+
+  private void sync(final Batch batch)
+  {
+    for (Log<?, ?> log : batch.logs)
+    {
+      try
+      {
+        log.syncToFileSystem();
+      }
+      catch (ChangelogException e)
+      {
+        logger.traceException(e);
+        batch.failures.put(log, e);
+      }
+    }
+  }
+
+  /**
+   * Waits on this object's monitor, deferring any interruption so that the
+   * records of the batch are not acknowledged before being synchronized.
+   *
+   * @return {@code true} if the current thread has been interrupted
+   */
+  private boolean waitUninterruptibly(final long timeoutInNanos)
+  {
+    try
+    {
+      if (timeoutInNanos > 0)
+      {
+        TimeUnit.NANOSECONDS.timedWait(this, timeoutInNanos);
+      }
+      else
+      {
+        wait();
+      }
+      return false;
+    }
+    catch (InterruptedException e)
+    {
+      return true;
+    }
+  }
+}
@@ -236,6 +236,9 @@ class ReplicationEnvironment implements ChangelogStateProvider
   /** The time service used for timing. */
   private final TimeService timeService;
 
+  /** Synchronizes to the file system the records appended to the replica DBs, when group commit is enabled. */
+  private final LogGroupCommit replicaDBGroupCommit = new LogGroupCommit();
+
   /**
    * For CN Index DB, a log file can be rotated once it has exceeded a given time interval.
    * <p>
@@ -315,6 +318,16 @@ class ReplicationEnvironment implements ChangelogStateProvider
     return changelogState;
   }
 
+  /**
+   * Returns the group commit shared by the logs of all the replica DBs.
+   *
+   * @return the group commit of the replica DBs
+   */
+  LogGroupCommit getReplicaDBGroupCommit()
+  {
+    return replicaDBGroupCommit;
+  }
+
   /**
    * Return the last rotation time for CN Index DB log files.
    *
@@ -3438,7 +3438,7 @@ public class Entry
    * @throws  DirectoryException  If a problem occurs while attempting
    *                              to encode the entry.
    */
-  private static Map<ObjectClass,String> decodeObjectClasses(
+  static Map<ObjectClass,String> decodeObjectClasses(
       byte ver, ByteSequenceReader entryBuffer,
       EntryEncodeConfig config) throws DirectoryException
   {
@@ -3548,8 +3548,9 @@ public class Entry
           // Version 2 includes a total attribute length
           entryBuffer.readBERLength();
         }
-        // Decode the attribute.
-        Attribute a = config.getCompressedSchema().decodeAttribute(entryBuffer);
+        // Decode the attribute, leaving its values to be decoded on demand.
+        AttributeDescription ad = config.getCompressedSchema().decodeAttributeDescription(entryBuffer);
+        Attribute a = LazyAttribute.decode(ad, entryBuffer);
         AttributeType attrType = a.getAttributeDescription().getAttributeType();
         List<Attribute> attrList = attributes.get(attrType);
         if (attrList == null)
@@ -0,0 +1,215 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.types;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.forgerock.opendj.ldap.AttributeDescription;
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
+
+/**
+ * A real attribute decoded from an {@link Entry#encode encoded entry}, whose values are only decoded when they are
+ * accessed.
+ * <p>
+ * Decoding an entry only reads the attribute description and the bounds of the encoded values of its attributes, so
+ * that the attributes which are never accessed, such as large binary attributes not requested by the client, cost
+ * neither allocations nor normalization. Iterating over the values reads them from the encoded values, whereas
+ * matching them materializes a regular attribute, which is then kept. This attribute is immutable and thread-safe,
+ * since decoding entries always produces equal attributes.
+ */
+final class LazyAttribute extends AbstractAttribute
+{
+  private final AttributeDescription attributeDescription;
+  /** The number of encoded values. */
+  private final int nbValues;
+  /** The length-value pairs of the values. */
+  private final ByteString encodedValues;
+  /** The materialized attribute, lazily initialized. */
+  private volatile Attribute attribute;
+
+  private LazyAttribute(AttributeDescription attributeDescription, int nbValues, ByteString encodedValues)
+  {
+    this.attributeDescription = attributeDescription;
+    this.nbValues = nbValues;
+    this.encodedValues = encodedValues;
+  }
+
+  /**
+   * Reads the values of an attribute at the current position, without decoding them.
+   *
+   * @param attributeDescription
+   *          The decoded attribute description of the attribute.
+   * @param reader
+   *          The byte sequence reader positioned on the number of values of the attribute.
+   * @return The attribute whose values will be decoded on demand.
+   */
+  static Attribute decode(AttributeDescription attributeDescription, ByteSequenceReader reader)
+  {
+    final int nbValues = reader.readBERLength();
+    final int start = reader.position();
+    for (int i = 0; i < nbValues; i++)
+    {
+      reader.skip(reader.readBERLength());
+    }
+    final int length = reader.position() - start;
+    reader.position(start);
+    // The values of an attribute stored as an immutable byte string are not copied
+    final ByteString encodedValues = reader.readByteSequence(length).toByteString();
+    return new LazyAttribute(toDecodedAttributeDescription(attributeDescription), nbValues, encodedValues);
+  }
+
+  /**
+   * Returns the attribute description that decoding an attribute produces: the compressed schema may hold a user
+   * provided attribute name, whereas decoded attributes are named after their attribute type.
+   *
+   * @param attributeDescription
+   *          The attribute description read from the compressed schema.
+   * @return The attribute description of the decoded attribute.
+   */
+  static AttributeDescription toDecodedAttributeDescription(AttributeDescription attributeDescription)
+  {
+    AttributeDescription decodedAD = AttributeDescription.create(attributeDescription.getAttributeType());
+    for (String option : attributeDescription.getOptions())
+    {
+      decodedAD = decodedAD.withOption(option);
+    }
+    return decodedAD;
+  }
+
+  private Attribute materialize()
+  {
+    Attribute a = attribute;
+    if (a == null)
+    {
+      final AttributeBuilder builder = new AttributeBuilder(attributeDescription);
+      for (ByteString value : this)
+      {
+        builder.add(value);
+      }
+      a = builder.toAttribute();
+      attribute = a;
+    }
+    return a;
+  }
+
+  @Override
+  public ConditionResult approximatelyEqualTo(ByteString assertionValue)
+  {
+    return materialize().approximatelyEqualTo(assertionValue);
+  }
+
+  @Override
+  public boolean contains(ByteString value)
+  {
+    return materialize().contains(value);
+  }
+
+  @Override
+  public ConditionResult matchesEqualityAssertion(ByteString assertionValue)
+  {
+    return materialize().matchesEqualityAssertion(assertionValue);
+  }
+
+  @Override
+  public AttributeDescription getAttributeDescription()
+  {
+    return attributeDescription;
+  }
+
+  @Override
+  public ConditionResult greaterThanOrEqualTo(ByteString assertionValue)
+  {
+    return materialize().greaterThanOrEqualTo(assertionValue);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return materialize().hashCode();
+  }
+
+  @Override
+  public boolean isVirtual()
+  {
+    return false;
+  }
+
+  @Override
+  public Iterator<ByteString> iterator()
+  {
+    final Attribute a = attribute;
+    if (a != null)
+    {
+      return a.iterator();
+    }
+    final ByteSequenceReader reader = encodedValues.asReader();
+    return new Iterator<ByteString>()
+    {
+      private int remaining = nbValues;
+
+      @Override
+      public boolean hasNext()
+      {
+        return remaining > 0;
+      }
+
+      @Override
+      public ByteString next()
+      {
+        if (remaining == 0)
+        {
+          throw new NoSuchElementException();
+        }
+        remaining--;
+        return reader.readByteSequence(reader.readBERLength()).toByteString();
+      }
+
+      @Override
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public ConditionResult lessThanOrEqualTo(ByteString assertionValue)
+  {
+    return materialize().lessThanOrEqualTo(assertionValue);
+  }
+
+  @Override
+  public ConditionResult matchesSubstring(ByteString subInitial, List<ByteString> subAny, ByteString subFinal)
+  {
+    return materialize().matchesSubstring(subInitial, subAny, subFinal);
+  }
+
+  @Override
+  public int size()
+  {
+    return nbValues;
+  }
+
+  @Override
+  public void toString(StringBuilder buffer)
+  {
+    materialize().toString(buffer);
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.types;
+
+import static org.opends.messages.CoreMessages.*;
+import static org.opends.server.util.ServerConstants.*;
+import static org.opends.server.util.StaticUtils.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.AbstractAttribute;
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.AttributeDescription;
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.LinkedAttribute;
+import org.forgerock.opendj.ldap.schema.CoreSchema;
+import org.forgerock.opendj.ldap.schema.ObjectClass;
+import org.opends.server.api.CompressedSchema;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.SubentryManager;
+
+/**
+ * The name and user attributes of an entry read from its {@link Entry#encode encoded form} without decoding it into
+ * an {@link Entry}. It allows a search returning all the user attributes of the entries to pass them through to the
+ * client as they are stored.
+ * <p>
+ * The attribute values are views on the encoded entry: they are neither copied nor normalized. The operational
+ * attributes are skipped. Only the entries whose search result entry is the stored entry can be passed through:
+ * referrals, subentries and the entries in the scope of collective attribute subentries must be decoded and returned
+ * as usual.
+ */
+public final class PassThroughEntry
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** A read-only attribute whose values are views on the encoded entry. */
+  private static final class PassThroughAttribute extends AbstractAttribute
+  {
+    private final AttributeDescription attributeDescription;
+    private final List<ByteString> values;
+
+    private PassThroughAttribute(AttributeDescription attributeDescription, List<ByteString> values)
+    {
+      this.attributeDescription = attributeDescription;
+      this.values = Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public boolean add(ByteString value)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+      // Values are not normalized, let a regular attribute match them
+      return new LinkedAttribute(attributeDescription, values).contains(value);
+    }
+
+    @Override
+    public AttributeDescription getAttributeDescription()
+    {
+      return attributeDescription;
+    }
+
+    @Override
+    public Iterator<ByteString> iterator()
+    {
+      return values.iterator();
+    }
+
+    @Override
+    public boolean remove(Object value)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size()
+    {
+      return values.size();
+    }
+  }
+
+  private final DN name;
+  private final List<Attribute> userAttributes;
+
+  private PassThroughEntry(DN name, List<Attribute> userAttributes)
+  {
+    this.name = name;
+    this.userAttributes = Collections.unmodifiableList(userAttributes);
+  }
+
+  /**
+   * Reads the name and user attributes of the encoded entry at the current position.
+   *
+   * @param entryBuffer
+   *          The byte sequence reader containing the encoded entry.
+   * @param compressedSchema
+   *          The compressed schema manager to use when decoding tokenized schema elements.
+   * @return The pass-through entry, or {@code null} if the entry cannot be passed through and must be decoded.
+   * @throws DirectoryException
+   *           If the provided bytes cannot be decoded as an entry.
+   */
+  public static PassThroughEntry decode(ByteSequenceReader entryBuffer, CompressedSchema compressedSchema)
+      throws DirectoryException
+  {
+    try
+    {
+      final byte version = entryBuffer.readByte();
+      if (version != 0x03 && version != 0x02)
+      {
+        // Older and unrecognized versions are left to the regular decoding.
+        return null;
+      }
+      final int configLength = entryBuffer.readBERLength();
+      final EntryEncodeConfig config = EntryEncodeConfig.decode(entryBuffer, configLength, compressedSchema);
+      if (config.excludeDN() || !config.compressAttributeDescriptions())
+      {
+        return null;
+      }
+
+      final DN name = DN.valueOf(entryBuffer.readByteSequence(entryBuffer.readBERLength()).toByteString());
+      final Map<ObjectClass, String> objectClasses = Entry.decodeObjectClasses(version, entryBuffer, config);
+      if (objectClasses.isEmpty()
+          || hasObjectClass(objectClasses, OC_REFERRAL)
+          || hasObjectClass(objectClasses, OC_SUBENTRY)
+          || hasObjectClass(objectClasses, OC_LDAP_SUBENTRY)
+          || hasCollectiveSubentries(name))
+      {
+        return null;
+      }
+
+      final int nbAttributes = entryBuffer.readBERLength();
+      final List<Attribute> userAttributes = new ArrayList<>(nbAttributes + 1);
+      userAttributes.add(toObjectClassAttribute(objectClasses));
+      for (int i = 0; i < nbAttributes; i++)
+      {
+        if (version < 0x03)
+        {
+          // Version 2 includes a total attribute length
+          entryBuffer.readBERLength();
+        }
+        final AttributeDescription ad = config.getCompressedSchema().decodeAttributeDescription(entryBuffer);
+        if (ad.getAttributeType().hasName(ATTR_REFERRAL_URL))
+        {
+          // Entries holding referral URLs are referrals too
+          return null;
+        }
+        final int nbValues = entryBuffer.readBERLength();
+        if (nbValues == 0)
+        {
+          continue;
+        }
+        final List<ByteString> values = new ArrayList<>(nbValues);
+        for (int j = 0; j < nbValues; j++)
+        {
+          values.add(entryBuffer.readByteSequence(entryBuffer.readBERLength()).toByteString());
+        }
+        userAttributes.add(new PassThroughAttribute(LazyAttribute.toDecodedAttributeDescription(ad), values));
+      }
+      return new PassThroughEntry(name, userAttributes);
+    }
+    catch (DirectoryException de)
+    {
+      throw de;
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_ENTRY_DECODE_EXCEPTION.get(getExceptionMessage(e)), e);
+    }
+  }
+
+  private static boolean hasObjectClass(Map<ObjectClass, String> objectClasses, String objectClassName)
+  {
+    for (ObjectClass objectClass : objectClasses.keySet())
+    {
+      if (objectClass.hasName(objectClassName))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasCollectiveSubentries(DN name)
+  {
+    // Collective subentries are selected by DN, then refined by filter, so this errs on the safe side.
+    final SubentryManager manager = DirectoryServer.getSubentryManager();
+    return manager != null && !manager.getCollectiveSubentries(name).isEmpty();
+  }
+
+  private static Attribute toObjectClassAttribute(Map<ObjectClass, String> objectClasses)
+  {
+    final List<ByteString> values = new ArrayList<>(objectClasses.size());
+    for (String objectClassName : objectClasses.values())
+    {
+      values.add(ByteString.valueOfUtf8(objectClassName));
+    }
+    return new PassThroughAttribute(AttributeDescription.create(CoreSchema.getObjectClassAttributeType()), values);
+  }
+
+  /**
+   * Retrieves the name of this entry.
+   *
+   * @return The name of this entry.
+   */
+  public DN getName()
+  {
+    return name;
+  }
+
+  /**
+   * Retrieves the user attributes of this entry, starting with the objectClass attribute, in the order they are
+   * returned for a decoded entry. Empty attributes are omitted.
+   *
+   * @return The unmodifiable list of the user attributes of this entry.
+   */
+  public List<Attribute> getUserAttributes()
+  {
+    return userAttributes;
+  }
+
+  /**
+   * Decodes this entry into a regular entry, for the client connections which cannot send pass-through entries.
+   *
+   * @return A new entry holding the name and the user attributes of this entry.
+   */
+  public Entry toEntry()
+  {
+    final Entry entry = new Entry(name, null, null, null);
+    for (Attribute attribute : userAttributes)
+    {
+      final AttributeBuilder builder = new AttributeBuilder(attribute.getAttributeDescription());
+      builder.addAll(attribute);
+      entry.addAttribute(builder.toAttribute(), null);
+    }
+    return entry;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "PassThroughEntry(name=" + name + ", userAttributes=" + userAttributes + ")";
+  }
+}
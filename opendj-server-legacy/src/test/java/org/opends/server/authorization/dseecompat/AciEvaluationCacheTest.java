@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.DirectoryException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AciEvaluationCacheTest extends DirectoryServerTestCase
+{
+  private static final DN USER_DN = DN.valueOf("uid=user.0,ou=People,dc=example,dc=com");
+  private static final DN OTHER_USER_DN = DN.valueOf("uid=user.1,ou=People,dc=example,dc=com");
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startFakeServer();
+  }
+
+  @AfterClass
+  public void tearDown() throws DirectoryException
+  {
+    TestCaseUtils.shutdownFakeServer();
+  }
+
+  private AciEvalContext newEvalContext(DN clientDN, DN resourceDN, AciEvaluationCache cache)
+  {
+    AciEvalContext evalCtx = mock(AciEvalContext.class);
+    when(evalCtx.getClientDN()).thenReturn(clientDN);
+    when(evalCtx.getResourceDN()).thenReturn(resourceDN);
+    when(evalCtx.getEvaluationCache()).thenReturn(cache);
+    return evalCtx;
+  }
+
+  @Test
+  public void clientOnlyBindRuleIsEvaluatedOnce() throws Exception
+  {
+    BindRule bindRule = BindRule.decode("userdn=\"ldap:///" + USER_DN + "\"");
+    AciEvaluationCache cache = new AciEvaluationCache(USER_DN, 0, 0);
+    AciEvalContext evalCtx = newEvalContext(USER_DN, OTHER_USER_DN, cache);
+
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(cache.getBindRuleResult(bindRule)).isEqualTo(EnumEvalResult.TRUE);
+    verify(evalCtx, times(1)).getClientDN();
+  }
+
+  @Test
+  public void bindRuleIsNotCachedWithoutEvaluationCache() throws Exception
+  {
+    BindRule bindRule = BindRule.decode("userdn=\"ldap:///" + USER_DN + "\"");
+    AciEvalContext evalCtx = newEvalContext(USER_DN, OTHER_USER_DN, null);
+
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(bindRule.evaluate(evalCtx)).isEqualTo(EnumEvalResult.TRUE);
+    verify(evalCtx, times(2)).getClientDN();
+  }
+
+  @Test
+  public void resourceDependentBindRuleIsNotCached() throws Exception
+  {
+    BindRule bindRule = BindRule.decode("userdn=\"ldap:///self\"");
+    AciEvaluationCache cache = new AciEvaluationCache(USER_DN, 0, 0);
+
+    assertThat(bindRule.evaluate(newEvalContext(USER_DN, USER_DN, cache))).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(bindRule.evaluate(newEvalContext(USER_DN, OTHER_USER_DN, cache))).isEqualTo(EnumEvalResult.FALSE);
+    assertThat(cache.getBindRuleResult(bindRule)).isNull();
+  }
+
+  @Test
+  public void complexBindRuleIsCachedOnlyIfAllRulesDependOnClientOnly() throws Exception
+  {
+    BindRule clientOnly = BindRule.decode("(userdn=\"ldap:///anyone\" and ssf>=\"1\")");
+    BindRule resourceDependent = BindRule.decode("(userdn=\"ldap:///anyone\" and userdn=\"ldap:///self\")");
+    AciEvaluationCache cache = new AciEvaluationCache(USER_DN, 0, 0);
+    AciEvalContext evalCtx = newEvalContext(USER_DN, USER_DN, cache);
+
+    clientOnly.evaluate(evalCtx);
+    resourceDependent.evaluate(evalCtx);
+    assertThat(cache.getBindRuleResult(clientOnly)).isNotNull();
+    assertThat(cache.getBindRuleResult(resourceDependent)).isNull();
+  }
+
+  @Test
+  public void dnPatternIsDecodedOnce() throws Exception
+  {
+    BindRule bindRule = BindRule.decode("userdn=\"ldap:///uid=*,ou=People,dc=example,dc=com\"");
+
+    assertThat(bindRule.evaluate(newEvalContext(USER_DN, USER_DN, null))).isEqualTo(EnumEvalResult.TRUE);
+    assertThat(bindRule.evaluate(newEvalContext(DN.valueOf("cn=Directory Manager"), USER_DN, null)))
+        .isEqualTo(EnumEvalResult.FALSE);
+  }
+
+  @Test
+  public void cacheIsOnlyValidForSameClientAndGenerations()
+  {
+    AciEvaluationCache cache = new AciEvaluationCache(USER_DN, 1, 2);
+
+    assertThat(cache.isValid(USER_DN, 1, 2)).isTrue();
+    assertThat(cache.isValid(OTHER_USER_DN, 1, 2)).isFalse();
+    assertThat(cache.isValid(USER_DN, 2, 2)).isFalse();
+    assertThat(cache.isValid(USER_DN, 1, 3)).isFalse();
+  }
+
+  @Test
+  public void candidateAcisAreReusedForSameResourceDN()
+  {
+    List<Aci> candidates = Collections.emptyList();
+    AciList aciList = mock(AciList.class);
+    when(aciList.getCandidateAcis(any(DN.class))).thenReturn(candidates);
+    AciEvaluationCache cache = new AciEvaluationCache(USER_DN, 0, 0);
+
+    assertThat(cache.getCandidateAcis(aciList, USER_DN)).isSameAs(candidates);
+    assertThat(cache.getCandidateAcis(aciList, USER_DN)).isSameAs(candidates);
+    verify(aciList, times(1)).getCandidateAcis(USER_DN);
+
+    cache.getCandidateAcis(aciList, OTHER_USER_DN);
+    verify(aciList, times(1)).getCandidateAcis(OTHER_USER_DN);
+  }
+}
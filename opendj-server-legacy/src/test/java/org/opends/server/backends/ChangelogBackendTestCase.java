@@ -33,6 +33,7 @@ import static org.testng.Assert.*;
 
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -56,11 +57,13 @@ import org.opends.server.api.LocalBackend;
 import org.opends.server.backends.ChangelogBackend.ChangeNumberRange;
 import org.opends.server.controls.EntryChangelogNotificationControl;
 import org.opends.server.controls.ExternalChangelogRequestControl;
+import org.opends.server.controls.PersistentSearchChangeType;
 import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DeleteOperation;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyDNOperationBasis;
 import org.opends.server.core.ModifyOperation;
+import org.opends.server.core.PersistentSearch;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.internal.InternalSearchOperation;
 import org.opends.server.protocols.internal.Requests;
@@ -768,6 +771,66 @@ public class ChangelogBackendTestCase extends ReplicationTestCase
   }
 
   /** With an empty RS, a search should return only root entry. */
+  @Test
+  public void persistentSearchesInCookieModeShareNotifiedEntries() throws Exception
+  {
+    String test = "CookiePersistentSearches";
+    debugInfo(test, "Starting test\n\n");
+    final ChangelogBackend backend = ChangelogBackend.getInstance();
+    final PersistentSearch pSearch1 = registerChangesOnlyPersistentSearch(backend, "(targetdn=*" + test + "*)");
+    final PersistentSearch pSearch2 = registerChangesOnlyPersistentSearch(backend, "(targetdn=*" + test + "1*)");
+    try
+    {
+      final CSN[] csns = generateCSNs(2, server1);
+      backend.notifyCookieEntryAdded(DN_OTEST, generateDeleteMsg(server1, csns[0], test, 1));
+
+      final List<SearchResultEntry> entries1 = getSearchEntries(pSearch1);
+      final List<SearchResultEntry> entries2 = getSearchEntries(pSearch2);
+      assertThat(entries1).hasSize(1);
+      assertThat(entries2).hasSize(1);
+      assertDelEntry(entries1.get(0), test + 1, test + "uuid1", CHANGENUMBER_ZERO, csns[0]);
+      assertDelEntry(entries2.get(0), test + 1, test + "uuid1", CHANGENUMBER_ZERO, csns[0]);
+      assertThat(getNames(entries1.get(0))).isEqualTo(getNames(entries2.get(0)));
+
+      pSearch1.cancel();
+      backend.notifyCookieEntryAdded(DN_OTEST, generateDeleteMsg(server1, csns[1], test, 1));
+      assertThat(getSearchEntries(pSearch1)).hasSize(1);
+      assertThat(getSearchEntries(pSearch2)).hasSize(2);
+    }
+    finally
+    {
+      pSearch1.cancel();
+      pSearch2.cancel();
+    }
+  }
+
+  private PersistentSearch registerChangesOnlyPersistentSearch(ChangelogBackend backend, String filterString)
+      throws Exception
+  {
+    final SearchRequest request = newSearchRequest(filterString).addControl(createCookieControl(""));
+    final InternalSearchOperation searchOp = new InternalSearchOperation(
+        connection, InternalClientConnection.nextOperationID(), InternalClientConnection.nextMessageID(), request);
+    final PersistentSearch pSearch =
+        new PersistentSearch(searchOp, EnumSet.allOf(PersistentSearchChangeType.class), true, false);
+    backend.registerPersistentSearch(pSearch);
+    return pSearch;
+  }
+
+  private List<SearchResultEntry> getSearchEntries(PersistentSearch pSearch)
+  {
+    return ((InternalSearchOperation) pSearch.getSearchOperation()).getSearchEntries();
+  }
+
+  private List<String> getNames(Entry entry)
+  {
+    final List<String> names = new ArrayList<>();
+    for (Attribute attribute : entry.getAllAttributes())
+    {
+      names.add(attribute.getAttributeDescription().toString());
+    }
+    return names;
+  }
+
   @Test
   public void searchWhenNoChangesShouldReturnRootEntryOnly() throws Exception
   {
@@ -0,0 +1,37 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.cassandra;
+
+import static org.mockito.Mockito.when;
+
+import org.forgerock.opendj.server.config.server.CASBackendCfg;
+import org.testng.annotations.Test;
+
+//docker run --rm -it -p 9042:9042 --name cassandra cassandra
+
+@Test
+public class AsyncTestCase extends TestCase {
+
+	@Override
+	protected CASBackendCfg createBackendCfg() {
+		CASBackendCfg backendCfg = super.createBackendCfg();
+		when(backendCfg.getBackendId()).thenReturn("AsyncCASTestCase");
+		when(backendCfg.isAsynchronous()).thenReturn(true);
+		when(backendCfg.getWriteBatchSize()).thenReturn(16);
+		when(backendCfg.getMaxInFlightRequests()).thenReturn(32);
+		return backendCfg;
+	}
+}
@@ -16,13 +16,17 @@
 package org.opends.server.backends.pluggable;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
 import static org.opends.server.backends.pluggable.EntryIDSet.*;
 import static org.opends.server.backends.pluggable.Utils.*;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import org.forgerock.opendj.ldap.ByteString;
 import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.crypto.CryptoSuite;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -290,9 +294,133 @@ public class EntryIDSetTest extends DirectoryServerTestCase
     assertIdsEquals(retained, 1, 3, 5, 7, 9);
   }
 
+  @Test
+  public void testBitmapAddAndRemove()
+  {
+    final EntryIDSet set = newBitmapSet(6, 8, 10, 70000);
+
+    assertThat(set.add(id(4))).isTrue();
+    assertThat(set.add(id(10))).isFalse();
+    assertThat(set.add(id(1L << 40))).isTrue();
+    assertThat(set.toLongArray()).containsExactly(4, 6, 8, 10, 70000, 1L << 40);
+
+    assertThat(set.remove(id(70000))).isTrue();
+    assertThat(set.remove(id(70000))).isFalse();
+    assertThat(set.contains(id(8))).isTrue();
+    assertThat(set.contains(id(9))).isFalse();
+    assertThat(set.toLongArray()).containsExactly(4, 6, 8, 10, 1L << 40);
+  }
+
+  @Test
+  public void testBitmapDenseChunks()
+  {
+    final long[] ids = randomIDs(new Random(0), 20000, 100000);
+    final EntryIDSet set = newBitmapSet();
+    for (long id : ids)
+    {
+      set.add(id(id));
+    }
+    assertThat(set.toLongArray()).isEqualTo(ids);
+
+    for (int i = 0; i < ids.length; i += 2)
+    {
+      assertThat(set.remove(id(ids[i]))).isTrue();
+    }
+    assertThat(set.size()).isEqualTo(ids.length / 2);
+    assertThat(set.contains(id(ids[0]))).isFalse();
+    assertThat(set.contains(id(ids[1]))).isTrue();
+  }
+
+  @Test
+  public void testBitmapSetOperationsMatchDefinedSets()
+  {
+    final Random random = new Random(42);
+    for (int i = 0; i < 20; i++)
+    {
+      final long[] ids1 = randomIDs(random, random.nextInt(30000), 300000);
+      final long[] ids2 = randomIDs(random, random.nextInt(30000), 300000);
+
+      final EntryIDSet expectedIntersection = newDefinedSet(ids1);
+      expectedIntersection.retainAll(newDefinedSet(ids2));
+      final EntryIDSet intersection = newBitmapSet(ids1);
+      intersection.retainAll(newBitmapSet(ids2));
+      assertThat(intersection.toLongArray()).isEqualTo(expectedIntersection.toLongArray());
+      final EntryIDSet mixedIntersection = newBitmapSet(ids1);
+      mixedIntersection.retainAll(newDefinedSet(ids2));
+      assertThat(mixedIntersection.toLongArray()).isEqualTo(expectedIntersection.toLongArray());
+
+      final EntryIDSet expectedUnion = newSetFromUnion(Arrays.asList(newDefinedSet(ids1), newDefinedSet(ids2)));
+      final EntryIDSet union = newSetFromUnion(Arrays.asList(newBitmapSet(ids1), newBitmapSet(ids2)));
+      assertThat(union.toLongArray()).isEqualTo(expectedUnion.toLongArray());
+      final EntryIDSet addAll = newBitmapSet(ids1);
+      addAll.addAll(newDefinedSet(ids2));
+      assertThat(addAll.toLongArray()).isEqualTo(expectedUnion.toLongArray());
+
+      final EntryIDSet expectedDifference = newDefinedSet(ids1);
+      expectedDifference.removeAll(newDefinedSet(ids2));
+      final EntryIDSet difference = newBitmapSet(ids1);
+      difference.removeAll(newBitmapSet(ids2));
+      assertThat(difference.toLongArray()).isEqualTo(expectedDifference.toLongArray());
+    }
+  }
+
+  @Test
+  public void testBitmapCodecLargeSet()
+  {
+    final long[] ids = randomIDs(new Random(7), 50000, 200000);
+    final ByteString encoded = CODEC_V4.encode(newDefinedSet(ids));
+    assertThat(CODEC_V4.decode(KEY, encoded).toLongArray()).isEqualTo(ids);
+    assertThat(encoded.length()).isLessThan(CODEC_V2.encode(newDefinedSet(ids)).length());
+  }
+
+  @Test
+  public void testBitmapCodecEmptySetThroughEncryptionDetection() throws Exception
+  {
+    final CryptoSuite cryptoSuite = mock(CryptoSuite.class);
+    final EntryIDSetCodec codec = newEntryIDSetCodecV3(CODEC_V4, cryptoSuite);
+
+    final ByteString encoded = CODEC_V4.encode(newDefinedSet());
+    final EntryIDSet decoded = codec.decode(KEY, encoded);
+    assertThat(decoded.isDefined()).isTrue();
+    assertThat(decoded.size()).isEqualTo(0);
+    verify(cryptoSuite, never()).decrypt(any(byte[].class));
+
+    assertIdsEquals(codec.decode(KEY, CODEC_V4.encode(newDefinedSet(4, 6, 8))), 4, 6, 8);
+  }
+
+  @Test
+  public void testBitmapRetainAllOnUndefinedSetDoesNotShareBitmap()
+  {
+    final EntryIDSet bitmap = newBitmapSet(1, 3, 5);
+    final EntryIDSet retained = newUndefinedSet();
+    retained.retainAll(bitmap);
+    retained.add(id(7));
+    assertThat(bitmap.toLongArray()).containsExactly(1, 3, 5);
+    assertThat(retained.toLongArray()).containsExactly(1, 3, 5, 7);
+  }
+
+  private static long[] randomIDs(Random random, int count, int maxID)
+  {
+    final long[] ids = new long[count];
+    for (int i = 0; i < count; i++)
+    {
+      ids[i] = 1 + random.nextInt(maxID);
+    }
+    Arrays.sort(ids);
+    int j = 0;
+    for (int i = 0; i < ids.length; i++)
+    {
+      if (j == 0 || ids[j - 1] != ids[i])
+      {
+        ids[j++] = ids[i];
+      }
+    }
+    return Arrays.copyOf(ids, j);
+  }
+
   @DataProvider(name = "codecs")
   public static Object[][] codecs() {
-     return new Object[][] { { CODEC_V1 }, { CODEC_V2 } };
+     return new Object[][] { { CODEC_V1 }, { CODEC_V2 }, { CODEC_V4 } };
   }
 
 }
@@ -0,0 +1,329 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.spi.Storage;
+import org.opends.server.backends.pluggable.spi.WriteOperation;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.types.DirectoryException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class GroupCommitWriterTest extends DirectoryServerTestCase
+{
+  private final List<Thread> writerThreads = new ArrayList<>();
+  private Storage storage;
+  private GroupCommitWriter writer;
+  private ExecutorService executor;
+
+  @BeforeMethod
+  public void setUp()
+  {
+    storage = mock(Storage.class);
+    when(storage.supportsBatchWrites()).thenReturn(true);
+    writer = new GroupCommitWriter(storage, true);
+    writerThreads.clear();
+    executor = Executors.newCachedThreadPool(new ThreadFactory()
+    {
+      @Override
+      public Thread newThread(Runnable r)
+      {
+        final Thread thread = new Thread(r);
+        synchronized (writerThreads)
+        {
+          writerThreads.add(thread);
+        }
+        return thread;
+      }
+    });
+  }
+
+  @AfterMethod
+  public void tearDown()
+  {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testWriteWithoutBatchSupport() throws Exception
+  {
+    when(storage.supportsBatchWrites()).thenReturn(false);
+    final WriteOperation op = newWriteOperation();
+
+    writer.write(op);
+
+    verify(storage).write(op);
+    verify(storage, never()).writeBatch(anyListOf(WriteOperation.class));
+  }
+
+  @Test
+  public void testWriteWhenDisabled() throws Exception
+  {
+    writer.setEnabled(false);
+    final WriteOperation op = newWriteOperation();
+
+    writer.write(op);
+
+    verify(storage).write(op);
+    verify(storage, never()).writeBatch(anyListOf(WriteOperation.class));
+  }
+
+  @Test
+  public void testLoneWriteIsNotBatched() throws Exception
+  {
+    final WriteOperation op = newWriteOperation();
+
+    writer.write(op);
+    writer.write(op);
+
+    verify(storage, times(2)).write(op);
+    verify(storage, never()).writeBatch(anyListOf(WriteOperation.class));
+  }
+
+  @Test
+  public void testConcurrentWritesAreBatched() throws Exception
+  {
+    final List<List<WriteOperation>> batches = runBatches();
+    final WriteOperation first = newWriteOperation();
+    final CountDownLatch firstStarted = new CountDownLatch(1);
+    final CountDownLatch releaseFirst = new CountDownLatch(1);
+    blockWrite(first, firstStarted, releaseFirst);
+
+    final Future<Void> firstResult = submitWrite(first);
+    firstStarted.await();
+    final List<WriteOperation> queued = new ArrayList<>();
+    final List<Future<Void>> queuedResults = new ArrayList<>();
+    for (int i = 0; i < 3; i++)
+    {
+      final WriteOperation op = mock(WriteOperation.class);
+      queued.add(op);
+      queuedResults.add(submitWrite(op));
+    }
+    awaitWaitingWriters(3);
+    releaseFirst.countDown();
+
+    firstResult.get();
+    for (Future<Void> result : queuedResults)
+    {
+      result.get();
+    }
+    verify(storage).write(first);
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0)).hasSize(3);
+    for (WriteOperation op : queued)
+    {
+      verify(op).run(any(WriteableTransaction.class));
+    }
+  }
+
+  @Test
+  public void testBatchFailingOnCommitIsRetriedOneByOne() throws Exception
+  {
+    doThrow(new DirectoryException(ResultCode.ENTRY_ALREADY_EXISTS, LocalizableMessage.raw("exists")))
+        .when(storage).writeBatch(anyListOf(WriteOperation.class));
+    final WriteOperation first = newWriteOperation();
+    final CountDownLatch firstStarted = new CountDownLatch(1);
+    final CountDownLatch releaseFirst = new CountDownLatch(1);
+    blockWrite(first, firstStarted, releaseFirst);
+    final WriteOperation failing = newWriteOperation();
+    doThrow(new DirectoryException(ResultCode.ENTRY_ALREADY_EXISTS, LocalizableMessage.raw("exists")))
+        .when(storage).write(failing);
+    final WriteOperation succeeding = newWriteOperation();
+
+    final Future<Void> firstResult = submitWrite(first);
+    firstStarted.await();
+    final Future<Void> failingResult = submitWrite(failing);
+    final Future<Void> succeedingResult = submitWrite(succeeding);
+    awaitWaitingWriters(2);
+    releaseFirst.countDown();
+
+    firstResult.get();
+    succeedingResult.get();
+    try
+    {
+      failingResult.get();
+      failBecauseExceptionWasNotThrown(ExecutionException.class);
+    }
+    catch (ExecutionException e)
+    {
+      assertThat(e.getCause()).isInstanceOf(DirectoryException.class);
+    }
+    verify(storage).writeBatch(anyListOf(WriteOperation.class));
+    verify(storage).write(failing);
+    verify(storage).write(succeeding);
+  }
+
+  @Test
+  public void testFailingWriteIsIsolatedFromItsBatch() throws Exception
+  {
+    final List<List<WriteOperation>> batches = runBatches();
+    final WriteOperation first = newWriteOperation();
+    final CountDownLatch firstStarted = new CountDownLatch(1);
+    final CountDownLatch releaseFirst = new CountDownLatch(1);
+    blockWrite(first, firstStarted, releaseFirst);
+    final WriteOperation failing = new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        throw new DirectoryException(ResultCode.ENTRY_ALREADY_EXISTS, LocalizableMessage.raw("exists"));
+      }
+    };
+
+    final Future<Void> firstResult = submitWrite(first);
+    firstStarted.await();
+    final Future<Void> failingResult = submitWrite(failing);
+    final List<Future<Void>> succeedingResults = new ArrayList<>();
+    for (int i = 0; i < 2; i++)
+    {
+      succeedingResults.add(submitWrite(newWriteOperation()));
+    }
+    awaitWaitingWriters(3);
+    releaseFirst.countDown();
+
+    firstResult.get();
+    for (Future<Void> result : succeedingResults)
+    {
+      result.get();
+    }
+    try
+    {
+      failingResult.get();
+      failBecauseExceptionWasNotThrown(ExecutionException.class);
+    }
+    catch (ExecutionException e)
+    {
+      assertThat(e.getCause()).isInstanceOf(DirectoryException.class);
+    }
+    // The failing write operation is not executed again, the others are retried in a single batch
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0)).hasSize(3);
+    assertThat(batches.get(1)).hasSize(2);
+    verify(storage).write(first);
+    verify(storage, times(1)).write(any(WriteOperation.class));
+  }
+
+  private WriteOperation newWriteOperation()
+  {
+    return new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        // Nothing to do
+      }
+    };
+  }
+
+  private Future<Void> submitWrite(final WriteOperation op)
+  {
+    return executor.submit(new Callable<Void>()
+    {
+      @Override
+      public Void call() throws Exception
+      {
+        writer.write(op);
+        return null;
+      }
+    });
+  }
+
+  private void blockWrite(WriteOperation op, final CountDownLatch started, final CountDownLatch release)
+      throws Exception
+  {
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        started.countDown();
+        release.await();
+        return null;
+      }
+    }).when(storage).write(op);
+  }
+
+  /** Makes the storage execute the batches in a single transaction, and records them. */
+  @SuppressWarnings("unchecked")
+  private List<List<WriteOperation>> runBatches() throws Exception
+  {
+    final List<List<WriteOperation>> batches = new ArrayList<>();
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        final List<WriteOperation> batch = new ArrayList<>((List<WriteOperation>) invocation.getArguments()[0]);
+        batches.add(batch);
+        final WriteableTransaction txn = mock(WriteableTransaction.class);
+        for (WriteOperation op : batch)
+        {
+          op.run(txn);
+        }
+        return null;
+      }
+    }).when(storage).writeBatch(anyListOf(WriteOperation.class));
+    return batches;
+  }
+
+  /** Waits until the provided number of writers wait for the blocked leader. */
+  private void awaitWaitingWriters(int expected) throws InterruptedException
+  {
+    // The leader is waiting too
+    expected++;
+    for (;;)
+    {
+      int waiting = 0;
+      synchronized (writerThreads)
+      {
+        for (Thread thread : writerThreads)
+        {
+          if (thread.getState() == Thread.State.WAITING)
+          {
+            waiting++;
+          }
+        }
+      }
+      if (waiting >= expected)
+      {
+        return;
+      }
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.opendj.ldap.ByteString.valueOfUtf8;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.backends.pluggable.EntryIDSet.*;
+import static org.opends.server.backends.pluggable.State.IndexFlag.*;
+import static org.opends.server.backends.pluggable.Utils.id;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.DefaultIndexTest.DummyWriteableTransaction;
+import org.opends.server.backends.pluggable.spi.ReadableTransaction;
+import org.opends.server.backends.pluggable.spi.TreeName;
+import org.opends.server.backends.pluggable.spi.WriteableTransaction;
+import org.opends.server.crypto.CryptoSuite;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class IndexBufferTest extends DirectoryServerTestCase
+{
+  private DefaultIndex index1;
+  private DefaultIndex index2;
+  private WriteableTransaction txn;
+  private IndexBuffer buffer;
+
+  @BeforeMethod
+  public void setUp()
+  {
+    txn = new DummyWriteableTransaction();
+    index1 = newIndex("index1");
+    index2 = newIndex("index2");
+    index1.open(txn, true);
+    index2.open(txn, true);
+    buffer = new IndexBuffer();
+  }
+
+  @Test
+  public void testChangesAreMergedPerKey() throws Exception
+  {
+    put(index1, "a", 1, 2);
+
+    buffer.put(index1, valueOfUtf8("a"), id(4));
+    buffer.put(index1, valueOfUtf8("b"), id(5));
+    buffer.put(index1, valueOfUtf8("a"), id(3));
+    buffer.remove(index1, valueOfUtf8("a"), id(1));
+    buffer.put(index2, valueOfUtf8("a"), id(6));
+    buffer.flush(txn);
+
+    assertThat(get(index1, "a")).containsExactly(2L, 3L, 4L);
+    assertThat(get(index1, "b")).containsExactly(5L);
+    assertThat(get(index2, "a")).containsExactly(6L);
+  }
+
+  @Test
+  public void testAddThenRemoveCancels() throws Exception
+  {
+    buffer.put(index1, valueOfUtf8("a"), id(1));
+    buffer.remove(index1, valueOfUtf8("a"), id(1));
+    buffer.flush(txn);
+
+    assertThat(txn.read(index1.getName(), valueOfUtf8("a"))).isNull();
+  }
+
+  @Test
+  public void testRemoveThenAddCancels() throws Exception
+  {
+    put(index1, "a", 1);
+
+    buffer.remove(index1, valueOfUtf8("a"), id(1));
+    buffer.put(index1, valueOfUtf8("a"), id(1));
+    buffer.flush(txn);
+
+    assertThat(get(index1, "a")).containsExactly(1L);
+  }
+
+  @Test
+  public void testRepeatedChangesOfSameID() throws Exception
+  {
+    put(index1, "a", 1, 2);
+
+    // add, add, remove: the second add is a no-op, the remove wins.
+    buffer.put(index1, valueOfUtf8("a"), id(3));
+    buffer.put(index1, valueOfUtf8("a"), id(3));
+    buffer.remove(index1, valueOfUtf8("a"), id(3));
+    // remove, remove, add: the add cancels the removal.
+    buffer.remove(index1, valueOfUtf8("a"), id(2));
+    buffer.remove(index1, valueOfUtf8("a"), id(2));
+    buffer.put(index1, valueOfUtf8("a"), id(2));
+    buffer.flush(txn);
+
+    assertThat(get(index1, "a")).containsExactly(1L, 2L);
+  }
+
+  @Test
+  public void testFlushCanBeRetried() throws Exception
+  {
+    for (int i = 100; i > 0; i--)
+    {
+      buffer.put(index1, valueOfUtf8("key" + (i % 7)), id(i));
+    }
+    buffer.flush(txn);
+
+    WriteableTransaction retryTxn = new DummyWriteableTransaction();
+    index1.open(retryTxn, true);
+    buffer.flush(retryTxn);
+
+    int nbIDs = 0;
+    for (int k = 0; k < 7; k++)
+    {
+      ByteString key = valueOfUtf8("key" + k);
+      assertThat(retryTxn.read(index1.getName(), key)).isEqualTo(txn.read(index1.getName(), key));
+      List<Long> ids = get(index1, "key" + k);
+      assertThat(ids).isSorted();
+      nbIDs += ids.size();
+    }
+    assertThat(nbIDs).isEqualTo(100);
+  }
+
+  @Test
+  public void testReset() throws Exception
+  {
+    buffer.put(index1, valueOfUtf8("a"), id(1));
+    buffer.reset();
+    buffer.put(index1, valueOfUtf8("b"), id(2));
+    buffer.flush(txn);
+
+    assertThat(txn.read(index1.getName(), valueOfUtf8("a"))).isNull();
+    assertThat(get(index1, "b")).containsExactly(2L);
+  }
+
+  private void put(DefaultIndex index, String key, long... ids)
+  {
+    txn.put(index.getName(), valueOfUtf8(key), CODEC_V2.encode(newDefinedSet(ids)));
+  }
+
+  private List<Long> get(DefaultIndex index, String key)
+  {
+    final ByteString value = txn.read(index.getName(), valueOfUtf8(key));
+    assertThat(value).isNotNull();
+    final List<Long> ids = new ArrayList<>();
+    for (EntryID entryID : CODEC_V2.decode(valueOfUtf8(key), value))
+    {
+      ids.add(entryID.longValue());
+    }
+    return ids;
+  }
+
+  private static DefaultIndex newIndex(String name)
+  {
+    final State state = mock(State.class);
+    when(state.getIndexFlags(any(ReadableTransaction.class), any(TreeName.class)))
+        .thenReturn(EnumSet.of(TRUSTED, COMPACTED));
+    final CryptoSuite cryptoSuite = mock(CryptoSuite.class);
+    when(cryptoSuite.isEncrypted()).thenReturn(false);
+    return new DefaultIndex(new TreeName("dc=example,dc=com", name), state, 1000, mock(EntryContainer.class),
+        cryptoSuite);
+  }
+}
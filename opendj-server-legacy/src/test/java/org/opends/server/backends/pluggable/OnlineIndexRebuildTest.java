@@ -0,0 +1,139 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.backends.pluggable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.backends.pluggable.AttributeIndex.MatchingRuleIndex;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(groups = { "precommit", "pluggablebackend" }, sequential = true)
+public class OnlineIndexRebuildTest extends DirectoryServerTestCase
+{
+  private static final int NB_WRITERS = 4;
+
+  private OnlineIndexRebuild newRebuild()
+  {
+    final EntryContainer entryContainer = mock(EntryContainer.class, RETURNS_DEEP_STUBS);
+    return new OnlineIndexRebuild(entryContainer, Collections.<MatchingRuleIndex> emptyList(), 1, 0);
+  }
+
+  @Test
+  public void testChangesAreRecordedUntilReplay()
+  {
+    final OnlineIndexRebuild rebuild = newRebuild();
+
+    assertThat(record(rebuild, new EntryID(1))).isTrue();
+    rebuild.startReplay();
+    assertThat(record(rebuild, new EntryID(2))).isFalse();
+
+    assertThat(rebuild.getPhase()).isEqualTo(OnlineIndexRebuild.Phase.REPLAY);
+    assertThat(rebuild.getPendingChanges()).isEqualTo(1);
+  }
+
+  @Test(timeOut = 60000)
+  public void testNoChangeIsRecordedAfterSwitchingToReplay() throws Exception
+  {
+    for (int round = 0; round < 100; round++)
+    {
+      final OnlineIndexRebuild rebuild = newRebuild();
+      final AtomicLong nbRecorded = new AtomicLong();
+      final CountDownLatch writersStarted = new CountDownLatch(NB_WRITERS);
+      final List<Thread> writers = new ArrayList<>();
+      for (int i = 0; i < NB_WRITERS; i++)
+      {
+        final Thread writer = new Thread(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            writersStarted.countDown();
+            for (long id = 0; record(rebuild, new EntryID(id)); id++)
+            {
+              nbRecorded.incrementAndGet();
+            }
+          }
+        });
+        writer.start();
+        writers.add(writer);
+      }
+      writersStarted.await();
+
+      rebuild.startReplay();
+      // The replay starts draining the side log from this point: it must not grow anymore
+      final long pendingAtReplay = rebuild.getPendingChanges();
+      for (Thread writer : writers)
+      {
+        writer.join();
+      }
+
+      assertThat(rebuild.getPendingChanges()).isEqualTo(pendingAtReplay);
+      assertThat(nbRecorded.get()).isEqualTo(pendingAtReplay);
+    }
+  }
+
+  @Test(timeOut = 60000)
+  public void testReplayWaitsForRunningUpdates() throws Exception
+  {
+    final OnlineIndexRebuild rebuild = newRebuild();
+    rebuild.beginUpdate();
+    assertThat(rebuild.recordChange(new EntryID(1), null)).isTrue();
+
+    final Thread replay = new Thread(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        rebuild.startReplay();
+      }
+    });
+    replay.start();
+    while (replay.getState() != Thread.State.WAITING)
+    {
+      Thread.sleep(10);
+    }
+    // The change of the running update operation is not committed yet
+    assertThat(rebuild.getPhase()).isNotEqualTo(OnlineIndexRebuild.Phase.REPLAY);
+
+    rebuild.endUpdate();
+    replay.join();
+    assertThat(rebuild.getPhase()).isEqualTo(OnlineIndexRebuild.Phase.REPLAY);
+    assertThat(rebuild.getPendingChanges()).isEqualTo(1);
+  }
+
+  /** Records a change the way update operations do. */
+  private boolean record(OnlineIndexRebuild rebuild, EntryID entryID)
+  {
+    rebuild.beginUpdate();
+    try
+    {
+      return rebuild.recordChange(entryID, null);
+    }
+    finally
+    {
+      rebuild.endUpdate();
+    }
+  }
+}
@@ -36,7 +36,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.forgerock.opendj.adapter.server3x.Converters;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ConditionResult;
 import org.forgerock.opendj.ldap.DN;
@@ -50,6 +55,7 @@ import org.forgerock.opendj.server.config.server.BackendIndexCfg;
 import org.forgerock.opendj.server.config.server.BackendVLVIndexCfg;
 import org.forgerock.opendj.server.config.server.PluggableBackendCfg;
 import org.forgerock.util.Reject;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.opends.server.DirectoryServerTestCase;
@@ -59,6 +65,7 @@ import org.opends.server.api.LocalBackend.BackendOperation;
 import org.opends.server.backends.RebuildConfig;
 import org.opends.server.backends.RebuildConfig.RebuildMode;
 import org.opends.server.backends.VerifyConfig;
+import org.opends.server.backends.pluggable.AttributeIndex.IndexFilterType;
 import org.opends.server.backends.pluggable.spi.AccessMode;
 import org.opends.server.backends.pluggable.spi.ReadOnlyStorageException;
 import org.opends.server.backends.pluggable.spi.ReadOperation;
@@ -77,13 +84,16 @@ import org.opends.server.core.ServerContext;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.internal.InternalSearchOperation;
 import org.opends.server.protocols.internal.SearchRequest;
+import org.opends.server.types.Attribute;
 import org.opends.server.types.BackupConfig;
 import org.opends.server.types.BackupDirectory;
 import org.opends.server.types.DirectoryException;
 import org.opends.server.types.Entry;
+import org.opends.server.types.InitializationException;
 import org.opends.server.types.LDIFExportConfig;
 import org.opends.server.types.LDIFImportConfig;
 import org.opends.server.types.Modification;
+import org.opends.server.types.PassThroughEntry;
 import org.opends.server.types.RestoreConfig;
 import org.opends.server.types.SearchFilter;
 import org.opends.server.types.SearchResultEntry;
@@ -156,6 +166,8 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     when(backendCfg.getBaseDN()).thenReturn(newTreeSet(testBaseDN));
     when(backendCfg.listBackendIndexes()).thenReturn(backendIndexes.keySet().toArray(new String[0]));
     when(backendCfg.listBackendVLVIndexes()).thenReturn(backendVlvIndexes);
+    // Use the default entry encoding, which the mocked configuration does not report
+    when(backendCfg.isCompactEncoding()).thenReturn(true);
 
     for (Map.Entry<String, IndexType[]> index : backendIndexes.entrySet())
     {
@@ -720,6 +732,89 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     return searchOp;
   }
 
+  @Test
+  public void testPassThroughSearch() throws Exception
+  {
+    final List<PassThroughEntry> passThroughEntries = new ArrayList<>();
+    final List<Entry> returnedEntries = new ArrayList<>();
+    final SearchOperation searchOp =
+        createSearchOperation(testBaseDN, SearchScope.WHOLE_SUBTREE, "(objectClass=*)", returnedEntries);
+    when(searchOp.isPassThroughAllowed()).thenReturn(true);
+    doAnswer(new Answer<Boolean>()
+    {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable
+      {
+        passThroughEntries.add(invocation.getArgumentAt(0, PassThroughEntry.class));
+        return true;
+      }
+    }).when(searchOp).returnEntry(any(PassThroughEntry.class));
+
+    backend.search(searchOp);
+
+    assertThat(passThroughEntries).isNotEmpty();
+    assertThat(passThroughEntries.size() + returnedEntries.size()).isEqualTo(getTotalNumberOfLDIFEntries());
+    for (PassThroughEntry passThroughEntry : passThroughEntries)
+    {
+      final Entry entry = backend.getEntry(passThroughEntry.getName());
+      final SearchResultEntry expected = new SearchResultEntry(entry.filterEntry(null, false, false, false));
+      assertThat(toStrings(passThroughEntry.getUserAttributes()))
+          .isEqualTo(toStrings(Converters.partiallyWrap(expected, 3).getAllAttributes()));
+      assertThat(passThroughEntry.toEntry()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testSendPassThroughEntryDefaultsToSendSearchEntry() throws Exception
+  {
+    final PassThroughEntry passThroughEntry = getFirstPassThroughEntry();
+    final SearchOperation searchOp = mock(SearchOperation.class);
+    final ClientConnection clientConnection = mock(ClientConnection.class);
+    doCallRealMethod().when(clientConnection).sendPassThroughEntry(searchOp, passThroughEntry);
+
+    clientConnection.sendPassThroughEntry(searchOp, passThroughEntry);
+
+    final ArgumentCaptor<SearchResultEntry> sent = ArgumentCaptor.forClass(SearchResultEntry.class);
+    verify(clientConnection).sendSearchEntry(same(searchOp), sent.capture());
+    final Entry entry = backend.getEntry(passThroughEntry.getName());
+    assertThat(sent.getValue()).isEqualTo(entry.filterEntry(null, false, false, false));
+  }
+
+  private PassThroughEntry getFirstPassThroughEntry() throws Exception
+  {
+    final List<PassThroughEntry> passThroughEntries = new ArrayList<>();
+    final SearchOperation searchOp =
+        createSearchOperation(testBaseDN, SearchScope.WHOLE_SUBTREE, "(objectClass=*)", new ArrayList<Entry>());
+    when(searchOp.isPassThroughAllowed()).thenReturn(true);
+    doAnswer(new Answer<Boolean>()
+    {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable
+      {
+        passThroughEntries.add(invocation.getArgumentAt(0, PassThroughEntry.class));
+        return true;
+      }
+    }).when(searchOp).returnEntry(any(PassThroughEntry.class));
+
+    backend.search(searchOp);
+
+    assertThat(passThroughEntries).isNotEmpty();
+    return passThroughEntries.get(0);
+  }
+
+  private List<String> toStrings(Iterable<org.forgerock.opendj.ldap.Attribute> attributes)
+  {
+    final List<String> results = new ArrayList<>();
+    for (org.forgerock.opendj.ldap.Attribute attribute : attributes)
+    {
+      for (ByteString value : attribute)
+      {
+        results.add(attribute.getAttributeDescriptionAsString() + ": " + value);
+      }
+    }
+    return results;
+  }
+
   @Test
   public void testRenameEntry() throws Exception
   {
@@ -851,6 +946,80 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(runSearch(request, false)).hasSize(numberOfEntries);
   }
 
+  @Test
+  public void testAndFilterComponentsAreOrderedByEstimatedCandidates() throws Exception
+  {
+    final String filter = "(&(sn=*)(uid=user.1))";
+    // The first searches gather the statistics of the sn presence and uid equality indexes
+    assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, filter), false)).hasSize(1);
+    assertThat(runSearch(newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "uid=user.1"), false)).hasSize(1);
+
+    final AttributeIndex uidIndex = backend.getRootContainer().getEntryContainer(testBaseDN)
+        .getAttributeIndex(TestCaseUtils.getServerContext().getSchema().getAttributeType("uid"));
+    assertThat(uidIndex.estimateCandidates(IndexFilterType.EQUALITY)).isEqualTo(1);
+
+    final SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, filter)
+        .addAttribute(SuffixContainer.ATTR_DEBUG_SEARCH_INDEX);
+    final List<SearchResultEntry> debugEntries = runSearch(request, false);
+    assertThat(debugEntries).hasSize(1);
+    final String debugSearchIndex =
+        debugEntries.get(0).getAllAttributes(SuffixContainer.ATTR_DEBUG_SEARCH_INDEX).iterator().next().iterator().next().toString();
+    assertThat(debugSearchIndex).startsWith("filter=(&(uid=user.1)");
+
+    final StringBuilder monitorData = new StringBuilder();
+    for (Attribute attribute : backend.getRootContainer().getMonitorProvider().getMonitorData())
+    {
+      monitorData.append(attribute).append('\n');
+    }
+    assertThat(monitorData.toString()).contains("index-statistics", "uid filter:EQUALITY");
+  }
+
+  @Test
+  public void testSearchWithParallelEntryFetch() throws Exception
+  {
+    final SearchRequest request = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "objectclass=*");
+    final SearchRequest snRequest = newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "sn=*");
+    final List<DN> expectedDNs = getNames(runSearch(request, false));
+    final List<DN> expectedSnDNs = getNames(runSearch(snRequest, false));
+
+    final RootContainer rootContainer = backend.getRootContainer();
+    final EntryContainer entryContainer = rootContainer.getEntryContainer(testBaseDN);
+    final C parallelCfg = createBackendCfg();
+    when(parallelCfg.getSearchFetchThreads()).thenReturn(2);
+    when(parallelCfg.getSearchFetchThreshold()).thenReturn(1);
+    rootContainer.applyConfigurationChange(parallelCfg);
+    entryContainer.applyConfigurationChange(parallelCfg);
+    try
+    {
+      assertThat(rootContainer.getSearchFetchExecutor()).isNotNull();
+      assertThat(getNames(runSearch(request, false))).isEqualTo(expectedDNs);
+      assertThat(getNames(runSearch(snRequest, false))).isEqualTo(expectedSnDNs);
+
+      final InternalSearchOperation sizeLimited = new InternalSearchOperation(getRootConnection(), -1, -1,
+          newSearchRequest(testBaseDN, SearchScope.WHOLE_SUBTREE, "objectclass=*").setSizeLimit(2));
+      sizeLimited.run();
+      assertThat(sizeLimited.getResultCode()).isEqualTo(ResultCode.SIZE_LIMIT_EXCEEDED);
+      assertThat(getNames(sizeLimited.getSearchEntries())).isEqualTo(expectedDNs.subList(0, 2));
+    }
+    finally
+    {
+      final C defaultCfg = createBackendCfg();
+      rootContainer.applyConfigurationChange(defaultCfg);
+      entryContainer.applyConfigurationChange(defaultCfg);
+    }
+    assertThat(rootContainer.getSearchFetchExecutor()).isNull();
+  }
+
+  private static List<DN> getNames(List<SearchResultEntry> entries)
+  {
+    final List<DN> names = new ArrayList<>();
+    for (SearchResultEntry entry : entries)
+    {
+      names.add(entry.getName());
+    }
+    return names;
+  }
+
   @Test
   public void testSearchIsConsideredUnindexedBasedOnLookThroughLimit() throws DirectoryException {
     final int nbEntries = topEntries.size() + entries.size() + workEntries.size();
@@ -1108,6 +1277,197 @@ public abstract class PluggableBackendImplTestCase<C extends PluggableBackendCfg
     assertThat(backend.verifyBackend(config)).isEqualTo(0);
   }
 
+  @Test
+  public void testRebuildDegradedIndexOnline() throws Exception
+  {
+    final EntryContainer entryContainer =  backend.getRootContainer().getEntryContainers().iterator().next();
+
+    final Set<String> dirtyIndexes = new HashSet<>(Arrays.asList("sn", "uid", "telephoneNumber"));
+    backend.getRootContainer().getStorage().write(new WriteOperation()
+    {
+      @Override
+      public void run(WriteableTransaction txn) throws Exception
+      {
+        for(AttributeIndex attribute : entryContainer.getAttributeIndexes())
+        {
+          boolean trusted = !dirtyIndexes.contains(attribute.getAttributeType().getNameOrOID());
+          for(Index idx : attribute.getNameToIndexes().values())
+          {
+            idx.setTrusted(txn, trusted);
+          }
+        }
+      }
+    });
+
+    RebuildConfig rebuildConf = new RebuildConfig();
+    rebuildConf.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    rebuildConf.setRebuildMode(RebuildMode.DEGRADED);
+    rebuildConf.setOnline(true);
+
+    // The backend remains open.
+    backend.rebuildBackend(rebuildConf, TestCaseUtils.getServerContext());
+
+    assertThat(entryContainer.getOnlineIndexRebuild()).isNull();
+    for (AttributeIndex attribute : entryContainer.getAttributeIndexes())
+    {
+      for (Index idx : attribute.getNameToIndexes().values())
+      {
+        assertTrue(idx.isTrusted(), idx.getName() + " should be trusted");
+      }
+    }
+    assertIndexesAreCompleteAndClean();
+  }
+
+  @Test
+  public void testRebuildIndexOnlineWithConcurrentChanges() throws Exception
+  {
+    final EntryContainer entryContainer =  backend.getRootContainer().getEntryContainers().iterator().next();
+    final Entry originalEntry = backend.getEntry(workEntries.get(1).getName());
+
+    final RebuildConfig rebuildConf = new RebuildConfig();
+    rebuildConf.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    rebuildConf.addRebuildIndex("sn");
+    rebuildConf.setOnline(true);
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try
+    {
+      final Future<Void> rebuild = executor.submit(new Callable<Void>()
+      {
+        @Override
+        public Void call() throws Exception
+        {
+          backend.rebuildBackend(rebuildConf, TestCaseUtils.getServerContext());
+          return null;
+        }
+      });
+
+      Entry oldEntry = originalEntry;
+      for (int i = 0; !rebuild.isDone(); i++)
+      {
+        oldEntry = replaceEntry(oldEntry, new Modification(REPLACE, create("sn", "Online" + i)));
+      }
+      rebuild.get();
+      replaceEntry(oldEntry, new Modification(REPLACE, originalEntry.getAllAttributes("sn").iterator().next()));
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+
+    assertThat(entryContainer.getOnlineIndexRebuild()).isNull();
+    assertIndexesAreCompleteAndClean();
+  }
+
+  @Test
+  public void testRebuildIndexOnlineWithConcurrentWriters() throws Exception
+  {
+    final int nbWriters = 3;
+    final EntryContainer entryContainer =  backend.getRootContainer().getEntryContainers().iterator().next();
+
+    final RebuildConfig rebuildConf = new RebuildConfig();
+    rebuildConf.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    rebuildConf.addRebuildIndex("sn");
+    rebuildConf.setOnline(true);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(nbWriters + 1);
+    try
+    {
+      final Future<Void> rebuild = executor.submit(new Callable<Void>()
+      {
+        @Override
+        public Void call() throws Exception
+        {
+          backend.rebuildBackend(rebuildConf, TestCaseUtils.getServerContext());
+          return null;
+        }
+      });
+
+      final List<Future<Void>> writers = new ArrayList<>();
+      for (int i = 0; i < nbWriters; i++)
+      {
+        final Entry originalEntry = backend.getEntry(entries.get(i).getName());
+        writers.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws Exception
+          {
+            Entry oldEntry = originalEntry;
+            for (int j = 0; !rebuild.isDone(); j++)
+            {
+              oldEntry = replaceEntry(oldEntry, new Modification(REPLACE, create("sn", "Concurrent" + j)));
+            }
+            replaceEntry(oldEntry, new Modification(REPLACE, originalEntry.getAllAttributes("sn").iterator().next()));
+            return null;
+          }
+        }));
+      }
+      rebuild.get();
+      for (Future<Void> writer : writers)
+      {
+        writer.get();
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+
+    assertThat(entryContainer.getOnlineIndexRebuild()).isNull();
+    assertIndexesAreCompleteAndClean();
+  }
+
+  @Test
+  public void testRebuildVLVIndexOnlineIsRejected() throws Exception
+  {
+    RebuildConfig rebuildConf = new RebuildConfig();
+    rebuildConf.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    rebuildConf.addRebuildIndex("vlv." + backendVlvIndexes[0]);
+    rebuildConf.setOnline(true);
+
+    try
+    {
+      backend.rebuildBackend(rebuildConf, TestCaseUtils.getServerContext());
+      fail("VLV indexes cannot be rebuilt online");
+    }
+    catch (InitializationException expected)
+    {
+      // Expected
+    }
+  }
+
+  private Entry replaceEntry(Entry oldEntry, Modification modification) throws Exception
+  {
+    final Entry newEntry = oldEntry.duplicate(false);
+    final List<Modification> mods = Arrays.asList(modification);
+    newEntry.applyModifications(mods);
+    final ModifyOperation modifyOp = mock(ModifyOperation.class);
+    when(modifyOp.getModifications()).thenReturn(mods);
+    backend.replaceEntry(oldEntry, newEntry, modifyOp);
+    return newEntry;
+  }
+
+  private void assertIndexesAreCompleteAndClean() throws Exception
+  {
+    VerifyConfig config = new VerifyConfig();
+    config.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    config.addCompleteIndex("dn2id");
+    for (String indexName : backendIndexes.keySet())
+    {
+      config.addCompleteIndex(indexName);
+    }
+    assertThat(backend.verifyBackend(config)).isEqualTo(0);
+
+    config = new VerifyConfig();
+    config.setBaseDN(DN.valueOf("dc=test,dc=com"));
+    config.addCleanIndex("dn2id");
+    for (String indexName : backendIndexes.keySet())
+    {
+      config.addCleanIndex(indexName);
+    }
+    assertThat(backend.verifyBackend(config)).isEqualTo(0);
+  }
+
   @Test
   public void testVerifyID2ChildrenCount() throws Exception
   {
@@ -50,6 +50,7 @@ import static org.forgerock.opendj.ldap.requests.Requests.*;
 import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.protocols.internal.Requests.*;
 import static org.opends.server.types.NullOutputStream.nullPrintStream;
+import static org.opends.server.util.CollectionUtils.*;
 import static org.opends.server.util.ServerConstants.*;
 import static org.testng.Assert.*;
 
@@ -200,6 +201,54 @@ public class GroupManagerTestCase
     assertTrue(group1Instance.isMember(user5DN));
   }
 
+  /**
+   * Tests the retrieval of the groups of an entry through the reverse
+   * membership index, including nested static and dynamic groups.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test
+  public void testGetGroupInstancesOfEntry() throws Exception {
+    TestCaseUtils.initializeTestBackend(true);
+    GroupManager groupManager = DirectoryServer.getGroupManager();
+    groupManager.deregisterAllGroups();
+    addNestedGroupTestEntries();
+    Group<?> group1Instance = groupManager.getGroupInstance(DN.valueOf("cn=group 1,ou=Groups,o=test"));
+    Group<?> group2Instance = groupManager.getGroupInstance(DN.valueOf("cn=group 2,ou=Groups,o=test"));
+    Group<?> group3Instance = groupManager.getGroupInstance(DN.valueOf("cn=group 3,ou=Groups,o=test"));
+    //Group 4 is a dynamic group.
+    Group<?> group4Instance = groupManager.getGroupInstance(DN.valueOf("cn=group 4,ou=Groups,o=test"));
+    Entry user1Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.1,ou=People,o=test"));
+    Entry user3Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.3,ou=People,o=test"));
+    Entry user5Entry = DirectoryServer.getEntry(DN.valueOf("uid=user.5,ou=People,o=test"));
+    group1Instance.addNestedGroup(group2Instance.getGroupDN());
+    group2Instance.addNestedGroup(group3Instance.getGroupDN());
+    group3Instance.addNestedGroup(group4Instance.getGroupDN());
+    group1Instance.addMember(user1Entry);
+    group3Instance.addMember(user3Entry);
+
+    assertEquals(groupManager.getGroupInstances(user1Entry), newHashSet(group1Instance));
+    assertEquals(groupManager.getGroupInstances(user3Entry),
+        newHashSet(group1Instance, group2Instance, group3Instance));
+    //User 5 is only a member of the dynamic group "group 4".
+    assertEquals(groupManager.getGroupInstances(user5Entry),
+        newHashSet(group1Instance, group2Instance, group3Instance, group4Instance));
+
+    group3Instance.removeMember(user3Entry.getName());
+    assertTrue(groupManager.getGroupInstances(user3Entry).isEmpty());
+    group2Instance.removeNestedGroup(group3Instance.getGroupDN());
+    assertEquals(groupManager.getGroupInstances(user5Entry), newHashSet(group3Instance, group4Instance));
+
+    // Membership changes made through LDAP modify operations are indexed too
+    ModifyRequest modifyRequest = newModifyRequest("cn=group 2,ou=Groups,o=test")
+        .addModification(ADD, "member", "uid=user.3,ou=People,o=test");
+    assertEquals(getRootConnection().processModify(modifyRequest).getResultCode(), ResultCode.SUCCESS);
+    assertEquals(groupManager.getGroupInstances(user3Entry), newHashSet(group1Instance, group2Instance));
+
+    groupManager.deregisterAllGroups();
+    assertTrue(groupManager.getGroupInstances(user5Entry).isEmpty());
+  }
+
   /**
    * Invokes membership and nested group APIs using a group instance that has
    * been changed by the group manager via ldap modify.
@@ -0,0 +1,90 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.extensions.StaticGroup.CompactDn;
+import org.testng.annotations.Test;
+
+import static org.fest.assertions.Assertions.*;
+
+/** This class defines a set of tests for the CompactDnSet class. */
+@SuppressWarnings("javadoc")
+public class CompactDnSetTestCase extends DirectoryServerTestCase {
+
+    private static CompactDn member(int i) {
+        return new CompactDn(DN.valueOf("uid=user." + i + ",ou=People,dc=example,dc=com"));
+    }
+
+    @Test
+    public void testAddContainsRemove() throws Exception {
+        CompactDnSet set = new CompactDnSet();
+        assertThat(set.add(member(1))).isTrue();
+        assertThat(set.add(new CompactDn(DN.valueOf("UID=user.1, ou=People,dc=example,dc=com")))).isFalse();
+        assertThat(set.contains(member(1))).isTrue();
+        assertThat(set.contains(member(2))).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+
+        assertThat(set.remove(member(2))).isFalse();
+        assertThat(set.remove(member(1))).isTrue();
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testCopyAndClear() throws Exception {
+        CompactDnSet set = new CompactDnSet();
+        for (int i = 0; i < 100; i++) {
+            set.add(member(i));
+        }
+        CompactDnSet copy = new CompactDnSet(set);
+        set.clear();
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(copy.size()).isEqualTo(100);
+        assertThat(copy.contains(member(99))).isTrue();
+    }
+
+    /** Randomly adds and removes members, checking the set against a HashSet. */
+    @Test
+    public void testRandomOperations() throws Exception {
+        List<CompactDn> members = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            members.add(member(i));
+        }
+        CompactDnSet set = new CompactDnSet();
+        Set<CompactDn> expected = new HashSet<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++) {
+            CompactDn member = members.get(random.nextInt(members.size()));
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(member)).isEqualTo(expected.remove(member));
+            } else {
+                assertThat(set.add(member)).isEqualTo(expected.add(member));
+            }
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (CompactDn member : members) {
+            assertThat(set.contains(member)).isEqualTo(expected.contains(member));
+        }
+        assertThat(new HashSet<CompactDn>(set)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.forgerock.opendj.config.ConfigurationMock.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.extensions.RingBufferWorkQueue.*;
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.forgerock.opendj.server.config.server.RingBufferWorkQueueCfg;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Operation;
+import org.opends.server.types.OperationType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the ring buffer work queue. */
+@SuppressWarnings("javadoc")
+public class RingBufferWorkQueueTestCase extends ExtensionsTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  private static Operation newOperation(OperationType type)
+  {
+    Operation operation = mock(Operation.class);
+    when(operation.getOperationType()).thenReturn(type);
+    return operation;
+  }
+
+  @Test
+  public void testLaneOfOperation()
+  {
+    assertEquals(laneOf(newOperation(OperationType.BIND)), BIND_LANE);
+    assertEquals(laneOf(newOperation(OperationType.ADD)), WRITE_LANE);
+    assertEquals(laneOf(newOperation(OperationType.DELETE)), WRITE_LANE);
+    assertEquals(laneOf(newOperation(OperationType.MODIFY)), WRITE_LANE);
+    assertEquals(laneOf(newOperation(OperationType.MODIFY_DN)), WRITE_LANE);
+    assertEquals(laneOf(newOperation(OperationType.SEARCH)), OTHER_LANE);
+    assertEquals(laneOf(newOperation(OperationType.COMPARE)), OTHER_LANE);
+    assertEquals(laneOf(newOperation(OperationType.EXTENDED)), OTHER_LANE);
+  }
+
+  @Test
+  public void testLaneIsBoundedFifo()
+  {
+    Lane lane = new Lane(3);
+    assertEquals(lane.capacity(), 4);
+    assertNull(lane.poll());
+
+    Operation[] operations = new Operation[4];
+    for (int i = 0; i < operations.length; i++)
+    {
+      operations[i] = newOperation(OperationType.SEARCH);
+      assertTrue(lane.offer(operations[i]));
+    }
+    assertFalse(lane.offer(newOperation(OperationType.SEARCH)));
+    assertEquals(lane.size(), 4);
+
+    // wrap around the ring
+    assertSame(lane.poll(), operations[0]);
+    assertTrue(lane.offer(operations[0]));
+    assertSame(lane.poll(), operations[1]);
+    assertSame(lane.poll(), operations[2]);
+    assertSame(lane.poll(), operations[3]);
+    assertSame(lane.poll(), operations[0]);
+    assertNull(lane.poll());
+    assertEquals(lane.size(), 0);
+  }
+
+  @Test(timeOut = 60000)
+  public void testLaneConcurrentProducersAndConsumers() throws Exception
+  {
+    final int nbThreads = 4;
+    final int opsPerProducer = 50000;
+    final Operation[] operations = new Operation[16];
+    for (int i = 0; i < operations.length; i++)
+    {
+      operations[i] = newOperation(OperationType.SEARCH);
+    }
+    final Lane lane = new Lane(64);
+    final AtomicLongArray consumed = new AtomicLongArray(operations.length);
+    final CountDownLatch producersDone = new CountDownLatch(nbThreads);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nbThreads; t++)
+    {
+      threads.add(new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          for (int i = 0; i < opsPerProducer; i++)
+          {
+            while (!lane.offer(operations[i % operations.length]))
+            {
+              Thread.yield();
+            }
+          }
+          producersDone.countDown();
+        }
+      }));
+      threads.add(new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          while (true)
+          {
+            Operation operation = lane.poll();
+            if (operation == null)
+            {
+              if (producersDone.getCount() == 0 && lane.size() == 0)
+              {
+                return;
+              }
+              Thread.yield();
+              continue;
+            }
+            for (int i = 0; i < operations.length; i++)
+            {
+              if (operations[i] == operation)
+              {
+                consumed.incrementAndGet(i);
+              }
+            }
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads)
+    {
+      thread.start();
+    }
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    for (int i = 0; i < operations.length; i++)
+    {
+      assertEquals(consumed.get(i), (long) nbThreads * opsPerProducer / operations.length);
+    }
+  }
+
+  @Test(timeOut = 60000)
+  public void testBindsAreProcessedBeforeQueuedSearches() throws Exception
+  {
+    final List<OperationType> processed = Collections.synchronizedList(new ArrayList<OperationType>());
+    final CountDownLatch blockerStarted = new CountDownLatch(1);
+    final CountDownLatch releaseBlocker = new CountDownLatch(1);
+    final CountDownLatch allProcessed = new CountDownLatch(7);
+
+    Operation blocker = newOperation(OperationType.SEARCH);
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        blockerStarted.countDown();
+        releaseBlocker.await();
+        allProcessed.countDown();
+        return null;
+      }
+    }).when(blocker).run();
+
+    List<Operation> operations = new ArrayList<>();
+    for (OperationType type : new OperationType[] { OperationType.SEARCH, OperationType.SEARCH,
+      OperationType.MODIFY, OperationType.SEARCH, OperationType.BIND, OperationType.SEARCH })
+    {
+      final Operation operation = newOperation(type);
+      doAnswer(new Answer<Void>()
+      {
+        @Override
+        public Void answer(InvocationOnMock invocation) throws Throwable
+        {
+          processed.add(operation.getOperationType());
+          allProcessed.countDown();
+          return null;
+        }
+      }).when(operation).run();
+      operations.add(operation);
+    }
+
+    RingBufferWorkQueueCfg cfg = mockCfg(RingBufferWorkQueueCfg.class);
+    when(cfg.getNumWorkerThreads()).thenReturn(1);
+    when(cfg.getMaxWorkQueueCapacity()).thenReturn(16);
+
+    MonitorProvider<? extends MonitorProviderCfg> serverMonitor =
+        DirectoryServer.getMonitorProviders().get("work queue");
+    RingBufferWorkQueue workQueue = new RingBufferWorkQueue();
+    workQueue.initializeWorkQueue(cfg);
+    try
+    {
+      workQueue.submitOperation(blocker);
+      assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+      for (Operation operation : operations)
+      {
+        workQueue.submitOperation(operation);
+      }
+      assertEquals(workQueue.size(), 6);
+      assertEquals(workQueue.size(BIND_LANE), 1);
+      assertEquals(workQueue.size(WRITE_LANE), 1);
+      assertEquals(workQueue.size(OTHER_LANE), 4);
+      assertFalse(workQueue.isIdle());
+
+      releaseBlocker.countDown();
+      assertTrue(allProcessed.await(10, TimeUnit.SECONDS));
+
+      // the bind first, then the write and other lanes alternately
+      assertEquals(processed.get(0), OperationType.BIND);
+      assertTrue(processed.indexOf(OperationType.MODIFY) <= 2, processed.toString());
+      assertEquals(workQueue.getOpsSubmitted(), 7);
+      assertEquals(workQueue.getOpsSubmitted(OTHER_LANE), 5);
+    }
+    finally
+    {
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("end of test"));
+      if (serverMonitor != null)
+      {
+        DirectoryServer.registerMonitorProvider(serverMonitor);
+      }
+    }
+  }
+
+  @Test
+  public void testTrySubmitOperationWhenLaneIsFull() throws Exception
+  {
+    final CountDownLatch releaseBlocker = new CountDownLatch(1);
+    Operation blocker = newOperation(OperationType.SEARCH);
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        releaseBlocker.await();
+        return null;
+      }
+    }).when(blocker).run();
+
+    RingBufferWorkQueueCfg cfg = mockCfg(RingBufferWorkQueueCfg.class);
+    when(cfg.getNumWorkerThreads()).thenReturn(1);
+    when(cfg.getMaxWorkQueueCapacity()).thenReturn(2);
+
+    MonitorProvider<? extends MonitorProviderCfg> serverMonitor =
+        DirectoryServer.getMonitorProviders().get("work queue");
+    RingBufferWorkQueue workQueue = new RingBufferWorkQueue();
+    workQueue.initializeWorkQueue(cfg);
+    try
+    {
+      workQueue.submitOperation(blocker);
+      // wait for the worker thread to pick up the blocker
+      while (workQueue.size() != 0)
+      {
+        Thread.sleep(10);
+      }
+      assertTrue(workQueue.trySubmitOperation(newOperation(OperationType.SEARCH)));
+      assertTrue(workQueue.trySubmitOperation(newOperation(OperationType.SEARCH)));
+      assertFalse(workQueue.trySubmitOperation(newOperation(OperationType.SEARCH)));
+      assertEquals(workQueue.getOpsRejectedDueToQueueFull(), 1);
+
+      // binds have their own lane
+      assertTrue(workQueue.trySubmitOperation(newOperation(OperationType.BIND)));
+    }
+    finally
+    {
+      releaseBlocker.countDown();
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("end of test"));
+      if (serverMonitor != null)
+      {
+        DirectoryServer.registerMonitorProvider(serverMonitor);
+      }
+    }
+  }
+}
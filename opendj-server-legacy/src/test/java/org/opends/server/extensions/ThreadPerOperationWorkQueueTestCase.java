@@ -0,0 +1,207 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.extensions;
+
+import static org.forgerock.opendj.config.ConfigurationMock.*;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.forgerock.opendj.server.config.server.ThreadPerOperationWorkQueueCfg;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.DirectoryServer;
+import org.opends.server.types.Operation;
+import org.opends.server.types.OperationType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** A set of test cases for the thread per operation work queue. */
+@SuppressWarnings("javadoc")
+public class ThreadPerOperationWorkQueueTestCase extends ExtensionsTestCase
+{
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @DataProvider
+  public Object[][] useVirtualThreads()
+  {
+    return new Object[][] { { true }, { false } };
+  }
+
+  private static Operation newOperation(final CountDownLatch started, final CountDownLatch release,
+      final CountDownLatch processed)
+  {
+    Operation operation = mock(Operation.class);
+    when(operation.getOperationType()).thenReturn(OperationType.BIND);
+    doAnswer(new Answer<Void>()
+    {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable
+      {
+        started.countDown();
+        release.await();
+        processed.countDown();
+        return null;
+      }
+    }).when(operation).run();
+    return operation;
+  }
+
+  private static ThreadPerOperationWorkQueueCfg newCfg(int maxConcurrentOperations, int capacity,
+      boolean useVirtualThreads)
+  {
+    ThreadPerOperationWorkQueueCfg cfg = mockCfg(ThreadPerOperationWorkQueueCfg.class);
+    when(cfg.getMaxConcurrentOperations()).thenReturn(maxConcurrentOperations);
+    when(cfg.getMaxWorkQueueCapacity()).thenReturn(capacity);
+    when(cfg.isUseVirtualThreads()).thenReturn(useVirtualThreads);
+    return cfg;
+  }
+
+  @Test(dataProvider = "useVirtualThreads", timeOut = 60000)
+  public void testBlockedOperationsEachHoldTheirOwnThread(boolean useVirtualThreads) throws Exception
+  {
+    final int nbOperations = 500;
+    final CountDownLatch started = new CountDownLatch(nbOperations);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch processed = new CountDownLatch(nbOperations);
+
+    MonitorProvider<? extends MonitorProviderCfg> serverMonitor =
+        DirectoryServer.getMonitorProviders().get("work queue");
+    ThreadPerOperationWorkQueue workQueue = new ThreadPerOperationWorkQueue();
+    workQueue.initializeWorkQueue(newCfg(nbOperations, 16, useVirtualThreads));
+    try
+    {
+      assertEquals(workQueue.isUsingVirtualThreads(),
+          useVirtualThreads && ThreadPerOperationWorkQueue.newVirtualThreadFactory("test") != null);
+      for (int i = 0; i < nbOperations; i++)
+      {
+        workQueue.submitOperation(newOperation(started, release, processed));
+      }
+      // all the operations are blocked at the same time
+      assertTrue(started.await(30, TimeUnit.SECONDS));
+      assertEquals(workQueue.getRunningOperations(), nbOperations);
+      assertEquals(workQueue.size(), 0);
+      assertFalse(workQueue.isIdle());
+
+      release.countDown();
+      assertTrue(processed.await(30, TimeUnit.SECONDS));
+      assertTrue(workQueue.waitUntilIdle(10000));
+      assertEquals(workQueue.getOpsSubmitted(), nbOperations);
+    }
+    finally
+    {
+      release.countDown();
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("end of test"));
+      if (serverMonitor != null)
+      {
+        DirectoryServer.registerMonitorProvider(serverMonitor);
+      }
+    }
+  }
+
+  @Test(timeOut = 60000)
+  public void testOperationsAreQueuedWhenMaxConcurrentOperationsIsReached() throws Exception
+  {
+    final CountDownLatch blockersStarted = new CountDownLatch(2);
+    final CountDownLatch releaseBlockers = new CountDownLatch(1);
+    final CountDownLatch processed = new CountDownLatch(7);
+    final CountDownLatch queuedStarted = new CountDownLatch(5);
+    final CountDownLatch noWait = new CountDownLatch(0);
+
+    MonitorProvider<? extends MonitorProviderCfg> serverMonitor =
+        DirectoryServer.getMonitorProviders().get("work queue");
+    ThreadPerOperationWorkQueue workQueue = new ThreadPerOperationWorkQueue();
+    workQueue.initializeWorkQueue(newCfg(2, 16, true));
+    try
+    {
+      workQueue.submitOperation(newOperation(blockersStarted, releaseBlockers, processed));
+      workQueue.submitOperation(newOperation(blockersStarted, releaseBlockers, processed));
+      assertTrue(blockersStarted.await(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 5; i++)
+      {
+        workQueue.submitOperation(newOperation(queuedStarted, noWait, processed));
+      }
+      assertEquals(workQueue.size(), 5);
+      assertEquals(workQueue.getRunningOperations(), 2);
+      assertEquals(queuedStarted.getCount(), 5);
+
+      releaseBlockers.countDown();
+      assertTrue(processed.await(10, TimeUnit.SECONDS));
+      assertTrue(workQueue.waitUntilIdle(10000));
+      assertEquals(workQueue.getOpsSubmitted(), 7);
+    }
+    finally
+    {
+      releaseBlockers.countDown();
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("end of test"));
+      if (serverMonitor != null)
+      {
+        DirectoryServer.registerMonitorProvider(serverMonitor);
+      }
+    }
+  }
+
+  @Test(timeOut = 60000)
+  public void testTrySubmitOperationWhenQueueIsFull() throws Exception
+  {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch processed = new CountDownLatch(4);
+
+    MonitorProvider<? extends MonitorProviderCfg> serverMonitor =
+        DirectoryServer.getMonitorProviders().get("work queue");
+    ThreadPerOperationWorkQueue workQueue = new ThreadPerOperationWorkQueue();
+    workQueue.initializeWorkQueue(newCfg(1, 2, false));
+    try
+    {
+      workQueue.submitOperation(newOperation(started, release, processed));
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      assertTrue(workQueue.trySubmitOperation(newOperation(started, release, processed)));
+      assertTrue(workQueue.trySubmitOperation(newOperation(started, release, processed)));
+      assertFalse(workQueue.trySubmitOperation(newOperation(started, release, processed)));
+      assertEquals(workQueue.getOpsRejectedDueToQueueFull(), 1);
+
+      // raising the limit on the fly lets the next operation run immediately
+      assertFalse(workQueue.applyConfigurationChange(newCfg(2, 2, false)).adminActionRequired());
+      assertTrue(workQueue.trySubmitOperation(newOperation(started, release, processed)));
+      assertEquals(workQueue.getRunningOperations(), 2);
+
+      release.countDown();
+      assertTrue(processed.await(10, TimeUnit.SECONDS));
+      assertTrue(workQueue.waitUntilIdle(10000));
+    }
+    finally
+    {
+      release.countDown();
+      workQueue.finalizeWorkQueue(LocalizableMessage.raw("end of test"));
+      if (serverMonitor != null)
+      {
+        DirectoryServer.registerMonitorProvider(serverMonitor);
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.TestCaseUtils.*;
+import static org.opends.server.protocols.internal.InternalClientConnection.*;
+
+import java.util.Collections;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.common.ServerState;
+import org.opends.server.replication.protocol.AddMsg;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.LDAPUpdateMsg;
+import org.opends.server.replication.protocol.ModifyDNMsg;
+import org.opends.server.replication.protocol.ModifyMsg;
+import org.opends.server.types.Entry;
+import org.opends.server.types.Modification;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests the dependencies computed between the updates replayed from a replication server. */
+@SuppressWarnings("javadoc")
+public class RemotePendingChangesTest extends ReplicationTestCase
+{
+  private RemotePendingChanges pendingChanges;
+  private CSNGenerator gen;
+
+  @BeforeMethod
+  public void createPendingChanges()
+  {
+    pendingChanges = new RemotePendingChanges(new ServerState());
+    gen = new CSNGenerator(1, 0L);
+  }
+
+  @Test
+  public void addDependsOnAddOfParent() throws Exception
+  {
+    final AddMsg parentAdd = replay(addMsg("ou=people,dc=example,dc=com"));
+    final AddMsg childAdd = replay(addMsg("uid=user.0,ou=people,dc=example,dc=com"));
+    final AddMsg otherAdd = replay(addMsg("ou=groups,dc=example,dc=com"));
+
+    assertThat(hasDependencies(parentAdd)).isFalse();
+    assertThat(hasDependencies(childAdd)).isTrue();
+    assertThat(hasDependencies(otherAdd)).isFalse();
+    assertThat(pendingChanges.getDependentChangesSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void newerChangesAreNotDependencies() throws Exception
+  {
+    final AddMsg childAdd = addMsg("uid=user.0,ou=people,dc=example,dc=com");
+    final AddMsg parentAdd = replay(addMsg("ou=people,dc=example,dc=com"));
+    replay(childAdd);
+
+    assertThat(hasDependencies(childAdd)).isFalse();
+    assertThat(hasDependencies(parentAdd)).isFalse();
+  }
+
+  @Test
+  public void committedChangesAreNotDependencies() throws Exception
+  {
+    final AddMsg parentAdd = replay(addMsg("ou=people,dc=example,dc=com"));
+    pendingChanges.commit(parentAdd.getCSN());
+
+    final AddMsg childAdd = replay(addMsg("uid=user.0,ou=people,dc=example,dc=com"));
+    assertThat(hasDependencies(childAdd)).isFalse();
+  }
+
+  @Test
+  public void deleteDependsOnDeleteOfChildren() throws Exception
+  {
+    final DeleteMsg childDelete = replay(new DeleteMsg(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"),
+        gen.newCSN(), "user.0"));
+    final DeleteMsg parentDelete = replay(new DeleteMsg(DN.valueOf("ou=people,dc=example,dc=com"),
+        gen.newCSN(), "people"));
+    final DeleteMsg otherDelete = replay(new DeleteMsg(DN.valueOf("ou=groups,dc=example,dc=com"),
+        gen.newCSN(), "groups"));
+
+    assertThat(hasDependencies(childDelete)).isFalse();
+    assertThat(hasDependencies(parentDelete)).isTrue();
+    assertThat(hasDependencies(otherDelete)).isFalse();
+  }
+
+  @Test
+  public void modifyDependsOnRenameToItsDN() throws Exception
+  {
+    replay(new ModifyDNMsg(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"), gen.newCSN(), "user.0", null,
+        true, null, "uid=user.1"));
+    final ModifyMsg renamedModify = replay(modifyMsg("uid=user.1,ou=people,dc=example,dc=com"));
+    final ModifyMsg oldNameModify = replay(modifyMsg("uid=user.0,ou=people,dc=example,dc=com"));
+    final ModifyMsg secondModify = replay(modifyMsg("uid=user.0,ou=people,dc=example,dc=com"));
+
+    assertThat(hasDependencies(renamedModify)).isTrue();
+    assertThat(hasDependencies(oldNameModify)).isFalse();
+    assertThat(hasDependencies(secondModify)).isTrue();
+  }
+
+  @Test
+  public void renameDependsOnAddOfNewSuperior() throws Exception
+  {
+    replay(addMsg("ou=groups,dc=example,dc=com"));
+    final ModifyDNMsg move = replay(new ModifyDNMsg(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"),
+        gen.newCSN(), "user.0", "groups", true, "ou=groups,dc=example,dc=com", "uid=user.0"));
+    final ModifyDNMsg rename = replay(new ModifyDNMsg(DN.valueOf("uid=user.1,ou=people,dc=example,dc=com"),
+        gen.newCSN(), "user.1", null, true, null, "uid=user.2"));
+
+    assertThat(pendingChanges.checkDependencies(move)).isTrue();
+    assertThat(pendingChanges.checkDependencies(rename)).isFalse();
+  }
+
+  @Test
+  public void changesRenamedByConflictResolutionAreReindexed() throws Exception
+  {
+    final DeleteMsg delete = replay(new DeleteMsg(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"),
+        gen.newCSN(), "user.0"));
+    delete.setDN(DN.valueOf("uid=user.1,ou=people,dc=example,dc=com"));
+    pendingChanges.updateInProgress(delete);
+    final AddMsg oldNameAdd = replay(addMsg("uid=user.0,ou=people,dc=example,dc=com"));
+    final AddMsg newNameAdd = replay(addMsg("uid=user.1,ou=people,dc=example,dc=com"));
+
+    assertThat(hasDependencies(oldNameAdd)).isFalse();
+    assertThat(hasDependencies(newNameAdd)).isTrue();
+
+    pendingChanges.commit(delete.getCSN());
+    assertThat(hasDependencies(newNameAdd)).isFalse();
+  }
+
+  private <T extends LDAPUpdateMsg> T replay(T msg)
+  {
+    assertThat(pendingChanges.putRemoteUpdate(msg)).isTrue();
+    pendingChanges.markInProgress(msg);
+    return msg;
+  }
+
+  private boolean hasDependencies(LDAPUpdateMsg msg) throws Exception
+  {
+    return pendingChanges.checkDependencies(msg.createOperation(getRootConnection()), msg);
+  }
+
+  private AddMsg addMsg(String dn) throws Exception
+  {
+    final Entry entry = makeEntry(
+        "dn: " + dn,
+        "objectClass: top",
+        "objectClass: extensibleObject");
+    return new AddMsg(gen.newCSN(), entry.getName(), dn, null,
+        entry.getObjectClassAttribute(), entry.getAllAttributes(), null);
+  }
+
+  private ModifyMsg modifyMsg(String dn)
+  {
+    return new ModifyMsg(gen.newCSN(), DN.valueOf(dn), Collections.<Modification> emptyList(), dn);
+  }
+}
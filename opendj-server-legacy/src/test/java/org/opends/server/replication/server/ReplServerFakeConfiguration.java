@@ -61,6 +61,14 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   private long monitoringPeriod = 3000;
   private boolean computeChangenumber;
 
+  /** Changelog group commit. */
+  private boolean changelogGroupCommitEnabled;
+  private long changelogGroupCommitInterval = 2;
+  private int changelogGroupCommitMaxBatchSize = 256;
+
+  /** Number of threads shared by sessions to send messages, 0 for a thread per session. */
+  private int sessionWriterThreads;
+
   /** Constructor without group id, assured info and weight. */
   public ReplServerFakeConfiguration(
       int port, String dirName, int purgeDelay, int serverId, int queueSize, int windowSize, SortedSet<String> servers)
@@ -276,4 +284,48 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
   {
     this.confidentialityEnabled = confidentialityEnabled;
   }
+
+  @Override
+  public boolean isChangelogGroupCommitEnabled()
+  {
+    return changelogGroupCommitEnabled;
+  }
+
+  public void setChangelogGroupCommitEnabled(boolean changelogGroupCommitEnabled)
+  {
+    this.changelogGroupCommitEnabled = changelogGroupCommitEnabled;
+  }
+
+  @Override
+  public long getChangelogGroupCommitInterval()
+  {
+    return changelogGroupCommitInterval;
+  }
+
+  public void setChangelogGroupCommitInterval(long changelogGroupCommitInterval)
+  {
+    this.changelogGroupCommitInterval = changelogGroupCommitInterval;
+  }
+
+  @Override
+  public int getChangelogGroupCommitMaxBatchSize()
+  {
+    return changelogGroupCommitMaxBatchSize;
+  }
+
+  public void setChangelogGroupCommitMaxBatchSize(int changelogGroupCommitMaxBatchSize)
+  {
+    this.changelogGroupCommitMaxBatchSize = changelogGroupCommitMaxBatchSize;
+  }
+
+  @Override
+  public int getSessionWriterThreads()
+  {
+    return sessionWriterThreads;
+  }
+
+  public void setSessionWriterThreads(int sessionWriterThreads)
+  {
+    this.sessionWriterThreads = sessionWriterThreads;
+  }
 }
@@ -21,6 +21,11 @@ import static org.testng.Assert.*;
 
 import org.opends.server.TestCaseUtils;
 import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.ReplicationMsg;
+import org.opends.server.replication.protocol.UpdateMsg;
 import org.opends.server.replication.service.ReplicationBroker;
 import org.forgerock.opendj.ldap.DN;
 import org.testng.annotations.Test;
@@ -68,4 +73,51 @@ public class ReplicationServerDynamicConfTest extends ReplicationTestCase
       remove(replicationServer);
     }
   }
+
+  /** Tests that messages are sent in order when the sessions share a pool of writer threads. */
+  @Test
+  public void sessionWriterPoolTest() throws Exception
+  {
+    TestCaseUtils.startServer();
+
+    ReplicationServer replicationServer = null;
+    ReplicationBroker sender = null;
+    ReplicationBroker receiver = null;
+    try {
+      int port = TestCaseUtils.findFreePort();
+      ReplServerFakeConfiguration conf = new ReplServerFakeConfiguration(port, null, 0, 1, 0, 1000, null);
+      conf.setSessionWriterThreads(1);
+      replicationServer = new ReplicationServer(conf);
+
+      final DN baseDN = DN.valueOf(TEST_ROOT_DN_STRING);
+      // windows large enough to publish all the messages before receiving them
+      sender = openReplicationSession(baseDN, 2, 1000, port, 1000);
+      receiver = openReplicationSession(baseDN, 3, 1000, port, 5000);
+
+      final CSNGenerator gen = new CSNGenerator(2, 0);
+      final CSN[] csns = new CSN[500];
+      for (int i = 0; i < csns.length; i++)
+      {
+        csns[i] = gen.newCSN();
+        sender.publish(new DeleteMsg(baseDN, csns[i], "uid"));
+      }
+
+      int received = 0;
+      while (received < csns.length)
+      {
+        ReplicationMsg msg = receiver.receive();
+        if (msg instanceof UpdateMsg)
+        {
+          receiver.updateWindowAfterReplay();
+          assertEquals(((UpdateMsg) msg).getCSN(), csns[received]);
+          received++;
+        }
+      }
+    }
+    finally
+    {
+      stop(sender, receiver);
+      remove(replicationServer);
+    }
+  }
 }
@@ -139,6 +139,38 @@ public class FileReplicaDBTest extends ReplicationTestCase
     }
   }
 
+  @Test
+  public void testAddWithGroupCommit() throws Exception
+  {
+    ReplicationServer replicationServer = null;
+    FileReplicaDB replicaDB = null;
+    try
+    {
+      TestCaseUtils.startServer();
+      final ReplServerFakeConfiguration cfg =
+          new ReplServerFakeConfiguration(findFreePort(), null, 0, 2, 5000, 100, null);
+      cfg.setChangelogGroupCommitEnabled(true);
+      cfg.setChangelogGroupCommitMaxBatchSize(2);
+      replicationServer = new ReplicationServer(cfg);
+
+      replicaDB = newReplicaDB(replicationServer);
+      CSN[] csns = generateCSNs(1, 0, 3);
+      for (CSN csn : csns)
+      {
+        replicaDB.add(new DeleteMsg(TEST_ROOT_DN, csn, "uid"));
+      }
+
+      // changes are synchronized to the file system before add() returns
+      assertFoundInOrder(replicaDB, csns);
+      assertLimits(replicaDB, csns[0], csns[2]);
+    }
+    finally
+    {
+      shutdown(replicaDB);
+      remove(replicationServer);
+    }
+  }
+
   @Test
   public void testAddAndReadRecords() throws Exception
   {
@@ -0,0 +1,134 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems, LLC.
+ */
+package org.opends.server.replication.server.changelog.file;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.opends.server.replication.server.changelog.file.LogFileTest.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.replication.server.changelog.api.ChangelogException;
+import org.opends.server.replication.server.changelog.file.Log.LogRotationParameters;
+import org.opends.server.util.StaticUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+@Test(sequential=true)
+public class LogGroupCommitTest extends DirectoryServerTestCase
+{
+  /** Use a directory dedicated to this test class. */
+  private static final File LOG_DIRECTORY = new File(TestCaseUtils.getUnitTestRootPath(), "changelog-group-commit");
+
+  @BeforeMethod
+  public void initialize() throws Exception
+  {
+    if (LOG_DIRECTORY.exists())
+    {
+      StaticUtils.recursiveDelete(LOG_DIRECTORY);
+    }
+  }
+
+  private Log<String, String> openLog(String name) throws ChangelogException
+  {
+    final LogRotationParameters rotationParams = new LogRotationParameters(1024, 0, 0);
+    return Log.openLog(mock(ReplicationEnvironment.class), new File(LOG_DIRECTORY, name), RECORD_PARSER,
+        rotationParams);
+  }
+
+  @Test
+  public void testAwaitDurableSingleRecord() throws Exception
+  {
+    final LogGroupCommit groupCommit = new LogGroupCommit();
+    try (Log<String, String> log = openLog("single"))
+    {
+      log.append(Record.from("key001", "value1"));
+      // a long interval must not delay a full batch
+      groupCommit.awaitDurable(log, TimeUnit.MINUTES.toMillis(1), 1);
+      assertThat(log.getNumberOfRecords()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testAwaitDurableOnClosedLog() throws Exception
+  {
+    final LogGroupCommit groupCommit = new LogGroupCommit();
+    final Log<String, String> log = openLog("closed");
+    log.append(Record.from("key001", "value1"));
+    log.close();
+
+    groupCommit.awaitDurable(log, 0, 1);
+  }
+
+  @Test
+  public void testConcurrentAwaitDurable() throws Exception
+  {
+    final int nbLogs = 8;
+    final int nbRecordsPerLog = 50;
+    final LogGroupCommit groupCommit = new LogGroupCommit();
+    final List<Log<String, String>> logs = new ArrayList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(nbLogs);
+    try
+    {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < nbLogs; i++)
+      {
+        final Log<String, String> log = openLog("log" + i);
+        logs.add(log);
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws Exception
+          {
+            for (int j = 1; j <= nbRecordsPerLog; j++)
+            {
+              log.append(Record.from(String.format("key%03d", j), "value" + j));
+              groupCommit.awaitDurable(log, 5, nbLogs / 2);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures)
+      {
+        future.get(30, TimeUnit.SECONDS);
+      }
+
+      for (Log<String, String> log : logs)
+      {
+        assertThat(log.getNumberOfRecords()).isEqualTo(nbRecordsPerLog);
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+      for (Log<String, String> log : logs)
+      {
+        log.close();
+      }
+    }
+  }
+}
@@ -34,6 +34,7 @@ import org.forgerock.i18n.LocalizableMessageBuilder;
 import org.forgerock.i18n.LocalizedIllegalArgumentException;
 import org.forgerock.opendj.ldap.AttributeDescription;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.forgerock.opendj.ldap.schema.CoreSchema;
@@ -738,6 +739,44 @@ public final class TestEntry extends TypesTestCase {
     System.out.println();
   }
 
+  @Test
+  public void testDecodeCompactEncoding() throws Exception
+  {
+    Entry e = TestCaseUtils.makeEntry(
+         "dn: cn=Test User,ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: person",
+         "objectClass: organizationalPerson",
+         "objectClass: inetOrgPerson",
+         "cn: Test User",
+         "cn: Tester",
+         "cn;lang-en-US: Test User",
+         "sn: User",
+         "jpegPhoto:: AAECAwQFBgcICQ==",
+         "creatorsName: cn=Directory Manager",
+         "createTimestamp: 20070101000000Z");
+    ByteStringBuilder buffer = new ByteStringBuilder();
+    e.encode(buffer, new EntryEncodeConfig(false, true, true, DirectoryServer.getDefaultCompressedSchema()));
+
+    Entry decoded = Entry.decode(buffer.toByteString().asReader());
+
+    assertEquals(decoded.getName(), e.getName());
+    assertEquals(decoded.getObjectClasses(), e.getObjectClasses());
+    assertThat(getNames(decoded.getAllAttributes())).isEqualTo(getNames(e.getAllAttributes()));
+    for (Attribute attr : e.getAllAttributes())
+    {
+      Attribute decodedAttr = decoded.getAllAttributes(attr.getAttributeDescription()).iterator().next();
+      assertThat(decodedAttr.isVirtual()).isFalse();
+      assertThat(decodedAttr.size()).isEqualTo(attr.size());
+      assertThat(newArrayList(decodedAttr)).isEqualTo(newArrayList(attr));
+      assertEquals(decodedAttr, attr);
+      assertEquals(decodedAttr.hashCode(), attr.hashCode());
+    }
+    assertTrue(decoded.hasValue(getCNAttributeType(), ByteString.valueOfUtf8("TESTER")));
+    assertTrue(decoded.hasValue(getSNAttributeType(), ByteString.valueOfUtf8("user")));
+    assertFalse(decoded.hasValue(getSNAttributeType(), ByteString.valueOfUtf8("Test User")));
+  }
+
   private List<String> getNames(Iterable<Attribute> allAttributes)
   {
     List<String> results = new ArrayList<>();